@@ -0,0 +1,72 @@
+package org.whistleblower.bench;
+
+import org.hyperledger.fabric.contract.Context;
+import org.whistleblower.ReportStatus;
+import org.whistleblower.WhistleblowerContract;
+import org.whistleblower.WhistleblowerReport;
+import org.whistleblower.emulator.InMemoryChaincodeStub;
+
+import java.time.Instant;
+
+/**
+ * A contract over an InMemoryChaincodeStub preloaded with reports spread
+ * evenly over the four statuses, shared by the contract benchmarks
+ */
+final class BenchmarkLedger {
+
+    static final String[] DEPARTMENTS = {"Finance", "Procurement", "Operations", "HR", "Legal", "IT", "Audit"};
+    static final ReportStatus[] STATUSES = ReportStatus.values();
+
+    final WhistleblowerContract contract = new WhistleblowerContract();
+    final InMemoryChaincodeStub stub = new InMemoryChaincodeStub().setMspId(WhistleblowerContract.DOGE_MSP_ID);
+    final Context ctx = new Context(stub);
+    final int reportCount;
+
+    /**
+     * Submit reportCount reports and move them through the workflow so each
+     * status holds a quarter of them
+     */
+    BenchmarkLedger(final int reportCount) {
+        this.reportCount = reportCount;
+        // Leadership decisions come from DoE; ctx keeps calling as DoGE
+        Context leadership = new Context(stub.setMspId(WhistleblowerContract.DOE_MSP_ID));
+        stub.setMspId(WhistleblowerContract.DOGE_MSP_ID);
+        for (int i = 0; i < reportCount; i++) {
+            String id = reportId(i);
+            transaction("load" + i, i);
+            contract.submitReport(ctx, id, "Report " + i, DEPARTMENTS[i % DEPARTMENTS.length], "anonymous");
+            int stage = i % STATUSES.length;
+            if (stage >= 1) {
+                transaction("assign" + i, i);
+                contract.assignInvestigator(ctx, id, "investigator" + i % 50);
+            }
+            if (stage >= 2) {
+                transaction("findings" + i, i);
+                contract.submitFindings(ctx, id, "Findings for report " + i);
+            }
+            if (stage >= 3) {
+                transaction("review" + i, i);
+                contract.submitLeadershipReview(leadership, id, "Approved");
+            }
+        }
+    }
+
+    void transaction(final String txId, final long timestamp) {
+        stub.nextTransaction(txId, Instant.ofEpochMilli(timestamp));
+    }
+
+    static String reportId(final long i) {
+        return String.format("R%08d", i);
+    }
+
+    static WhistleblowerReport sampleReport(final int i) {
+        WhistleblowerReport report = new WhistleblowerReport(reportId(i),
+                "Irregular payments to a supplier were approved without the required second signature. "
+                        + "The amounts were split to stay below the review threshold.",
+                DEPARTMENTS[i % DEPARTMENTS.length], "anonymous", 1700000000000L + i,
+                STATUSES[i % STATUSES.length], "investigator" + i % 50,
+                "Findings for report " + i, i % 4 == 3 ? "Approved" : "");
+        report.setLastUpdated(1700000000000L + i * 2L);
+        return report;
+    }
+}
@@ -0,0 +1,126 @@
+package org.whistleblower.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.whistleblower.ReportCodec;
+import org.whistleblower.WhistleblowerReport;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+import com.owlike.genson.GenericType;
+import com.owlike.genson.Genson;
+
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Client-side encoding and decoding of one report and of a 100-report list,
+ * ReportCodec against the Genson mapping the contract used before it and
+ * the Gson mapping the client used before it
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CodecBenchmarks {
+
+    private static final int LIST_SIZE = 100;
+
+    private static final Genson genson = new Genson();
+    private static final GenericType<List<WhistleblowerReport>> reportListGenericType =
+            new GenericType<List<WhistleblowerReport>>() {
+            };
+    private static final Gson gson = new GsonBuilder().create();
+    private static final Type reportListType = new TypeToken<List<WhistleblowerReport>>() {
+    }.getType();
+
+    private WhistleblowerReport report;
+    private List<WhistleblowerReport> reports;
+    private byte[] reportBytes;
+    private byte[] listBytes;
+
+    @Setup
+    public void setUp() {
+        report = BenchmarkLedger.sampleReport(1);
+        reports = new ArrayList<>(LIST_SIZE);
+        for (int i = 0; i < LIST_SIZE; i++) {
+            reports.add(BenchmarkLedger.sampleReport(i));
+        }
+        reportBytes = ReportCodec.encode(report);
+        listBytes = ReportCodec.encodeList(reports);
+    }
+
+    @Benchmark
+    public byte[] encodeCodec() {
+        return ReportCodec.encode(report);
+    }
+
+    @Benchmark
+    public byte[] encodeGenson() {
+        return genson.serialize(report).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] encodeGson() {
+        return gson.toJson(report).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public WhistleblowerReport decodeCodec() {
+        return ReportCodec.decode(reportBytes);
+    }
+
+    @Benchmark
+    public WhistleblowerReport decodeGenson() {
+        return genson.deserialize(reportBytes, WhistleblowerReport.class);
+    }
+
+    @Benchmark
+    public WhistleblowerReport decodeGson() {
+        return gson.fromJson(new String(reportBytes, StandardCharsets.UTF_8), WhistleblowerReport.class);
+    }
+
+    @Benchmark
+    public byte[] encodeListCodec() {
+        return ReportCodec.encodeList(reports);
+    }
+
+    @Benchmark
+    public byte[] encodeListGenson() {
+        return genson.serialize(reports).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] encodeListGson() {
+        return gson.toJson(reports).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public List<WhistleblowerReport> decodeListCodec() {
+        return ReportCodec.decodeList(listBytes);
+    }
+
+    @Benchmark
+    public List<WhistleblowerReport> decodeListGenson() {
+        return genson.deserialize(listBytes, reportListGenericType);
+    }
+
+    @Benchmark
+    public List<WhistleblowerReport> decodeListGson() {
+        return gson.fromJson(new String(listBytes, StandardCharsets.UTF_8), reportListType);
+    }
+}
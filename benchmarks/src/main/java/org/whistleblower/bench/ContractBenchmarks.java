@@ -0,0 +1,64 @@
+package org.whistleblower.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single report writes and reads in the contract, on a ledger of the given
+ * number of reports.
+ *
+ * Usage:
+ *   mvn -B package -pl benchmarks -am
+ *   java -jar benchmarks/target/benchmarks.jar -rf json -rff benchmark-results.json
+ *   add -p reports=1000,100000,1000000 for the 1M case (needs about 4 GB heap: -jvmArgs -Xmx4g)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ContractBenchmarks {
+
+    @Param({"1000", "100000"})
+    public int reports;
+
+    private BenchmarkLedger ledger;
+    private long nextId;
+    private long cursor;
+
+    @Setup(Level.Trial)
+    public void load() {
+        ledger = new BenchmarkLedger(reports);
+        nextId = reports;
+    }
+
+    /**
+     * Each put is a fresh ID so the ledger does not stay the same size as
+     * the benchmark runs; the growth is small next to the reports loaded
+     */
+    @Benchmark
+    public String submitReport() {
+        long i = nextId++;
+        ledger.transaction("bench" + i, i);
+        return ledger.contract.submitReport(ledger.ctx, BenchmarkLedger.reportId(i), "Benchmark report " + i,
+                BenchmarkLedger.DEPARTMENTS[(int) (i % BenchmarkLedger.DEPARTMENTS.length)], "anonymous");
+    }
+
+    @Benchmark
+    public String getReport() {
+        return ledger.contract.getReport(ledger.ctx, BenchmarkLedger.reportId(cursor++ % reports));
+    }
+}
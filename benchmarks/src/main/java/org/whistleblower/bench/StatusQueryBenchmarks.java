@@ -0,0 +1,54 @@
+package org.whistleblower.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Status-filtered queries in the contract, whole and one page at a time, on
+ * a ledger of the given number of reports with a quarter in each status
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class StatusQueryBenchmarks {
+
+    private static final int PAGE_SIZE = 100;
+
+    @Param({"1000", "100000"})
+    public int reports;
+
+    @Param({"UNDER_INVESTIGATION", "CLOSED"})
+    public String status;
+
+    private BenchmarkLedger ledger;
+
+    @Setup(Level.Trial)
+    public void load() {
+        ledger = new BenchmarkLedger(reports);
+    }
+
+    @Benchmark
+    public String getReportsByStatus() {
+        return ledger.contract.getReportsByStatus(ledger.ctx, status);
+    }
+
+    @Benchmark
+    public String getReportsByStatusWithPagination() {
+        return ledger.contract.getReportsByStatusWithPagination(ledger.ctx, status, PAGE_SIZE, "");
+    }
+}
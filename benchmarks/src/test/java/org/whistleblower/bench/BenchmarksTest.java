@@ -0,0 +1,86 @@
+package org.whistleblower.bench;
+
+import org.junit.jupiter.api.Test;
+import org.whistleblower.ReportCodec;
+import org.whistleblower.ReportStatus;
+import org.whistleblower.WhistleblowerReport;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The benchmarks measure the operations they are named for, on the data
+ * they describe
+ */
+class BenchmarksTest {
+
+    private static List<WhistleblowerReport> decodeList(final String json) {
+        return ReportCodec.decodeList(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String encode(final List<WhistleblowerReport> reports) {
+        return ReportCodec.encodeListToString(reports);
+    }
+
+    @Test
+    void ledgerHoldsAQuarterOfItsReportsInEachStatus() {
+        BenchmarkLedger ledger = new BenchmarkLedger(400);
+        for (ReportStatus status : ReportStatus.values()) {
+            List<WhistleblowerReport> reports = decodeList(ledger.contract.getReportsByStatus(ledger.ctx,
+                    status.toString()));
+            assertEquals(100, reports.size(), status.toString());
+            assertTrue(reports.stream().allMatch(report -> report.getStatus() == status));
+        }
+    }
+
+    @Test
+    void contractBenchmarksWriteFreshReportsAndReadLoadedOnes() {
+        ContractBenchmarks benchmarks = new ContractBenchmarks();
+        benchmarks.reports = 8;
+        benchmarks.load();
+
+        assertEquals(BenchmarkLedger.reportId(8),
+                ReportCodec.decode(benchmarks.submitReport().getBytes(StandardCharsets.UTF_8)).getId());
+        assertEquals(BenchmarkLedger.reportId(9),
+                ReportCodec.decode(benchmarks.submitReport().getBytes(StandardCharsets.UTF_8)).getId());
+        for (int i = 0; i < 10; i++) {
+            assertEquals(BenchmarkLedger.reportId(i % 8),
+                    ReportCodec.decode(benchmarks.getReport().getBytes(StandardCharsets.UTF_8)).getId());
+        }
+
+        StatusQueryBenchmarks queries = new StatusQueryBenchmarks();
+        queries.reports = 400;
+        queries.status = "CLOSED";
+        queries.load();
+        assertEquals(100, decodeList(queries.getReportsByStatus()).size());
+        assertEquals(100, ReportCodec.decodePage(queries.getReportsByStatusWithPagination()
+                .getBytes(StandardCharsets.UTF_8)).getRecords().size());
+    }
+
+    @Test
+    void codecBenchmarksAgreeAcrossLibraries() {
+        CodecBenchmarks benchmarks = new CodecBenchmarks();
+        benchmarks.setUp();
+
+        String expected = ReportCodec.encodeToString(benchmarks.decodeCodec());
+        assertEquals(expected, ReportCodec.encodeToString(benchmarks.decodeGenson()));
+        assertEquals(expected, ReportCodec.encodeToString(benchmarks.decodeGson()));
+        for (byte[] encoded : List.of(benchmarks.encodeCodec(), benchmarks.encodeGenson(), benchmarks.encodeGson())) {
+            assertEquals(expected, ReportCodec.encodeToString(ReportCodec.decode(encoded)));
+        }
+
+        List<WhistleblowerReport> reports = benchmarks.decodeListCodec();
+        assertEquals(100, reports.size());
+        assertEquals(BenchmarkLedger.reportId(99), reports.get(99).getId());
+        String expectedList = encode(reports);
+        assertEquals(expectedList, encode(benchmarks.decodeListGenson()));
+        assertEquals(expectedList, encode(benchmarks.decodeListGson()));
+        for (byte[] encoded : List.of(benchmarks.encodeListCodec(), benchmarks.encodeListGenson(),
+                benchmarks.encodeListGson())) {
+            assertEquals(expectedList, encode(ReportCodec.decodeList(encoded)));
+        }
+    }
+}
@@ -12,6 +12,7 @@ CC_SRC_PATH=""
 CC_VERSION="1.0"
 CC_SEQUENCE="1"
 CC_INIT_FCN="InitLedger"
+CC_COLL_CONFIG="$(dirname "$0")/collections_config.json"
 DELAY="3"
 MAX_RETRY="5"
 VERBOSE="false"
@@ -26,6 +27,7 @@ function printHelp() {
   echo "    -v <version> - Chaincode version (default \"1.0\")"
   echo "    -s <sequence> - Chaincode definition sequence (default 1)"
   echo "    -i <init function> - Function to call on init (default \"InitLedger\")"
+  echo "    -g <collections config> - Private data collections config (default collections_config.json next to this script; \"\" for none)"
   echo "    -d <delay> - Delay between commands in seconds (default 3)"
   echo "    -r <max retry> - Maximum retry attempts (default 5)"
   echo "    -l - Enable verbose logging"
@@ -36,7 +38,7 @@ function printHelp() {
 }
 
 # Parse command line arguments
-while getopts "h?c:n:p:v:s:i:d:r:l" opt; do
+while getopts "h?c:n:p:v:s:i:g:d:r:l" opt; do
   case "$opt" in
   h | \?)
     printHelp
@@ -60,6 +62,9 @@ while getopts "h?c:n:p:v:s:i:d:r:l" opt; do
   i)
     CC_INIT_FCN=$OPTARG
     ;;
+  g)
+    CC_COLL_CONFIG=$OPTARG
+    ;;
   d)
     DELAY=$OPTARG
     ;;
@@ -79,6 +84,20 @@ if [ -z "$CC_SRC_PATH" ]; then
   exit 1
 fi
 
+# The collections config is part of the chaincode definition, so every org
+# must approve, and the commit must carry, the same file. Its
+# reportPrivateDetails collection holds report descriptions and submitters;
+# DoE and DoGE are its only members, and a submission is endorsed only once
+# the other org's peer also holds the record (requiredPeerCount 1)
+CC_COLL_CONFIG_PARAM=""
+if [ -n "$CC_COLL_CONFIG" ]; then
+  if [ ! -f "$CC_COLL_CONFIG" ]; then
+    echo "Error: Collections config ${CC_COLL_CONFIG} not found"
+    exit 1
+  fi
+  CC_COLL_CONFIG_PARAM="--collections-config ${CC_COLL_CONFIG}"
+fi
+
 # Source the environment variables
 . ./setEnv.sh
 
@@ -92,6 +111,7 @@ if [ "$VERBOSE" = "true" ]; then
   echo "Chaincode version: ${CC_VERSION}"
   echo "Chaincode sequence: ${CC_SEQUENCE}"
   echo "Chaincode init function: ${CC_INIT_FCN}"
+  echo "Collections config: ${CC_COLL_CONFIG}"
   echo "==================================================="
   echo
 fi
@@ -169,7 +189,7 @@ approveForMyOrg() {
   setGlobals $ORG
   
   set -x
-  peer lifecycle chaincode approveformyorg -o localhost:7050 --ordererTLSHostnameOverride orderer.example.com --tls --cafile $ORDERER_CA --channelID $CHANNEL_NAME --name ${CC_NAME} --version ${CC_VERSION} --package-id ${PACKAGE_ID} --sequence ${CC_SEQUENCE} >&log.txt
+  peer lifecycle chaincode approveformyorg -o localhost:7050 --ordererTLSHostnameOverride orderer.example.com --tls --cafile $ORDERER_CA --channelID $CHANNEL_NAME --name ${CC_NAME} --version ${CC_VERSION} --package-id ${PACKAGE_ID} --sequence ${CC_SEQUENCE} ${CC_COLL_CONFIG_PARAM} >&log.txt
   res=$?
   set +x
   cat log.txt
@@ -190,7 +210,7 @@ checkCommitReadiness() {
   setGlobals $ORG
   
   set -x
-  peer lifecycle chaincode checkcommitreadiness --channelID $CHANNEL_NAME --name ${CC_NAME} --version ${CC_VERSION} --sequence ${CC_SEQUENCE} --output json >&log.txt
+  peer lifecycle chaincode checkcommitreadiness --channelID $CHANNEL_NAME --name ${CC_NAME} --version ${CC_VERSION} --sequence ${CC_SEQUENCE} ${CC_COLL_CONFIG_PARAM} --output json >&log.txt
   res=$?
   set +x
   cat log.txt
@@ -216,7 +236,7 @@ commitChaincodeDefinition() {
   fi
   
   set -x
-  peer lifecycle chaincode commit -o localhost:7050 --ordererTLSHostnameOverride orderer.example.com --tls --cafile $ORDERER_CA --channelID $CHANNEL_NAME --name ${CC_NAME} --version ${CC_VERSION} --sequence ${CC_SEQUENCE} ${PEER_CONN_PARMS} >&log.txt
+  peer lifecycle chaincode commit -o localhost:7050 --ordererTLSHostnameOverride orderer.example.com --tls --cafile $ORDERER_CA --channelID $CHANNEL_NAME --name ${CC_NAME} --version ${CC_VERSION} --sequence ${CC_SEQUENCE} ${CC_COLL_CONFIG_PARAM} ${PEER_CONN_PARMS} >&log.txt
   res=$?
   set +x
   cat log.txt
@@ -0,0 +1,155 @@
+#!/bin/bash
+
+# verifyCouchDBIndexes.sh
+# Checks that the whistleblower rich queries are served by the packaged
+# CouchDB indexes rather than by a full database scan
+#
+# Not yet run against a live CouchDB. CouchDBIndexTest checks offline that
+# the query below matches the one the contract builds, and that it selects
+# and sorts on the fields of the index it names.
+
+set -e
+
+# Default values
+COUCHDB_URL="http://localhost:5984"
+COUCHDB_USER="admin"
+COUCHDB_PASSWORD="adminpw"
+DATABASE="whistleblowerchannel_whistleblower"
+INDEX_DIR="META-INF/statedb/couchdb/indexes"
+STANDALONE="false"
+
+# Print the usage message
+function printHelp() {
+  echo "Usage: "
+  echo "  verifyCouchDBIndexes.sh [options]"
+  echo "    -u <url> - CouchDB URL (default \"http://localhost:5984\")"
+  echo "    -d <database> - State database name (default \"whistleblowerchannel_whistleblower\")"
+  echo "    -s - Standalone mode: load the indexes and sample reports into a scratch"
+  echo "         database on any CouchDB instance instead of using the peer's state database"
+  echo "    -h - Print this help message"
+  echo
+  echo "Example: "
+  echo "  docker run -d --name couchdb-check -p 5984:5984 -e COUCHDB_USER=admin -e COUCHDB_PASSWORD=adminpw couchdb:3.1.1"
+  echo "  verifyCouchDBIndexes.sh -s"
+}
+
+# Parse command line arguments
+while getopts "h?u:d:s" opt; do
+  case "$opt" in
+  h | \?)
+    printHelp
+    exit 0
+    ;;
+  u)
+    COUCHDB_URL=$OPTARG
+    ;;
+  d)
+    DATABASE=$OPTARG
+    ;;
+  s)
+    STANDALONE=true
+    DATABASE="whistleblower_index_check"
+    ;;
+  esac
+done
+
+# Issue a request against CouchDB and print the response body
+couch() {
+  METHOD=$1
+  URL_PATH=$2
+  BODY=$3
+  if [ -n "$BODY" ]; then
+    curl -s -u "${COUCHDB_USER}:${COUCHDB_PASSWORD}" -X ${METHOD} -H "Content-Type: application/json" \
+      -d "${BODY}" "${COUCHDB_URL}/${URL_PATH}"
+  else
+    curl -s -u "${COUCHDB_USER}:${COUCHDB_PASSWORD}" -X ${METHOD} "${COUCHDB_URL}/${URL_PATH}"
+  fi
+}
+
+# Create a scratch database holding the packaged indexes and a few reports
+setupStandalone() {
+  echo "Creating scratch database ${DATABASE}..."
+  couch DELETE "${DATABASE}" >/dev/null
+  couch PUT "${DATABASE}" >/dev/null
+
+  for INDEX_FILE in ${INDEX_DIR}/*.json; do
+    echo "Loading index ${INDEX_FILE}..."
+    couch POST "${DATABASE}/_index" "$(cat ${INDEX_FILE})"
+    echo
+  done
+
+  STATUSES="SUBMITTED UNDER_INVESTIGATION PENDING_REVIEW CLOSED"
+  DOCS=""
+  for i in $(seq 1 200); do
+    set -- $STATUSES
+    shift $((i % 4))
+    STATUS=$1
+    DOC="{\"_id\":\"R${i}\",\"id\":\"R${i}\",\"description\":\"report ${i}\",\"department\":\"dept$((i % 7))\",\"submittedBy\":\"anon\",\"submittedAt\":${i},\"status\":\"${STATUS}\",\"investigatorId\":\"inv$((i % 5))\",\"findings\":\"\",\"leadershipDecision\":\"\",\"lastUpdated\":$((1000 + i))}"
+    DOCS="${DOCS}${DOCS:+,}${DOC}"
+  done
+  couch POST "${DATABASE}/_bulk_docs" "{\"docs\":[${DOCS}]}" >/dev/null
+  echo "Sample reports loaded"
+}
+
+# Explain and run the query issued by the contract for one index, and fail
+# unless CouchDB picked that index without warnings
+verifyIndex() {
+  INDEX_FILE=$1
+  FIELD=$(sed -n 's/.*"fields": *\[ *"\([^"]*\)".*/\1/p' ${INDEX_FILE})
+  DDOC=$(sed -n 's/.*"ddoc": *"\([^"]*\)".*/\1/p' ${INDEX_FILE})
+  NAME=$(sed -n 's/.*"name": *"\([^"]*\)".*/\1/p' ${INDEX_FILE})
+
+  if [ "${FIELD}" = "status" ]; then
+    VALUE="SUBMITTED"
+  elif [ "${FIELD}" = "investigatorId" ]; then
+    VALUE="inv1"
+  else
+    VALUE="dept1"
+  fi
+
+  # Same shape as WhistleblowerContract.buildIndexedQuery, plus a limit;
+  # CouchDBIndexTest fails if the two drift apart
+  QUERY="{\"selector\":{\"${FIELD}\":\"${VALUE}\",\"lastUpdated\":{\"\$gte\":0}},\"sort\":[{\"${FIELD}\":\"desc\"},{\"lastUpdated\":\"desc\"}],\"use_index\":[\"_design/${DDOC}\",\"${NAME}\"],\"limit\":10}"
+
+  echo "Checking ${NAME} on field ${FIELD}..."
+  EXPLAIN=$(couch POST "${DATABASE}/_explain" "${QUERY}")
+  if ! echo "${EXPLAIN}" | grep -q "\"ddoc\":\"_design/${DDOC}\""; then
+    echo "Error: query on ${FIELD} did not use index ${NAME}"
+    echo "${EXPLAIN}"
+    exit 1
+  fi
+
+  RESULT=$(couch POST "${DATABASE}/_find" "${QUERY}")
+  if echo "${RESULT}" | grep -q "\"warning\""; then
+    echo "Error: query on ${FIELD} returned a warning"
+    echo "${RESULT}"
+    exit 1
+  fi
+  if echo "${RESULT}" | grep -q "\"error\""; then
+    echo "Error: query on ${FIELD} failed"
+    echo "${RESULT}"
+    exit 1
+  fi
+  echo "Index ${NAME} is used for queries on ${FIELD}"
+}
+
+main() {
+  echo "==== Verifying CouchDB indexes ===="
+
+  if [ "$STANDALONE" = "true" ]; then
+    setupStandalone
+  fi
+
+  for INDEX_FILE in ${INDEX_DIR}/*.json; do
+    verifyIndex ${INDEX_FILE}
+  done
+
+  if [ "$STANDALONE" = "true" ]; then
+    couch DELETE "${DATABASE}" >/dev/null
+  fi
+
+  echo "==== All indexes verified ===="
+}
+
+# Execute the main function
+main
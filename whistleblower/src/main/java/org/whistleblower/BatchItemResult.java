@@ -0,0 +1,73 @@
+package org.whistleblower;
+
+import com.owlike.genson.annotation.JsonProperty;
+
+/**
+ * Outcome of one item in a batch transaction. Failed items carry the error
+ * code and message; they are skipped without failing the rest of the batch.
+ */
+public class BatchItemResult {
+
+    private String id;
+
+    private boolean success;
+
+    private String errorCode;
+
+    private String message;
+
+    public BatchItemResult() {
+        // Empty constructor required for deserialization
+    }
+
+    public BatchItemResult(
+            @JsonProperty("id") final String id,
+            @JsonProperty("success") final boolean success,
+            @JsonProperty("errorCode") final String errorCode,
+            @JsonProperty("message") final String message) {
+        this.id = id;
+        this.success = success;
+        this.errorCode = errorCode;
+        this.message = message;
+    }
+
+    public static BatchItemResult ok(final String id) {
+        return new BatchItemResult(id, true, "", "");
+    }
+
+    public static BatchItemResult failed(final String id, final String errorCode, final String message) {
+        return new BatchItemResult(id, false, errorCode, message);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(final String id) {
+        this.id = id;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public void setSuccess(final boolean success) {
+        this.success = success;
+    }
+
+    public String getErrorCode() {
+        return errorCode;
+    }
+
+    public void setErrorCode(final String errorCode) {
+        this.errorCode = errorCode;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(final String message) {
+        this.message = message;
+    }
+}
@@ -0,0 +1,40 @@
+package org.whistleblower;
+
+import com.owlike.genson.annotation.JsonProperty;
+
+/**
+ * One entry of a bulk investigator assignment
+ */
+public class InvestigatorAssignment {
+
+    private String reportId;
+
+    private String investigatorId;
+
+    public InvestigatorAssignment() {
+        // Empty constructor required for deserialization
+    }
+
+    public InvestigatorAssignment(
+            @JsonProperty("reportId") final String reportId,
+            @JsonProperty("investigatorId") final String investigatorId) {
+        this.reportId = reportId;
+        this.investigatorId = investigatorId;
+    }
+
+    public String getReportId() {
+        return reportId;
+    }
+
+    public void setReportId(final String reportId) {
+        this.reportId = reportId;
+    }
+
+    public String getInvestigatorId() {
+        return investigatorId;
+    }
+
+    public void setInvestigatorId(final String investigatorId) {
+        this.investigatorId = investigatorId;
+    }
+}
@@ -0,0 +1,1004 @@
+package org.whistleblower;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Hand-written JSON codec for WhistleblowerReport, lists of reports and
+ * report pages, and their ReportSummary counterparts, shared by the
+ * contract and the client.
+ *
+ * Decoding works on the UTF-8 bytes directly: field names are matched
+ * byte-for-byte, strings without escapes are decoded straight from the
+ * buffer, and status values resolve to the shared ReportStatus constants
+ * without allocating. Unknown fields are skipped.
+ *
+ * Encoding writes the same field names Genson produces, in the same
+ * alphabetical order, so state written by earlier versions and by this
+ * codec is byte-identical and readable by any JSON client. The digest and
+ * length of a text field stored under its own key, and the private details
+ * hash, are written only when set, so reports without them are unchanged.
+ */
+public final class ReportCodec {
+
+    private static final int DEPARTMENT = 0;
+    private static final int DESCRIPTION = 1;
+    private static final int DESCRIPTION_DIGEST = 2;
+    private static final int DESCRIPTION_LENGTH = 3;
+    private static final int FINDINGS = 4;
+    private static final int FINDINGS_DIGEST = 5;
+    private static final int FINDINGS_LENGTH = 6;
+    private static final int ID = 7;
+    private static final int INVESTIGATOR_ID = 8;
+    private static final int LAST_UPDATED = 9;
+    private static final int LEADERSHIP_DECISION = 10;
+    private static final int PRIVATE_DETAILS_HASH = 11;
+    private static final int STATUS = 12;
+    private static final int SUBMITTED_AT = 13;
+    private static final int SUBMITTED_BY = 14;
+
+    private static final byte[][] REPORT_FIELDS = names(
+            "department", "description", "descriptionDigest", "descriptionLength", "findings",
+            "findingsDigest", "findingsLength", "id", "investigatorId", "lastUpdated",
+            "leadershipDecision", "privateDetailsHash", "status", "submittedAt", "submittedBy");
+
+    private static final int SUMMARY_DEPARTMENT = 0;
+    private static final int SUMMARY_ID = 1;
+    private static final int SUMMARY_INVESTIGATOR_ID = 2;
+    private static final int SUMMARY_LAST_UPDATED = 3;
+    private static final int SUMMARY_LEADERSHIP_DECISION = 4;
+    private static final int SUMMARY_STATUS = 5;
+
+    private static final byte[][] SUMMARY_FIELDS = names(
+            "department", "id", "investigatorId", "lastUpdated", "leadershipDecision", "status");
+
+    private static final int PAGE_BOOKMARK = 0;
+    private static final int PAGE_FETCHED_RECORDS_COUNT = 1;
+    private static final int PAGE_RECORDS = 2;
+
+    private static final byte[][] PAGE_FIELDS = names("bookmark", "fetchedRecordsCount", "records");
+
+    private static final byte[][] NO_FIELDS = new byte[0][];
+
+    private static final ReportStatus[] STATUSES = ReportStatus.values();
+    private static final byte[][] STATUS_NAMES = new byte[STATUSES.length][];
+
+    static {
+        for (int i = 0; i < STATUSES.length; i++) {
+            STATUS_NAMES[i] = STATUSES[i].name().getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    private ReportCodec() {
+    }
+
+    public static byte[] encode(final WhistleblowerReport report) {
+        JsonWriter writer = new JsonWriter(256);
+        writeReport(writer, report);
+        return writer.toByteArray();
+    }
+
+    public static String encodeToString(final WhistleblowerReport report) {
+        JsonWriter writer = new JsonWriter(256);
+        writeReport(writer, report);
+        return writer.toUtf8String();
+    }
+
+    public static byte[] encodeList(final List<WhistleblowerReport> reports) {
+        JsonWriter writer = new JsonWriter(256 * Math.max(1, reports.size()));
+        writeList(writer, reports);
+        return writer.toByteArray();
+    }
+
+    public static String encodeListToString(final List<WhistleblowerReport> reports) {
+        JsonWriter writer = new JsonWriter(256 * Math.max(1, reports.size()));
+        writeList(writer, reports);
+        return writer.toUtf8String();
+    }
+
+    public static String encodePageToString(final ReportPage page) {
+        List<WhistleblowerReport> records = page.getRecords();
+        JsonWriter writer = new JsonWriter(256 * Math.max(1, records == null ? 0 : records.size()));
+        writer.raw('{');
+        writer.field("bookmark").string(page.getBookmark());
+        writer.raw(',');
+        writer.field("fetchedRecordsCount").number(page.getFetchedRecordsCount());
+        writer.raw(',');
+        writer.field("records");
+        if (records == null) {
+            writer.nullValue();
+        } else {
+            writeList(writer, records);
+        }
+        writer.raw('}');
+        return writer.toUtf8String();
+    }
+
+    /**
+     * Encode reports as a JSON array of ReportSummary, written straight from
+     * the reports without building the summaries
+     */
+    public static String encodeSummaryListToString(final List<WhistleblowerReport> reports) {
+        JsonWriter writer = new JsonWriter(96 * Math.max(1, reports.size()));
+        writeSummaryList(writer, reports);
+        return writer.toUtf8String();
+    }
+
+    /**
+     * Encode a page of reports as a page of ReportSummary
+     */
+    public static String encodeSummaryPageToString(final ReportPage page) {
+        List<WhistleblowerReport> records = page.getRecords();
+        JsonWriter writer = new JsonWriter(96 * Math.max(1, records == null ? 0 : records.size()));
+        writer.raw('{');
+        writer.field("bookmark").string(page.getBookmark());
+        writer.raw(',');
+        writer.field("fetchedRecordsCount").number(page.getFetchedRecordsCount());
+        writer.raw(',');
+        writer.field("records");
+        if (records == null) {
+            writer.nullValue();
+        } else {
+            writeSummaryList(writer, records);
+        }
+        writer.raw('}');
+        return writer.toUtf8String();
+    }
+
+    public static WhistleblowerReport decode(final byte[] bytes) {
+        JsonReader reader = new JsonReader(bytes);
+        WhistleblowerReport report = readReport(reader);
+        reader.expectEnd();
+        return report;
+    }
+
+    public static List<WhistleblowerReport> decodeList(final byte[] bytes) {
+        JsonReader reader = new JsonReader(bytes);
+        List<WhistleblowerReport> reports = readList(reader);
+        reader.expectEnd();
+        return reports;
+    }
+
+    /**
+     * Decode a JSON array of reports one element at a time. Only the element
+     * being consumed is materialized, so a consumer that does not keep the
+     * reports runs in memory independent of the array length.
+     */
+    public static Stream<WhistleblowerReport> streamList(final byte[] bytes) {
+        return StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(new ListIterator(bytes), Spliterator.ORDERED), false);
+    }
+
+    /**
+     * Decode a JSON array of reports, handing each element to the visitor as
+     * soon as it is decoded
+     */
+    public static void forEachInList(final byte[] bytes, final Consumer<WhistleblowerReport> visitor) {
+        ListIterator iterator = new ListIterator(bytes);
+        while (iterator.hasNext()) {
+            visitor.accept(iterator.next());
+        }
+    }
+
+    public static List<ReportSummary> decodeSummaryList(final byte[] bytes) {
+        JsonReader reader = new JsonReader(bytes);
+        List<ReportSummary> summaries = readSummaryList(reader);
+        reader.expectEnd();
+        return summaries;
+    }
+
+    public static ReportSummaryPage decodeSummaryPage(final byte[] bytes) {
+        JsonReader reader = new JsonReader(bytes);
+        if (reader.readNull()) {
+            reader.expectEnd();
+            return null;
+        }
+
+        ReportSummaryPage page = new ReportSummaryPage();
+        reader.beginObject();
+        while (reader.hasNextField()) {
+            switch (reader.readFieldName(PAGE_FIELDS)) {
+                case PAGE_BOOKMARK:
+                    page.setBookmark(reader.readString());
+                    break;
+                case PAGE_FETCHED_RECORDS_COUNT:
+                    page.setFetchedRecordsCount((int) reader.readLong());
+                    break;
+                case PAGE_RECORDS:
+                    page.setRecords(readSummaryList(reader));
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.expectEnd();
+        return page;
+    }
+
+    public static ReportPage decodePage(final byte[] bytes) {
+        JsonReader reader = new JsonReader(bytes);
+        if (reader.readNull()) {
+            reader.expectEnd();
+            return null;
+        }
+
+        ReportPage page = new ReportPage();
+        reader.beginObject();
+        while (reader.hasNextField()) {
+            switch (reader.readFieldName(PAGE_FIELDS)) {
+                case PAGE_BOOKMARK:
+                    page.setBookmark(reader.readString());
+                    break;
+                case PAGE_FETCHED_RECORDS_COUNT:
+                    page.setFetchedRecordsCount((int) reader.readLong());
+                    break;
+                case PAGE_RECORDS:
+                    page.setRecords(readList(reader));
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.expectEnd();
+        return page;
+    }
+
+    private static void writeList(final JsonWriter writer, final List<WhistleblowerReport> reports) {
+        writer.raw('[');
+        for (int i = 0; i < reports.size(); i++) {
+            if (i > 0) {
+                writer.raw(',');
+            }
+            writeReport(writer, reports.get(i));
+        }
+        writer.raw(']');
+    }
+
+    private static void writeReport(final JsonWriter writer, final WhistleblowerReport report) {
+        if (report == null) {
+            writer.nullValue();
+            return;
+        }
+        writer.raw('{');
+        writer.field("department").string(report.getDepartment());
+        writer.raw(',');
+        writer.field("description").string(report.getDescription());
+        writer.raw(',');
+        if (report.getDescriptionDigest() != null) {
+            writer.field("descriptionDigest").string(report.getDescriptionDigest());
+            writer.raw(',');
+            writer.field("descriptionLength").number(report.getDescriptionLength());
+            writer.raw(',');
+        }
+        writer.field("findings").string(report.getFindings());
+        writer.raw(',');
+        if (report.getFindingsDigest() != null) {
+            writer.field("findingsDigest").string(report.getFindingsDigest());
+            writer.raw(',');
+            writer.field("findingsLength").number(report.getFindingsLength());
+            writer.raw(',');
+        }
+        writer.field("id").string(report.getId());
+        writer.raw(',');
+        writer.field("investigatorId").string(report.getInvestigatorId());
+        writer.raw(',');
+        writer.field("lastUpdated").number(report.getLastUpdated());
+        writer.raw(',');
+        writer.field("leadershipDecision").string(report.getLeadershipDecision());
+        writer.raw(',');
+        if (report.getPrivateDetailsHash() != null) {
+            writer.field("privateDetailsHash").string(report.getPrivateDetailsHash());
+            writer.raw(',');
+        }
+        writer.field("status").string(report.getStatus() == null ? null : report.getStatus().name());
+        writer.raw(',');
+        writer.field("submittedAt").number(report.getSubmittedAt());
+        writer.raw(',');
+        writer.field("submittedBy").string(report.getSubmittedBy());
+        writer.raw('}');
+    }
+
+    private static void writeSummaryList(final JsonWriter writer, final List<WhistleblowerReport> reports) {
+        writer.raw('[');
+        for (int i = 0; i < reports.size(); i++) {
+            if (i > 0) {
+                writer.raw(',');
+            }
+            writeSummary(writer, reports.get(i));
+        }
+        writer.raw(']');
+    }
+
+    private static void writeSummary(final JsonWriter writer, final WhistleblowerReport report) {
+        if (report == null) {
+            writer.nullValue();
+            return;
+        }
+        writer.raw('{');
+        writer.field("department").string(report.getDepartment());
+        writer.raw(',');
+        writer.field("id").string(report.getId());
+        writer.raw(',');
+        writer.field("investigatorId").string(report.getInvestigatorId());
+        writer.raw(',');
+        writer.field("lastUpdated").number(report.getLastUpdated());
+        writer.raw(',');
+        writer.field("leadershipDecision").string(report.getLeadershipDecision());
+        writer.raw(',');
+        writer.field("status").string(report.getStatus() == null ? null : report.getStatus().name());
+        writer.raw('}');
+    }
+
+    private static List<ReportSummary> readSummaryList(final JsonReader reader) {
+        if (reader.readNull()) {
+            return null;
+        }
+        List<ReportSummary> summaries = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNextElement()) {
+            summaries.add(readSummary(reader));
+        }
+        return summaries;
+    }
+
+    private static ReportSummary readSummary(final JsonReader reader) {
+        if (reader.readNull()) {
+            return null;
+        }
+
+        ReportSummary summary = new ReportSummary();
+        reader.beginObject();
+        while (reader.hasNextField()) {
+            switch (reader.readFieldName(SUMMARY_FIELDS)) {
+                case SUMMARY_DEPARTMENT:
+                    summary.setDepartment(reader.readString());
+                    break;
+                case SUMMARY_ID:
+                    summary.setId(reader.readString());
+                    break;
+                case SUMMARY_INVESTIGATOR_ID:
+                    summary.setInvestigatorId(reader.readString());
+                    break;
+                case SUMMARY_LAST_UPDATED:
+                    summary.setLastUpdated(reader.readLong());
+                    break;
+                case SUMMARY_LEADERSHIP_DECISION:
+                    summary.setLeadershipDecision(reader.readString());
+                    break;
+                case SUMMARY_STATUS:
+                    summary.setStatus(reader.readStatus());
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        return summary;
+    }
+
+    static List<WhistleblowerReport> readList(final JsonReader reader) {
+        if (reader.readNull()) {
+            return null;
+        }
+        List<WhistleblowerReport> reports = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNextElement()) {
+            reports.add(readReport(reader));
+        }
+        return reports;
+    }
+
+    static WhistleblowerReport readReport(final JsonReader reader) {
+        if (reader.readNull()) {
+            return null;
+        }
+
+        WhistleblowerReport report = new WhistleblowerReport();
+        reader.beginObject();
+        while (reader.hasNextField()) {
+            switch (reader.readFieldName(REPORT_FIELDS)) {
+                case DEPARTMENT:
+                    report.setDepartment(reader.readString());
+                    break;
+                case DESCRIPTION:
+                    report.setDescription(reader.readString());
+                    break;
+                case DESCRIPTION_DIGEST:
+                    report.setDescriptionDigest(reader.readString());
+                    break;
+                case DESCRIPTION_LENGTH:
+                    report.setDescriptionLength(reader.readLong());
+                    break;
+                case FINDINGS:
+                    report.setFindings(reader.readString());
+                    break;
+                case FINDINGS_DIGEST:
+                    report.setFindingsDigest(reader.readString());
+                    break;
+                case FINDINGS_LENGTH:
+                    report.setFindingsLength(reader.readLong());
+                    break;
+                case ID:
+                    report.setId(reader.readString());
+                    break;
+                case INVESTIGATOR_ID:
+                    report.setInvestigatorId(reader.readString());
+                    break;
+                case LAST_UPDATED:
+                    report.setLastUpdated(reader.readLong());
+                    break;
+                case LEADERSHIP_DECISION:
+                    report.setLeadershipDecision(reader.readString());
+                    break;
+                case PRIVATE_DETAILS_HASH:
+                    report.setPrivateDetailsHash(reader.readString());
+                    break;
+                case STATUS:
+                    report.setStatus(reader.readStatus());
+                    break;
+                case SUBMITTED_AT:
+                    report.setSubmittedAt(reader.readLong());
+                    break;
+                case SUBMITTED_BY:
+                    report.setSubmittedBy(reader.readString());
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        return report;
+    }
+
+    /**
+     * Lazily decodes the elements of a JSON array of reports
+     */
+    private static final class ListIterator implements Iterator<WhistleblowerReport> {
+
+        private final JsonReader reader;
+        private boolean started;
+        private boolean ready;
+        private boolean done;
+
+        ListIterator(final byte[] bytes) {
+            this.reader = new JsonReader(bytes);
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (ready) {
+                return true;
+            }
+            if (done) {
+                return false;
+            }
+            if (!started) {
+                started = true;
+                if (reader.readNull()) {
+                    reader.expectEnd();
+                    done = true;
+                    return false;
+                }
+                reader.beginArray();
+            }
+            if (reader.hasNextElement()) {
+                ready = true;
+            } else {
+                reader.expectEnd();
+                done = true;
+            }
+            return ready;
+        }
+
+        @Override
+        public WhistleblowerReport next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            ready = false;
+            return readReport(reader);
+        }
+    }
+
+    private static byte[][] names(final String... names) {
+        byte[][] bytes = new byte[names.length][];
+        for (int i = 0; i < names.length; i++) {
+            bytes[i] = names[i].getBytes(StandardCharsets.UTF_8);
+        }
+        return bytes;
+    }
+
+    /**
+     * Growable UTF-8 output buffer
+     */
+    static final class JsonWriter {
+
+        private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+        private static final byte[] NULL = "null".getBytes(StandardCharsets.US_ASCII);
+
+        private byte[] buffer;
+        private int size;
+
+        JsonWriter(final int initialCapacity) {
+            this.buffer = new byte[Math.max(16, initialCapacity)];
+        }
+
+        JsonWriter raw(final char c) {
+            ensure(1);
+            buffer[size++] = (byte) c;
+            return this;
+        }
+
+        JsonWriter field(final String name) {
+            string(name);
+            return raw(':');
+        }
+
+        JsonWriter nullValue() {
+            ensure(NULL.length);
+            System.arraycopy(NULL, 0, buffer, size, NULL.length);
+            size += NULL.length;
+            return this;
+        }
+
+        JsonWriter number(final long value) {
+            String digits = Long.toString(value);
+            ensure(digits.length());
+            for (int i = 0; i < digits.length(); i++) {
+                buffer[size++] = (byte) digits.charAt(i);
+            }
+            return this;
+        }
+
+        JsonWriter string(final String value) {
+            if (value == null) {
+                return nullValue();
+            }
+            // Worst case is six bytes per char for \\u escapes
+            ensure(value.length() * 6 + 2);
+            buffer[size++] = '"';
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"' || c == '\\') {
+                    buffer[size++] = '\\';
+                    buffer[size++] = (byte) c;
+                } else if (c < 0x20) {
+                    escapeControl(c);
+                } else if (c == '\u2028' || c == '\u2029') {
+                    // Line and paragraph separators are escaped, as Genson does
+                    buffer[size++] = '\\';
+                    buffer[size++] = 'u';
+                    buffer[size++] = '2';
+                    buffer[size++] = '0';
+                    buffer[size++] = '2';
+                    buffer[size++] = HEX[c & 0xF];
+                } else if (c < 0x80) {
+                    buffer[size++] = (byte) c;
+                } else if (c < 0x800) {
+                    buffer[size++] = (byte) (0xC0 | (c >> 6));
+                    buffer[size++] = (byte) (0x80 | (c & 0x3F));
+                } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                        && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                    buffer[size++] = (byte) (0xF0 | (codePoint >> 18));
+                    buffer[size++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                    buffer[size++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                    buffer[size++] = (byte) (0x80 | (codePoint & 0x3F));
+                } else if (Character.isSurrogate(c)) {
+                    // Unpaired surrogate, replaced the way String.getBytes does
+                    buffer[size++] = '?';
+                } else {
+                    buffer[size++] = (byte) (0xE0 | (c >> 12));
+                    buffer[size++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                    buffer[size++] = (byte) (0x80 | (c & 0x3F));
+                }
+            }
+            buffer[size++] = '"';
+            return this;
+        }
+
+        private void escapeControl(final char c) {
+            buffer[size++] = '\\';
+            switch (c) {
+                case '\n':
+                    buffer[size++] = 'n';
+                    break;
+                case '\r':
+                    buffer[size++] = 'r';
+                    break;
+                case '\t':
+                    buffer[size++] = 't';
+                    break;
+                case '\b':
+                    buffer[size++] = 'b';
+                    break;
+                case '\f':
+                    buffer[size++] = 'f';
+                    break;
+                default:
+                    buffer[size++] = 'u';
+                    buffer[size++] = '0';
+                    buffer[size++] = '0';
+                    buffer[size++] = HEX[c >> 4];
+                    buffer[size++] = HEX[c & 0xF];
+            }
+        }
+
+        private void ensure(final int extra) {
+            if (size + extra > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + extra));
+            }
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, size);
+        }
+
+        String toUtf8String() {
+            return new String(buffer, 0, size, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Pull parser over a UTF-8 JSON buffer
+     */
+    static final class JsonReader {
+
+        private final byte[] bytes;
+        private int pos;
+        // Whether the current object or array has had a member yet, tracked
+        // per nesting level so commas can be validated
+        private boolean[] started = new boolean[8];
+        private int depth;
+
+        JsonReader(final byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        void beginObject() {
+            expect('{');
+            push();
+        }
+
+        void beginArray() {
+            expect('[');
+            push();
+        }
+
+        /**
+         * Advance to the next field of the current object, or consume the
+         * closing brace and return false
+         */
+        boolean hasNextField() {
+            return hasNext('}');
+        }
+
+        /**
+         * Advance to the next element of the current array, or consume the
+         * closing bracket and return false
+         */
+        boolean hasNextElement() {
+            return hasNext(']');
+        }
+
+        private boolean hasNext(final char close) {
+            skipWhitespace();
+            if (peek() == close) {
+                pos++;
+                depth--;
+                return false;
+            }
+            if (started[depth - 1]) {
+                expect(',');
+            }
+            started[depth - 1] = true;
+            return true;
+        }
+
+        /**
+         * Read a field name and its colon, returning its index in names or -1
+         */
+        int readFieldName(final byte[][] names) {
+            skipWhitespace();
+            expect('"');
+            int start = pos;
+            int end = findStringEnd();
+            int match = -1;
+            if (end >= 0) {
+                int length = end - start;
+                for (int i = 0; i < names.length; i++) {
+                    if (names[i].length == length && regionEquals(names[i], start)) {
+                        match = i;
+                        break;
+                    }
+                }
+                pos = end + 1;
+            } else {
+                // Escaped field name: decode it and compare as text
+                pos = start - 1;
+                String name = readString();
+                for (int i = 0; i < names.length; i++) {
+                    if (name.equals(new String(names[i], StandardCharsets.UTF_8))) {
+                        match = i;
+                        break;
+                    }
+                }
+            }
+            skipWhitespace();
+            expect(':');
+            return match;
+        }
+
+        boolean readNull() {
+            skipWhitespace();
+            if (pos + 4 <= bytes.length && bytes[pos] == 'n' && bytes[pos + 1] == 'u'
+                    && bytes[pos + 2] == 'l' && bytes[pos + 3] == 'l') {
+                pos += 4;
+                return true;
+            }
+            return false;
+        }
+
+        String readString() {
+            if (readNull()) {
+                return null;
+            }
+            expect('"');
+            int start = pos;
+            int end = findStringEnd();
+            if (end >= 0) {
+                pos = end + 1;
+                return new String(bytes, start, end - start, StandardCharsets.UTF_8);
+            }
+            return readEscapedString(start);
+        }
+
+        ReportStatus readStatus() {
+            if (readNull()) {
+                return null;
+            }
+            expect('"');
+            int start = pos;
+            int end = findStringEnd();
+            if (end >= 0) {
+                int length = end - start;
+                for (int i = 0; i < STATUS_NAMES.length; i++) {
+                    if (STATUS_NAMES[i].length == length && regionEquals(STATUS_NAMES[i], start)) {
+                        pos = end + 1;
+                        return STATUSES[i];
+                    }
+                }
+            }
+            pos = start - 1;
+            String name = readString();
+            try {
+                return ReportStatus.valueOf(name);
+            } catch (IllegalArgumentException e) {
+                throw error("Unknown report status " + name);
+            }
+        }
+
+        long readLong() {
+            skipWhitespace();
+            int start = pos;
+            if (pos < bytes.length && bytes[pos] == '-') {
+                pos++;
+            }
+            long value = 0;
+            int digitsStart = pos;
+            while (pos < bytes.length && bytes[pos] >= '0' && bytes[pos] <= '9') {
+                value = value * 10 + (bytes[pos] - '0');
+                pos++;
+            }
+            if (pos == digitsStart) {
+                throw error("Expected a number");
+            }
+            if (pos < bytes.length && (bytes[pos] == '.' || bytes[pos] == 'e' || bytes[pos] == 'E')) {
+                // Some JSON writers emit integral values in floating point form
+                skipNumberTail();
+                return (long) Double.parseDouble(new String(bytes, start, pos - start, StandardCharsets.US_ASCII));
+            }
+            return bytes[start] == '-' ? -value : value;
+        }
+
+        /**
+         * Skip the next value of any type, including nested objects and arrays
+         */
+        void skipValue() {
+            skipWhitespace();
+            byte c = peek();
+            if (c == '{') {
+                beginObject();
+                while (hasNextField()) {
+                    readFieldName(NO_FIELDS);
+                    skipValue();
+                }
+            } else if (c == '[') {
+                beginArray();
+                while (hasNextElement()) {
+                    skipValue();
+                }
+            } else if (c == '"') {
+                readString();
+            } else if (c == 't') {
+                expectLiteral("true");
+            } else if (c == 'f') {
+                expectLiteral("false");
+            } else if (c == 'n') {
+                expectLiteral("null");
+            } else {
+                readLong();
+            }
+        }
+
+        void expectEnd() {
+            skipWhitespace();
+            if (pos != bytes.length) {
+                throw error("Unexpected trailing content");
+            }
+        }
+
+        /**
+         * Index of the closing quote of a string starting at pos, or -1 if
+         * the string contains escapes
+         */
+        private int findStringEnd() {
+            for (int i = pos; i < bytes.length; i++) {
+                byte c = bytes[i];
+                if (c == '"') {
+                    return i;
+                }
+                if (c == '\\') {
+                    return -1;
+                }
+            }
+            throw error("Unterminated string");
+        }
+
+        private String readEscapedString(final int start) {
+            StringBuilder builder = new StringBuilder();
+            int runStart = start;
+            pos = start;
+            while (true) {
+                if (pos >= bytes.length) {
+                    throw error("Unterminated string");
+                }
+                byte c = bytes[pos];
+                if (c == '"') {
+                    builder.append(new String(bytes, runStart, pos - runStart, StandardCharsets.UTF_8));
+                    pos++;
+                    return builder.toString();
+                }
+                if (c != '\\') {
+                    pos++;
+                    continue;
+                }
+                builder.append(new String(bytes, runStart, pos - runStart, StandardCharsets.UTF_8));
+                if (pos + 1 >= bytes.length) {
+                    throw error("Unterminated escape");
+                }
+                byte escaped = bytes[pos + 1];
+                pos += 2;
+                switch (escaped) {
+                    case '"':
+                    case '\\':
+                    case '/':
+                        builder.append((char) escaped);
+                        break;
+                    case 'n':
+                        builder.append('\n');
+                        break;
+                    case 'r':
+                        builder.append('\r');
+                        break;
+                    case 't':
+                        builder.append('\t');
+                        break;
+                    case 'b':
+                        builder.append('\b');
+                        break;
+                    case 'f':
+                        builder.append('\f');
+                        break;
+                    case 'u':
+                        builder.append(readHexChar());
+                        break;
+                    default:
+                        throw error("Invalid escape");
+                }
+                runStart = pos;
+            }
+        }
+
+        private char readHexChar() {
+            if (pos + 4 > bytes.length) {
+                throw error("Truncated unicode escape");
+            }
+            int value = 0;
+            for (int i = 0; i < 4; i++) {
+                int digit = Character.digit(bytes[pos++], 16);
+                if (digit < 0) {
+                    throw error("Invalid unicode escape");
+                }
+                value = (value << 4) | digit;
+            }
+            return (char) value;
+        }
+
+        private void skipNumberTail() {
+            while (pos < bytes.length) {
+                byte c = bytes[pos];
+                if ((c >= '0' && c <= '9') || c == '.' || c == 'e' || c == 'E' || c == '+' || c == '-') {
+                    pos++;
+                } else {
+                    break;
+                }
+            }
+        }
+
+        private boolean regionEquals(final byte[] expected, final int start) {
+            for (int i = 0; i < expected.length; i++) {
+                if (bytes[start + i] != expected[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void push() {
+            if (depth == started.length) {
+                started = Arrays.copyOf(started, depth * 2);
+            }
+            started[depth++] = false;
+        }
+
+        private void expectLiteral(final String literal) {
+            for (int i = 0; i < literal.length(); i++) {
+                expect(literal.charAt(i));
+            }
+        }
+
+        private void expect(final char c) {
+            skipWhitespaceIfStructural(c);
+            if (pos >= bytes.length || bytes[pos] != c) {
+                throw error("Expected '" + c + "'");
+            }
+            pos++;
+        }
+
+        private void skipWhitespaceIfStructural(final char c) {
+            if (c == '{' || c == '[' || c == ',' || c == ':' || c == '"') {
+                skipWhitespace();
+            }
+        }
+
+        private byte peek() {
+            if (pos >= bytes.length) {
+                throw error("Unexpected end of input");
+            }
+            return bytes[pos];
+        }
+
+        private void skipWhitespace() {
+            while (pos < bytes.length) {
+                byte c = bytes[pos];
+                if (c == ' ' || c == '\n' || c == '\r' || c == '\t') {
+                    pos++;
+                } else {
+                    break;
+                }
+            }
+        }
+
+        private IllegalArgumentException error(final String message) {
+            return new IllegalArgumentException(message + " at offset " + pos + " of report JSON");
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package org.whistleblower;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Transition events for the event-sourced storage mode, shared by the
+ * contract and the client.
+ *
+ * Each transition is stored under its own composite key
+ *   report~event / reportId / timestamp / txId / type
+ * whose value is the transition's value (investigator ID, findings or
+ * decision), or for findings over ReportText.INLINE_LIMIT, the digest and
+ * length of the findings text stored under its own key. The report key
+ * itself holds the report as submitted, and the current report is the
+ * stored one with its events applied in key order, which is timestamp
+ * order. Because transitions never rewrite a shared key, concurrent
+ * transitions on one report do not invalidate each other.
+ *
+ * Keys are parsed here rather than with the shim's CompositeKey so the
+ * client can read them from block events.
+ */
+public final class ReportEvents {
+
+    /**
+     * Composite key object type of event entries
+     */
+    public static final String OBJECT_TYPE = "report~event";
+
+    private static final char DELIMITER = '\u0000';
+
+    /**
+     * Leading byte of every event value, so an empty findings or decision
+     * is not written as an empty value, which the peer treats as a delete
+     */
+    private static final byte VALUE_MARKER = 0x01;
+
+    /**
+     * Leading byte of a value holding "digest:length" of a ReportText entry
+     */
+    private static final byte TEXT_REFERENCE_MARKER = 0x02;
+
+    /**
+     * Transition type, the status a report must be in for it, and the status
+     * it moves the report to. Together these are the report state machine.
+     */
+    public enum Type {
+        ASSIGNMENT(ReportStatus.SUBMITTED, ReportStatus.UNDER_INVESTIGATION),
+        FINDINGS(ReportStatus.UNDER_INVESTIGATION, ReportStatus.PENDING_REVIEW),
+        DECISION(ReportStatus.PENDING_REVIEW, ReportStatus.CLOSED);
+
+        private final ReportStatus requiredStatus;
+        private final ReportStatus status;
+
+        Type(final ReportStatus requiredStatus, final ReportStatus status) {
+            this.requiredStatus = requiredStatus;
+            this.status = status;
+        }
+
+        public ReportStatus getRequiredStatus() {
+            return requiredStatus;
+        }
+
+        public ReportStatus getStatus() {
+            return status;
+        }
+    }
+
+    /**
+     * One decoded event entry
+     */
+    public static final class Event {
+        private final String key;
+        private final String reportId;
+        private final long timestamp;
+        private final String txId;
+        private final Type type;
+        private final String value;
+        private final String textDigest;
+        private final long textLength;
+
+        public Event(final String key, final String reportId, final long timestamp, final String txId,
+                final Type type, final String value) {
+            this(key, reportId, timestamp, txId, type, value, null, 0);
+        }
+
+        public Event(final String key, final String reportId, final long timestamp, final String txId,
+                final Type type, final String value, final String textDigest, final long textLength) {
+            this.key = key;
+            this.reportId = reportId;
+            this.timestamp = timestamp;
+            this.txId = txId;
+            this.type = type;
+            this.value = value;
+            this.textDigest = textDigest;
+            this.textLength = textLength;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public String getReportId() {
+            return reportId;
+        }
+
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        public String getTxId() {
+            return txId;
+        }
+
+        public Type getType() {
+            return type;
+        }
+
+        /**
+         * The transition's value, or null if it is stored under its own key
+         */
+        public String getValue() {
+            return value;
+        }
+
+        /**
+         * Digest of the value stored under its own key, or null if inline
+         */
+        public String getTextDigest() {
+            return textDigest;
+        }
+
+        public long getTextLength() {
+            return textLength;
+        }
+    }
+
+    private ReportEvents() {
+    }
+
+    /**
+     * Key attributes of an event, after the object type. The timestamp is
+     * zero-padded so key order is time order.
+     */
+    public static String[] keyAttributes(final String reportId, final long timestamp, final String txId,
+            final Type type) {
+        return new String[] {reportId, String.format("%019d", timestamp), txId, type.name()};
+    }
+
+    public static byte[] encodeValue(final String value) {
+        byte[] bytes = value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+        byte[] encoded = new byte[bytes.length + 1];
+        encoded[0] = VALUE_MARKER;
+        System.arraycopy(bytes, 0, encoded, 1, bytes.length);
+        return encoded;
+    }
+
+    /**
+     * Value of a transition whose text is stored under its own key
+     */
+    public static byte[] encodeTextReference(final String digest, final long length) {
+        byte[] bytes = (digest + ':' + length).getBytes(StandardCharsets.UTF_8);
+        byte[] encoded = new byte[bytes.length + 1];
+        encoded[0] = TEXT_REFERENCE_MARKER;
+        System.arraycopy(bytes, 0, encoded, 1, bytes.length);
+        return encoded;
+    }
+
+    /**
+     * Whether a world state key is an event entry
+     */
+    public static boolean isEventKey(final String key) {
+        return key.length() > OBJECT_TYPE.length() + 1
+                && key.charAt(0) == DELIMITER
+                && key.startsWith(OBJECT_TYPE, 1)
+                && key.charAt(OBJECT_TYPE.length() + 1) == DELIMITER;
+    }
+
+    /**
+     * Decode an event entry. Throws IllegalArgumentException if the key is
+     * not an event key.
+     */
+    public static Event decode(final String key, final byte[] value) {
+        if (!isEventKey(key)) {
+            throw new IllegalArgumentException("Not a report event key: " + key.replace(DELIMITER, '/'));
+        }
+
+        List<String> attributes = new ArrayList<>(4);
+        int start = OBJECT_TYPE.length() + 2;
+        for (int end = key.indexOf(DELIMITER, start); end >= 0; end = key.indexOf(DELIMITER, start)) {
+            attributes.add(key.substring(start, end));
+            start = end + 1;
+        }
+        if (attributes.size() != 4) {
+            throw new IllegalArgumentException("Malformed report event key: " + key.replace(DELIMITER, '/'));
+        }
+
+        String decodedValue = value == null || value.length <= 1
+                ? ""
+                : new String(value, 1, value.length - 1, StandardCharsets.UTF_8);
+        long timestamp = Long.parseLong(attributes.get(1));
+        Type type = Type.valueOf(attributes.get(3));
+        if (value != null && value.length > 0 && value[0] == TEXT_REFERENCE_MARKER) {
+            int separator = decodedValue.lastIndexOf(':');
+            return new Event(key, attributes.get(0), timestamp, attributes.get(2), type, null,
+                    decodedValue.substring(0, separator), Long.parseLong(decodedValue.substring(separator + 1)));
+        }
+        return new Event(key, attributes.get(0), timestamp, attributes.get(2), type, decodedValue);
+    }
+
+    /**
+     * Apply a transition to a report in place
+     */
+    public static void apply(final WhistleblowerReport report, final Type type, final String value,
+            final long timestamp) {
+        switch (type) {
+            case ASSIGNMENT:
+                report.setInvestigatorId(value);
+                break;
+            case FINDINGS:
+                report.setFindings(value);
+                report.setFindingsDigest(null);
+                report.setFindingsLength(0);
+                break;
+            case DECISION:
+                report.setLeadershipDecision(value);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown event type " + type);
+        }
+        report.setStatus(type.getStatus());
+        report.setLastUpdated(timestamp);
+    }
+
+    public static void apply(final WhistleblowerReport report, final Event event) {
+        apply(report, event.getType(), event.getValue(), event.getTimestamp());
+        if (event.getTextDigest() != null && event.getType() == Type.FINDINGS) {
+            report.setFindingsDigest(event.getTextDigest());
+            report.setFindingsLength(event.getTextLength());
+        }
+    }
+}
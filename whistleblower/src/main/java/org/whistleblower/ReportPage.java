@@ -0,0 +1,61 @@
+package org.whistleblower;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.owlike.genson.annotation.JsonProperty;
+
+/**
+ * One page of a paginated report query.
+ *
+ * The bookmark is opaque to callers: pass it back unchanged to fetch the next
+ * page. An empty bookmark, or a page holding fewer records than requested,
+ * means there is nothing left to read.
+ */
+public class ReportPage {
+
+    private List<WhistleblowerReport> records;
+
+    private String bookmark;
+
+    private int fetchedRecordsCount;
+
+    public ReportPage() {
+        // Empty constructor required for deserialization
+        this.records = new ArrayList<>();
+        this.bookmark = "";
+    }
+
+    public ReportPage(
+            @JsonProperty("records") final List<WhistleblowerReport> records,
+            @JsonProperty("bookmark") final String bookmark,
+            @JsonProperty("fetchedRecordsCount") final int fetchedRecordsCount) {
+        this.records = records;
+        this.bookmark = bookmark;
+        this.fetchedRecordsCount = fetchedRecordsCount;
+    }
+
+    public List<WhistleblowerReport> getRecords() {
+        return records;
+    }
+
+    public void setRecords(final List<WhistleblowerReport> records) {
+        this.records = records;
+    }
+
+    public String getBookmark() {
+        return bookmark;
+    }
+
+    public void setBookmark(final String bookmark) {
+        this.bookmark = bookmark;
+    }
+
+    public int getFetchedRecordsCount() {
+        return fetchedRecordsCount;
+    }
+
+    public void setFetchedRecordsCount(final int fetchedRecordsCount) {
+        this.fetchedRecordsCount = fetchedRecordsCount;
+    }
+}
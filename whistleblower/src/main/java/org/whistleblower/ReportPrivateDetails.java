@@ -0,0 +1,169 @@
+package org.whistleblower;
+
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A report's description and submitter, kept in the reportPrivateDetails
+ * private data collection instead of world state. Shared by the contract and
+ * the client.
+ *
+ * The collection holds the JSON {"description":...,"salt":...,"submittedBy":...}
+ * under the report ID. Only the collection's member peers store it; the
+ * channel carries its SHA-256, which the public report repeats as
+ * privateDetailsHash so a reader can check what it was given. The encoding
+ * is fixed, so the client can compute the same hash. Descriptions and
+ * submitter names are guessable, so the record carries a random salt;
+ * without it, anyone reading the channel could confirm a guess against the
+ * hash.
+ *
+ * Callers pass the fields as transient data under TRANSIENT_DESCRIPTION,
+ * TRANSIENT_SUBMITTED_BY and TRANSIENT_SALT (or a report array under
+ * TRANSIENT_REPORTS with one salt for the batch, see batchItemSalt, for
+ * submitReports), which reaches the chaincode without being recorded in the
+ * block the way transaction arguments are. The salt comes from the client
+ * because every endorsing peer has to write the same record.
+ *
+ * Both organizations are members of the collection: DoGE needs the
+ * description to investigate and DoE to review. Each org's peer must pass
+ * the record on to the other before the submission is endorsed
+ * (requiredPeerCount 1 in collections_config.json), so it survives the loss
+ * of either peer.
+ */
+public final class ReportPrivateDetails {
+
+    /**
+     * Collection name, as defined in collections_config.json
+     */
+    public static final String COLLECTION = "reportPrivateDetails";
+
+    public static final String TRANSIENT_DESCRIPTION = "description";
+    public static final String TRANSIENT_SUBMITTED_BY = "submittedBy";
+    public static final String TRANSIENT_REPORTS = "reports";
+    public static final String TRANSIENT_SALT = "salt";
+
+    /**
+     * Length of a salt from newSalt, in hex characters; the contract
+     * rejects shorter transient salts
+     */
+    public static final int SALT_LENGTH = 32;
+
+    private static final byte[][] FIELDS = {
+        "description".getBytes(StandardCharsets.UTF_8),
+        "salt".getBytes(StandardCharsets.UTF_8),
+        "submittedBy".getBytes(StandardCharsets.UTF_8)
+    };
+
+    private static final SecureRandom random = new SecureRandom();
+
+    private final String description;
+    private final String submittedBy;
+    private final String salt;
+
+    public ReportPrivateDetails(final String description, final String submittedBy, final String salt) {
+        this.description = description;
+        this.submittedBy = submittedBy;
+        this.salt = salt;
+    }
+
+    /**
+     * A random salt of SALT_LENGTH hex characters
+     */
+    public static String newSalt() {
+        byte[] bytes = new byte[SALT_LENGTH / 2];
+        random.nextBytes(bytes);
+        StringBuilder hex = new StringBuilder(SALT_LENGTH);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * Salt of one report in a submitReports batch, from the batch's salt,
+     * so reports in one batch do not share a salt
+     */
+    public static String batchItemSalt(final String batchSalt, final String reportId) {
+        return ReportText.digest((batchSalt + ':' + reportId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public String getSubmittedBy() {
+        return submittedBy;
+    }
+
+    /**
+     * The salt hashed with the details, or null for a record written before
+     * records were salted
+     */
+    public String getSalt() {
+        return salt;
+    }
+
+    public byte[] encode() {
+        ReportCodec.JsonWriter writer = new ReportCodec.JsonWriter(64);
+        writer.raw('{');
+        writer.field("description").string(description);
+        if (salt != null) {
+            writer.raw(',');
+            writer.field("salt").string(salt);
+        }
+        writer.raw(',');
+        writer.field("submittedBy").string(submittedBy);
+        writer.raw('}');
+        return writer.toByteArray();
+    }
+
+    public static ReportPrivateDetails decode(final byte[] bytes) {
+        ReportCodec.JsonReader reader = new ReportCodec.JsonReader(bytes);
+        String description = null;
+        String submittedBy = null;
+        String salt = null;
+        reader.beginObject();
+        while (reader.hasNextField()) {
+            switch (reader.readFieldName(FIELDS)) {
+                case 0:
+                    description = reader.readString();
+                    break;
+                case 1:
+                    salt = reader.readString();
+                    break;
+                case 2:
+                    submittedBy = reader.readString();
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.expectEnd();
+        return new ReportPrivateDetails(description, submittedBy, salt);
+    }
+
+    /**
+     * Lowercase hex SHA-256 of the encoded details, as privateDetailsHash
+     */
+    public String hash() {
+        return ReportText.digest(encode());
+    }
+
+    /**
+     * Transient data carrying a description, submitter and salt to
+     * submitReport
+     */
+    public Map<String, byte[]> toTransient() {
+        Map<String, byte[]> transientData = new HashMap<>();
+        transientData.put(TRANSIENT_DESCRIPTION, utf8(description));
+        transientData.put(TRANSIENT_SUBMITTED_BY, utf8(submittedBy));
+        transientData.put(TRANSIENT_SALT, utf8(salt));
+        return transientData;
+    }
+
+    private static byte[] utf8(final String value) {
+        return (value == null ? "" : value).getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,164 @@
+package org.whistleblower;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Report counts by status and department, with the age of each group's
+ * reports bucketed by days since submission.
+ *
+ * ageCounts[i] counts reports submitted fewer than AGE_BUCKET_DAYS[i] days
+ * before asOf (and at least AGE_BUCKET_DAYS[i - 1]); the last element counts
+ * the older ones. Ages are whole days in UTC.
+ */
+public class ReportStatistics {
+
+    /**
+     * Upper bounds, in days, of the age buckets. One more bucket holds the rest.
+     */
+    public static final int[] AGE_BUCKET_DAYS = {7, 30, 90, 180, 365};
+
+    /**
+     * Reports sharing one status and department
+     */
+    public static class Group {
+
+        private ReportStatus status;
+
+        private String department;
+
+        private long count;
+
+        private long[] ageCounts;
+
+        public Group() {
+            // Empty constructor required for deserialization
+        }
+
+        public Group(final ReportStatus status, final String department) {
+            this.status = status;
+            this.department = department;
+            this.ageCounts = new long[AGE_BUCKET_DAYS.length + 1];
+        }
+
+        /**
+         * Add count reports submitted ageDays days ago
+         */
+        public void add(final long ageDays, final long count) {
+            int bucket = 0;
+            while (bucket < AGE_BUCKET_DAYS.length && ageDays >= AGE_BUCKET_DAYS[bucket]) {
+                bucket++;
+            }
+            ageCounts[bucket] += count;
+            this.count += count;
+        }
+
+        public ReportStatus getStatus() {
+            return status;
+        }
+
+        public void setStatus(final ReportStatus status) {
+            this.status = status;
+        }
+
+        public String getDepartment() {
+            return department;
+        }
+
+        public void setDepartment(final String department) {
+            this.department = department;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public void setCount(final long count) {
+            this.count = count;
+        }
+
+        public long[] getAgeCounts() {
+            return ageCounts;
+        }
+
+        public void setAgeCounts(final long[] ageCounts) {
+            this.ageCounts = ageCounts;
+        }
+    }
+
+    private long asOf;
+
+    private long total;
+
+    private Map<String, Long> byStatus;
+
+    private Map<String, Long> byDepartment;
+
+    private List<Group> groups;
+
+    public ReportStatistics() {
+        this.byStatus = new LinkedHashMap<>();
+        this.byDepartment = new LinkedHashMap<>();
+        this.groups = new ArrayList<>();
+    }
+
+    /**
+     * Statistics over the given groups, with the totals filled in
+     */
+    public static ReportStatistics of(final long asOf, final List<Group> groups) {
+        ReportStatistics statistics = new ReportStatistics();
+        statistics.setAsOf(asOf);
+        statistics.setGroups(groups);
+        for (Group group : groups) {
+            statistics.total += group.getCount();
+            statistics.byStatus.merge(group.getStatus().toString(), group.getCount(), Long::sum);
+            statistics.byDepartment.merge(group.getDepartment(), group.getCount(), Long::sum);
+        }
+        return statistics;
+    }
+
+    /**
+     * Time, in epoch milliseconds, the ages are measured from
+     */
+    public long getAsOf() {
+        return asOf;
+    }
+
+    public void setAsOf(final long asOf) {
+        this.asOf = asOf;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(final long total) {
+        this.total = total;
+    }
+
+    public Map<String, Long> getByStatus() {
+        return byStatus;
+    }
+
+    public void setByStatus(final Map<String, Long> byStatus) {
+        this.byStatus = byStatus;
+    }
+
+    public Map<String, Long> getByDepartment() {
+        return byDepartment;
+    }
+
+    public void setByDepartment(final Map<String, Long> byDepartment) {
+        this.byDepartment = byDepartment;
+    }
+
+    public List<Group> getGroups() {
+        return groups;
+    }
+
+    public void setGroups(final List<Group> groups) {
+        this.groups = groups;
+    }
+}
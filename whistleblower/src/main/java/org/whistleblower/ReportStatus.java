@@ -1,7 +1,5 @@
 package org.whistleblower;
 
-import com.owlike.genson.annotation.JsonValue;
-
 public enum ReportStatus {
     SUBMITTED("SUBMITTED"),
     UNDER_INVESTIGATION("UNDER_INVESTIGATION"),
@@ -14,7 +12,7 @@ public enum ReportStatus {
         this.status = status;
     }
 
-    @JsonValue
+    @Override
     public String toString() {
         return this.status;
     }
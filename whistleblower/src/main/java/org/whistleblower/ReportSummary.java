@@ -0,0 +1,94 @@
+package org.whistleblower;
+
+import org.hyperledger.fabric.contract.annotation.DataType;
+import org.hyperledger.fabric.contract.annotation.Property;
+
+/**
+ * The fields of a report that list screens show. The summary queries return
+ * these instead of full reports, leaving out the description, findings and
+ * submitter.
+ */
+@DataType()
+public class ReportSummary {
+
+    @Property()
+    private String id;
+
+    @Property()
+    private String department;
+
+    @Property()
+    private ReportStatus status;
+
+    @Property()
+    private String investigatorId;
+
+    @Property()
+    private String leadershipDecision;
+
+    @Property()
+    private long lastUpdated;
+
+    public ReportSummary() {
+        // Empty constructor required for deserialization
+    }
+
+    public static ReportSummary of(final WhistleblowerReport report) {
+        ReportSummary summary = new ReportSummary();
+        summary.setId(report.getId());
+        summary.setDepartment(report.getDepartment());
+        summary.setStatus(report.getStatus());
+        summary.setInvestigatorId(report.getInvestigatorId());
+        summary.setLeadershipDecision(report.getLeadershipDecision());
+        summary.setLastUpdated(report.getLastUpdated());
+        return summary;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(final String id) {
+        this.id = id;
+    }
+
+    public String getDepartment() {
+        return department;
+    }
+
+    public void setDepartment(final String department) {
+        this.department = department;
+    }
+
+    public ReportStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(final ReportStatus status) {
+        this.status = status;
+    }
+
+    public String getInvestigatorId() {
+        return investigatorId;
+    }
+
+    public void setInvestigatorId(final String investigatorId) {
+        this.investigatorId = investigatorId;
+    }
+
+    public String getLeadershipDecision() {
+        return leadershipDecision;
+    }
+
+    public void setLeadershipDecision(final String leadershipDecision) {
+        this.leadershipDecision = leadershipDecision;
+    }
+
+    public long getLastUpdated() {
+        return lastUpdated;
+    }
+
+    public void setLastUpdated(final long lastUpdated) {
+        this.lastUpdated = lastUpdated;
+    }
+}
@@ -0,0 +1,46 @@
+package org.whistleblower;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One page of a paginated summary query. The bookmark and
+ * fetchedRecordsCount work as in ReportPage.
+ */
+public class ReportSummaryPage {
+
+    private List<ReportSummary> records;
+
+    private String bookmark;
+
+    private int fetchedRecordsCount;
+
+    public ReportSummaryPage() {
+        this.records = new ArrayList<>();
+        this.bookmark = "";
+    }
+
+    public List<ReportSummary> getRecords() {
+        return records;
+    }
+
+    public void setRecords(final List<ReportSummary> records) {
+        this.records = records;
+    }
+
+    public String getBookmark() {
+        return bookmark;
+    }
+
+    public void setBookmark(final String bookmark) {
+        this.bookmark = bookmark;
+    }
+
+    public int getFetchedRecordsCount() {
+        return fetchedRecordsCount;
+    }
+
+    public void setFetchedRecordsCount(final int fetchedRecordsCount) {
+        this.fetchedRecordsCount = fetchedRecordsCount;
+    }
+}
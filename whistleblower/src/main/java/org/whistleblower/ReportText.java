@@ -0,0 +1,74 @@
+package org.whistleblower;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Content-addressed storage of long description and findings text, shared by
+ * the contract and the client.
+ *
+ * A text longer than INLINE_LIMIT UTF-8 bytes is stored once under
+ *   report~text / sha256(text)
+ * and the report keeps only its digest and length, with the text field
+ * itself null. Status, investigator and department queries then ship small
+ * records whatever the text size; getReportDetail fetches the text. Equal
+ * texts share one key, so text keys are never deleted.
+ */
+public final class ReportText {
+
+    /**
+     * Composite key object type of text entries
+     */
+    public static final String OBJECT_TYPE = "report~text";
+
+    /**
+     * Longest text, in UTF-8 bytes, kept inline in the report
+     */
+    public static final int INLINE_LIMIT = 512;
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private ReportText() {
+    }
+
+    /**
+     * Whether text is too long to keep inline
+     */
+    public static boolean isLarge(final String text) {
+        // At most three UTF-8 bytes per char, and at least one
+        if (text == null || text.length() * 3 <= INLINE_LIMIT) {
+            return false;
+        }
+        return text.length() > INLINE_LIMIT || text.getBytes(StandardCharsets.UTF_8).length > INLINE_LIMIT;
+    }
+
+    /**
+     * Lowercase hex SHA-256 of the given bytes
+     */
+    public static String digest(final byte[] bytes) {
+        MessageDigest sha256;
+        try {
+            sha256 = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        byte[] hash = sha256.digest(bytes);
+        char[] hex = new char[hash.length * 2];
+        for (int i = 0; i < hash.length; i++) {
+            hex[2 * i] = HEX[(hash[i] >> 4) & 0xF];
+            hex[2 * i + 1] = HEX[hash[i] & 0xF];
+        }
+        return new String(hex);
+    }
+
+    /**
+     * Whether a report field, given as its inline value and digest, holds text
+     */
+    public static boolean matches(final String text, final String inline, final String digest) {
+        if (digest != null) {
+            return text != null && digest.equals(digest(text.getBytes(StandardCharsets.UTF_8)));
+        }
+        return text == null ? inline == null : text.equals(inline);
+    }
+}
@@ -0,0 +1,1748 @@
+package org.whistleblower;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.hyperledger.fabric.contract.Context;
+import org.hyperledger.fabric.contract.ContractInterface;
+import org.hyperledger.fabric.contract.annotation.Contract;
+import org.hyperledger.fabric.contract.annotation.Default;
+import org.hyperledger.fabric.contract.annotation.Info;
+import org.hyperledger.fabric.contract.annotation.Transaction;
+import org.hyperledger.fabric.protos.peer.QueryResponseMetadata;
+import org.hyperledger.fabric.shim.ChaincodeException;
+import org.hyperledger.fabric.shim.ChaincodeStub;
+import org.hyperledger.fabric.shim.ledger.CompositeKey;
+import org.hyperledger.fabric.shim.ledger.KeyValue;
+import org.hyperledger.fabric.shim.ledger.QueryResultsIterator;
+import org.hyperledger.fabric.shim.ledger.QueryResultsIteratorWithMetadata;
+import org.whistleblower.metrics.MetricsLogReporter;
+import org.whistleblower.metrics.MetricsRecorder;
+import org.whistleblower.metrics.MetricsRegistry;
+import org.whistleblower.metrics.PrometheusEndpoint;
+
+import com.owlike.genson.Genson;
+import com.owlike.genson.JsonBindingException;
+
+@Contract(
+        name = "whistleblower",
+        info = @Info(
+                title = "Whistleblower contract",
+                description = "Whistleblower report lifecycle shared between DoE and DoGE",
+                version = "0.0.1"))
+@Default
+public final class WhistleblowerContract implements ContractInterface {
+
+    /**
+     * Upper bound on the page size accepted by the paginated queries
+     */
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    /**
+     * Upper bound on the number of items accepted by one batch transaction
+     */
+    public static final int MAX_BATCH_SIZE = 500;
+
+    /**
+     * Composite-key index object types. Each entry is keyed on the indexed
+     * value followed by the report ID and holds no data of its own.
+     */
+    static final String STATUS_INDEX = "status~id";
+    static final String INVESTIGATOR_INDEX = "investigator~id";
+    static final String DEPARTMENT_INDEX = "department~id";
+
+    /**
+     * Time index: keyed on lastUpdated, zero-padded so key order is time
+     * order, followed by the report ID
+     */
+    static final String UPDATED_INDEX = "updated~id";
+
+    /**
+     * Report statistics. A counter holds the number of reports with one
+     * status, department and submission day (UTC, ISO date) as a decimal
+     * string. Writes never touch the counters, which every transaction would
+     * then conflict on; each report write appends blind deltas instead, keyed
+     * on transaction time, transaction ID, report ID, status and +1 or -1,
+     * holding the counter key they apply to. rollupReportStatistics folds them in.
+     */
+    static final String STATS_COUNTER = "stats~count";
+    static final String STATS_DELTA = "stats~delta";
+
+    /**
+     * Upper bound on the number of deltas folded by one rollup
+     */
+    public static final int MAX_ROLLUP_DELTAS = 1000;
+
+    /**
+     * CouchDB index design documents, packaged under
+     * META-INF/statedb/couchdb/indexes. The rich queries pin these with
+     * use_index so CouchDB never falls back to a full database scan.
+     */
+    static final String STATUS_COUCHDB_INDEX = "indexStatus";
+    static final String INVESTIGATOR_COUCHDB_INDEX = "indexInvestigator";
+    static final String DEPARTMENT_COUCHDB_INDEX = "indexDepartment";
+
+    /**
+     * Composite keys of the storage mode and archive age settings
+     */
+    static final String CONFIG_OBJECT_TYPE = "config";
+    static final String STORAGE_MODE_SETTING = "storageMode";
+    static final String ARCHIVE_AFTER_DAYS_SETTING = "archiveAfterDays";
+
+    /**
+     * Archived reports, keyed by report ID, as they were when archived.
+     * Composite keys lie outside the range getAllReports reads, and archived
+     * reports have no index entries, so the queries over active reports never
+     * reach them. CouchDB selects on every document whatever its key, so the
+     * report is stored wrapped as {"archived": report}, a shape no rich
+     * query selector matches.
+     */
+    static final String ARCHIVE_OBJECT_TYPE = "archive~report";
+
+    /**
+     * Time index of archived reports, laid out as UPDATED_INDEX, so an
+     * incremental export also finds reports archived since it last ran
+     */
+    static final String ARCHIVE_UPDATED_INDEX = "archive~updated";
+
+    /**
+     * Days a report stays CLOSED before archiveClosedReports moves it, until
+     * setArchiveAfterDays says otherwise
+     */
+    public static final int DEFAULT_ARCHIVE_AFTER_DAYS = 365;
+
+    private static final byte[] INDEX_VALUE = new byte[] {0x00};
+
+    private static final byte[] ARCHIVED_PREFIX = "{\"archived\":".getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * Certificate attribute naming the investigator a DoGE identity acts as
+     */
+    static final String INVESTIGATOR_ATTRIBUTE = "investigatorId";
+
+    /**
+     * MSP IDs of the two organizations. Assignments and findings come only
+     * from DoGE identities, leadership decisions only from DoE ones.
+     */
+    public static final String DOE_MSP_ID = "DoEMSP";
+    public static final String DOGE_MSP_ID = "DoGEMSP";
+
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+
+    /**
+     * How transitions are stored. SNAPSHOT rewrites the report under its key
+     * on every transition. EVENT_SOURCED keeps the report key as submitted and
+     * appends each transition under its own key (see ReportEvents), so a
+     * transition writes only its own small value; reads fold the events into
+     * the report. Transitions are checked against the folded report, so two
+     * on one report in the same block still conflict.
+     */
+    public enum StorageMode {
+        SNAPSHOT,
+        EVENT_SOURCED
+    }
+
+    private final Genson genson = new Genson();
+
+    private enum WhistleblowerErrors {
+        REPORT_NOT_FOUND,
+        REPORT_ALREADY_EXISTS,
+        INVALID_STATUS,
+        INVALID_PAGE_SIZE,
+        INVALID_REPORT,
+        INVALID_BATCH,
+        DUPLICATE_IN_BATCH,
+        INVALID_STORAGE_MODE,
+        TEXT_NOT_FOUND,
+        PRIVATE_DETAILS_UNAVAILABLE,
+        INVALID_TRANSITION,
+        NOT_ASSIGNED_INVESTIGATOR,
+        CALLER_NOT_AUTHORIZED,
+        INVALID_ARCHIVE_AGE,
+        REPORT_NOT_ARCHIVABLE
+    }
+
+    /**
+     * Where transaction latencies, payload sizes and error counts go. NOOP
+     * unless set with setMetrics or enabled by the environment: a port in
+     * WB_METRICS_PORT serves them to Prometheus on the loopback interface,
+     * and a period in WB_METRICS_LOG_SECONDS logs a summary that often.
+     */
+    private static volatile MetricsRecorder metrics = metricsFromEnvironment();
+
+    /**
+     * Transaction context carrying the time the peer handed the transaction
+     * to the contract
+     */
+    private static final class TimedContext extends Context {
+        private final long startNanos;
+
+        TimedContext(final ChaincodeStub stub) {
+            super(stub);
+            this.startNanos = System.nanoTime();
+        }
+    }
+
+    public static void setMetrics(final MetricsRecorder recorder) {
+        metrics = recorder == null ? MetricsRecorder.NOOP : recorder;
+    }
+
+    public static MetricsRecorder getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public Context createContext(final ChaincodeStub stub) {
+        return metrics.isEnabled() ? new TimedContext(stub) : new Context(stub);
+    }
+
+    /**
+     * Count the transaction as started and record its argument size.
+     * Transactions that throw never reach afterTransaction, so started minus
+     * ok is the failure count.
+     */
+    @Override
+    public void beforeTransaction(final Context ctx) {
+        MetricsRecorder recorder = metrics;
+        if (!recorder.isEnabled()) {
+            return;
+        }
+        ChaincodeStub stub = ctx.getStub();
+        String function = stub.getFunction();
+        recorder.count("contract_transactions", function, "started");
+        long requestBytes = 0;
+        for (byte[] arg : stub.getArgs()) {
+            requestBytes += arg.length;
+        }
+        recorder.recordBytes("contract_request", function, requestBytes);
+    }
+
+    @Override
+    public void afterTransaction(final Context ctx, final Object result) {
+        MetricsRecorder recorder = metrics;
+        if (!recorder.isEnabled() || !(ctx instanceof TimedContext)) {
+            return;
+        }
+        String function = ctx.getStub().getFunction();
+        recorder.recordNanos("contract_transaction", function, System.nanoTime() - ((TimedContext) ctx).startNanos);
+        recorder.count("contract_transactions", function, "ok");
+        if (result instanceof String) {
+            recorder.recordBytes("contract_response", function, utf8Length((String) result));
+        }
+    }
+
+    /**
+     * Submit a new whistleblower report. The description and submitter go to
+     * the private data collection (see ReportPrivateDetails); pass them as
+     * transient data, with a salt, to keep them out of the block, in which
+     * case the description and submittedBy arguments are ignored.
+     */
+    @Transaction(intent = Transaction.TYPE.SUBMIT)
+    public String submitReport(final Context ctx, final String id, final String description,
+            final String department, final String submittedBy) {
+        Map<String, byte[]> transientData = ctx.getStub().getTransient();
+        return ReportCodec.encodeToString(createReport(ctx, id,
+                transientValue(transientData, ReportPrivateDetails.TRANSIENT_DESCRIPTION, description),
+                department,
+                transientValue(transientData, ReportPrivateDetails.TRANSIENT_SUBMITTED_BY, submittedBy),
+                0, privateDetailsSalt(ctx.getStub())));
+    }
+
+    /**
+     * Submit a JSON array of reports in one transaction. Only id, description,
+     * department, submittedBy and submittedAt are read from each element. A
+     * positive submittedAt, not after this transaction, keeps the time a
+     * report imported from another system was first made; lastUpdated is
+     * still this transaction's time, so incremental readers find the report.
+     * Otherwise submittedAt is this transaction's time. Items that fail
+     * validation are skipped and reported in the returned result array; the
+     * others are written. The array may be passed as transient data under
+     * "reports" instead, with reportsJSON empty and a salt for the batch.
+     */
+    @Transaction(intent = Transaction.TYPE.SUBMIT)
+    public String submitReports(final Context ctx, final String reportsJSON) {
+        List<WhistleblowerReport> reports = parseReportBatch(transientValue(ctx.getStub().getTransient(),
+                ReportPrivateDetails.TRANSIENT_REPORTS, reportsJSON));
+        String batchSalt = privateDetailsSalt(ctx.getStub());
+        List<BatchItemResult> results = new ArrayList<>();
+        // Writes made earlier in this transaction are invisible to getState,
+        // so duplicates within the batch have to be caught here
+        Set<String> seen = new HashSet<>();
+
+        for (WhistleblowerReport item : reports) {
+            String id = item == null ? null : item.getId();
+            if (id != null && !seen.add(id)) {
+                results.add(BatchItemResult.failed(id, WhistleblowerErrors.DUPLICATE_IN_BATCH.toString(),
+                        String.format("Report %s appears more than once in the batch", id)));
+                continue;
+            }
+            try {
+                if (item == null) {
+                    throw invalidReport("Batch element is null");
+                }
+                createReport(ctx, id, item.getDescription(), item.getDepartment(), item.getSubmittedBy(),
+                        item.getSubmittedAt(), ReportPrivateDetails.batchItemSalt(batchSalt, id));
+                results.add(BatchItemResult.ok(id));
+            } catch (ChaincodeException e) {
+                results.add(failedItem(id, e));
+            }
+        }
+
+        return genson.serialize(results);
+    }
+
+    /**
+     * Assign an investigator to a SUBMITTED report (DoGE only)
+     */
+    @Transaction(intent = Transaction.TYPE.SUBMIT)
+    public String assignInvestigator(final Context ctx, final String reportId, final String investigatorId) {
+        return ReportCodec.encodeToString(
+                transition(ctx, reportId, ReportEvents.Type.ASSIGNMENT, investigatorId, null));
+    }
+
+    /**
+     * Assign investigators to a JSON array of {reportId, investigatorId}
+     * entries in one transaction (DoGE only). Entries that fail are skipped
+     * and reported in the returned result array.
+     */
+    @Transaction(intent = Transaction.TYPE.SUBMIT)
+    public String assignInvestigators(final Context ctx, final String assignmentsJSON) {
+        InvestigatorAssignment[] assignments = parseBatch(assignmentsJSON, InvestigatorAssignment[].class);
+        // Refuse the whole batch rather than each entry
+        checkCaller(ctx, ReportEvents.Type.ASSIGNMENT);
+        List<BatchItemResult> results = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+
+        for (InvestigatorAssignment item : assignments) {
+            String reportId = item == null ? null : item.getReportId();
+            if (reportId != null && !seen.add(reportId)) {
+                results.add(BatchItemResult.failed(reportId, WhistleblowerErrors.DUPLICATE_IN_BATCH.toString(),
+                        String.format("Report %s appears more than once in the batch", reportId)));
+                continue;
+            }
+            try {
+                if (item == null || reportId == null || reportId.isEmpty()) {
+                    throw invalidReport("Assignment has no report ID");
+                }
+                transition(ctx, reportId, ReportEvents.Type.ASSIGNMENT, item.getInvestigatorId(), null);
+                results.add(BatchItemResult.ok(reportId));
+            } catch (ChaincodeException e) {
+                results.add(failedItem(reportId, e));
+            }
+        }
+
+        return genson.serialize(results);
+    }
+
+    /**
+     * Submit investigation findings on a report UNDER_INVESTIGATION (DoGE
+     * only). A caller whose certificate carries an investigatorId attribute
+     * must be the assigned investigator.
+     */
+    @Transaction(intent = Transaction.TYPE.SUBMIT)
+    public String submitFindings(final Context ctx, final String reportId, final String findings) {
+        return ReportCodec.encodeToString(transition(ctx, reportId, ReportEvents.Type.FINDINGS, findings, null));
+    }
+
+    /**
+     * Submit findings as the given investigator, who must be the one assigned
+     * to the report. Otherwise as submitFindings.
+     */
+    @Transaction(intent = Transaction.TYPE.SUBMIT)
+    public String submitInvestigatorFindings(final Context ctx, final String reportId, final String investigatorId,
+            final String findings) {
+        if (investigatorId == null || investigatorId.isEmpty()) {
+            throw invalidReport(String.format("Findings for report %s name no investigator", reportId));
+        }
+        return ReportCodec.encodeToString(
+                transition(ctx, reportId, ReportEvents.Type.FINDINGS, findings, investigatorId));
+    }
+
+    /**
+     * Submit leadership review decision on a report PENDING_REVIEW (DoE only)
+     */
+    @Transaction(intent = Transaction.TYPE.SUBMIT)
+    public String submitLeadershipReview(final Context ctx, final String reportId, final String decision) {
+        return ReportCodec.encodeToString(transition(ctx, reportId, ReportEvents.Type.DECISION, decision, null));
+    }
+
+    /**
+     * Get a specific report by ID
+     */
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String getReport(final Context ctx, final String reportId) {
+        ChaincodeStub stub = ctx.getStub();
+        byte[] reportJSON = readReportBytes(stub, reportId);
+
+        if (storageMode(stub) == StorageMode.EVENT_SOURCED) {
+            return ReportCodec.encodeToString(foldEvents(stub, ReportCodec.decode(reportJSON)));
+        }
+        return new String(reportJSON, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Get a report with its description, submitter and findings filled in,
+     * including text stored under its own key (see ReportText) and details
+     * held in the private data collection. getReport and the queries return
+     * only the digests of those. Fails with PRIVATE_DETAILS_UNAVAILABLE on a
+     * peer that does not hold the report's private details.
+     */
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String getReportDetail(final Context ctx, final String reportId) {
+        ChaincodeStub stub = ctx.getStub();
+        WhistleblowerReport report = currentReport(stub, readReportBytes(stub, reportId),
+                storageMode(stub) == StorageMode.EVENT_SOURCED);
+
+        return ReportCodec.encodeToString(withDetails(stub, report));
+    }
+
+    /**
+     * Check whether a report exists, active or archived
+     */
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public boolean reportExists(final Context ctx, final String reportId) {
+        ChaincodeStub stub = ctx.getStub();
+        String reportJSON = stub.getStringState(reportId);
+        if (reportJSON != null && !reportJSON.isEmpty()) {
+            return true;
+        }
+
+        // An archived report keeps its ID
+        String archivedJSON = stub.getStringState(archiveKey(stub, reportId));
+        return archivedJSON != null && !archivedJSON.isEmpty();
+    }
+
+    /**
+     * Get all reports
+     */
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String getAllReports(final Context ctx) {
+        return ReportCodec.encodeListToString(allReports(ctx.getStub()));
+    }
+
+    /**
+     * Get one page of all reports, in key order
+     */
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String getAllReportsWithPagination(final Context ctx, final int pageSize, final String bookmark) {
+        return ReportCodec.encodePageToString(allReportsPage(ctx.getStub(), pageSize, bookmark));
+    }
+
+    /**
+     * Get reports by status
+     */
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String getReportsByStatus(final Context ctx, final String status) {
+        ReportStatus reportStatus = parseStatus(status);
+
+        return ReportCodec.encodeListToString(
+                getIndexedReports(ctx.getStub(), STATUS_INDEX, "status", reportStatus.toString()));
+    }
+
+    /**
+     * Get one page of reports by status, read from the status index
+     */
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String getReportsByStatusWithPagination(final Context ctx, final String status, final int pageSize,
+            final String bookmark) {
+        return ReportCodec.encodePageToString(statusPage(ctx.getStub(), status, pageSize, bookmark));
+    }
+
+    /**
+     * Get reports by investigator
+     */
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String getReportsByInvestigator(final Context ctx, final String investigatorId) {
+        return ReportCodec.encodeListToString(getIndexedReports(ctx.getStub(), INVESTIGATOR_INDEX, "investigatorId",
+                investigatorId));
+    }
+
+    /**
+     * Get reports by affected department
+     */
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String getReportsByDepartment(final Context ctx, final String department) {
+        return ReportCodec.encodeListToString(getIndexedReports(ctx.getStub(), DEPARTMENT_INDEX, "department", department));
+    }
+
+    /**
+     * Get a summary of every report. The summary queries find reports as
+     * their full counterparts do but return ReportSummary rows, leaving out
+     * the description, findings and submitter.
+     */
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String getAllReportSummaries(final Context ctx) {
+        return ReportCodec.encodeSummaryListToString(allReports(ctx.getStub()));
+    }
+
+    /**
+     * Get one page of report summaries, in key order
+     */
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String getAllReportSummariesWithPagination(final Context ctx, final int pageSize, final String bookmark) {
+        return ReportCodec.encodeSummaryPageToString(allReportsPage(ctx.getStub(), pageSize, bookmark));
+    }
+
+    /**
+     * Get summaries of the reports with a status
+     */
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String getReportSummariesByStatus(final Context ctx, final String status) {
+        ReportStatus reportStatus = parseStatus(status);
+
+        return ReportCodec.encodeSummaryListToString(
+                getIndexedReports(ctx.getStub(), STATUS_INDEX, "status", reportStatus.toString()));
+    }
+
+    /**
+     * Get one page of summaries of the reports with a status
+     */
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String getReportSummariesByStatusWithPagination(final Context ctx, final String status,
+            final int pageSize, final String bookmark) {
+        return ReportCodec.encodeSummaryPageToString(statusPage(ctx.getStub(), status, pageSize, bookmark));
+    }
+
+    /**
+     * Get summaries of the reports assigned to an investigator
+     */
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String getReportSummariesByInvestigator(final Context ctx, final String investigatorId) {
+        return ReportCodec.encodeSummaryListToString(getIndexedReports(ctx.getStub(), INVESTIGATOR_INDEX,
+                "investigatorId", investigatorId));
+    }
+
+    /**
+     * Get summaries of the reports about a department
+     */
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String getReportSummariesByDepartment(final Context ctx, final String department) {
+        return ReportCodec.encodeSummaryListToString(getIndexedReports(ctx.getStub(), DEPARTMENT_INDEX,
+                "department", department));
+    }
+
+    /**
+     * Get one page of the reports last updated at or after since (epoch
+     * milliseconds), oldest update first, read from the time index. Pass an
+     * empty bookmark for the first page. Reports are returned once, at their
+     * current lastUpdated, however often they changed.
+     */
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String getReportsUpdatedSince(final Context ctx, final long since, final int pageSize,
+            final String bookmark) {
+        checkPageSize(pageSize);
+
+        ChaincodeStub stub = ctx.getStub();
+        // The bookmark of a partial composite key query is the key to resume
+        // from, so the first page starts at the first entry not before since
+        String start = bookmark == null || bookmark.isEmpty()
+                ? stub.createCompositeKey(UPDATED_INDEX, timeAttribute(Math.max(0, since))).toString()
+                : bookmark;
+        QueryResultsIteratorWithMetadata<KeyValue> results = stub.getStateByPartialCompositeKeyWithPagination(
+                stub.createCompositeKey(UPDATED_INDEX), pageSize, start);
+
+        boolean eventSourced = storageMode(stub) == StorageMode.EVENT_SOURCED;
+        List<WhistleblowerReport> records = new ArrayList<>();
+        int fetched = 0;
+        for (KeyValue result : results) {
+            fetched++;
+            List<String> attributes = stub.splitCompositeKey(result.getKey()).getAttributes();
+            WhistleblowerReport report = getIndexedReport(stub, result.getKey(), eventSourced);
+            // Entries left behind by event-sourced transitions are skipped
+            if (attributes.get(0).equals(fieldValue(report, "lastUpdated"))) {
+                records.add(report);
+            }
+        }
+
+        QueryResponseMetadata metadata = results.getMetadata();
+        String nextBookmark = metadata == null ? "" : metadata.getBookmark();
+
+        return ReportCodec.encodePageToString(new ReportPage(records, nextBookmark, fetched));
+    }
+
+    /**
+     * Get one page of reports by status, most recently updated first.
+     * Rich query against the indexStatus CouchDB index; in event-sourced
+     * mode, read from the status index in report ID order instead (see
+     * richQueryPage).
+     */
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String queryReportsByStatus(final Context ctx, final String status, final int pageSize,
+            final String bookmark) {
+        ReportStatus reportStatus = parseStatus(status);
+
+        return ReportCodec.encodePageToString(
+                richQueryPage(ctx, STATUS_INDEX, "status", reportStatus.toString(), STATUS_COUCHDB_INDEX,
+                        pageSize, bookmark));
+    }
+
+    /**
+     * Get one page of reports by investigator, most recently updated first.
+     * Rich query against the indexInvestigator CouchDB index; in
+     * event-sourced mode, read from the investigator index in report ID
+     * order instead.
+     */
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String queryReportsByInvestigator(final Context ctx, final String investigatorId, final int pageSize,
+            final String bookmark) {
+        return ReportCodec.encodePageToString(
+                richQueryPage(ctx, INVESTIGATOR_INDEX, "investigatorId", investigatorId, INVESTIGATOR_COUCHDB_INDEX,
+                        pageSize, bookmark));
+    }
+
+    /**
+     * Get one page of reports by department, most recently updated first.
+     * Rich query against the indexDepartment CouchDB index; in event-sourced
+     * mode, read from the department index in report ID order instead.
+     */
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String queryReportsByDepartment(final Context ctx, final String department, final int pageSize,
+            final String bookmark) {
+        return ReportCodec.encodePageToString(
+                richQueryPage(ctx, DEPARTMENT_INDEX, "department", department, DEPARTMENT_COUCHDB_INDEX,
+                        pageSize, bookmark));
+    }
+
+    /**
+     * Rewrite the status, investigator, department and time index entries of
+     * every active report and the time index entries of the archive, and
+     * recount the statistics counters from scratch,
+     * archived reports included. Only needed once for reports written before
+     * the indexes existed.
+     */
+    @Transaction(intent = Transaction.TYPE.SUBMIT)
+    public int rebuildIndexes(final Context ctx) {
+        ChaincodeStub stub = ctx.getStub();
+        int indexed = 0;
+
+        boolean eventSourced = storageMode(stub) == StorageMode.EVENT_SOURCED;
+
+        for (KeyValue result : stub.getStateByPartialCompositeKey(stub.createCompositeKey(STATS_COUNTER))) {
+            stub.delState(result.getKey());
+        }
+        for (KeyValue result : stub.getStateByPartialCompositeKey(stub.createCompositeKey(STATS_DELTA))) {
+            stub.delState(result.getKey());
+        }
+        Map<String, Long> counts = new LinkedHashMap<>();
+
+        QueryResultsIterator<KeyValue> results = stub.getStateByRange("", "");
+        for (KeyValue result : results) {
+            // Counters follow the stored report; event-sourced transitions
+            // are added in when the statistics are read
+            WhistleblowerReport stored = ReportCodec.decode(result.getValue());
+            counts.merge(statisticsKey(stub, stored), 1L, Long::sum);
+            WhistleblowerReport report = eventSourced ? foldEvents(stub, stored) : stored;
+            updateIndexes(stub, null, report);
+            indexed++;
+        }
+        for (KeyValue result : stub.getStateByPartialCompositeKey(stub.createCompositeKey(ARCHIVE_OBJECT_TYPE))) {
+            WhistleblowerReport archived = ReportCodec.decode(unwrapArchived(result.getValue()));
+            counts.merge(statisticsKey(stub, archived), 1L, Long::sum);
+            updateIndex(stub, ARCHIVE_UPDATED_INDEX, archived.getId(), null,
+                    timeAttribute(archived.getLastUpdated()));
+        }
+        for (Map.Entry<String, Long> count : counts.entrySet()) {
+            stub.putStringState(count.getKey(), Long.toString(count.getValue()));
+        }
+
+        return indexed;
+    }
+
+    /**
+     * Count reports by status and department, with their ages bucketed as
+     * described in ReportStatistics. Archived reports are still counted.
+     * Reads the counters, the deltas not yet rolled up and, in event-sourced
+     * mode, the events not yet compacted, so the cost grows with the number
+     * of groups and pending changes rather than with the number of reports.
+     */
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String getReportStatistics(final Context ctx) {
+        ChaincodeStub stub = ctx.getStub();
+        Map<String, Long> counts = new LinkedHashMap<>();
+
+        for (KeyValue result : stub.getStateByPartialCompositeKey(stub.createCompositeKey(STATS_COUNTER))) {
+            counts.merge(result.getKey(), Long.parseLong(result.getStringValue()), Long::sum);
+        }
+        for (KeyValue result : stub.getStateByPartialCompositeKey(stub.createCompositeKey(STATS_DELTA))) {
+            counts.merge(result.getStringValue(), deltaValue(stub, result.getKey()), Long::sum);
+        }
+        if (storageMode(stub) == StorageMode.EVENT_SOURCED) {
+            Set<String> reportIds = new LinkedHashSet<>();
+            for (KeyValue result : stub.getStateByPartialCompositeKey(stub.createCompositeKey(ReportEvents.OBJECT_TYPE))) {
+                reportIds.add(ReportEvents.decode(result.getKey(), result.getValue()).getReportId());
+            }
+            for (String reportId : reportIds) {
+                WhistleblowerReport report = readReport(stub, reportId);
+                String stored = statisticsKey(stub, report);
+                String current = statisticsKey(stub, foldEvents(stub, report));
+                if (!stored.equals(current)) {
+                    counts.merge(stored, -1L, Long::sum);
+                    counts.merge(current, 1L, Long::sum);
+                }
+            }
+        }
+
+        long asOf = stub.getTxTimestamp().toEpochMilli();
+        long today = Math.floorDiv(asOf, MILLIS_PER_DAY);
+        Map<String, ReportStatistics.Group> groups = new TreeMap<>();
+        for (Map.Entry<String, Long> count : counts.entrySet()) {
+            if (count.getValue() == 0) {
+                continue;
+            }
+            List<String> attributes = stub.splitCompositeKey(count.getKey()).getAttributes();
+            ReportStatus status = ReportStatus.valueOf(attributes.get(0));
+            String department = attributes.get(1);
+            long submittedDay = LocalDate.parse(attributes.get(2)).toEpochDay();
+            groups.computeIfAbsent(status.ordinal() + "\u0000" + department,
+                    group -> new ReportStatistics.Group(status, department))
+                    .add(today - submittedDay, count.getValue());
+        }
+
+        return genson.serialize(ReportStatistics.of(asOf, new ArrayList<>(groups.values())));
+    }
+
+    /**
+     * Fold up to MAX_ROLLUP_DELTAS of the oldest statistics deltas into the
+     * counters and delete them, returning how many were folded. Run it
+     * periodically, as with compactReport, to keep getReportStatistics
+     * reading little more than the counters. Deltas are keyed by time, so
+     * writes committing alongside a rollup add theirs after the range it read.
+     */
+    @Transaction(intent = Transaction.TYPE.SUBMIT)
+    public int rollupReportStatistics(final Context ctx) {
+        ChaincodeStub stub = ctx.getStub();
+        Map<String, Long> sums = new LinkedHashMap<>();
+        int folded = 0;
+
+        for (KeyValue result : stub.getStateByPartialCompositeKey(stub.createCompositeKey(STATS_DELTA))) {
+            if (folded == MAX_ROLLUP_DELTAS) {
+                break;
+            }
+            sums.merge(result.getStringValue(), deltaValue(stub, result.getKey()), Long::sum);
+            stub.delState(result.getKey());
+            folded++;
+        }
+
+        for (Map.Entry<String, Long> sum : sums.entrySet()) {
+            if (sum.getValue() == 0) {
+                continue;
+            }
+            String stored = stub.getStringState(sum.getKey());
+            long count = (stored == null || stored.isEmpty() ? 0 : Long.parseLong(stored)) + sum.getValue();
+            if (count > 0) {
+                stub.putStringState(sum.getKey(), Long.toString(count));
+            } else {
+                stub.delState(sum.getKey());
+            }
+        }
+
+        return folded;
+    }
+
+    /**
+     * Get the storage mode used for transitions
+     */
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String getStorageMode(final Context ctx) {
+        return storageMode(ctx.getStub()).toString();
+    }
+
+    /**
+     * Set the storage mode used for transitions. Switching to SNAPSHOT
+     * compacts every report that has events, and returns how many were
+     * compacted.
+     */
+    @Transaction(intent = Transaction.TYPE.SUBMIT)
+    public int setStorageMode(final Context ctx, final String mode) {
+        ChaincodeStub stub = ctx.getStub();
+        StorageMode storageMode;
+        try {
+            storageMode = StorageMode.valueOf(mode);
+        } catch (IllegalArgumentException | NullPointerException e) {
+            String errorMessage = String.format("Unknown storage mode %s", mode);
+            throw error(errorMessage, WhistleblowerErrors.INVALID_STORAGE_MODE);
+        }
+
+        stub.putStringState(stub.createCompositeKey(CONFIG_OBJECT_TYPE, STORAGE_MODE_SETTING).toString(),
+                storageMode.toString());
+
+        int compacted = 0;
+        if (storageMode == StorageMode.SNAPSHOT) {
+            Set<String> reportIds = new LinkedHashSet<>();
+            QueryResultsIterator<KeyValue> results = stub.getStateByPartialCompositeKey(
+                    stub.createCompositeKey(ReportEvents.OBJECT_TYPE));
+            for (KeyValue result : results) {
+                reportIds.add(ReportEvents.decode(result.getKey(), result.getValue()).getReportId());
+            }
+            for (String reportId : reportIds) {
+                compact(stub, reportId);
+                compacted++;
+            }
+        }
+
+        return compacted;
+    }
+
+    /**
+     * Fold a report's events into the report key and delete them, along with
+     * index entries the events left behind. Works in either storage mode.
+     */
+    @Transaction(intent = Transaction.TYPE.SUBMIT)
+    public String compactReport(final Context ctx, final String reportId) {
+        return ReportCodec.encodeToString(compact(ctx.getStub(), reportId));
+    }
+
+    /**
+     * Get how many days a report stays CLOSED before it is archived
+     */
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public int getArchiveAfterDays(final Context ctx) {
+        return archiveAfterDays(ctx.getStub());
+    }
+
+    /**
+     * Set how many days a report stays CLOSED before archiveClosedReports
+     * moves it to the archive
+     */
+    @Transaction(intent = Transaction.TYPE.SUBMIT)
+    public void setArchiveAfterDays(final Context ctx, final int days) {
+        if (days < 0) {
+            String errorMessage = String.format("Archive age must not be negative, got %d days", days);
+            throw error(errorMessage, WhistleblowerErrors.INVALID_ARCHIVE_AGE);
+        }
+
+        ChaincodeStub stub = ctx.getStub();
+        stub.putStringState(stub.createCompositeKey(CONFIG_OBJECT_TYPE, ARCHIVE_AFTER_DAYS_SETTING).toString(),
+                Integer.toString(days));
+    }
+
+    /**
+     * Get summaries of the reports archiveClosedReports would take, from one
+     * page of the time index, oldest update first. At most pageSize index
+     * entries are read; fetchedRecordsCount says how many. The bookmark is
+     * empty once the page reaches the cutoff or the end of the index, since
+     * every later entry is too recent. Pass an empty bookmark for the first
+     * page.
+     */
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String getArchivableReports(final Context ctx, final int pageSize, final String bookmark) {
+        checkPageSize(pageSize);
+
+        ChaincodeStub stub = ctx.getStub();
+        long cutoff = archiveCutoff(stub);
+        boolean eventSourced = storageMode(stub) == StorageMode.EVENT_SOURCED;
+        QueryResultsIteratorWithMetadata<KeyValue> results = stub.getStateByPartialCompositeKeyWithPagination(
+                stub.createCompositeKey(UPDATED_INDEX), pageSize, bookmark);
+
+        List<WhistleblowerReport> records = new ArrayList<>();
+        int fetched = 0;
+        boolean pastCutoff = false;
+        for (KeyValue result : results) {
+            List<String> attributes = stub.splitCompositeKey(result.getKey()).getAttributes();
+            if (Long.parseLong(attributes.get(0)) > cutoff) {
+                pastCutoff = true;
+                break;
+            }
+            fetched++;
+            WhistleblowerReport report = getIndexedReport(stub, result.getKey(), eventSourced);
+            // Entries left behind by event-sourced transitions are skipped
+            if (report.getStatus() == ReportStatus.CLOSED
+                    && attributes.get(0).equals(fieldValue(report, "lastUpdated"))) {
+                records.add(report);
+            }
+        }
+
+        QueryResponseMetadata metadata = results.getMetadata();
+        String nextBookmark = pastCutoff || metadata == null ? "" : metadata.getBookmark();
+
+        return ReportCodec.encodeSummaryPageToString(new ReportPage(records, nextBookmark, fetched));
+    }
+
+    /**
+     * Move a JSON array of up to MAX_BATCH_SIZE report IDs, as found by
+     * getArchivableReports, out of the active reports and into the archive.
+     * Each report must still be CLOSED for longer than the archive age when
+     * this transaction runs, or it is skipped with REPORT_NOT_ARCHIVABLE in
+     * the returned result array. Each is compacted, written under its
+     * archive key and removed from its report key and the indexes, so
+     * getAllReports, the index queries and rebuildIndexes read only active
+     * reports however many have been closed. Its ID stays taken, its text
+     * and private details stay where they are, and it still counts in
+     * getReportStatistics.
+     *
+     * Only the listed reports are read, so the cost is bounded by the batch
+     * size. Finding them is left to getArchivableReports because a
+     * transaction that writes cannot resume a range read from a bookmark.
+     * Archived reports move from the time index to the archive's, which
+     * getArchivedReportsUpdatedSince reads, so an export that reads both (as
+     * ClosedReportExporter does) still finds reports archived before it ran.
+     */
+    @Transaction(intent = Transaction.TYPE.SUBMIT)
+    public String archiveClosedReports(final Context ctx, final String reportIdsJSON) {
+        String[] reportIds = parseBatch(reportIdsJSON, String[].class);
+        ChaincodeStub stub = ctx.getStub();
+        long cutoff = archiveCutoff(stub);
+        boolean eventSourced = storageMode(stub) == StorageMode.EVENT_SOURCED;
+        List<BatchItemResult> results = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+
+        for (String reportId : reportIds) {
+            if (reportId != null && !seen.add(reportId)) {
+                results.add(BatchItemResult.failed(reportId, WhistleblowerErrors.DUPLICATE_IN_BATCH.toString(),
+                        String.format("Report %s appears more than once in the batch", reportId)));
+                continue;
+            }
+            try {
+                if (reportId == null || reportId.isEmpty()) {
+                    throw invalidReport("Report ID must not be empty");
+                }
+                WhistleblowerReport report = readReport(stub, reportId);
+                if (eventSourced) {
+                    foldEvents(stub, report);
+                }
+                if (report.getStatus() != ReportStatus.CLOSED || report.getLastUpdated() > cutoff) {
+                    String errorMessage = String.format("Report %s is %s, last updated at %d; only reports "
+                            + "CLOSED at or before %d can be archived", reportId, report.getStatus(),
+                            report.getLastUpdated(), cutoff);
+                    throw error(errorMessage, WhistleblowerErrors.REPORT_NOT_ARCHIVABLE);
+                }
+                archive(stub, eventSourced ? compact(stub, reportId) : report);
+                results.add(BatchItemResult.ok(reportId));
+            } catch (ChaincodeException e) {
+                results.add(failedItem(reportId, e));
+            }
+        }
+
+        return genson.serialize(results);
+    }
+
+    /**
+     * Get an archived report by ID
+     */
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String getArchivedReport(final Context ctx, final String reportId) {
+        return new String(readArchivedReportBytes(ctx.getStub(), reportId), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Get an archived report with its description, submitter and findings
+     * filled in, as getReportDetail does for an active one
+     */
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String getArchivedReportDetail(final Context ctx, final String reportId) {
+        ChaincodeStub stub = ctx.getStub();
+        WhistleblowerReport report = ReportCodec.decode(readArchivedReportBytes(stub, reportId));
+
+        return ReportCodec.encodeToString(withDetails(stub, report));
+    }
+
+    /**
+     * Get one page of the archived reports last updated at or after since,
+     * oldest update first, read from the archive's time index. Pass an empty
+     * bookmark for the first page.
+     */
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String getArchivedReportsUpdatedSince(final Context ctx, final long since, final int pageSize,
+            final String bookmark) {
+        checkPageSize(pageSize);
+
+        ChaincodeStub stub = ctx.getStub();
+        String start = bookmark == null || bookmark.isEmpty()
+                ? stub.createCompositeKey(ARCHIVE_UPDATED_INDEX, timeAttribute(Math.max(0, since))).toString()
+                : bookmark;
+        QueryResultsIteratorWithMetadata<KeyValue> results = stub.getStateByPartialCompositeKeyWithPagination(
+                stub.createCompositeKey(ARCHIVE_UPDATED_INDEX), pageSize, start);
+
+        List<WhistleblowerReport> records = new ArrayList<>();
+        int fetched = 0;
+        for (KeyValue result : results) {
+            fetched++;
+            List<String> attributes = stub.splitCompositeKey(result.getKey()).getAttributes();
+            // Archived reports never change, so every entry is current
+            records.add(ReportCodec.decode(readArchivedReportBytes(stub, attributes.get(1))));
+        }
+
+        QueryResponseMetadata metadata = results.getMetadata();
+        String nextBookmark = metadata == null ? "" : metadata.getBookmark();
+
+        return ReportCodec.encodePageToString(new ReportPage(records, nextBookmark, fetched));
+    }
+
+    /**
+     * Get one page of archived reports, in ID order. Pass an empty bookmark
+     * for the first page.
+     */
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String getArchivedReportsWithPagination(final Context ctx, final int pageSize, final String bookmark) {
+        checkPageSize(pageSize);
+
+        ChaincodeStub stub = ctx.getStub();
+        QueryResultsIteratorWithMetadata<KeyValue> results = stub.getStateByPartialCompositeKeyWithPagination(
+                stub.createCompositeKey(ARCHIVE_OBJECT_TYPE), pageSize, bookmark);
+
+        List<WhistleblowerReport> records = new ArrayList<>();
+        int fetched = 0;
+        for (KeyValue result : results) {
+            fetched++;
+            // Archived reports were compacted, so there are no events to fold
+            records.add(ReportCodec.decode(unwrapArchived(result.getValue())));
+        }
+
+        QueryResponseMetadata metadata = results.getMetadata();
+        String nextBookmark = metadata == null ? "" : metadata.getBookmark();
+
+        return ReportCodec.encodePageToString(new ReportPage(records, nextBookmark, fetched));
+    }
+
+    private List<WhistleblowerReport> allReports(final ChaincodeStub stub) {
+        boolean eventSourced = storageMode(stub) == StorageMode.EVENT_SOURCED;
+        List<WhistleblowerReport> queryResults = new ArrayList<>();
+
+        QueryResultsIterator<KeyValue> results = stub.getStateByRange("", "");
+        for (KeyValue result : results) {
+            queryResults.add(currentReport(stub, result.getValue(), eventSourced));
+        }
+
+        return queryResults;
+    }
+
+    private ReportPage allReportsPage(final ChaincodeStub stub, final int pageSize, final String bookmark) {
+        checkPageSize(pageSize);
+
+        QueryResultsIteratorWithMetadata<KeyValue> results =
+                stub.getStateByRangeWithPagination("", "", pageSize, bookmark);
+
+        return toReportPage(stub, results, storageMode(stub) == StorageMode.EVENT_SOURCED);
+    }
+
+    /**
+     * One page of reports by status, read from the status index
+     */
+    private ReportPage statusPage(final ChaincodeStub stub, final String status, final int pageSize,
+            final String bookmark) {
+        ReportStatus reportStatus = parseStatus(status);
+        checkPageSize(pageSize);
+
+        return indexPage(stub, STATUS_INDEX, "status", reportStatus.toString(), pageSize, bookmark);
+    }
+
+    /**
+     * One page of the reports whose field currently has the given value,
+     * read from the index in report ID order. Entries left behind by
+     * event-sourced transitions are skipped.
+     */
+    private ReportPage indexPage(final ChaincodeStub stub, final String index, final String field,
+            final String value, final int pageSize, final String bookmark) {
+        CompositeKey prefix = stub.createCompositeKey(index, value);
+        QueryResultsIteratorWithMetadata<KeyValue> results =
+                stub.getStateByPartialCompositeKeyWithPagination(prefix, pageSize, bookmark);
+
+        boolean eventSourced = storageMode(stub) == StorageMode.EVENT_SOURCED;
+        List<WhistleblowerReport> records = new ArrayList<>();
+        int fetched = 0;
+        for (KeyValue result : results) {
+            fetched++;
+            WhistleblowerReport report = getIndexedReport(stub, result.getKey(), eventSourced);
+            if (value.equals(fieldValue(report, field))) {
+                records.add(report);
+            }
+        }
+
+        QueryResponseMetadata metadata = results.getMetadata();
+        String nextBookmark = metadata == null ? "" : metadata.getBookmark();
+
+        // fetchedRecordsCount counts index entries, so a page thinned by
+        // stale entries is not mistaken for the last one
+        return new ReportPage(records, nextBookmark, fetched);
+    }
+
+    /**
+     * Write a new report. submittedAt is the time it was first made, or 0
+     * for this transaction's time.
+     */
+    private WhistleblowerReport createReport(final Context ctx, final String id, final String description,
+            final String department, final String submittedBy, final long submittedAt, final String salt) {
+        ChaincodeStub stub = ctx.getStub();
+
+        if (id == null || id.isEmpty()) {
+            throw invalidReport("Report ID must not be empty");
+        }
+        if (reportExists(ctx, id)) {
+            String errorMessage = String.format("Report %s already exists", id);
+            throw error(errorMessage, WhistleblowerErrors.REPORT_ALREADY_EXISTS);
+        }
+
+        long now = stub.getTxTimestamp().toEpochMilli();
+        if (submittedAt < 0 || submittedAt > now) {
+            throw invalidReport(String.format("Report %s submittedAt %d is negative or after the transaction (%d)",
+                    id, submittedAt, now));
+        }
+        WhistleblowerReport report = new WhistleblowerReport(id, null, department, null,
+                submittedAt == 0 ? now : submittedAt, ReportStatus.SUBMITTED, "", "", "");
+        report.setLastUpdated(now);
+        ReportPrivateDetails details = new ReportPrivateDetails(description, submittedBy, salt);
+        byte[] detailsBytes = details.encode();
+        stub.putPrivateData(ReportPrivateDetails.COLLECTION, id, detailsBytes);
+        report.setPrivateDetailsHash(ReportText.digest(detailsBytes));
+        putReport(stub, null, report);
+
+        return report;
+    }
+
+    /**
+     * Apply a transition to a report once checkTransition allows it. In
+     * event-sourced mode the transition is appended under its own key.
+     * investigatorId, if not null, is the investigator acting on the report.
+     */
+    private WhistleblowerReport transition(final Context ctx, final String reportId, final ReportEvents.Type type,
+            final String value, final String investigatorId) {
+        checkCaller(ctx, type);
+        ChaincodeStub stub = ctx.getStub();
+        WhistleblowerReport report = readReport(stub, reportId);
+        long now = stub.getTxTimestamp().toEpochMilli();
+
+        if (storageMode(stub) == StorageMode.EVENT_SOURCED) {
+            // The check needs the current status, so the report's events are
+            // read; two transitions of one report in a block then conflict,
+            // as the state machine requires. The report key is never
+            // rewritten in this mode, and index entries are added without
+            // removing the old ones, which the queries filter out
+            foldEvents(stub, report);
+            checkTransition(ctx, report, type, value, investigatorId);
+            String eventKey = stub.createCompositeKey(ReportEvents.OBJECT_TYPE,
+                    ReportEvents.keyAttributes(reportId, now, stub.getTxId(), type)).toString();
+            ReportEvents.apply(report, type, value, now);
+            storeLargeText(stub, report);
+            stub.putState(eventKey, type == ReportEvents.Type.FINDINGS && report.getFindingsDigest() != null
+                    ? ReportEvents.encodeTextReference(report.getFindingsDigest(), report.getFindingsLength())
+                    : ReportEvents.encodeValue(value));
+            updateIndex(stub, STATUS_INDEX, reportId, null, report.getStatus().toString());
+            updateIndex(stub, UPDATED_INDEX, reportId, null, timeAttribute(now));
+            if (type == ReportEvents.Type.ASSIGNMENT) {
+                updateIndex(stub, INVESTIGATOR_INDEX, reportId, null, value);
+            }
+            return report;
+        }
+
+        checkTransition(ctx, report, type, value, investigatorId);
+        WhistleblowerReport previous = WhistleblowerReport.copyOf(report);
+        ReportEvents.apply(report, type, value, now);
+        putReport(stub, previous, report);
+
+        return report;
+    }
+
+    /**
+     * Check the caller belongs to the organization that makes this kind of
+     * transition: DoGE assigns and investigates, DoE decides
+     */
+    private static void checkCaller(final Context ctx, final ReportEvents.Type type) {
+        String required = type == ReportEvents.Type.DECISION ? DOE_MSP_ID : DOGE_MSP_ID;
+        String mspId = ctx.getClientIdentity().getMSPID();
+        if (!required.equals(mspId)) {
+            String errorMessage = String.format("%s is not available to %s; only %s may make it", type, mspId,
+                    required);
+            throw error(errorMessage, WhistleblowerErrors.CALLER_NOT_AUTHORIZED);
+        }
+    }
+
+    /**
+     * Enforce the state machine in ReportEvents.Type, and that findings come
+     * from the assigned investigator, both as named by the caller and as
+     * carried in the caller's certificate
+     */
+    private static void checkTransition(final Context ctx, final WhistleblowerReport report,
+            final ReportEvents.Type type, final String value, final String investigatorId) {
+        if (report.getStatus() != type.getRequiredStatus()) {
+            String errorMessage = String.format("Report %s is %s; %s needs it to be %s", report.getId(),
+                    report.getStatus(), type, type.getRequiredStatus());
+            throw error(errorMessage, WhistleblowerErrors.INVALID_TRANSITION);
+        }
+
+        if (type == ReportEvents.Type.ASSIGNMENT && (value == null || value.isEmpty())) {
+            throw invalidReport(String.format("Assignment for report %s has no investigator ID", report.getId()));
+        }
+
+        if (type == ReportEvents.Type.FINDINGS) {
+            String callerInvestigatorId = ctx.getClientIdentity().getAttributeValue(INVESTIGATOR_ATTRIBUTE);
+            checkInvestigator(report, investigatorId);
+            checkInvestigator(report, callerInvestigatorId);
+        }
+    }
+
+    private static void checkInvestigator(final WhistleblowerReport report, final String investigatorId) {
+        if (investigatorId != null && !investigatorId.equals(report.getInvestigatorId())) {
+            String errorMessage = String.format("Investigator %s is not assigned to report %s", investigatorId,
+                    report.getId());
+            throw error(errorMessage, WhistleblowerErrors.NOT_ASSIGNED_INVESTIGATOR);
+        }
+    }
+
+    private WhistleblowerReport compact(final ChaincodeStub stub, final String reportId) {
+        WhistleblowerReport stored = readReport(stub, reportId);
+        List<ReportEvents.Event> events = readEvents(stub, reportId);
+        WhistleblowerReport report = WhistleblowerReport.copyOf(stored);
+        for (ReportEvents.Event event : events) {
+            ReportEvents.apply(report, event);
+        }
+
+        for (ReportEvents.Event event : events) {
+            stub.delState(event.getKey());
+            String status = event.getType().getStatus().toString();
+            if (!status.equals(report.getStatus().toString())) {
+                stub.delState(stub.createCompositeKey(STATUS_INDEX, status, reportId).toString());
+            }
+            if (event.getTimestamp() != report.getLastUpdated()) {
+                stub.delState(stub.createCompositeKey(UPDATED_INDEX, timeAttribute(event.getTimestamp()), reportId)
+                        .toString());
+            }
+            if (event.getType() == ReportEvents.Type.ASSIGNMENT && !event.getValue().isEmpty()
+                    && !event.getValue().equals(report.getInvestigatorId())) {
+                stub.delState(stub.createCompositeKey(INVESTIGATOR_INDEX, event.getValue(), reportId).toString());
+            }
+        }
+        putReport(stub, stored, report);
+
+        return report;
+    }
+
+    private static StorageMode storageMode(final ChaincodeStub stub) {
+        String mode = stub.getStringState(stub.createCompositeKey(CONFIG_OBJECT_TYPE, STORAGE_MODE_SETTING).toString());
+        return mode == null || mode.isEmpty() ? StorageMode.SNAPSHOT : StorageMode.valueOf(mode);
+    }
+
+    private static int archiveAfterDays(final ChaincodeStub stub) {
+        String days = stub.getStringState(
+                stub.createCompositeKey(CONFIG_OBJECT_TYPE, ARCHIVE_AFTER_DAYS_SETTING).toString());
+        return days == null || days.isEmpty() ? DEFAULT_ARCHIVE_AFTER_DAYS : Integer.parseInt(days);
+    }
+
+    private static String archiveKey(final ChaincodeStub stub, final String reportId) {
+        return stub.createCompositeKey(ARCHIVE_OBJECT_TYPE, reportId).toString();
+    }
+
+    /**
+     * Latest lastUpdated of a CLOSED report old enough to archive
+     */
+    private static long archiveCutoff(final ChaincodeStub stub) {
+        return stub.getTxTimestamp().toEpochMilli() - archiveAfterDays(stub) * MILLIS_PER_DAY;
+    }
+
+    /**
+     * Move a compacted report to its archive key and delete its report key
+     * and index entries. The statistics counters are left as they are.
+     */
+    private static void archive(final ChaincodeStub stub, final WhistleblowerReport report) {
+        String reportId = report.getId();
+        byte[] reportJSON = ReportCodec.encode(report);
+        byte[] archivedJSON = new byte[ARCHIVED_PREFIX.length + reportJSON.length + 1];
+        System.arraycopy(ARCHIVED_PREFIX, 0, archivedJSON, 0, ARCHIVED_PREFIX.length);
+        System.arraycopy(reportJSON, 0, archivedJSON, ARCHIVED_PREFIX.length, reportJSON.length);
+        archivedJSON[archivedJSON.length - 1] = '}';
+        stub.putState(archiveKey(stub, reportId), archivedJSON);
+        stub.delState(reportId);
+        updateIndex(stub, STATUS_INDEX, reportId, report.getStatus().toString(), null);
+        updateIndex(stub, INVESTIGATOR_INDEX, reportId, report.getInvestigatorId(), null);
+        updateIndex(stub, DEPARTMENT_INDEX, reportId, report.getDepartment(), null);
+        updateIndex(stub, UPDATED_INDEX, reportId, timeAttribute(report.getLastUpdated()), null);
+        updateIndex(stub, ARCHIVE_UPDATED_INDEX, reportId, null, timeAttribute(report.getLastUpdated()));
+    }
+
+    private static byte[] readArchivedReportBytes(final ChaincodeStub stub, final String reportId) {
+        byte[] reportJSON = stub.getState(archiveKey(stub, reportId));
+
+        if (reportJSON == null || reportJSON.length == 0) {
+            String errorMessage = String.format("Report %s is not archived", reportId);
+            throw error(errorMessage, WhistleblowerErrors.REPORT_NOT_FOUND);
+        }
+
+        return unwrapArchived(reportJSON);
+    }
+
+    /**
+     * The report document inside an archive record written by archive
+     */
+    private static byte[] unwrapArchived(final byte[] archivedJSON) {
+        return Arrays.copyOfRange(archivedJSON, ARCHIVED_PREFIX.length, archivedJSON.length - 1);
+    }
+
+    private static List<ReportEvents.Event> readEvents(final ChaincodeStub stub, final String reportId) {
+        List<ReportEvents.Event> events = new ArrayList<>();
+        QueryResultsIterator<KeyValue> results = stub.getStateByPartialCompositeKey(ReportEvents.OBJECT_TYPE,
+                reportId);
+        for (KeyValue result : results) {
+            events.add(ReportEvents.decode(result.getKey(), result.getValue()));
+        }
+        return events;
+    }
+
+    /**
+     * Apply a report's events, in key order, to the stored report
+     */
+    private static WhistleblowerReport foldEvents(final ChaincodeStub stub, final WhistleblowerReport report) {
+        for (ReportEvents.Event event : readEvents(stub, report.getId())) {
+            ReportEvents.apply(report, event);
+        }
+        return report;
+    }
+
+    private static WhistleblowerReport currentReport(final ChaincodeStub stub, final byte[] reportJSON,
+            final boolean eventSourced) {
+        WhistleblowerReport report = ReportCodec.decode(reportJSON);
+        return eventSourced ? foldEvents(stub, report) : report;
+    }
+
+    private List<WhistleblowerReport> parseReportBatch(final String json) {
+        List<WhistleblowerReport> reports;
+        try {
+            reports = ReportCodec.decodeList(json.getBytes(StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            String errorMessage = String.format("Batch is not a valid JSON array: %s", e.getMessage());
+            throw error(errorMessage, WhistleblowerErrors.INVALID_BATCH);
+        }
+
+        checkBatchSize(reports == null ? 0 : reports.size());
+        return reports;
+    }
+
+    private <T> T[] parseBatch(final String json, final Class<T[]> type) {
+        T[] items;
+        try {
+            items = genson.deserialize(json, type);
+        } catch (JsonBindingException e) {
+            String errorMessage = String.format("Batch is not a valid JSON array: %s", e.getMessage());
+            throw error(errorMessage, WhistleblowerErrors.INVALID_BATCH);
+        }
+
+        checkBatchSize(items == null ? 0 : items.length);
+        return items;
+    }
+
+    private static void checkBatchSize(final int size) {
+        if (size == 0 || size > MAX_BATCH_SIZE) {
+            String errorMessage = String.format("Batch must hold between 1 and %d items", MAX_BATCH_SIZE);
+            throw error(errorMessage, WhistleblowerErrors.INVALID_BATCH);
+        }
+    }
+
+    private static BatchItemResult failedItem(final String id, final ChaincodeException e) {
+        byte[] payload = e.getPayload();
+        String errorCode = payload == null ? "" : new String(payload, StandardCharsets.UTF_8);
+        return BatchItemResult.failed(id, errorCode, e.getMessage());
+    }
+
+    private static MetricsRecorder metricsFromEnvironment() {
+        String port = System.getenv("WB_METRICS_PORT");
+        String logSeconds = System.getenv("WB_METRICS_LOG_SECONDS");
+        if ((port == null || port.isEmpty()) && (logSeconds == null || logSeconds.isEmpty())) {
+            return MetricsRecorder.NOOP;
+        }
+        MetricsRegistry registry = new MetricsRegistry("whistleblower");
+        try {
+            if (port != null && !port.isEmpty()) {
+                new PrometheusEndpoint(registry, Integer.parseInt(port));
+            }
+            if (logSeconds != null && !logSeconds.isEmpty()) {
+                new MetricsLogReporter(registry, Duration.ofSeconds(Long.parseLong(logSeconds)));
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            System.out.println(String.format("Metrics disabled: %s", e.getMessage()));
+            return MetricsRecorder.NOOP;
+        }
+        return registry;
+    }
+
+    private static long utf8Length(final String text) {
+        long length = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c)) {
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    private static ChaincodeException invalidReport(final String errorMessage) {
+        return error(errorMessage, WhistleblowerErrors.INVALID_REPORT);
+    }
+
+    /**
+     * Log an error and count it under contract_errors before it is thrown
+     */
+    private static ChaincodeException error(final String errorMessage, final WhistleblowerErrors code) {
+        System.out.println(errorMessage);
+        metrics.count("contract_errors", null, code.toString());
+        return new ChaincodeException(errorMessage, code.toString());
+    }
+
+    private static WhistleblowerReport readReport(final ChaincodeStub stub, final String reportId) {
+        return ReportCodec.decode(readReportBytes(stub, reportId));
+    }
+
+    private static byte[] readReportBytes(final ChaincodeStub stub, final String reportId) {
+        byte[] reportJSON = stub.getState(reportId);
+
+        if (reportJSON == null || reportJSON.length == 0) {
+            byte[] archivedJSON = stub.getState(archiveKey(stub, reportId));
+            String errorMessage = archivedJSON == null || archivedJSON.length == 0
+                    ? String.format("Report %s does not exist", reportId)
+                    : String.format("Report %s is archived; read it with getArchivedReport", reportId);
+            throw error(errorMessage, WhistleblowerErrors.REPORT_NOT_FOUND);
+        }
+
+        return reportJSON;
+    }
+
+    /**
+     * Write a report and bring its index entries in line with it. previous is
+     * the stored version being replaced, or null for a new report.
+     */
+    private void putReport(final ChaincodeStub stub, final WhistleblowerReport previous,
+            final WhistleblowerReport report) {
+        storeLargeText(stub, report);
+        stub.putState(report.getId(), ReportCodec.encode(report));
+        updateIndexes(stub, previous, report);
+        updateStatistics(stub, previous, report);
+    }
+
+    /**
+     * Append the deltas moving a report from its previous statistics counter
+     * to its current one. Event-sourced transitions do not come through here;
+     * compaction moves the report once for all its events.
+     */
+    private static void updateStatistics(final ChaincodeStub stub, final WhistleblowerReport previous,
+            final WhistleblowerReport report) {
+        String from = previous == null ? null : statisticsKey(stub, previous);
+        String to = statisticsKey(stub, report);
+        if (to.equals(from)) {
+            return;
+        }
+        // The status keeps the keys apart when a batch moves one report twice
+        String timestamp = timeAttribute(stub.getTxTimestamp().toEpochMilli());
+        if (from != null) {
+            stub.putStringState(stub.createCompositeKey(STATS_DELTA, timestamp, stub.getTxId(), report.getId(),
+                    previous.getStatus().toString(), "-1").toString(), from);
+        }
+        stub.putStringState(stub.createCompositeKey(STATS_DELTA, timestamp, stub.getTxId(), report.getId(),
+                report.getStatus().toString(), "+1").toString(), to);
+    }
+
+    private static String statisticsKey(final ChaincodeStub stub, final WhistleblowerReport report) {
+        String department = report.getDepartment() == null ? "" : report.getDepartment();
+        String submittedDay = LocalDate.ofEpochDay(Math.floorDiv(report.getSubmittedAt(), MILLIS_PER_DAY)).toString();
+        return stub.createCompositeKey(STATS_COUNTER, report.getStatus().toString(), department, submittedDay)
+                .toString();
+    }
+
+    /**
+     * The +1 or -1 a delta key ends with
+     */
+    private static long deltaValue(final ChaincodeStub stub, final String deltaKey) {
+        List<String> attributes = stub.splitCompositeKey(deltaKey).getAttributes();
+        return Long.parseLong(attributes.get(attributes.size() - 1));
+    }
+
+    /**
+     * Move a description or findings text over ReportText.INLINE_LIMIT to its
+     * content-addressed key, leaving its digest and length on the report. A
+     * null text is already stored that way and is left alone; an inline one
+     * replaces any earlier digest.
+     */
+    private static void storeLargeText(final ChaincodeStub stub, final WhistleblowerReport report) {
+        String description = report.getDescription();
+        if (description != null) {
+            String digest = ReportText.isLarge(description) ? putText(stub, description) : null;
+            report.setDescriptionDigest(digest);
+            report.setDescriptionLength(digest == null ? 0 : description.getBytes(StandardCharsets.UTF_8).length);
+            if (digest != null) {
+                report.setDescription(null);
+            }
+        }
+
+        String findings = report.getFindings();
+        if (findings != null) {
+            String digest = ReportText.isLarge(findings) ? putText(stub, findings) : null;
+            report.setFindingsDigest(digest);
+            report.setFindingsLength(digest == null ? 0 : findings.getBytes(StandardCharsets.UTF_8).length);
+            if (digest != null) {
+                report.setFindings(null);
+            }
+        }
+    }
+
+    /**
+     * Write a text under its digest and return the digest. The write is blind:
+     * rewriting an existing text key stores the same bytes.
+     */
+    private static String putText(final ChaincodeStub stub, final String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        String digest = ReportText.digest(bytes);
+        stub.putState(stub.createCompositeKey(ReportText.OBJECT_TYPE, digest).toString(), bytes);
+        return digest;
+    }
+
+    /**
+     * Fill in a report's description, submitter and findings from the
+     * private data collection and the text keys
+     */
+    private static WhistleblowerReport withDetails(final ChaincodeStub stub, final WhistleblowerReport report) {
+        if (report.getPrivateDetailsHash() != null) {
+            ReportPrivateDetails details = readPrivateDetails(stub, report);
+            report.setDescription(details.getDescription());
+            report.setSubmittedBy(details.getSubmittedBy());
+        }
+        if (report.getDescriptionDigest() != null) {
+            report.setDescription(readText(stub, report.getId(), report.getDescriptionDigest()));
+        }
+        if (report.getFindingsDigest() != null) {
+            report.setFindings(readText(stub, report.getId(), report.getFindingsDigest()));
+        }
+        return report;
+    }
+
+    /**
+     * Read a report's private details, checking them against the report's
+     * hash. A peer outside the collection, or one that has not yet received
+     * the data from the endorsing peers, reads nothing.
+     */
+    private static ReportPrivateDetails readPrivateDetails(final ChaincodeStub stub,
+            final WhistleblowerReport report) {
+        byte[] bytes;
+        try {
+            bytes = stub.getPrivateData(ReportPrivateDetails.COLLECTION, report.getId());
+        } catch (RuntimeException e) {
+            bytes = null;
+        }
+
+        if (bytes == null || bytes.length == 0 || !report.getPrivateDetailsHash().equals(ReportText.digest(bytes))) {
+            String errorMessage = String.format("Private details of report %s are not available on this peer",
+                    report.getId());
+            throw error(errorMessage, WhistleblowerErrors.PRIVATE_DETAILS_UNAVAILABLE);
+        }
+
+        return ReportPrivateDetails.decode(bytes);
+    }
+
+    /**
+     * Salt for the private details of a submission. Details passed as
+     * transient data must come with a salt of their own. Details passed as
+     * arguments are in the block anyway, so their salt only has to be the
+     * same on every endorser, and is the transaction ID.
+     */
+    private static String privateDetailsSalt(final ChaincodeStub stub) {
+        Map<String, byte[]> transientData = stub.getTransient();
+        String salt = transientValue(transientData, ReportPrivateDetails.TRANSIENT_SALT, null);
+        if (salt != null) {
+            if (salt.length() < ReportPrivateDetails.SALT_LENGTH) {
+                throw invalidReport(String.format("Salt must be at least %d characters",
+                        ReportPrivateDetails.SALT_LENGTH));
+            }
+            return salt;
+        }
+        if (transientData != null && (transientData.containsKey(ReportPrivateDetails.TRANSIENT_DESCRIPTION)
+                || transientData.containsKey(ReportPrivateDetails.TRANSIENT_SUBMITTED_BY)
+                || transientData.containsKey(ReportPrivateDetails.TRANSIENT_REPORTS))) {
+            throw invalidReport(String.format("Private details in transient data need a salt under \"%s\"",
+                    ReportPrivateDetails.TRANSIENT_SALT));
+        }
+        return stub.getTxId();
+    }
+
+    private static String transientValue(final Map<String, byte[]> transientData, final String key,
+            final String argument) {
+        byte[] value = transientData == null ? null : transientData.get(key);
+        return value == null ? argument : new String(value, StandardCharsets.UTF_8);
+    }
+
+    private static String readText(final ChaincodeStub stub, final String reportId, final String digest) {
+        byte[] bytes = stub.getState(stub.createCompositeKey(ReportText.OBJECT_TYPE, digest).toString());
+
+        if (bytes == null || bytes.length == 0 || !digest.equals(ReportText.digest(bytes))) {
+            String errorMessage = String.format("Text %s of report %s is missing or does not match its digest",
+                    digest, reportId);
+            throw error(errorMessage, WhistleblowerErrors.TEXT_NOT_FOUND);
+        }
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void updateIndexes(final ChaincodeStub stub, final WhistleblowerReport previous,
+            final WhistleblowerReport report) {
+        updateIndex(stub, STATUS_INDEX, report.getId(),
+                previous == null ? null : previous.getStatus().toString(), report.getStatus().toString());
+        updateIndex(stub, INVESTIGATOR_INDEX, report.getId(),
+                previous == null ? null : previous.getInvestigatorId(), report.getInvestigatorId());
+        updateIndex(stub, DEPARTMENT_INDEX, report.getId(),
+                previous == null ? null : previous.getDepartment(), report.getDepartment());
+        updateIndex(stub, UPDATED_INDEX, report.getId(),
+                previous == null ? null : timeAttribute(previous.getLastUpdated()),
+                timeAttribute(report.getLastUpdated()));
+    }
+
+    private static String timeAttribute(final long timestamp) {
+        return String.format("%019d", timestamp);
+    }
+
+    private static void updateIndex(final ChaincodeStub stub, final String index, final String id,
+            final String oldValue, final String newValue) {
+        if (oldValue != null && oldValue.equals(newValue)) {
+            return;
+        }
+        if (oldValue != null && !oldValue.isEmpty()) {
+            stub.delState(stub.createCompositeKey(index, oldValue, id).toString());
+        }
+        if (newValue != null && !newValue.isEmpty()) {
+            stub.putState(stub.createCompositeKey(index, newValue, id).toString(), INDEX_VALUE);
+        }
+    }
+
+    /**
+     * Reports whose field currently has the given value, found through the
+     * index. Entries left behind by event-sourced transitions are skipped.
+     */
+    private List<WhistleblowerReport> getIndexedReports(final ChaincodeStub stub, final String index,
+            final String field, final String value) {
+        boolean eventSourced = storageMode(stub) == StorageMode.EVENT_SOURCED;
+        List<WhistleblowerReport> queryResults = new ArrayList<>();
+
+        QueryResultsIterator<KeyValue> results = stub.getStateByPartialCompositeKey(index, value);
+        for (KeyValue result : results) {
+            WhistleblowerReport report = getIndexedReport(stub, result.getKey(), eventSourced);
+            if (value.equals(fieldValue(report, field))) {
+                queryResults.add(report);
+            }
+        }
+
+        return queryResults;
+    }
+
+    /**
+     * Resolve an index entry to the report it points at. The report ID is the
+     * last attribute of the composite key.
+     */
+    private WhistleblowerReport getIndexedReport(final ChaincodeStub stub, final String indexKey,
+            final boolean eventSourced) {
+        List<String> attributes = stub.splitCompositeKey(indexKey).getAttributes();
+        String reportId = attributes.get(attributes.size() - 1);
+
+        return currentReport(stub, stub.getState(reportId), eventSourced);
+    }
+
+    private static String fieldValue(final WhistleblowerReport report, final String field) {
+        switch (field) {
+            case "status":
+                return report.getStatus() == null ? null : report.getStatus().toString();
+            case "investigatorId":
+                return report.getInvestigatorId();
+            case "department":
+                return report.getDepartment();
+            case "lastUpdated":
+                return timeAttribute(report.getLastUpdated());
+            default:
+                throw new IllegalArgumentException("Unindexed field " + field);
+        }
+    }
+
+    /**
+     * One page of a rich query on field = value. CouchDB selects on the
+     * stored report document, which in event-sourced mode only moves on
+     * when the report is compacted, so a report whose events gave it the
+     * value would be missed. In that mode the page is read from the
+     * composite index instead, in report ID order, and the bookmark is an
+     * index key rather than a CouchDB bookmark.
+     */
+    private ReportPage richQueryPage(final Context ctx, final String index, final String field,
+            final String value, final String indexName, final int pageSize, final String bookmark) {
+        checkPageSize(pageSize);
+
+        ChaincodeStub stub = ctx.getStub();
+        if (storageMode(stub) == StorageMode.EVENT_SOURCED) {
+            return indexPage(stub, index, field, value, pageSize, bookmark);
+        }
+
+        String query = buildIndexedQuery(field, value, indexName);
+        QueryResultsIteratorWithMetadata<KeyValue> results =
+                stub.getQueryResultWithPagination(query, pageSize, bookmark);
+
+        return toReportPage(stub, results, false);
+    }
+
+    /**
+     * Build a selector on field = value, sorted on lastUpdated descending and
+     * pinned to the named index. The index is on (field, lastUpdated), and
+     * CouchDB only uses it for the sort when both fields are listed in the
+     * sort and present in the selector.
+     */
+    private String buildIndexedQuery(final String field, final String value, final String indexName) {
+        Map<String, Object> selector = new LinkedHashMap<>();
+        selector.put(field, value);
+        selector.put("lastUpdated", Collections.singletonMap("$gte", 0));
+
+        List<Map<String, String>> sort = new ArrayList<>();
+        sort.add(Collections.singletonMap(field, "desc"));
+        sort.add(Collections.singletonMap("lastUpdated", "desc"));
+
+        Map<String, Object> query = new LinkedHashMap<>();
+        query.put("selector", selector);
+        query.put("sort", sort);
+        query.put("use_index", new String[] {"_design/" + indexName + "Doc", indexName});
+
+        return genson.serialize(query);
+    }
+
+    /**
+     * Collect a page of report documents. In event-sourced mode each report
+     * has its events folded in.
+     */
+    private ReportPage toReportPage(final ChaincodeStub stub, final QueryResultsIteratorWithMetadata<KeyValue> results,
+            final boolean eventSourced) {
+        List<WhistleblowerReport> records = new ArrayList<>();
+        int fetched = 0;
+        for (KeyValue result : results) {
+            fetched++;
+            records.add(currentReport(stub, result.getValue(), eventSourced));
+        }
+
+        QueryResponseMetadata metadata = results.getMetadata();
+        String nextBookmark = metadata == null ? "" : metadata.getBookmark();
+
+        return new ReportPage(records, nextBookmark, fetched);
+    }
+
+    private static ReportStatus parseStatus(final String status) {
+        try {
+            return ReportStatus.valueOf(status);
+        } catch (IllegalArgumentException | NullPointerException e) {
+            String errorMessage = String.format("Unknown report status %s", status);
+            throw error(errorMessage, WhistleblowerErrors.INVALID_STATUS);
+        }
+    }
+
+    private static void checkPageSize(final int pageSize) {
+        if (pageSize <= 0 || pageSize > MAX_PAGE_SIZE) {
+            String errorMessage = String.format("Page size must be between 1 and %d, got %d", MAX_PAGE_SIZE,
+                    pageSize);
+            throw error(errorMessage, WhistleblowerErrors.INVALID_PAGE_SIZE);
+        }
+    }
+}
@@ -5,7 +5,7 @@ import org.hyperledger.fabric.contract.annotation.Property;
 
 import com.owlike.genson.annotation.JsonProperty;
 
-@DataType()en
+@DataType()
 public class WhistleblowerReport {
 
     @Property()
@@ -14,6 +14,19 @@ public class WhistleblowerReport {
     @Property()
     private String description;
 
+    /**
+     * SHA-256 of a description stored under its own key (see ReportText),
+     * in which case description itself is null; null for an inline one
+     */
+    @Property()
+    private String descriptionDigest;
+
+    /**
+     * UTF-8 length of a description stored under its own key
+     */
+    @Property()
+    private long descriptionLength;
+
     @Property()
     private String department;
 
@@ -32,12 +45,26 @@ public class WhistleblowerReport {
     @Property()
     private String findings;
 
+    @Property()
+    private String findingsDigest;
+
+    @Property()
+    private long findingsLength;
+
     @Property()
     private String leadershipDecision;
 
     @Property()
     private long lastUpdated;
 
+    /**
+     * SHA-256 of the description and submitter held in the private data
+     * collection (see ReportPrivateDetails), in which case both are null
+     * here; null for a report that keeps them in world state
+     */
+    @Property()
+    private String privateDetailsHash;
+
     public WhistleblowerReport() {
         // Empty constructor required for deserialization
     }
@@ -64,6 +91,23 @@ public class WhistleblowerReport {
         this.lastUpdated = submittedAt;
     }
 
+    /**
+     * A copy carrying every field, for updating a report other code may
+     * still hold
+     */
+    public static WhistleblowerReport copyOf(final WhistleblowerReport report) {
+        WhistleblowerReport copy = new WhistleblowerReport(report.getId(), report.getDescription(),
+                report.getDepartment(), report.getSubmittedBy(), report.getSubmittedAt(), report.getStatus(),
+                report.getInvestigatorId(), report.getFindings(), report.getLeadershipDecision());
+        copy.setDescriptionDigest(report.getDescriptionDigest());
+        copy.setDescriptionLength(report.getDescriptionLength());
+        copy.setFindingsDigest(report.getFindingsDigest());
+        copy.setFindingsLength(report.getFindingsLength());
+        copy.setPrivateDetailsHash(report.getPrivateDetailsHash());
+        copy.setLastUpdated(report.getLastUpdated());
+        return copy;
+    }
+
     public String getId() {
         return id;
     }
@@ -80,6 +124,22 @@ public class WhistleblowerReport {
         this.description = description;
     }
 
+    public String getDescriptionDigest() {
+        return descriptionDigest;
+    }
+
+    public void setDescriptionDigest(final String descriptionDigest) {
+        this.descriptionDigest = descriptionDigest;
+    }
+
+    public long getDescriptionLength() {
+        return descriptionLength;
+    }
+
+    public void setDescriptionLength(final long descriptionLength) {
+        this.descriptionLength = descriptionLength;
+    }
+
     public String getDepartment() {
         return department;
     }
@@ -128,6 +188,22 @@ public class WhistleblowerReport {
         this.findings = findings;
     }
 
+    public String getFindingsDigest() {
+        return findingsDigest;
+    }
+
+    public void setFindingsDigest(final String findingsDigest) {
+        this.findingsDigest = findingsDigest;
+    }
+
+    public long getFindingsLength() {
+        return findingsLength;
+    }
+
+    public void setFindingsLength(final long findingsLength) {
+        this.findingsLength = findingsLength;
+    }
+
     public String getLeadershipDecision() {
         return leadershipDecision;
     }
@@ -143,4 +219,12 @@ public class WhistleblowerReport {
     public void setLastUpdated(final long lastUpdated) {
         this.lastUpdated = lastUpdated;
     }
+
+    public String getPrivateDetailsHash() {
+        return privateDetailsHash;
+    }
+
+    public void setPrivateDetailsHash(final String privateDetailsHash) {
+        this.privateDetailsHash = privateDetailsHash;
+    }
 }
@@ -0,0 +1,291 @@
+package org.whistleblower.client;
+
+import org.hyperledger.fabric.gateway.Contract;
+import org.hyperledger.fabric.gateway.ContractException;
+import org.hyperledger.fabric.gateway.DefaultCommitHandlers;
+import org.hyperledger.fabric.gateway.Network;
+import org.hyperledger.fabric.gateway.Transaction;
+import org.hyperledger.fabric.gateway.spi.CommitListener;
+import org.hyperledger.fabric.gateway.spi.PeerDisconnectEvent;
+import org.hyperledger.fabric.protos.peer.TransactionPackage.TxValidationCode;
+import org.hyperledger.fabric.sdk.BlockEvent;
+import org.hyperledger.fabric.sdk.Peer;
+import org.whistleblower.metrics.MetricsRecorder;
+
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Submits transactions without blocking the caller until commit.
+ *
+ * Each transaction is endorsed and sent to the orderer on its own virtual
+ * thread. Commit is then awaited through a commit listener instead of a
+ * blocked thread, so the number of transactions in flight is bounded only by
+ * the window. Once the window is full, callers block until a transaction
+ * commits or fails.
+ *
+ * With metrics enabled, each transaction records client_submit (call to
+ * commit or failure) and client_request sizes, and asynchronous ones also
+ * split that into client_endorse_order and client_commit_wait. Outcomes are
+ * counted under client_submits: ok, the validation code of a rejected
+ * commit, or the exception class.
+ */
+class AsyncSubmitter {
+
+    private final Contract contract;
+    private final Network network;
+    private final int maxInFlight;
+    private final Semaphore window;
+    private final long commitTimeoutMillis;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private volatile MetricsRecorder metrics = MetricsRecorder.NOOP;
+
+    AsyncSubmitter(Contract contract, Network network, int maxInFlight, long commitTimeoutMillis) {
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("Max in-flight transactions must be positive: " + maxInFlight);
+        }
+        this.contract = contract;
+        this.network = network;
+        this.maxInFlight = maxInFlight;
+        this.window = new Semaphore(maxInFlight);
+        this.commitTimeoutMillis = commitTimeoutMillis;
+    }
+
+    void setMetrics(MetricsRecorder metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Submit a transaction, returning a future that completes with its result
+     * once the transaction has committed. Blocks while the window is full.
+     */
+    CompletableFuture<byte[]> submit(String name, String... args) throws InterruptedException {
+        return submit(null, name, args);
+    }
+
+    /**
+     * Submit a transaction with transient data, which reaches the chaincode
+     * but is not recorded in the block. transientData may be null.
+     */
+    CompletableFuture<byte[]> submit(Map<String, byte[]> transientData, String name, String... args)
+            throws InterruptedException {
+        MetricsRecorder recorder = metrics;
+        long start = recorder.isEnabled() ? System.nanoTime() : 0;
+        window.acquire();
+
+        CompletableFuture<byte[]> committed;
+        try {
+            committed = new CompletableFuture<>();
+            executor.execute(() -> endorseAndOrder(committed, transientData, name, args, recorder));
+        } catch (RuntimeException e) {
+            window.release();
+            throw e;
+        }
+
+        return committed
+                .orTimeout(commitTimeoutMillis, TimeUnit.MILLISECONDS)
+                .whenComplete((result, error) -> {
+                    window.release();
+                    if (recorder.isEnabled()) {
+                        recorder.recordNanos("client_submit", name, System.nanoTime() - start);
+                        recorder.count("client_submits", name, outcome(error));
+                    }
+                });
+    }
+
+    /**
+     * Submit a transaction and wait for it to commit under the network's
+     * default commit strategy, as Contract.submitTransaction does. A commit
+     * rejection is thrown as TransactionCommitException, so the caller sees
+     * the validation code the default commit handler leaves out of its error.
+     */
+    byte[] submitAndWait(long commitTimeoutMillis, String name, String... args)
+            throws ContractException, TimeoutException, InterruptedException {
+        return submitAndWait(commitTimeoutMillis, null, name, args);
+    }
+
+    byte[] submitAndWait(long commitTimeoutMillis, Map<String, byte[]> transientData, String name, String... args)
+            throws ContractException, TimeoutException, InterruptedException {
+        Transaction transaction = contract.createTransaction(name)
+                .setCommitTimeout(commitTimeoutMillis, TimeUnit.MILLISECONDS);
+        if (transientData != null) {
+            transaction.setTransient(transientData);
+        }
+        String transactionId = transaction.getTransactionId();
+        MetricsRecorder recorder = metrics;
+        long start = 0;
+        if (recorder.isEnabled()) {
+            start = System.nanoTime();
+            recorder.recordBytes("client_request", name, requestBytes(transientData, args));
+        }
+
+        CommitFuture listener = new CommitFuture(transactionId);
+        network.addCommitListener(listener, eventSources(), transactionId);
+        Throwable failure = null;
+        try {
+            return transaction.submit(args);
+        } catch (ContractException e) {
+            TransactionCommitException rejection = listener.rejection(e);
+            failure = rejection != null ? rejection : e;
+            throw (ContractException) failure;
+        } catch (TimeoutException | InterruptedException | RuntimeException e) {
+            failure = e;
+            throw e;
+        } finally {
+            network.removeCommitListener(listener);
+            if (recorder.isEnabled()) {
+                recorder.recordNanos("client_submit", name, System.nanoTime() - start);
+                recorder.count("client_submits", name, outcome(failure));
+            }
+        }
+    }
+
+    /**
+     * Number of transactions currently endorsing or awaiting commit
+     */
+    int inFlight() {
+        return maxInFlight - window.availablePermits();
+    }
+
+    private void endorseAndOrder(CompletableFuture<byte[]> committed, Map<String, byte[]> transientData,
+            String name, String[] args, MetricsRecorder recorder) {
+        // NONE makes submit() return once the orderer has accepted the
+        // transaction; the commit listener below takes over from there
+        Transaction transaction = contract.createTransaction(name)
+                .setCommitHandler(DefaultCommitHandlers.NONE);
+        if (transientData != null) {
+            transaction.setTransient(transientData);
+        }
+        String transactionId = transaction.getTransactionId();
+
+        CommitFuture listener = new CommitFuture(transactionId);
+        // Register before submitting so the commit event cannot be missed
+        network.addCommitListener(listener, eventSources(), transactionId);
+        committed.whenComplete((result, error) -> network.removeCommitListener(listener));
+
+        boolean timed = recorder.isEnabled();
+        if (timed) {
+            recorder.recordBytes("client_request", name, requestBytes(transientData, args));
+        }
+        try {
+            long start = timed ? System.nanoTime() : 0;
+            byte[] result = transaction.submit(args);
+            if (timed) {
+                long ordered = System.nanoTime();
+                recorder.recordNanos("client_endorse_order", name, ordered - start);
+                listener.whenComplete((ignored, error) -> {
+                    if (error == null) {
+                        recorder.recordNanos("client_commit_wait", name, System.nanoTime() - ordered);
+                    }
+                });
+            }
+            listener.whenComplete((ignored, error) -> {
+                if (error != null) {
+                    committed.completeExceptionally(error);
+                } else {
+                    committed.complete(result);
+                }
+            });
+        } catch (Exception e) {
+            committed.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * How a submission ended, as counted under client_submits
+     */
+    static String outcome(Throwable error) {
+        if (error == null) {
+            return "ok";
+        }
+        Throwable cause = error;
+        while ((cause instanceof ExecutionException || cause instanceof CompletionException)
+                && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        if (cause instanceof TransactionCommitException) {
+            return ((TransactionCommitException) cause).getValidationCode();
+        }
+        return cause.getClass().getSimpleName();
+    }
+
+    // Argument characters stand in for their UTF-8 bytes; they are mostly ASCII
+    private static long requestBytes(Map<String, byte[]> transientData, String[] args) {
+        long bytes = 0;
+        for (String arg : args) {
+            bytes += arg.length();
+        }
+        if (transientData != null) {
+            for (byte[] value : transientData.values()) {
+                bytes += value.length;
+            }
+        }
+        return bytes;
+    }
+
+    private Collection<Peer> eventSources() {
+        return network.getChannel().getPeers(EnumSet.of(Peer.PeerRole.EVENT_SOURCE));
+    }
+
+    /**
+     * Completes on the first commit event for the transaction from any peer
+     */
+    private static final class CommitFuture extends CompletableFuture<Void> implements CommitListener {
+
+        private final String transactionId;
+
+        CommitFuture(String transactionId) {
+            this.transactionId = transactionId;
+        }
+
+        /**
+         * The rejection this listener saw, if the submit failure is a commit
+         * rejection. Both listeners receive the same event, so ours may still
+         * be about to run when the default handler's has already failed.
+         */
+        TransactionCommitException rejection(ContractException failure) throws InterruptedException {
+            // The commit handler's failures follow a successful endorsement
+            // and, unlike a failed send to the orderer, have no cause
+            if (!TransactionRetrier.endorsed(failure) || failure.getCause() != null) {
+                return null;
+            }
+            try {
+                get(1, TimeUnit.SECONDS);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof TransactionCommitException) {
+                    return (TransactionCommitException) e.getCause();
+                }
+            } catch (TimeoutException e) {
+                // No event of our own; fall back to the default handler's error
+            }
+            return null;
+        }
+
+        @Override
+        public void acceptCommit(BlockEvent.TransactionEvent transactionEvent) {
+            if (transactionEvent.isValid()) {
+                complete(null);
+            } else {
+                int number = transactionEvent.getValidationCode() & 0xFF;
+                TxValidationCode code = TxValidationCode.forNumber(number);
+                String codeName = code == null ? String.valueOf(number) : code.name();
+                completeExceptionally(new TransactionCommitException(transactionId, codeName));
+            }
+        }
+
+        @Override
+        public void acceptDisconnect(PeerDisconnectEvent disconnectEvent) {
+            // Another event source may still deliver the commit; the overall
+            // commit timeout covers the case where none does
+        }
+    }
+}
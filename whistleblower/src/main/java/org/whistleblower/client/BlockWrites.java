@@ -0,0 +1,96 @@
+package org.whistleblower.client;
+
+import org.hyperledger.fabric.protos.ledger.rwset.kvrwset.KvRwset;
+import org.hyperledger.fabric.sdk.BlockEvent;
+import org.hyperledger.fabric.sdk.BlockInfo;
+import org.hyperledger.fabric.sdk.TxReadWriteSetInfo;
+
+import org.whistleblower.ReportEvents;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+
+/**
+ * Walks the world state writes recorded in a block.
+ */
+final class BlockWrites {
+
+    /**
+     * Receives one key written by a valid transaction
+     */
+    @FunctionalInterface
+    interface WriteVisitor {
+        void accept(String key, byte[] value, boolean isDelete);
+    }
+
+    /**
+     * Receives one transition appended by a valid transaction in
+     * event-sourced storage mode
+     */
+    @FunctionalInterface
+    interface EventVisitor {
+        void accept(ReportEvents.Event event);
+    }
+
+    private BlockWrites() {
+    }
+
+    /**
+     * Visit every write to the given chaincode namespace made by the valid
+     * transactions in the block. Composite keys (index entries and events)
+     * are skipped, so only plain report keys are visited.
+     */
+    static void forEachWrite(BlockEvent block, String namespace, WriteVisitor visitor) {
+        forEachWrite(block, namespace, visitor, event -> {
+        });
+    }
+
+    /**
+     * Visit every report key write, and every report event appended, by the
+     * valid transactions in the block, in block order. Deleted events are
+     * skipped: events are only deleted when a report is compacted, and the
+     * compacted report is written in the same transaction.
+     */
+    static void forEachWrite(BlockEvent block, String namespace, WriteVisitor visitor, EventVisitor eventVisitor) {
+        for (BlockEvent.TransactionEvent transaction : block.getTransactionEvents()) {
+            if (!transaction.isValid()) {
+                continue;
+            }
+            for (BlockInfo.TransactionEnvelopeInfo.TransactionActionInfo action : transaction.getTransactionActionInfos()) {
+                TxReadWriteSetInfo rwsetInfo = action.getTxReadWriteSet();
+                if (rwsetInfo == null) {
+                    continue;
+                }
+                for (TxReadWriteSetInfo.NsRwsetInfo nsRwset : rwsetInfo.getNsRwsetInfos()) {
+                    if (!namespace.equals(nsRwset.getNamespace())) {
+                        continue;
+                    }
+                    visitWrites(block, nsRwset, visitor, eventVisitor);
+                }
+            }
+        }
+    }
+
+    private static void visitWrites(BlockEvent block, TxReadWriteSetInfo.NsRwsetInfo nsRwset, WriteVisitor visitor,
+            EventVisitor eventVisitor) {
+        KvRwset.KVRWSet rwset;
+        try {
+            rwset = nsRwset.getRwset();
+        } catch (InvalidProtocolBufferException e) {
+            throw new IllegalStateException("Malformed read-write set in block " + block.getBlockNumber(), e);
+        }
+
+        for (KvRwset.KVWrite write : rwset.getWritesList()) {
+            String key = write.getKey();
+            if (ReportEvents.isEventKey(key)) {
+                if (!write.getIsDelete()) {
+                    eventVisitor.accept(ReportEvents.decode(key, write.getValue().toByteArray()));
+                }
+                continue;
+            }
+            if (key.isEmpty() || key.charAt(0) == '\u0000') {
+                continue;
+            }
+            visitor.accept(key, write.getValue().toByteArray(), write.getIsDelete());
+        }
+    }
+}
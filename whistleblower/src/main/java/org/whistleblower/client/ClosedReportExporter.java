@@ -0,0 +1,145 @@
+package org.whistleblower.client;
+
+import org.whistleblower.ReportStatus;
+import org.whistleblower.WhistleblowerReport;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Exports CLOSED reports to a ColumnarReportFile, appending on each run only
+ * the reports that changed since the previous one.
+ *
+ * The ledger is read page by page through the lastUpdated time index, oldest
+ * update first, and then through the archive's time index, since archiving
+ * moves a CLOSED report out of the first and into the second. Reading the
+ * active reports first means a report archived during the run is found in
+ * one or the other. The file itself is the export state: the next run starts
+ * overlapMillis before the latest lastUpdated in its row group statistics,
+ * which covers transactions committed out of timestamp order, and skips
+ * reports already exported at the same lastUpdated. A run that stops part
+ * way keeps the row groups it finished, and the next run carries on after
+ * them.
+ */
+public final class ClosedReportExporter {
+
+    public static final int DEFAULT_ROW_GROUP_SIZE = 10_000;
+
+    /**
+     * Reports last updated at or after since, oldest update first.
+     * WhistleblowerClient's streamReportsUpdatedSince and
+     * streamArchivedReportsUpdatedSince are two.
+     */
+    @FunctionalInterface
+    public interface ReportSource {
+        Stream<WhistleblowerReport> updatedSince(long since) throws Exception;
+    }
+
+    /**
+     * Outcome of one export run
+     */
+    public static final class Result {
+        private long scanned;
+        private long exported;
+        private int rowGroups;
+        private long highWaterMark;
+
+        /**
+         * Reports read from the ledger, active and archived, of any status
+         */
+        public long getScanned() {
+            return scanned;
+        }
+
+        /**
+         * CLOSED reports appended to the file
+         */
+        public long getExported() {
+            return exported;
+        }
+
+        public int getRowGroups() {
+            return rowGroups;
+        }
+
+        /**
+         * Latest lastUpdated in the file after the run
+         */
+        public long getHighWaterMark() {
+            return highWaterMark;
+        }
+    }
+
+    private final ReportSource source;
+    private final ReportSource archive;
+    private final int rowGroupSize;
+    private final long overlapMillis;
+
+    /**
+     * @param source  active reports
+     * @param archive archived reports
+     */
+    public ClosedReportExporter(final ReportSource source, final ReportSource archive, final int rowGroupSize,
+            final long overlapMillis) {
+        if (rowGroupSize <= 0 || overlapMillis < 0) {
+            throw new IllegalArgumentException("Row group size must be positive and overlap not negative");
+        }
+        this.source = source;
+        this.archive = archive;
+        this.rowGroupSize = rowGroupSize;
+        this.overlapMillis = overlapMillis;
+    }
+
+    /**
+     * Append the CLOSED reports changed since the last export to file,
+     * creating it on the first run
+     */
+    public Result export(final Path file) throws Exception {
+        Result result = new Result();
+        for (ColumnarReportFile.RowGroup group : ColumnarReportFile.rowGroups(file)) {
+            result.highWaterMark = Math.max(result.highWaterMark, group.getMaxLastUpdated());
+        }
+        long since = result.highWaterMark == 0 ? 0 : Math.max(0, result.highWaterMark - overlapMillis);
+        Set<String> exported = new HashSet<>();
+        if (result.highWaterMark != 0) {
+            ColumnarReportFile.forEach(file, since, report -> exported.add(key(report)));
+        }
+
+        List<WhistleblowerReport> pending = new ArrayList<>();
+        for (ReportSource reportSource : List.of(source, archive)) {
+            try (Stream<WhistleblowerReport> reports = reportSource.updatedSince(since)) {
+                for (WhistleblowerReport report : (Iterable<WhistleblowerReport>) reports::iterator) {
+                    result.scanned++;
+                    if (report.getStatus() != ReportStatus.CLOSED || !exported.add(key(report))) {
+                        continue;
+                    }
+                    pending.add(report);
+                    if (pending.size() == rowGroupSize) {
+                        flush(file, pending, result);
+                    }
+                }
+            }
+        }
+        if (!pending.isEmpty()) {
+            flush(file, pending, result);
+        }
+        return result;
+    }
+
+    private static void flush(final Path file, final List<WhistleblowerReport> pending, final Result result)
+            throws Exception {
+        ColumnarReportFile.RowGroup group = ColumnarReportFile.append(file, pending);
+        result.exported += group.getRowCount();
+        result.rowGroups++;
+        result.highWaterMark = Math.max(result.highWaterMark, group.getMaxLastUpdated());
+        pending.clear();
+    }
+
+    private static String key(final WhistleblowerReport report) {
+        return report.getId() + '\n' + report.getLastUpdated();
+    }
+}
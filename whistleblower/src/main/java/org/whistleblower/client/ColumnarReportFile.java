@@ -0,0 +1,474 @@
+package org.whistleblower.client;
+
+import org.whistleblower.ReportStatus;
+import org.whistleblower.WhistleblowerReport;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compressed, column-oriented file of reports' public fields, for audit
+ * exports. Private details never reach it.
+ *
+ * The file is a sequence of row groups, each appended whole and synced:
+ *
+ *   int magic "WBCG", int bodyLength, body, int CRC32 of body
+ *
+ * The body starts with a version byte, the row count and the min/max of
+ * submittedAt and lastUpdated over its rows, so readers can skip groups by
+ * time without inflating them. Then come the columns, each with its name,
+ * encoding, raw and compressed lengths and its Deflate-compressed values:
+ * status, department and investigatorId are dictionary encoded, timestamps
+ * and lengths are zigzag varint deltas, the rest are length-prefixed UTF-8.
+ * A null string is stored as length 0, an empty one as 1.
+ *
+ * A group cut short by a crash mid-append fails its length or checksum
+ * check; readers stop before it and the next append overwrites it. A report
+ * may appear in more than one group when it changed between exports; the
+ * last occurrence is the current one.
+ */
+public final class ColumnarReportFile {
+
+    private static final int MAGIC = 0x57424347;
+    private static final byte VERSION = 1;
+
+    private static final byte PLAIN = 0;
+    private static final byte DICTIONARY = 1;
+    private static final byte DELTA = 2;
+
+    /**
+     * Body bytes before the first column: version, row count and four stats
+     */
+    private static final int STATS_BYTES = 1 + 4 + 4 * 8;
+
+    private enum StringColumn {
+        ID("id", PLAIN, WhistleblowerReport::getId, WhistleblowerReport::setId),
+        STATUS("status", DICTIONARY, report -> report.getStatus() == null ? null : report.getStatus().toString(),
+                (report, value) -> report.setStatus(value == null ? null : ReportStatus.valueOf(value))),
+        DEPARTMENT("department", DICTIONARY, WhistleblowerReport::getDepartment, WhistleblowerReport::setDepartment),
+        INVESTIGATOR_ID("investigatorId", DICTIONARY, WhistleblowerReport::getInvestigatorId,
+                WhistleblowerReport::setInvestigatorId),
+        LEADERSHIP_DECISION("leadershipDecision", PLAIN, WhistleblowerReport::getLeadershipDecision,
+                WhistleblowerReport::setLeadershipDecision),
+        FINDINGS("findings", PLAIN, WhistleblowerReport::getFindings, WhistleblowerReport::setFindings),
+        FINDINGS_DIGEST("findingsDigest", PLAIN, WhistleblowerReport::getFindingsDigest,
+                WhistleblowerReport::setFindingsDigest),
+        DESCRIPTION_DIGEST("descriptionDigest", PLAIN, WhistleblowerReport::getDescriptionDigest,
+                WhistleblowerReport::setDescriptionDigest),
+        PRIVATE_DETAILS_HASH("privateDetailsHash", PLAIN, WhistleblowerReport::getPrivateDetailsHash,
+                WhistleblowerReport::setPrivateDetailsHash);
+
+        final String name;
+        final byte encoding;
+        final Function<WhistleblowerReport, String> getter;
+        final BiConsumer<WhistleblowerReport, String> setter;
+
+        StringColumn(final String name, final byte encoding, final Function<WhistleblowerReport, String> getter,
+                final BiConsumer<WhistleblowerReport, String> setter) {
+            this.name = name;
+            this.encoding = encoding;
+            this.getter = getter;
+            this.setter = setter;
+        }
+    }
+
+    private enum LongColumn {
+        SUBMITTED_AT("submittedAt", WhistleblowerReport::getSubmittedAt, WhistleblowerReport::setSubmittedAt),
+        LAST_UPDATED("lastUpdated", WhistleblowerReport::getLastUpdated, WhistleblowerReport::setLastUpdated),
+        DESCRIPTION_LENGTH("descriptionLength", WhistleblowerReport::getDescriptionLength,
+                WhistleblowerReport::setDescriptionLength),
+        FINDINGS_LENGTH("findingsLength", WhistleblowerReport::getFindingsLength,
+                WhistleblowerReport::setFindingsLength);
+
+        final String name;
+        final ToLongFunction<WhistleblowerReport> getter;
+        final BiConsumer<WhistleblowerReport, Long> setter;
+
+        LongColumn(final String name, final ToLongFunction<WhistleblowerReport> getter,
+                final BiConsumer<WhistleblowerReport, Long> setter) {
+            this.name = name;
+            this.getter = getter;
+            this.setter = setter;
+        }
+    }
+
+    /**
+     * Location and statistics of one row group
+     */
+    public static final class RowGroup {
+        private final long offset;
+        private final int bodyLength;
+        private final int rowCount;
+        private final long minSubmittedAt;
+        private final long maxSubmittedAt;
+        private final long minLastUpdated;
+        private final long maxLastUpdated;
+
+        RowGroup(final long offset, final int bodyLength, final ByteBuffer stats) {
+            this.offset = offset;
+            this.bodyLength = bodyLength;
+            stats.get();
+            this.rowCount = stats.getInt();
+            this.minSubmittedAt = stats.getLong();
+            this.maxSubmittedAt = stats.getLong();
+            this.minLastUpdated = stats.getLong();
+            this.maxLastUpdated = stats.getLong();
+        }
+
+        public long getOffset() {
+            return offset;
+        }
+
+        public int getRowCount() {
+            return rowCount;
+        }
+
+        public long getMinSubmittedAt() {
+            return minSubmittedAt;
+        }
+
+        public long getMaxSubmittedAt() {
+            return maxSubmittedAt;
+        }
+
+        public long getMinLastUpdated() {
+            return minLastUpdated;
+        }
+
+        public long getMaxLastUpdated() {
+            return maxLastUpdated;
+        }
+
+        long end() {
+            return offset + 8 + bodyLength + 4;
+        }
+    }
+
+    private ColumnarReportFile() {
+    }
+
+    /**
+     * The complete row groups of file, in file order. A missing file has none.
+     */
+    public static List<RowGroup> rowGroups(final Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return new ArrayList<>();
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return scan(channel);
+        }
+    }
+
+    /**
+     * Append reports as one row group and sync it to disk, first dropping
+     * any incomplete group a crashed append left at the end
+     */
+    public static RowGroup append(final Path file, final List<WhistleblowerReport> reports) throws IOException {
+        if (reports.isEmpty()) {
+            throw new IllegalArgumentException("A row group needs at least one report");
+        }
+        byte[] body = encode(reports);
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        ByteBuffer group = ByteBuffer.allocate(8 + body.length + 4);
+        group.putInt(MAGIC).putInt(body.length).put(body).putInt((int) crc.getValue()).flip();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            List<RowGroup> groups = scan(channel);
+            long end = groups.isEmpty() ? 0 : groups.get(groups.size() - 1).end();
+            channel.truncate(end);
+            long position = end;
+            while (group.hasRemaining()) {
+                position += channel.write(group, position);
+            }
+            channel.force(true);
+            return new RowGroup(end, body.length, ByteBuffer.wrap(body, 0, STATS_BYTES));
+        }
+    }
+
+    /**
+     * Visit every report in file order
+     */
+    public static void forEach(final Path file, final Consumer<WhistleblowerReport> visitor) throws IOException {
+        forEach(file, Long.MIN_VALUE, visitor);
+    }
+
+    /**
+     * Visit the reports last updated at or after minLastUpdated, in file
+     * order. Groups whose statistics rule them out are not read.
+     */
+    public static void forEach(final Path file, final long minLastUpdated,
+            final Consumer<WhistleblowerReport> visitor) throws IOException {
+        if (!Files.exists(file)) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            for (RowGroup group : scan(channel)) {
+                if (group.maxLastUpdated < minLastUpdated) {
+                    continue;
+                }
+                ByteBuffer body = read(channel, group.offset + 8, group.bodyLength);
+                for (WhistleblowerReport report : decode(body, group.rowCount)) {
+                    if (report.getLastUpdated() >= minLastUpdated) {
+                        visitor.accept(report);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Read the group headers, stopping at the first group that is cut short.
+     * Only the last group's checksum is checked, since only an append can
+     * have torn it.
+     */
+    private static List<RowGroup> scan(final FileChannel channel) throws IOException {
+        List<RowGroup> groups = new ArrayList<>();
+        long size = channel.size();
+        long position = 0;
+        while (position + 8 + STATS_BYTES + 4 <= size) {
+            ByteBuffer header = read(channel, position, 8);
+            int bodyLength = header.getInt(4);
+            if (header.getInt(0) != MAGIC || bodyLength < STATS_BYTES || position + 8 + bodyLength + 4 > size) {
+                break;
+            }
+            groups.add(new RowGroup(position, bodyLength, read(channel, position + 8, STATS_BYTES)));
+            position += 8 + bodyLength + 4;
+        }
+
+        if (!groups.isEmpty()) {
+            RowGroup last = groups.get(groups.size() - 1);
+            ByteBuffer group = read(channel, last.offset + 8, last.bodyLength + 4);
+            CRC32 crc = new CRC32();
+            crc.update(group.array(), 0, last.bodyLength);
+            if ((int) crc.getValue() != group.getInt(last.bodyLength)) {
+                groups.remove(groups.size() - 1);
+            }
+        }
+        return groups;
+    }
+
+    private static ByteBuffer read(final FileChannel channel, final long position, final int length)
+            throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of file at " + (position + buffer.position()));
+            }
+        }
+        return buffer.flip();
+    }
+
+    private static byte[] encode(final List<WhistleblowerReport> reports) {
+        long minSubmittedAt = Long.MAX_VALUE;
+        long maxSubmittedAt = Long.MIN_VALUE;
+        long minLastUpdated = Long.MAX_VALUE;
+        long maxLastUpdated = Long.MIN_VALUE;
+        for (WhistleblowerReport report : reports) {
+            minSubmittedAt = Math.min(minSubmittedAt, report.getSubmittedAt());
+            maxSubmittedAt = Math.max(maxSubmittedAt, report.getSubmittedAt());
+            minLastUpdated = Math.min(minLastUpdated, report.getLastUpdated());
+            maxLastUpdated = Math.max(maxLastUpdated, report.getLastUpdated());
+        }
+
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        ByteBuffer stats = ByteBuffer.allocate(STATS_BYTES + 2);
+        stats.put(VERSION).putInt(reports.size()).putLong(minSubmittedAt).putLong(maxSubmittedAt)
+                .putLong(minLastUpdated).putLong(maxLastUpdated)
+                .putShort((short) (StringColumn.values().length + LongColumn.values().length));
+        body.write(stats.array(), 0, stats.position());
+
+        for (StringColumn column : StringColumn.values()) {
+            ByteArrayOutputStream values = new ByteArrayOutputStream();
+            if (column.encoding == DICTIONARY) {
+                Map<String, Integer> dictionary = new LinkedHashMap<>();
+                int[] indexes = new int[reports.size()];
+                for (int i = 0; i < indexes.length; i++) {
+                    String value = column.getter.apply(reports.get(i));
+                    // Index 0 stands for null
+                    indexes[i] = value == null ? 0 : dictionary.computeIfAbsent(value, v -> dictionary.size() + 1);
+                }
+                writeVarLong(values, dictionary.size());
+                for (String value : dictionary.keySet()) {
+                    writeString(values, value);
+                }
+                for (int index : indexes) {
+                    writeVarLong(values, index);
+                }
+            } else {
+                for (WhistleblowerReport report : reports) {
+                    writeString(values, column.getter.apply(report));
+                }
+            }
+            writeColumn(body, column.name, column.encoding, values.toByteArray());
+        }
+
+        for (LongColumn column : LongColumn.values()) {
+            ByteArrayOutputStream values = new ByteArrayOutputStream();
+            long previous = 0;
+            for (WhistleblowerReport report : reports) {
+                long value = column.getter.applyAsLong(report);
+                long delta = value - previous;
+                writeVarLong(values, (delta << 1) ^ (delta >> 63));
+                previous = value;
+            }
+            writeColumn(body, column.name, DELTA, values.toByteArray());
+        }
+        return body.toByteArray();
+    }
+
+    private static void writeColumn(final ByteArrayOutputStream body, final String name, final byte encoding,
+            final byte[] values) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        deflater.setInput(values);
+        deflater.finish();
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(values.length / 4 + 64);
+        byte[] chunk = new byte[8192];
+        while (!deflater.finished()) {
+            compressed.write(chunk, 0, deflater.deflate(chunk));
+        }
+        deflater.end();
+
+        writeString(body, name);
+        body.write(encoding);
+        ByteBuffer lengths = ByteBuffer.allocate(8).putInt(values.length).putInt(compressed.size());
+        body.write(lengths.array(), 0, 8);
+        body.write(compressed.toByteArray(), 0, compressed.size());
+    }
+
+    private static List<WhistleblowerReport> decode(final ByteBuffer body, final int rowCount) throws IOException {
+        List<WhistleblowerReport> reports = new ArrayList<>(rowCount);
+        for (int i = 0; i < rowCount; i++) {
+            reports.add(new WhistleblowerReport());
+        }
+        Map<String, StringColumn> stringColumns = new HashMap<>();
+        for (StringColumn column : StringColumn.values()) {
+            stringColumns.put(column.name, column);
+        }
+        Map<String, LongColumn> longColumns = new HashMap<>();
+        for (LongColumn column : LongColumn.values()) {
+            longColumns.put(column.name, column);
+        }
+
+        body.position(STATS_BYTES);
+        int columnCount = body.getShort();
+        for (int c = 0; c < columnCount; c++) {
+            String name = readString(body);
+            byte encoding = body.get();
+            int rawLength = body.getInt();
+            int compressedLength = body.getInt();
+            ByteBuffer values = inflate(body, compressedLength, rawLength);
+
+            StringColumn stringColumn = stringColumns.get(name);
+            LongColumn longColumn = longColumns.get(name);
+            if (encoding == DELTA && longColumn != null) {
+                long previous = 0;
+                for (WhistleblowerReport report : reports) {
+                    long zigzag = readVarLong(values);
+                    previous += (zigzag >>> 1) ^ -(zigzag & 1);
+                    longColumn.setter.accept(report, previous);
+                }
+            } else if (encoding == DICTIONARY && stringColumn != null) {
+                String[] dictionary = new String[(int) readVarLong(values) + 1];
+                for (int i = 1; i < dictionary.length; i++) {
+                    dictionary[i] = readString(values);
+                }
+                for (WhistleblowerReport report : reports) {
+                    stringColumn.setter.accept(report, dictionary[(int) readVarLong(values)]);
+                }
+            } else if (encoding == PLAIN && stringColumn != null) {
+                for (WhistleblowerReport report : reports) {
+                    stringColumn.setter.accept(report, readString(values));
+                }
+            }
+            // Columns this version does not know are skipped
+        }
+        return reports;
+    }
+
+    private static ByteBuffer inflate(final ByteBuffer body, final int compressedLength, final int rawLength)
+            throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(body.array(), body.arrayOffset() + body.position(), compressedLength);
+            byte[] raw = new byte[rawLength];
+            int inflated = 0;
+            while (inflated < rawLength && !inflater.finished()) {
+                int count = inflater.inflate(raw, inflated, rawLength - inflated);
+                if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                inflated += count;
+            }
+            if (inflated != rawLength) {
+                throw new IOException("Column is shorter than its recorded length");
+            }
+            body.position(body.position() + compressedLength);
+            return ByteBuffer.wrap(raw);
+        } catch (DataFormatException e) {
+            throw new IOException("Column is not valid Deflate data", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static void writeString(final ByteArrayOutputStream out, final String value) {
+        if (value == null) {
+            writeVarLong(out, 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, bytes.length + 1L);
+        out.write(bytes, 0, bytes.length);
+    }
+
+    private static String readString(final ByteBuffer in) {
+        int length = (int) readVarLong(in);
+        if (length == 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length - 1];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeVarLong(final ByteArrayOutputStream out, final long value) {
+        long remaining = value;
+        while ((remaining & ~0x7FL) != 0) {
+            out.write((int) (remaining & 0x7F) | 0x80);
+            remaining >>>= 7;
+        }
+        out.write((int) remaining);
+    }
+
+    private static long readVarLong(final ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+    }
+}
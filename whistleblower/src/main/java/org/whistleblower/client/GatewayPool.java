@@ -0,0 +1,226 @@
+package org.whistleblower.client;
+
+import org.hyperledger.fabric.gateway.Gateway;
+import org.hyperledger.fabric.gateway.Network;
+import org.hyperledger.fabric.gateway.Wallet;
+import org.hyperledger.fabric.gateway.Wallets;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Gateway connections shared by any number of WhistleblowerClients.
+ *
+ * The wallet and connection profile are loaded once. Each identity gets one
+ * gateway, connected the first time a client asks for it; every later client
+ * using that identity shares the same gateway, its gRPC channels and the
+ * networks it has already discovered, instead of paying the TLS handshake
+ * and service discovery again. A gateway carries exactly one signing
+ * identity, so distinct identities hold distinct connections.
+ *
+ * Gateways stay open while idle so clients that come and go reuse them;
+ * closeIdle() closes those no client is using, and close() closes them all.
+ * All methods are safe to call from any thread.
+ */
+public final class GatewayPool implements AutoCloseable {
+
+    /**
+     * One client's use of a pooled gateway. Closing the lease releases it;
+     * the gateway itself stays open for other clients.
+     */
+    public final class Lease implements AutoCloseable {
+        private final Entry entry;
+        private boolean closed;
+
+        private Lease(Entry entry) {
+            this.entry = entry;
+        }
+
+        public String getUserId() {
+            return entry.userId;
+        }
+
+        public Gateway getGateway() {
+            return entry.gateway;
+        }
+
+        /**
+         * The shared network for a channel, created on first use
+         */
+        public Network getNetwork(String channelName) {
+            return entry.gateway.getNetwork(channelName);
+        }
+
+        @Override
+        public void close() {
+            synchronized (entry) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                entry.leases--;
+            }
+            activeLeases.decrementAndGet();
+        }
+    }
+
+    private static final class Entry {
+        final String userId;
+        Gateway gateway;
+        int leases;
+
+        Entry(String userId) {
+            this.userId = userId;
+        }
+    }
+
+    private final Wallet wallet;
+    private final byte[] connectionProfile;
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private volatile boolean closed;
+
+    private final AtomicLong activeLeases = new AtomicLong();
+    private final AtomicLong leasesGranted = new AtomicLong();
+    private final AtomicLong connects = new AtomicLong();
+    private final AtomicLong gatewaysClosed = new AtomicLong();
+
+    public GatewayPool(String walletPath, String connectionProfilePath) throws IOException {
+        this.wallet = Wallets.newFileSystemWallet(Paths.get(walletPath));
+        this.connectionProfile = Files.readAllBytes(Paths.get(connectionProfilePath));
+    }
+
+    public GatewayPool(Wallet wallet, Path connectionProfilePath) throws IOException {
+        this.wallet = wallet;
+        this.connectionProfile = Files.readAllBytes(connectionProfilePath);
+    }
+
+    /**
+     * Lease the gateway for an identity in the wallet, connecting it if no
+     * client has used the identity yet. Concurrent first requests for the
+     * same identity connect once; other identities are not held up.
+     */
+    public Lease acquire(String userId) throws IOException {
+        Entry entry = entries.computeIfAbsent(userId, Entry::new);
+        synchronized (entry) {
+            if (closed) {
+                throw new IllegalStateException("Gateway pool is closed");
+            }
+            if (entry.gateway == null) {
+                entry.gateway = connect(userId);
+                connects.incrementAndGet();
+            }
+            entry.leases++;
+        }
+        activeLeases.incrementAndGet();
+        leasesGranted.incrementAndGet();
+        return new Lease(entry);
+    }
+
+    private Gateway connect(String userId) throws IOException {
+        if (wallet.get(userId) == null) {
+            throw new IOException("Identity " + userId + " not found in wallet");
+        }
+        try (InputStream profile = new ByteArrayInputStream(connectionProfile)) {
+            return Gateway.createBuilder()
+                    .identity(wallet, userId)
+                    .networkConfig(profile)
+                    .connect();
+        }
+    }
+
+    /**
+     * Close the gateways no client currently holds a lease on. A later
+     * acquire for one of those identities connects again.
+     *
+     * @return number of gateways closed
+     */
+    public int closeIdle() {
+        int count = 0;
+        for (Entry entry : entries.values()) {
+            synchronized (entry) {
+                if (entry.gateway != null && entry.leases == 0) {
+                    entry.gateway.close();
+                    entry.gateway = null;
+                    count++;
+                }
+            }
+        }
+        gatewaysClosed.addAndGet(count);
+        return count;
+    }
+
+    /**
+     * Close every gateway, including those still leased. Clients using the
+     * pool fail from then on.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        List<Gateway> open = new ArrayList<>();
+        for (Entry entry : entries.values()) {
+            synchronized (entry) {
+                if (entry.gateway != null) {
+                    open.add(entry.gateway);
+                    entry.gateway = null;
+                }
+            }
+        }
+        for (Gateway gateway : open) {
+            gateway.close();
+        }
+        gatewaysClosed.addAndGet(open.size());
+    }
+
+    /**
+     * Number of gateways currently connected, one per identity in use
+     */
+    public int getOpenGatewayCount() {
+        int count = 0;
+        for (Entry entry : entries.values()) {
+            synchronized (entry) {
+                if (entry.gateway != null) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Number of leases currently held by clients
+     */
+    public long getActiveLeaseCount() {
+        return activeLeases.get();
+    }
+
+    /**
+     * Total leases granted since the pool was created
+     */
+    public long getLeasesGranted() {
+        return leasesGranted.get();
+    }
+
+    /**
+     * Total gateways connected since the pool was created. Leases granted
+     * minus this is the number served by an already open gateway.
+     */
+    public long getConnectCount() {
+        return connects.get();
+    }
+
+    /**
+     * Total gateways closed by closeIdle and close
+     */
+    public long getClosedCount() {
+        return gatewaysClosed.get();
+    }
+}
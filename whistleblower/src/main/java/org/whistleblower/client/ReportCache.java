@@ -0,0 +1,116 @@
+package org.whistleblower.client;
+
+import org.whistleblower.WhistleblowerReport;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded read-through cache of reports keyed by report ID.
+ *
+ * Entries are evicted least-recently-used beyond maxEntries and expire after
+ * the TTL. Invalidations come from the write sets of committed blocks. A
+ * load started before an invalidation of the same key is never cached, so a
+ * peer read that raced a commit cannot put the old version back.
+ *
+ * Cached reports are shared instances and must not be modified by callers.
+ */
+class ReportCache {
+
+    private static final class Entry {
+        final WhistleblowerReport report;
+        final long expiresAt;
+
+        Entry(WhistleblowerReport report, long expiresAt) {
+            this.report = report;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private final int maxEntries;
+    private final long ttlMillis;
+
+    private final LinkedHashMap<String, Entry> entries;
+    private final LinkedHashMap<String, Long> invalidatedAt;
+    // Highest invalidation stamp dropped from invalidatedAt; keys without a
+    // recorded stamp are treated as invalidated at this point
+    private long forgottenStamp = 0;
+    private long stamp = 0;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    ReportCache(int maxEntries, long ttlMillis) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive: " + maxEntries);
+        }
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+        this.invalidatedAt = new LinkedHashMap<>();
+    }
+
+    /**
+     * Return the cached report, or null if absent or expired
+     */
+    synchronized WhistleblowerReport get(String id) {
+        Entry entry = entries.get(id);
+        if (entry != null && entry.expiresAt > System.currentTimeMillis()) {
+            hits.incrementAndGet();
+            return entry.report;
+        }
+        if (entry != null) {
+            entries.remove(id);
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Mark the start of a peer read. Pass the returned stamp to put.
+     */
+    synchronized long beginLoad() {
+        return stamp;
+    }
+
+    /**
+     * Cache a report read from the peer, unless the key was invalidated after
+     * the read began
+     */
+    synchronized void put(String id, WhistleblowerReport report, long loadStamp) {
+        Long invalidated = invalidatedAt.get(id);
+        long lastInvalidation = invalidated == null ? forgottenStamp : invalidated;
+        if (lastInvalidation > loadStamp) {
+            return;
+        }
+
+        entries.put(id, new Entry(report, System.currentTimeMillis() + ttlMillis));
+        if (entries.size() > maxEntries) {
+            Iterator<String> eldest = entries.keySet().iterator();
+            eldest.next();
+            eldest.remove();
+        }
+    }
+
+    synchronized void invalidate(String id) {
+        stamp++;
+        entries.remove(id);
+        invalidatedAt.remove(id);
+        invalidatedAt.put(id, stamp);
+        if (invalidatedAt.size() > maxEntries) {
+            Iterator<Map.Entry<String, Long>> eldest = invalidatedAt.entrySet().iterator();
+            forgottenStamp = Math.max(forgottenStamp, eldest.next().getValue());
+            eldest.remove();
+        }
+    }
+
+    long getHits() {
+        return hits.get();
+    }
+
+    long getMisses() {
+        return misses.get();
+    }
+}
@@ -0,0 +1,645 @@
+package org.whistleblower.client;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import org.whistleblower.BatchItemResult;
+import org.whistleblower.WhistleblowerReport;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Streams reports from a CSV or JSONL hotline export into the ledger in
+ * batch transactions, keeping a checkpoint so an interrupted import resumes
+ * where it stopped.
+ *
+ * The file is read through memory-mapped windows of WINDOW_BYTES, so only
+ * the rows of the batches in flight are held in memory. CSV files need a
+ * header row naming the id, description and department columns, and
+ * optionally submittedBy and submittedAt; quoted fields may span lines. JSONL
+ * files hold one object per line with the same fields.
+ *
+ * submittedAt keeps the time the hotline first took a report, as epoch
+ * milliseconds, an ISO-8601 instant or an ISO date (midnight UTC). Rows
+ * without it are stamped with the time of their batch transaction.
+ *
+ * Each batch covers a contiguous byte range of the file. The checkpoint
+ * records the offset below which every batch has committed, written
+ * atomically each time it advances, and a resumed import starts from there.
+ * Batches past the offset may have committed before the interruption; their
+ * reports come back as REPORT_ALREADY_EXISTS and are counted as existing
+ * rather than imported twice.
+ *
+ * Rows that fail validation, or that the contract rejects, are appended to
+ * the rejects file as JSON lines with their byte offset and reason.
+ */
+public final class ReportImporter {
+
+    /**
+     * Size of the mapped window over the input file. No single row may be
+     * larger.
+     */
+    public static final int WINDOW_BYTES = 64 * 1024 * 1024;
+
+    private static final String[] COLUMNS = {"id", "description", "department", "submittedBy", "submittedAt"};
+
+    /**
+     * COLUMNS before this index must be present in a CSV header
+     */
+    private static final int REQUIRED_COLUMNS = 3;
+    private static final Gson gson = new Gson();
+
+    public enum Format {
+        CSV, JSONL;
+
+        /**
+         * The format a file name suggests, .jsonl or .ndjson for JSONL and
+         * anything else for CSV
+         */
+        public static Format of(final Path file) {
+            String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+            return name.endsWith(".jsonl") || name.endsWith(".ndjson") ? JSONL : CSV;
+        }
+    }
+
+    /**
+     * Submits one batch of reports, completing with one result per report.
+     * WhistleblowerClient::submitReportsAsync is one.
+     */
+    @FunctionalInterface
+    public interface BatchSubmitter {
+        CompletableFuture<List<BatchItemResult>> submit(List<WhistleblowerReport> reports)
+                throws InterruptedException;
+    }
+
+    /**
+     * Counts for an import, including any earlier runs it resumed
+     */
+    public static final class Progress {
+        private long offset;
+        private long imported;
+        private long existing;
+        private long rejected;
+
+        /**
+         * Byte offset of the input below which every row has been processed
+         */
+        public long getOffset() {
+            return offset;
+        }
+
+        public long getImported() {
+            return imported;
+        }
+
+        /**
+         * Rows whose report ID was already on the ledger
+         */
+        public long getExisting() {
+            return existing;
+        }
+
+        public long getRejected() {
+            return rejected;
+        }
+    }
+
+    /**
+     * A batch's byte range, its outcome once committed and its reject lines
+     */
+    private static final class Batch {
+        final long start;
+        long end;
+        final List<WhistleblowerReport> reports = new ArrayList<>();
+        final List<Long> offsets = new ArrayList<>();
+        final List<String> rejects = new ArrayList<>();
+        long imported;
+        long existing;
+
+        Batch(final long start) {
+            this.start = start;
+        }
+
+        void reject(final long offset, final String id, final String errorCode, final String message) {
+            Map<String, Object> line = new LinkedHashMap<>();
+            line.put("offset", offset);
+            line.put("id", id);
+            line.put("error", errorCode);
+            line.put("message", message);
+            rejects.add(gson.toJson(line));
+        }
+    }
+
+    private final BatchSubmitter submitter;
+    private final int batchSize;
+    private final int maxInFlight;
+
+    // Import state, guarded by lock. Batch completions take only lock, so
+    // they never wait on the reading thread.
+    private final Object lock = new Object();
+    private final TreeMap<Long, Batch> completed = new TreeMap<>();
+    private Progress progress;
+    private Path input;
+    private Format format;
+    private Path checkpoint;
+    private Writer rejects;
+
+    /**
+     * @param batchSize   reports per transaction, at most the contract's MAX_BATCH_SIZE
+     * @param maxInFlight batch transactions awaiting commit at once
+     */
+    public ReportImporter(final BatchSubmitter submitter, final int batchSize, final int maxInFlight) {
+        if (batchSize <= 0 || maxInFlight <= 0) {
+            throw new IllegalArgumentException("Batch size and in-flight limit must be positive");
+        }
+        this.submitter = submitter;
+        this.batchSize = batchSize;
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * Import input, resuming from checkpoint if it exists. Returns once every
+     * batch has committed; if one fails, waits for the rest, leaves the
+     * checkpoint at the last fully committed offset and rethrows the failure.
+     */
+    public synchronized Progress importFile(final Path input, final Format format, final Path checkpoint,
+            final Path rejectsFile) throws Exception {
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        try (Writer rejectsWriter = Files.newBufferedWriter(rejectsFile, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+             MappedRecords records = new MappedRecords(input, format == Format.CSV)) {
+            synchronized (lock) {
+                this.input = input;
+                this.format = format;
+                this.checkpoint = checkpoint;
+                this.progress = readCheckpoint();
+                this.rejects = rejectsWriter;
+                this.completed.clear();
+            }
+
+            try {
+                int[] columns = null;
+                if (format == Format.CSV) {
+                    if (!records.next(0)) {
+                        throw new IOException("CSV file has no header row: " + input);
+                    }
+                    columns = headerColumns(parseCsv(records.text()));
+                }
+                long start = Math.max(progress.offset, records.nextOffset());
+                if (start > records.size()) {
+                    throw new IOException(String.format("Checkpoint offset %d is past the end of %s (%d bytes)",
+                            start, input, records.size()));
+                }
+                synchronized (lock) {
+                    progress.offset = start;
+                }
+
+                Batch batch = new Batch(start);
+                long position = start;
+                while (failure.get() == null && records.next(position)) {
+                    position = records.nextOffset();
+                    batch.end = position;
+                    String text = records.text();
+                    if (!text.isBlank()) {
+                        addRow(batch, records.offset(), text, columns);
+                    }
+                    if (batch.reports.size() == batchSize) {
+                        submit(batch, inFlight, failure);
+                        batch = new Batch(position);
+                    }
+                }
+                if (failure.get() == null && batch.end > batch.start) {
+                    submit(batch, inFlight, failure);
+                }
+            } catch (Exception e) {
+                failure.compareAndSet(null, e);
+            }
+
+            // Wait out the batches still in flight, even after a failure, so
+            // their outcomes reach the checkpoint
+            inFlight.acquireUninterruptibly(maxInFlight);
+            inFlight.release(maxInFlight);
+        } finally {
+            synchronized (lock) {
+                this.rejects = null;
+            }
+        }
+
+        Throwable error = failure.get();
+        if (error != null) {
+            throw error instanceof Exception ? (Exception) error : new CompletionException(error);
+        }
+        synchronized (lock) {
+            return progress;
+        }
+    }
+
+    private void addRow(final Batch batch, final long offset, final String text, final int[] columns) {
+        String[] fields;
+        try {
+            fields = columns != null ? csvRow(parseCsv(text), columns) : jsonRow(text);
+        } catch (IllegalArgumentException e) {
+            batch.reject(offset, null, "INVALID_ROW", e.getMessage());
+            return;
+        }
+
+        String missing = fields[0].isEmpty() ? "id" : fields[1].isEmpty() ? "description"
+                : fields[2].isEmpty() ? "department" : null;
+        if (missing != null) {
+            batch.reject(offset, fields[0], "INVALID_ROW", "Missing " + missing);
+            return;
+        }
+
+        long submittedAt;
+        try {
+            submittedAt = parseSubmittedAt(fields[4]);
+        } catch (IllegalArgumentException e) {
+            batch.reject(offset, fields[0], "INVALID_ROW", e.getMessage());
+            return;
+        }
+
+        WhistleblowerReport report = new WhistleblowerReport();
+        report.setId(fields[0]);
+        report.setDescription(fields[1]);
+        report.setDepartment(fields[2]);
+        report.setSubmittedBy(fields[3]);
+        report.setSubmittedAt(submittedAt);
+        batch.reports.add(report);
+        batch.offsets.add(offset);
+    }
+
+    /**
+     * Submit a batch once one of the maxInFlight slots is free
+     */
+    private void submit(final Batch batch, final Semaphore inFlight, final AtomicReference<Throwable> failure)
+            throws Exception {
+        if (batch.reports.isEmpty()) {
+            synchronized (lock) {
+                completed(batch);
+            }
+            return;
+        }
+        inFlight.acquire();
+
+        CompletableFuture<List<BatchItemResult>> result;
+        try {
+            result = submitter.submit(batch.reports);
+        } catch (Exception e) {
+            inFlight.release();
+            throw e;
+        }
+        result.whenComplete((results, error) -> {
+            if (error != null) {
+                failure.compareAndSet(null, error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error);
+            } else {
+                tally(batch, results);
+                synchronized (lock) {
+                    try {
+                        completed(batch);
+                    } catch (IOException e) {
+                        failure.compareAndSet(null, e);
+                    }
+                }
+            }
+            inFlight.release();
+        });
+    }
+
+    private static void tally(final Batch batch, final List<BatchItemResult> results) {
+        for (int i = 0; i < results.size(); i++) {
+            BatchItemResult result = results.get(i);
+            if (result.isSuccess()) {
+                batch.imported++;
+            } else if ("REPORT_ALREADY_EXISTS".equals(result.getErrorCode())) {
+                batch.existing++;
+            } else {
+                batch.reject(batch.offsets.get(i), result.getId(), result.getErrorCode(), result.getMessage());
+            }
+        }
+        batch.reports.clear();
+    }
+
+    /**
+     * Record a committed batch, with lock held, and advance the checkpoint over every
+     * contiguous committed batch from the current offset
+     */
+    private void completed(final Batch batch) throws IOException {
+        completed.put(batch.start, batch);
+        Batch next;
+        boolean advanced = false;
+        while ((next = completed.remove(progress.offset)) != null) {
+            for (String line : next.rejects) {
+                rejects.write(line);
+                rejects.write('\n');
+            }
+            progress.offset = next.end;
+            progress.imported += next.imported;
+            progress.existing += next.existing;
+            progress.rejected += next.rejects.size();
+            advanced = true;
+        }
+        if (advanced) {
+            rejects.flush();
+            writeCheckpoint();
+        }
+    }
+
+    private Progress readCheckpoint() throws IOException {
+        Progress resumed = new Progress();
+        if (!Files.exists(checkpoint)) {
+            return resumed;
+        }
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(checkpoint, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        if (!input.toAbsolutePath().toString().equals(properties.getProperty("input"))
+                || !format.name().equals(properties.getProperty("format"))) {
+            throw new IOException(String.format("Checkpoint %s belongs to %s (%s), not %s", checkpoint,
+                    properties.getProperty("input"), properties.getProperty("format"), input.toAbsolutePath()));
+        }
+        resumed.offset = Long.parseLong(properties.getProperty("offset", "0"));
+        resumed.imported = Long.parseLong(properties.getProperty("imported", "0"));
+        resumed.existing = Long.parseLong(properties.getProperty("existing", "0"));
+        resumed.rejected = Long.parseLong(properties.getProperty("rejected", "0"));
+        return resumed;
+    }
+
+    /**
+     * Write the checkpoint to a temporary file, sync it and move it into
+     * place, so a crash leaves either the old checkpoint or the new one
+     */
+    private void writeCheckpoint() throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("input", input.toAbsolutePath().toString());
+        properties.setProperty("format", format.name());
+        properties.setProperty("offset", Long.toString(progress.offset));
+        properties.setProperty("imported", Long.toString(progress.imported));
+        properties.setProperty("existing", Long.toString(progress.existing));
+        properties.setProperty("rejected", Long.toString(progress.rejected));
+        StringWriter text = new StringWriter();
+        properties.store(text, "Report import checkpoint");
+
+        Path temporary = checkpoint.resolveSibling(checkpoint.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer bytes = StandardCharsets.UTF_8.encode(text.toString());
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+            channel.force(true);
+        }
+        Files.move(temporary, checkpoint, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Column index of each of COLUMNS in the header, -1 for an absent
+     * optional column
+     */
+    private static int[] headerColumns(final List<String> header) throws IOException {
+        Map<String, Integer> positions = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            positions.put(header.get(i).trim().replace("_", "").replace(" ", "").toLowerCase(Locale.ROOT), i);
+        }
+        int[] columns = new int[COLUMNS.length];
+        for (int c = 0; c < COLUMNS.length; c++) {
+            columns[c] = positions.getOrDefault(COLUMNS[c].toLowerCase(Locale.ROOT), -1);
+            if (columns[c] < 0 && c < REQUIRED_COLUMNS) {
+                throw new IOException("CSV header has no " + COLUMNS[c] + " column: " + header);
+            }
+        }
+        return columns;
+    }
+
+    private static String[] csvRow(final List<String> values, final int[] columns) {
+        String[] fields = new String[COLUMNS.length];
+        for (int c = 0; c < COLUMNS.length; c++) {
+            if (columns[c] >= values.size()) {
+                throw new IllegalArgumentException(String.format("Row has %d fields, expected at least %d",
+                        values.size(), columns[c] + 1));
+            }
+            fields[c] = columns[c] < 0 ? "" : values.get(columns[c]).trim();
+        }
+        return fields;
+    }
+
+    private static String[] jsonRow(final String text) {
+        JsonObject object;
+        try {
+            JsonElement json = JsonParser.parseString(text);
+            if (!json.isJsonObject()) {
+                throw new IllegalArgumentException("Row is not a JSON object");
+            }
+            object = json.getAsJsonObject();
+        } catch (JsonParseException e) {
+            throw new IllegalArgumentException("Row is not valid JSON: " + e.getMessage());
+        }
+
+        String[] fields = new String[COLUMNS.length];
+        for (int c = 0; c < COLUMNS.length; c++) {
+            JsonElement value = object.get(COLUMNS[c]);
+            if (value != null && !value.isJsonNull() && !value.isJsonPrimitive()) {
+                throw new IllegalArgumentException("Field " + COLUMNS[c] + " must be a string");
+            }
+            fields[c] = value == null || value.isJsonNull() ? "" : value.getAsString().trim();
+        }
+        return fields;
+    }
+
+    /**
+     * Epoch milliseconds of a submittedAt field, 0 if it is empty
+     */
+    static long parseSubmittedAt(final String value) {
+        if (value.isEmpty()) {
+            return 0;
+        }
+        try {
+            long millis;
+            if (value.chars().allMatch(Character::isDigit)) {
+                millis = Long.parseLong(value);
+            } else if (value.length() == 10) {
+                millis = LocalDate.parse(value).atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+            } else {
+                millis = Instant.parse(value).toEpochMilli();
+            }
+            if (millis <= 0) {
+                throw new IllegalArgumentException("submittedAt must be after the epoch: " + value);
+            }
+            return millis;
+        } catch (NumberFormatException | DateTimeParseException | ArithmeticException e) {
+            throw new IllegalArgumentException("submittedAt is not epoch milliseconds, an ISO-8601 instant"
+                    + " or an ISO date: " + value);
+        }
+    }
+
+    /**
+     * Split one CSV record into its fields. Quoted fields may contain
+     * commas, line breaks and doubled quotes.
+     */
+    static List<String> parseCsv(final String record) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < record.length(); i++) {
+            char c = record.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < record.length() && record.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    /**
+     * Reads newline-terminated records from a file through mapped windows.
+     * With quoting on, a newline inside double quotes does not end a record.
+     * A trailing carriage return is dropped, as is a UTF-8 byte order mark at
+     * the start of the file.
+     */
+    private static final class MappedRecords implements AutoCloseable {
+        private final FileChannel channel;
+        private final long size;
+        private final boolean quoting;
+        private MappedByteBuffer window;
+        private long windowStart;
+        private long recordStart;
+        private long recordEnd;
+        private long nextOffset;
+
+        MappedRecords(final Path file, final boolean quoting) throws IOException {
+            this.channel = FileChannel.open(file, StandardOpenOption.READ);
+            this.size = channel.size();
+            this.quoting = quoting;
+        }
+
+        long size() {
+            return size;
+        }
+
+        long offset() {
+            return recordStart;
+        }
+
+        long nextOffset() {
+            return nextOffset;
+        }
+
+        /**
+         * Read the record starting at position, returning false at the end of
+         * the file
+         */
+        boolean next(final long position) throws IOException {
+            long start = position;
+            if (start == 0 && size >= 3) {
+                map(0);
+                if ((window.get(0) & 0xff) == 0xEF && (window.get(1) & 0xff) == 0xBB
+                        && (window.get(2) & 0xff) == 0xBF) {
+                    start = 3;
+                }
+            }
+            if (start >= size) {
+                return false;
+            }
+            if (window == null || start < windowStart || start >= windowStart + window.limit()) {
+                map(start);
+            }
+
+            while (true) {
+                boolean inQuotes = false;
+                int limit = window.limit();
+                for (int i = (int) (start - windowStart); i < limit; i++) {
+                    byte b = window.get(i);
+                    if (quoting && b == '"') {
+                        inQuotes = !inQuotes;
+                    } else if (b == '\n' && !inQuotes) {
+                        return found(start, windowStart + i, windowStart + i + 1);
+                    }
+                }
+                if (windowStart + limit == size) {
+                    return found(start, size, size);
+                }
+                if (start == windowStart) {
+                    throw new IOException(String.format("Row at offset %d is larger than %d bytes", start,
+                            WINDOW_BYTES));
+                }
+                map(start);
+            }
+        }
+
+        String text() {
+            long end = recordEnd;
+            if (end > recordStart && window.get((int) (end - 1 - windowStart)) == '\r') {
+                end--;
+            }
+            byte[] bytes = new byte[(int) (end - recordStart)];
+            window.get((int) (recordStart - windowStart), bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        private boolean found(final long start, final long end, final long next) {
+            recordStart = start;
+            recordEnd = end;
+            nextOffset = next;
+            return true;
+        }
+
+        private void map(final long start) throws IOException {
+            windowStart = start;
+            window = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(WINDOW_BYTES, size - start));
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
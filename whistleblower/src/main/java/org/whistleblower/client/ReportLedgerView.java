@@ -0,0 +1,319 @@
+package org.whistleblower.client;
+
+import org.hyperledger.fabric.gateway.Network;
+import org.hyperledger.fabric.sdk.BlockEvent;
+import org.whistleblower.ReportCodec;
+import org.whistleblower.ReportEvents;
+import org.whistleblower.ReportStatus;
+import org.whistleblower.WhistleblowerReport;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * In-process copy of the report ledger, kept current from block events.
+ *
+ * Every valid transaction's writes to the chaincode namespace are applied
+ * to a map of reports plus secondary maps by status, investigator and
+ * department. The view and the number of the last block applied are
+ * checkpointed to a file, so a restart loads the checkpoint and resumes
+ * from the next block instead of replaying the chain.
+ *
+ * Reads reflect the last block received, and lag the peer by the event
+ * delivery delay. Returned reports are shared and must not be modified.
+ */
+public class ReportLedgerView implements AutoCloseable {
+
+    /**
+     * Default number of blocks applied between checkpoints
+     */
+    public static final int DEFAULT_CHECKPOINT_INTERVAL = 100;
+
+    private static final Gson gson = new GsonBuilder().create();
+
+    /**
+     * On-disk checkpoint format
+     */
+    private static final class Snapshot {
+        long blockNumber;
+        List<WhistleblowerReport> reports;
+    }
+
+    private final Network network;
+    private final String chaincodeName;
+    private final Path checkpointFile;
+    private final int checkpointInterval;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TreeMap<String, WhistleblowerReport> reports = new TreeMap<>();
+    private final Map<ReportStatus, Set<String>> byStatus = new HashMap<>();
+    private final Map<String, Set<String>> byInvestigator = new HashMap<>();
+    private final Map<String, Set<String>> byDepartment = new HashMap<>();
+
+    private long lastBlockNumber = -1;
+    private int blocksSinceCheckpoint = 0;
+    private Consumer<BlockEvent> listener;
+
+    public ReportLedgerView(Network network, String chaincodeName, Path checkpointFile) {
+        this(network, chaincodeName, checkpointFile, DEFAULT_CHECKPOINT_INTERVAL);
+    }
+
+    public ReportLedgerView(Network network, String chaincodeName, Path checkpointFile, int checkpointInterval) {
+        if (checkpointInterval <= 0) {
+            throw new IllegalArgumentException("Checkpoint interval must be positive: " + checkpointInterval);
+        }
+        this.network = network;
+        this.chaincodeName = chaincodeName;
+        this.checkpointFile = checkpointFile;
+        this.checkpointInterval = checkpointInterval;
+    }
+
+    /**
+     * Load the checkpoint, if any, and start listening from the block after it
+     */
+    public synchronized void start() throws IOException {
+        if (listener != null) {
+            return;
+        }
+        loadCheckpoint();
+        listener = network.addBlockListener(lastBlockNumber + 1, this::applyBlock);
+    }
+
+    /**
+     * Stop listening and write a final checkpoint
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (listener != null) {
+            network.removeBlockListener(listener);
+            listener = null;
+        }
+        checkpoint();
+    }
+
+    /**
+     * Number of the last block applied to the view, or -1 if none
+     */
+    public long getLastBlockNumber() {
+        lock.readLock().lock();
+        try {
+            return lastBlockNumber;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public WhistleblowerReport getReport(String reportId) {
+        lock.readLock().lock();
+        try {
+            return reports.get(reportId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * All reports, in key order
+     */
+    public List<WhistleblowerReport> getAllReports() {
+        lock.readLock().lock();
+        try {
+            return new ArrayList<>(reports.values());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<WhistleblowerReport> getReportsByStatus(ReportStatus status) {
+        lock.readLock().lock();
+        try {
+            return resolve(byStatus.get(status));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<WhistleblowerReport> getReportsByInvestigator(String investigatorId) {
+        lock.readLock().lock();
+        try {
+            return resolve(byInvestigator.get(investigatorId));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<WhistleblowerReport> getReportsByDepartment(String department) {
+        lock.readLock().lock();
+        try {
+            return resolve(byDepartment.get(department));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<WhistleblowerReport> resolve(Set<String> ids) {
+        if (ids == null) {
+            return Collections.emptyList();
+        }
+        List<WhistleblowerReport> result = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            result.add(reports.get(id));
+        }
+        return result;
+    }
+
+    private void applyBlock(BlockEvent block) {
+        boolean checkpointDue;
+        lock.writeLock().lock();
+        try {
+            // Blocks already covered by the checkpoint can be redelivered
+            if (block.getBlockNumber() <= lastBlockNumber) {
+                return;
+            }
+            BlockWrites.forEachWrite(block, chaincodeName, (key, value, isDelete) -> {
+                if (isDelete) {
+                    remove(key);
+                } else {
+                    upsert(ReportCodec.decode(value));
+                }
+            }, this::applyEvent);
+            lastBlockNumber = block.getBlockNumber();
+            checkpointDue = ++blocksSinceCheckpoint >= checkpointInterval;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        if (checkpointDue) {
+            try {
+                checkpoint();
+            } catch (IOException e) {
+                // The view stays correct in memory; the next checkpoint retries
+                System.err.println("Error writing ledger view checkpoint: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Apply a transition written in event-sourced mode. Events are applied in
+     * commit order, while the contract folds them in timestamp order; the two
+     * only differ for transitions on one report whose timestamps disagree
+     * with their commit order, and agree again once the report is compacted.
+     */
+    private void applyEvent(ReportEvents.Event event) {
+        WhistleblowerReport current = reports.get(event.getReportId());
+        if (current == null) {
+            return;
+        }
+        // Returned reports are shared, so update a copy
+        WhistleblowerReport updated = WhistleblowerReport.copyOf(current);
+        ReportEvents.apply(updated, event);
+        upsert(updated);
+    }
+
+    private void upsert(WhistleblowerReport report) {
+        remove(report.getId());
+        reports.put(report.getId(), report);
+        if (report.getStatus() != null) {
+            byStatus.computeIfAbsent(report.getStatus(), k -> new TreeSet<>()).add(report.getId());
+        }
+        addToIndex(byInvestigator, report.getInvestigatorId(), report.getId());
+        addToIndex(byDepartment, report.getDepartment(), report.getId());
+    }
+
+    private void remove(String id) {
+        WhistleblowerReport previous = reports.remove(id);
+        if (previous == null) {
+            return;
+        }
+        if (previous.getStatus() != null) {
+            removeFromIndex(byStatus, previous.getStatus(), id);
+        }
+        removeFromIndex(byInvestigator, previous.getInvestigatorId(), id);
+        removeFromIndex(byDepartment, previous.getDepartment(), id);
+    }
+
+    private static void addToIndex(Map<String, Set<String>> index, String value, String id) {
+        if (value != null && !value.isEmpty()) {
+            index.computeIfAbsent(value, k -> new TreeSet<>()).add(id);
+        }
+    }
+
+    private static <K> void removeFromIndex(Map<K, Set<String>> index, K value, String id) {
+        if (value == null) {
+            return;
+        }
+        Set<String> ids = index.get(value);
+        if (ids != null) {
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                index.remove(value);
+            }
+        }
+    }
+
+    /**
+     * Write the view to a temporary file and move it over the checkpoint, so a
+     * crash mid-write leaves the previous checkpoint intact
+     */
+    private synchronized void checkpoint() throws IOException {
+        Snapshot snapshot = new Snapshot();
+        lock.readLock().lock();
+        try {
+            snapshot.blockNumber = lastBlockNumber;
+            snapshot.reports = new ArrayList<>(reports.values());
+            blocksSinceCheckpoint = 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        Path directory = checkpointFile.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, checkpointFile.getFileName().toString(), ".tmp");
+        try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            gson.toJson(snapshot, writer);
+        }
+        Files.move(temp, checkpointFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void loadCheckpoint() throws IOException {
+        if (!Files.exists(checkpointFile)) {
+            return;
+        }
+
+        Snapshot snapshot;
+        try (Reader reader = Files.newBufferedReader(checkpointFile, StandardCharsets.UTF_8)) {
+            snapshot = gson.fromJson(reader, Snapshot.class);
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (snapshot.reports != null) {
+                for (WhistleblowerReport report : snapshot.reports) {
+                    upsert(report);
+                }
+            }
+            lastBlockNumber = snapshot.blockNumber;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package org.whistleblower.client;
+
+import org.whistleblower.ReportStatistics;
+import org.whistleblower.ReportSummary;
+import org.whistleblower.ReportSummaryPage;
+import org.whistleblower.WhistleblowerReport;
+
+import java.util.List;
+
+/**
+ * The report operations the DoE and DoGE front-ends offer. WhistleblowerClient
+ * implements them against the network; the emulator has a stand-in that runs
+ * the contract in process, so front-ends can be load tested without one.
+ *
+ * Transitions refused by the contract throw TransitionRejectedException.
+ */
+public interface ReportOperations {
+
+    WhistleblowerReport submitReport(String id, String description, String department, String submittedBy)
+            throws Exception;
+
+    WhistleblowerReport assignInvestigator(String reportId, String investigatorId) throws Exception;
+
+    WhistleblowerReport submitFindings(String reportId, String investigatorId, String findings) throws Exception;
+
+    WhistleblowerReport submitLeadershipReview(String reportId, String decision) throws Exception;
+
+    WhistleblowerReport getReport(String reportId) throws Exception;
+
+    WhistleblowerReport getReportDetail(String reportId) throws Exception;
+
+    ReportSummaryPage getAllReportSummariesPage(int pageSize, String bookmark) throws Exception;
+
+    ReportSummaryPage getReportSummariesByStatusPage(String status, int pageSize, String bookmark) throws Exception;
+
+    List<ReportSummary> getReportSummariesByInvestigator(String investigatorId) throws Exception;
+
+    List<ReportSummary> getReportSummariesByDepartment(String department) throws Exception;
+
+    ReportStatistics getReportStatistics() throws Exception;
+}
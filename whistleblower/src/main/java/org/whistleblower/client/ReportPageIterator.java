@@ -0,0 +1,92 @@
+package org.whistleblower.client;
+
+import org.whistleblower.ReportPage;
+import org.whistleblower.ReportSummary;
+import org.whistleblower.ReportSummaryPage;
+import org.whistleblower.WhistleblowerReport;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Iterates over a paginated report or summary query, fetching the next page
+ * from the peer only once the current one has been consumed.
+ */
+class ReportPageIterator<T> implements Iterator<T> {
+
+    /**
+     * The parts of a ReportPage or ReportSummaryPage the iterator reads
+     */
+    static final class Page<T> {
+        final List<T> records;
+        final String bookmark;
+        final int fetchedRecordsCount;
+
+        private Page(List<T> records, String bookmark, int fetchedRecordsCount) {
+            this.records = records;
+            this.bookmark = bookmark;
+            this.fetchedRecordsCount = fetchedRecordsCount;
+        }
+
+        static Page<WhistleblowerReport> of(ReportPage page) {
+            return new Page<>(page.getRecords(), page.getBookmark(), page.getFetchedRecordsCount());
+        }
+
+        static Page<ReportSummary> of(ReportSummaryPage page) {
+            return new Page<>(page.getRecords(), page.getBookmark(), page.getFetchedRecordsCount());
+        }
+    }
+
+    /**
+     * Fetches the page that starts at the given bookmark
+     */
+    @FunctionalInterface
+    interface PageFetcher<T> {
+        Page<T> fetch(String bookmark) throws Exception;
+    }
+
+    private final PageFetcher<T> fetcher;
+    private final int pageSize;
+
+    private Iterator<T> current = Collections.emptyIterator();
+    private String bookmark = "";
+    private boolean lastPage = false;
+
+    ReportPageIterator(PageFetcher<T> fetcher, int pageSize) {
+        this.fetcher = fetcher;
+        this.pageSize = pageSize;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!current.hasNext() && !lastPage) {
+            fetchNextPage();
+        }
+        return current.hasNext();
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return current.next();
+    }
+
+    private void fetchNextPage() {
+        Page<T> page;
+        try {
+            page = fetcher.fetch(bookmark);
+        } catch (Exception e) {
+            throw new IllegalStateException("Error fetching report page: " + e.getMessage(), e);
+        }
+
+        current = page.records == null
+                ? Collections.emptyIterator()
+                : page.records.iterator();
+        bookmark = page.bookmark == null ? "" : page.bookmark;
+        lastPage = bookmark.isEmpty() || page.fetchedRecordsCount < pageSize;
+    }
+}
@@ -0,0 +1,23 @@
+package org.whistleblower.client;
+
+/**
+ * How a write made through WhistleblowerClient ended, as counted by
+ * getRetryOutcomeCounts.
+ */
+public enum RetryOutcome {
+    /** Committed on the first attempt */
+    SUCCEEDED,
+    /** Committed after one or more retries */
+    SUCCEEDED_AFTER_RETRY,
+    /**
+     * An earlier attempt's outcome was unknown, and the report was found to
+     * hold the change already, so it was not sent again
+     */
+    DEDUPLICATED,
+    /** Failed with an error that retrying cannot fix, such as a chaincode rejection */
+    FAILED_FATAL,
+    /** Still failing with a retryable error after the last attempt */
+    FAILED_RETRIES_EXHAUSTED,
+    /** Ran out of time before succeeding */
+    FAILED_DEADLINE
+}
@@ -0,0 +1,86 @@
+package org.whistleblower.client;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * How WhistleblowerClient retries writes that fail for transient reasons,
+ * such as an MVCC read conflict or an unreachable endorsing peer.
+ *
+ * Attempt n waits a random time between zero and
+ * min(maxBackoff, initialBackoff * 2^(n-1)) before it is sent ("full
+ * jitter"), so clients that conflicted with each other do not retry in
+ * lockstep. No attempt is started, and no wait begun, that would end past
+ * the call's deadline.
+ */
+public final class RetryPolicy {
+
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final Duration deadline;
+
+    /**
+     * @param maxAttempts total attempts per call, including the first
+     * @param initialBackoff upper bound of the wait before the first retry
+     * @param maxBackoff cap on the wait before any retry
+     * @param deadline time allowed for the whole call, including retries
+     */
+    public RetryPolicy(int maxAttempts, Duration initialBackoff, Duration maxBackoff, Duration deadline) {
+        if (maxAttempts <= 0) {
+            throw new IllegalArgumentException("Max attempts must be positive: " + maxAttempts);
+        }
+        if (initialBackoff.isNegative() || maxBackoff.compareTo(initialBackoff) < 0) {
+            throw new IllegalArgumentException("Backoff must be non-negative and no more than the cap");
+        }
+        if (deadline.isNegative() || deadline.isZero()) {
+            throw new IllegalArgumentException("Deadline must be positive: " + deadline);
+        }
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.deadline = deadline;
+    }
+
+    /**
+     * Five attempts, backoff from 100 ms up to 5 s, two minute deadline
+     */
+    public static RetryPolicy defaults() {
+        return new RetryPolicy(5, Duration.ofMillis(100), Duration.ofSeconds(5), Duration.ofMinutes(2));
+    }
+
+    /**
+     * A single attempt with the default deadline
+     */
+    public static RetryPolicy none() {
+        return new RetryPolicy(1, Duration.ZERO, Duration.ZERO, Duration.ofMinutes(2));
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public Duration getInitialBackoff() {
+        return initialBackoff;
+    }
+
+    public Duration getMaxBackoff() {
+        return maxBackoff;
+    }
+
+    public Duration getDeadline() {
+        return deadline;
+    }
+
+    /**
+     * Random wait in milliseconds before the given retry, counting the first
+     * retry as 1
+     */
+    long backoffMillis(int retry) {
+        long ceiling = initialBackoff.toMillis() << Math.min(retry - 1, 30);
+        if (ceiling <= 0 || ceiling > maxBackoff.toMillis()) {
+            ceiling = maxBackoff.toMillis();
+        }
+        return ceiling == 0 ? 0 : ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+}
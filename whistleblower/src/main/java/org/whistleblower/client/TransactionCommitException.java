@@ -0,0 +1,32 @@
+package org.whistleblower.client;
+
+import org.hyperledger.fabric.gateway.ContractException;
+
+/**
+ * Thrown when a transaction was endorsed and ordered but the committing peer
+ * marked it invalid, for example with MVCC_READ_CONFLICT.
+ */
+public class TransactionCommitException extends ContractException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String transactionId;
+    private final String validationCode;
+
+    public TransactionCommitException(String transactionId, String validationCode) {
+        super("Transaction " + transactionId + " failed to commit with validation code " + validationCode);
+        this.transactionId = transactionId;
+        this.validationCode = validationCode;
+    }
+
+    public String getTransactionId() {
+        return transactionId;
+    }
+
+    /**
+     * Name of the peer's TxValidationCode, e.g. MVCC_READ_CONFLICT
+     */
+    public String getValidationCode() {
+        return validationCode;
+    }
+}
@@ -0,0 +1,279 @@
+package org.whistleblower.client;
+
+import org.hyperledger.fabric.gateway.ContractException;
+import org.hyperledger.fabric.sdk.ChaincodeResponse;
+import org.hyperledger.fabric.sdk.ProposalResponse;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs a write under a RetryPolicy and counts how each call ends.
+ *
+ * Failures fall into three classes:
+ * - retryable: the transaction was rejected at commit with MVCC_READ_CONFLICT
+ *   or PHANTOM_READ_CONFLICT, or no endorsing peer could be reached; nothing
+ *   was written, so the call is simply sent again
+ * - ambiguous: the commit wait timed out or the orderer could not be
+ *   reached; the transaction may still commit, so before it is sent again
+ *   the report is read back and, if it already holds the change, the call
+ *   succeeds without resending. Calls with no way to check are not retried.
+ * - fatal: the chaincode rejected the call, or the commit failed with any
+ *   other validation code; retrying would fail the same way
+ */
+final class TransactionRetrier {
+
+    enum Failure {
+        RETRYABLE,
+        AMBIGUOUS,
+        FATAL
+    }
+
+    /**
+     * One attempt, allowed to take at most timeoutMillis
+     */
+    @FunctionalInterface
+    interface Attempt {
+        byte[] run(long timeoutMillis) throws Exception;
+    }
+
+    /**
+     * First attempt of an asynchronous call, started on the caller's thread
+     */
+    @FunctionalInterface
+    interface AsyncAttempt {
+        CompletableFuture<byte[]> start() throws InterruptedException;
+    }
+
+    /**
+     * Reads the ledger to see whether the change a call makes is already
+     * there, returning the report if so and null if not
+     */
+    @FunctionalInterface
+    interface AppliedCheck {
+        byte[] check() throws Exception;
+    }
+
+    private static final Set<String> RETRYABLE_VALIDATION_CODES = Set.of("MVCC_READ_CONFLICT", "PHANTOM_READ_CONFLICT");
+
+    private final Map<RetryOutcome, LongAdder> outcomes = new EnumMap<>(RetryOutcome.class);
+    private final LongAdder retries = new LongAdder();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private volatile RetryPolicy policy;
+
+    TransactionRetrier(RetryPolicy policy) {
+        this.policy = policy;
+        for (RetryOutcome outcome : RetryOutcome.values()) {
+            outcomes.put(outcome, new LongAdder());
+        }
+    }
+
+    RetryPolicy getPolicy() {
+        return policy;
+    }
+
+    void setPolicy(RetryPolicy policy) {
+        this.policy = policy;
+    }
+
+    /**
+     * Run a call to completion on the calling thread
+     */
+    byte[] call(Attempt attempt, AppliedCheck applied) throws Exception {
+        RetryPolicy callPolicy = policy;
+        long deadline = System.nanoTime() + callPolicy.getDeadline().toNanos();
+        byte[] result;
+        try {
+            result = attempt.run(remainingMillis(deadline));
+        } catch (Exception e) {
+            return retry(callPolicy, deadline, e, attempt, applied);
+        }
+        record(RetryOutcome.SUCCEEDED);
+        return result;
+    }
+
+    /**
+     * Start a call whose first attempt runs asynchronously. Retries, if any,
+     * run on a virtual thread.
+     */
+    CompletableFuture<byte[]> callAsync(AsyncAttempt first, Attempt retry, AppliedCheck applied)
+            throws InterruptedException {
+        RetryPolicy callPolicy = policy;
+        long deadline = System.nanoTime() + callPolicy.getDeadline().toNanos();
+        CompletableFuture<byte[]> result = new CompletableFuture<>();
+
+        first.start().whenComplete((bytes, error) -> {
+            if (error == null) {
+                record(RetryOutcome.SUCCEEDED);
+                result.complete(bytes);
+                return;
+            }
+            executor.execute(() -> {
+                try {
+                    result.complete(retry(callPolicy, deadline, unwrap(error), retry, applied));
+                } catch (Exception e) {
+                    result.completeExceptionally(e);
+                }
+            });
+        });
+        return result;
+    }
+
+    private byte[] retry(RetryPolicy callPolicy, long deadline, Exception firstFailure, Attempt attempt,
+            AppliedCheck applied) throws Exception {
+        Exception failure = firstFailure;
+        boolean ambiguous = false;
+
+        for (int attempts = 1; ; attempts++) {
+            Failure kind = classify(failure);
+            ambiguous |= kind == Failure.AMBIGUOUS;
+
+            if (ambiguous && applied != null) {
+                byte[] existing = checkApplied(applied);
+                if (existing != null) {
+                    record(RetryOutcome.DEDUPLICATED);
+                    return existing;
+                }
+            }
+            if (kind == Failure.FATAL || (kind == Failure.AMBIGUOUS && applied == null)) {
+                record(RetryOutcome.FAILED_FATAL);
+                throw failure;
+            }
+            if (attempts >= callPolicy.getMaxAttempts()) {
+                record(RetryOutcome.FAILED_RETRIES_EXHAUSTED);
+                throw failure;
+            }
+            long wait = callPolicy.backoffMillis(attempts);
+            if (System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(wait) >= deadline) {
+                record(RetryOutcome.FAILED_DEADLINE);
+                throw failure;
+            }
+
+            Thread.sleep(wait);
+            retries.increment();
+            try {
+                byte[] result = attempt.run(remainingMillis(deadline));
+                record(RetryOutcome.SUCCEEDED_AFTER_RETRY);
+                return result;
+            } catch (Exception e) {
+                failure = e;
+            }
+        }
+    }
+
+    static Failure classify(Throwable failure) {
+        if (failure instanceof TransactionCommitException) {
+            String code = ((TransactionCommitException) failure).getValidationCode();
+            return RETRYABLE_VALIDATION_CODES.contains(code) ? Failure.RETRYABLE : Failure.FATAL;
+        }
+        if (failure instanceof TimeoutException) {
+            return Failure.AMBIGUOUS;
+        }
+        if (failure instanceof ContractException) {
+            return classify((ContractException) failure);
+        }
+        return Failure.FATAL;
+    }
+
+    /**
+     * Classify a failed Transaction.submit by where it stopped. The gateway
+     * attaches the endorsement responses to every ContractException submit
+     * throws; without them, as from the emulator or with no endorsing peers
+     * at all, there is nothing to show a retry could help.
+     *
+     * If no peer endorsed the proposal, a peer that ran the chaincode and
+     * rejected the call returns a proposal response, while one that could
+     * not be reached is reported without one. If a peer endorsed it, the
+     * failure came after: the orderer's error is kept as the cause when the
+     * transaction could not be sent, and a commit handler failure has none.
+     */
+    private static Failure classify(ContractException failure) {
+        Collection<ProposalResponse> responses = failure.getProposalResponses();
+        if (responses.isEmpty()) {
+            return Failure.FATAL;
+        }
+        if (endorsed(failure)) {
+            return failure.getCause() != null ? Failure.AMBIGUOUS : Failure.FATAL;
+        }
+        for (ProposalResponse response : responses) {
+            if (response.getProposalResponse() != null) {
+                return Failure.FATAL;
+            }
+        }
+        return Failure.RETRYABLE;
+    }
+
+    /**
+     * Whether a submit failed after at least one peer endorsed the proposal
+     */
+    static boolean endorsed(ContractException failure) {
+        for (ProposalResponse response : failure.getProposalResponses()) {
+            if (response.getStatus() == ChaincodeResponse.Status.SUCCESS) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static byte[] checkApplied(AppliedCheck applied) {
+        try {
+            return applied.check();
+        } catch (Exception e) {
+            // Unknown; carry on as if the change is not there
+            return null;
+        }
+    }
+
+    /**
+     * Wait for an asynchronous attempt, rethrowing the exception it failed with
+     */
+    static byte[] await(CompletableFuture<byte[]> future, long timeoutMillis) throws Exception {
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        }
+    }
+
+    private static Exception unwrap(Throwable error) {
+        Throwable cause = error;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException)
+                && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        if (cause instanceof Exception) {
+            return (Exception) cause;
+        }
+        throw (Error) cause;
+    }
+
+    private static long remainingMillis(long deadline) {
+        return Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()));
+    }
+
+    private void record(RetryOutcome outcome) {
+        outcomes.get(outcome).increment();
+    }
+
+    Map<RetryOutcome, Long> outcomeCounts() {
+        Map<RetryOutcome, Long> counts = new EnumMap<>(RetryOutcome.class);
+        for (Map.Entry<RetryOutcome, LongAdder> entry : outcomes.entrySet()) {
+            counts.put(entry.getKey(), entry.getValue().sum());
+        }
+        return counts;
+    }
+
+    long retryCount() {
+        return retries.sum();
+    }
+}
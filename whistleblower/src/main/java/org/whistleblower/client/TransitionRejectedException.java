@@ -0,0 +1,79 @@
+package org.whistleblower.client;
+
+import org.hyperledger.fabric.gateway.ContractException;
+import org.hyperledger.fabric.sdk.ProposalResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Thrown when the contract refuses a report transition, with the error code
+ * the chaincode returned: INVALID_TRANSITION when the report is not in the
+ * status the transition needs, NOT_ASSIGNED_INVESTIGATOR when findings come
+ * from someone other than the assigned investigator, REPORT_NOT_FOUND,
+ * INVALID_REPORT, or REPORT_ALREADY_EXISTS when submitting a report whose ID
+ * is taken. The report is unchanged.
+ */
+public class TransitionRejectedException extends ContractException {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final Set<String> REJECTION_CODES = Set.of(
+            "INVALID_TRANSITION", "NOT_ASSIGNED_INVESTIGATOR", "REPORT_NOT_FOUND", "INVALID_REPORT",
+            "REPORT_ALREADY_EXISTS");
+
+    private final String reportId;
+    private final String errorCode;
+
+    public TransitionRejectedException(String reportId, String errorCode, String message, Throwable cause) {
+        super(message, cause);
+        this.reportId = reportId;
+        this.errorCode = errorCode;
+    }
+
+    /**
+     * The rejection a failed transition carries, or null if the failure is
+     * not a rejection by the contract. The error code is the payload of the
+     * chaincode's error response.
+     */
+    static TransitionRejectedException from(String reportId, Throwable failure) {
+        Throwable cause = failure;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException)
+                && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        if (!(cause instanceof ContractException) || cause instanceof TransactionCommitException) {
+            return null;
+        }
+
+        Collection<ProposalResponse> responses = ((ContractException) cause).getProposalResponses();
+        if (responses == null) {
+            return null;
+        }
+        for (ProposalResponse response : responses) {
+            if (response.getProposalResponse() == null) {
+                continue;
+            }
+            String code = response.getProposalResponse().getResponse().getPayload().toString(StandardCharsets.UTF_8);
+            if (REJECTION_CODES.contains(code)) {
+                String message = response.getProposalResponse().getResponse().getMessage();
+                return new TransitionRejectedException(reportId, code, message, cause);
+            }
+        }
+        return null;
+    }
+
+    public String getReportId() {
+        return reportId;
+    }
+
+    /**
+     * The contract's error code, e.g. INVALID_TRANSITION
+     */
+    public String getErrorCode() {
+        return errorCode;
+    }
+}
@@ -0,0 +1,1121 @@
+package org.whistleblower.client;
+
+import org.hyperledger.fabric.gateway.Contract;
+import org.hyperledger.fabric.gateway.ContractException;
+import org.hyperledger.fabric.gateway.Network;
+import org.hyperledger.fabric.sdk.BlockEvent;
+import org.whistleblower.BatchItemResult;
+import org.whistleblower.InvestigatorAssignment;
+import org.whistleblower.ReportCodec;
+import org.whistleblower.ReportPage;
+import org.whistleblower.ReportPrivateDetails;
+import org.whistleblower.ReportStatistics;
+import org.whistleblower.ReportStatus;
+import org.whistleblower.ReportSummary;
+import org.whistleblower.ReportSummaryPage;
+import org.whistleblower.ReportText;
+import org.whistleblower.WhistleblowerContract;
+import org.whistleblower.WhistleblowerReport;
+import org.whistleblower.metrics.MetricsRecorder;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+public class WhistleblowerClient implements AutoCloseable, ReportOperations {
+
+    /**
+     * Page size used by the streaming queries when the caller does not pick one
+     */
+    public static final int DEFAULT_PAGE_SIZE = 100;
+
+    /**
+     * Number of items sent per batch transaction unless configured otherwise
+     */
+    public static final int DEFAULT_BATCH_SIZE = 100;
+
+    /**
+     * Default bound on asynchronous transactions awaiting endorsement or commit
+     */
+    public static final int DEFAULT_MAX_IN_FLIGHT = 256;
+
+    /**
+     * How long an asynchronous transaction may wait for its commit event
+     */
+    public static final long COMMIT_TIMEOUT_MILLIS = 300_000;
+
+    /**
+     * How far before its high-water mark sync() starts reading by default.
+     * lastUpdated is the submitting client's transaction time, so a report
+     * can commit after others that carry a later time; the overlap picks up
+     * such reports as long as clocks are this close.
+     */
+    public static final long DEFAULT_SYNC_OVERLAP_MILLIS = 5_000;
+
+    private final GatewayPool.Lease lease;
+    // Pool created by the wallet-path constructors, closed with this client
+    private final GatewayPool ownedPool;
+    private final Network network;
+    private final Contract contract;
+    private final String contractName;
+    private final AsyncSubmitter asyncSubmitter;
+    private final TransactionRetrier retrier = new TransactionRetrier(RetryPolicy.defaults());
+    private volatile MetricsRecorder metrics = MetricsRecorder.NOOP;
+    private volatile ReportCache reportCache;
+    private Consumer<BlockEvent> cacheListener;
+    private volatile ReportLedgerView ledgerView;
+    private int batchSize = DEFAULT_BATCH_SIZE;
+    private long syncHighWaterMark = 0;
+    private long syncOverlapMillis = DEFAULT_SYNC_OVERLAP_MILLIS;
+    private static final Gson gson = new GsonBuilder().create();
+
+    public WhistleblowerClient(String walletPath, String connectionProfilePath, String userId, String channelName, String contractName) throws Exception {
+        this(walletPath, connectionProfilePath, userId, channelName, contractName, DEFAULT_MAX_IN_FLIGHT);
+    }
+
+    /**
+     * Connect with a gateway of this client's own. Prefer the GatewayPool
+     * constructors when a process runs several clients.
+     *
+     * @param maxInFlight bound on asynchronous transactions in flight at once
+     */
+    public WhistleblowerClient(String walletPath, String connectionProfilePath, String userId, String channelName, String contractName, int maxInFlight) throws Exception {
+        this(new GatewayPool(walletPath, connectionProfilePath), true, userId, channelName, contractName, maxInFlight);
+    }
+
+    /**
+     * Use the pool's gateway for userId, shared with every other client of
+     * the same identity
+     */
+    public WhistleblowerClient(GatewayPool pool, String userId, String channelName, String contractName) throws Exception {
+        this(pool, userId, channelName, contractName, DEFAULT_MAX_IN_FLIGHT);
+    }
+
+    /**
+     * @param maxInFlight bound on this client's asynchronous transactions in
+     *                    flight at once
+     */
+    public WhistleblowerClient(GatewayPool pool, String userId, String channelName, String contractName, int maxInFlight) throws Exception {
+        this(pool, false, userId, channelName, contractName, maxInFlight);
+    }
+
+    private WhistleblowerClient(GatewayPool pool, boolean ownsPool, String userId, String channelName, String contractName, int maxInFlight) throws Exception {
+        this.ownedPool = ownsPool ? pool : null;
+        try {
+            this.lease = pool.acquire(userId);
+        } catch (Exception e) {
+            if (ownsPool) {
+                pool.close();
+            }
+            throw e;
+        }
+
+        // Access the network and the contract
+        this.network = lease.getNetwork(channelName);
+        this.contract = network.getContract(contractName);
+        this.contractName = contractName;
+        this.asyncSubmitter = new AsyncSubmitter(contract, network, maxInFlight, COMMIT_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * Stop the cache and ledger view and release the gateway. A pooled
+     * gateway stays open for the pool's other clients; a gateway this client
+     * connected itself is closed.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            disableLedgerView();
+        } finally {
+            if (cacheListener != null) {
+                network.removeBlockListener(cacheListener);
+                cacheListener = null;
+            }
+            reportCache = null;
+            lease.close();
+            if (ownedPool != null) {
+                ownedPool.close();
+            }
+        }
+    }
+
+    /**
+     * Submit a new whistleblower report. The description and submitter are
+     * sent as transient data and kept in the private data collection; the
+     * report returned carries only their hash. An ID already taken throws
+     * TransitionRejectedException with REPORT_ALREADY_EXISTS.
+     */
+    public WhistleblowerReport submitReport(String id, String description, String department, String submittedBy) throws Exception {
+        ReportPrivateDetails details = new ReportPrivateDetails(description, submittedBy,
+                ReportPrivateDetails.newSalt());
+        try {
+            byte[] result = submitWithRetry(submitted(id, details, department), details.toTransient(),
+                    "submitReport", id, "", department, "");
+            return written(result);
+        } catch (ContractException e) {
+            TransitionRejectedException rejection = TransitionRejectedException.from(id, e);
+            throw rejection != null ? rejection : e;
+        }
+    }
+
+    /**
+     * Submit many reports, one transaction per chunk of batchSize reports.
+     * Returns one result per input report, in input order.
+     */
+    public List<BatchItemResult> submitReports(List<WhistleblowerReport> reports) throws Exception {
+        List<BatchItemResult> results = new ArrayList<>(reports.size());
+        for (int from = 0; from < reports.size(); from += batchSize) {
+            List<WhistleblowerReport> chunk = reports.subList(from, Math.min(from + batchSize, reports.size()));
+            Map<String, byte[]> transientData = Map.of(ReportPrivateDetails.TRANSIENT_REPORTS,
+                    ReportCodec.encodeListToString(chunk).getBytes(StandardCharsets.UTF_8),
+                    ReportPrivateDetails.TRANSIENT_SALT,
+                    ReportPrivateDetails.newSalt().getBytes(StandardCharsets.UTF_8));
+            byte[] result = submitWithRetry(null, transientData, "submitReports", "");
+            results.addAll(writtenBatch(result));
+        }
+        return results;
+    }
+
+    /**
+     * Assign an investigator to a report (DoGE only)
+     */
+    public WhistleblowerReport assignInvestigator(String reportId, String investigatorId) throws Exception {
+        byte[] result = submitTransition(reportId, assigned(reportId, investigatorId),
+                "assignInvestigator", reportId, investigatorId);
+        return written(result);
+    }
+
+    /**
+     * Assign investigators to many reports, one transaction per chunk of
+     * batchSize assignments (DoGE only). Returns one result per assignment.
+     */
+    public List<BatchItemResult> assignInvestigators(List<InvestigatorAssignment> assignments) throws Exception {
+        List<BatchItemResult> results = new ArrayList<>(assignments.size());
+        for (int from = 0; from < assignments.size(); from += batchSize) {
+            List<InvestigatorAssignment> chunk =
+                    assignments.subList(from, Math.min(from + batchSize, assignments.size()));
+            byte[] result = submitWithRetry(null, "assignInvestigators", gson.toJson(chunk));
+            results.addAll(writtenBatch(result));
+        }
+        return results;
+    }
+
+    /**
+     * Submit investigation findings (DoGE only)
+     */
+    public WhistleblowerReport submitFindings(String reportId, String findings) throws Exception {
+        byte[] result = submitTransition(reportId, findingsSubmitted(reportId, findings),
+                "submitFindings", reportId, findings);
+        return written(result);
+    }
+
+    /**
+     * Submit investigation findings as the given investigator. The contract
+     * rejects them with NOT_ASSIGNED_INVESTIGATOR unless the investigator is
+     * the one assigned to the report (DoGE only).
+     */
+    public WhistleblowerReport submitFindings(String reportId, String investigatorId, String findings) throws Exception {
+        byte[] result = submitTransition(reportId, findingsSubmitted(reportId, findings),
+                "submitInvestigatorFindings", reportId, investigatorId, findings);
+        return written(result);
+    }
+
+    /**
+     * Submit leadership review decision (DoE only)
+     */
+    public WhistleblowerReport submitLeadershipReview(String reportId, String decision) throws Exception {
+        byte[] result = submitTransition(reportId, reviewed(reportId, decision),
+                "submitLeadershipReview", reportId, decision);
+        return written(result);
+    }
+
+    /**
+     * Submit a new whistleblower report without waiting for commit. The future
+     * completes once the transaction has committed. Blocks while the
+     * in-flight window is full.
+     */
+    public CompletableFuture<WhistleblowerReport> submitReportAsync(String id, String description, String department, String submittedBy) throws InterruptedException {
+        ReportPrivateDetails details = new ReportPrivateDetails(description, submittedBy,
+                ReportPrivateDetails.newSalt());
+        return submitAsyncWithRetry(submitted(id, details, department), details.toTransient(),
+                "submitReport", id, "", department, "")
+                .thenApply(this::written);
+    }
+
+    /**
+     * Submit many reports without waiting for commit, one transaction per
+     * chunk of batchSize reports. The future completes with one result per
+     * input report, in input order, once every chunk has committed. Blocks
+     * while the in-flight window is full.
+     */
+    public CompletableFuture<List<BatchItemResult>> submitReportsAsync(List<WhistleblowerReport> reports) throws InterruptedException {
+        List<CompletableFuture<List<BatchItemResult>>> chunks = new ArrayList<>();
+        for (int from = 0; from < reports.size(); from += batchSize) {
+            List<WhistleblowerReport> chunk = reports.subList(from, Math.min(from + batchSize, reports.size()));
+            Map<String, byte[]> transientData = Map.of(ReportPrivateDetails.TRANSIENT_REPORTS,
+                    ReportCodec.encodeListToString(chunk).getBytes(StandardCharsets.UTF_8),
+                    ReportPrivateDetails.TRANSIENT_SALT,
+                    ReportPrivateDetails.newSalt().getBytes(StandardCharsets.UTF_8));
+            chunks.add(submitAsyncWithRetry(null, transientData, "submitReports", "").thenApply(this::writtenBatch));
+        }
+        return CompletableFuture.allOf(chunks.toArray(new CompletableFuture<?>[0])).thenApply(done -> {
+            List<BatchItemResult> results = new ArrayList<>(reports.size());
+            for (CompletableFuture<List<BatchItemResult>> chunk : chunks) {
+                results.addAll(chunk.join());
+            }
+            return results;
+        });
+    }
+
+    /**
+     * Assign an investigator to a report without waiting for commit (DoGE only)
+     */
+    public CompletableFuture<WhistleblowerReport> assignInvestigatorAsync(String reportId, String investigatorId) throws InterruptedException {
+        return submitTransitionAsync(reportId, assigned(reportId, investigatorId),
+                "assignInvestigator", reportId, investigatorId)
+                .thenApply(this::written);
+    }
+
+    /**
+     * Submit investigation findings without waiting for commit (DoGE only)
+     */
+    public CompletableFuture<WhistleblowerReport> submitFindingsAsync(String reportId, String findings) throws InterruptedException {
+        return submitTransitionAsync(reportId, findingsSubmitted(reportId, findings),
+                "submitFindings", reportId, findings)
+                .thenApply(this::written);
+    }
+
+    /**
+     * Submit investigation findings as the given investigator without waiting
+     * for commit (DoGE only)
+     */
+    public CompletableFuture<WhistleblowerReport> submitFindingsAsync(String reportId, String investigatorId, String findings) throws InterruptedException {
+        return submitTransitionAsync(reportId, findingsSubmitted(reportId, findings),
+                "submitInvestigatorFindings", reportId, investigatorId, findings)
+                .thenApply(this::written);
+    }
+
+    /**
+     * Submit leadership review decision without waiting for commit (DoE only)
+     */
+    public CompletableFuture<WhistleblowerReport> submitLeadershipReviewAsync(String reportId, String decision) throws InterruptedException {
+        return submitTransitionAsync(reportId, reviewed(reportId, decision),
+                "submitLeadershipReview", reportId, decision)
+                .thenApply(this::written);
+    }
+
+    /**
+     * Number of asynchronous transactions currently awaiting endorsement or commit
+     */
+    public int getInFlightCount() {
+        return asyncSubmitter.inFlight();
+    }
+
+    /**
+     * Record query and write latencies, payload sizes, decode times, cache
+     * hits and outcomes to the given recorder from now on, e.g. a
+     * MetricsRegistry served by a PrometheusEndpoint or dumped by a
+     * MetricsLogReporter. MetricsRecorder.NOOP, the default, turns them off.
+     */
+    public void setMetrics(MetricsRecorder recorder) {
+        this.metrics = Objects.requireNonNull(recorder, "recorder");
+        asyncSubmitter.setMetrics(recorder);
+    }
+
+    public MetricsRecorder getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Retry writes under the given policy from now on. Use RetryPolicy.none()
+     * to send every write exactly once.
+     */
+    public void setRetryPolicy(RetryPolicy policy) {
+        retrier.setPolicy(Objects.requireNonNull(policy, "policy"));
+    }
+
+    public RetryPolicy getRetryPolicy() {
+        return retrier.getPolicy();
+    }
+
+    /**
+     * Number of writes that ended each way since this client was created
+     */
+    public Map<RetryOutcome, Long> getRetryOutcomeCounts() {
+        return retrier.outcomeCounts();
+    }
+
+    /**
+     * Total number of times a write was sent again
+     */
+    public long getRetryCount() {
+        return retrier.retryCount();
+    }
+
+    /**
+     * Submit a transaction and wait for it to commit, retrying under the
+     * retry policy. Report IDs make every single-report write idempotent to
+     * check: when an attempt's outcome is unknown, applied reads the report
+     * back to see whether the attempt went through before sending it again.
+     * Writes with no check (null) are not sent again after such a failure.
+     */
+    private byte[] submitWithRetry(TransactionRetrier.AppliedCheck applied, String name, String... args)
+            throws Exception {
+        return submitWithRetry(applied, null, name, args);
+    }
+
+    private byte[] submitWithRetry(TransactionRetrier.AppliedCheck applied, Map<String, byte[]> transientData,
+            String name, String... args) throws Exception {
+        return retrier.call(timeout -> asyncSubmitter.submitAndWait(timeout, transientData, name, args), applied);
+    }
+
+    private CompletableFuture<byte[]> submitAsyncWithRetry(TransactionRetrier.AppliedCheck applied, String name,
+            String... args) throws InterruptedException {
+        return submitAsyncWithRetry(applied, null, name, args);
+    }
+
+    private CompletableFuture<byte[]> submitAsyncWithRetry(TransactionRetrier.AppliedCheck applied,
+            Map<String, byte[]> transientData, String name, String... args) throws InterruptedException {
+        return retrier.callAsync(() -> asyncSubmitter.submit(transientData, name, args),
+                timeout -> TransactionRetrier.await(asyncSubmitter.submit(transientData, name, args), timeout),
+                applied);
+    }
+
+    /**
+     * Submit a report transition, turning the contract's refusal into a
+     * TransitionRejectedException. The contract checks the report's status
+     * and investigator itself, so callers need no read beforehand.
+     */
+    private byte[] submitTransition(String reportId, TransactionRetrier.AppliedCheck applied, String name,
+            String... args) throws Exception {
+        try {
+            return submitWithRetry(applied, name, args);
+        } catch (ContractException e) {
+            TransitionRejectedException rejection = TransitionRejectedException.from(reportId, e);
+            throw rejection != null ? rejection : e;
+        }
+    }
+
+    private CompletableFuture<byte[]> submitTransitionAsync(String reportId, TransactionRetrier.AppliedCheck applied,
+            String name, String... args) throws InterruptedException {
+        CompletableFuture<byte[]> transition = new CompletableFuture<>();
+        submitAsyncWithRetry(applied, name, args).whenComplete((result, error) -> {
+            if (error == null) {
+                transition.complete(result);
+                return;
+            }
+            TransitionRejectedException rejection = TransitionRejectedException.from(reportId, error);
+            transition.completeExceptionally(rejection != null ? rejection : error);
+        });
+        return transition;
+    }
+
+    private TransactionRetrier.AppliedCheck submitted(String id, ReportPrivateDetails details, String department) {
+        String hash = details.hash();
+        return reportHolds(id, report -> hash.equals(report.getPrivateDetailsHash())
+                && Objects.equals(report.getDepartment(), department));
+    }
+
+    private TransactionRetrier.AppliedCheck assigned(String reportId, String investigatorId) {
+        return reportHolds(reportId, report -> Objects.equals(report.getInvestigatorId(), investigatorId));
+    }
+
+    private TransactionRetrier.AppliedCheck findingsSubmitted(String reportId, String findings) {
+        return reportHolds(reportId,
+                report -> ReportText.matches(findings, report.getFindings(), report.getFindingsDigest()));
+    }
+
+    private TransactionRetrier.AppliedCheck reviewed(String reportId, String decision) {
+        return reportHolds(reportId, report -> Objects.equals(report.getLeadershipDecision(), decision));
+    }
+
+    /**
+     * Check that reads the report from the ledger, bypassing the cache, and
+     * returns it if it holds the change. A missing report reads as not applied.
+     */
+    private TransactionRetrier.AppliedCheck reportHolds(String reportId, Predicate<WhistleblowerReport> change) {
+        return () -> {
+            byte[] result = evaluate("getReport", reportId);
+            return change.test(deserializeReport(result)) ? result : null;
+        };
+    }
+
+    /**
+     * Get a specific report by ID
+     */
+    public WhistleblowerReport getReport(String reportId) throws Exception {
+        ReportCache cache = reportCache;
+        if (cache == null) {
+            byte[] result = evaluate("getReport", reportId);
+            return deserializeReport(result);
+        }
+
+        WhistleblowerReport cached = cache.get(reportId);
+        metrics.count("client_cache", "getReport", cached != null ? "hit" : "miss");
+        if (cached != null) {
+            return cached;
+        }
+        long loadStamp = cache.beginLoad();
+        byte[] result = evaluate("getReport", reportId);
+        WhistleblowerReport report = deserializeReport(result);
+        cache.put(reportId, report, loadStamp);
+        return report;
+    }
+
+    /**
+     * Get a report with its full description, submitter and findings.
+     * getReport and the queries leave out long text and the private details,
+     * returning only their digests (see ReportText and ReportPrivateDetails);
+     * this fetches them. Not cached.
+     */
+    public WhistleblowerReport getReportDetail(String reportId) throws Exception {
+        byte[] result = evaluate("getReportDetail", reportId);
+        return deserializeReport(result);
+    }
+
+    /**
+     * Cache getReport results, holding at most maxEntries reports for at most
+     * ttl each. Entries are dropped as soon as a block that writes the report
+     * is received, so reads never return a version older than the last block
+     * this client has seen. Calling this again has no effect.
+     */
+    public synchronized void enableReportCache(int maxEntries, Duration ttl) {
+        if (reportCache != null) {
+            return;
+        }
+        ReportCache cache = new ReportCache(maxEntries, ttl.toMillis());
+        cacheListener = network.addBlockListener(block ->
+                BlockWrites.forEachWrite(block, contractName, (key, value, isDelete) -> cache.invalidate(key),
+                        event -> cache.invalidate(event.getReportId())));
+        reportCache = cache;
+    }
+
+    /**
+     * Serve getAllReports, the status, investigator and department queries and
+     * the report streams from a local view of the ledger kept current from
+     * block events, instead of evaluating on the peer. The view resumes from
+     * checkpointFile if it exists. Calling this again has no effect.
+     */
+    public synchronized void enableLedgerView(Path checkpointFile) throws IOException {
+        if (ledgerView != null) {
+            return;
+        }
+        ReportLedgerView view = new ReportLedgerView(network, contractName, checkpointFile);
+        view.start();
+        ledgerView = view;
+    }
+
+    /**
+     * Stop serving queries from the ledger view and write its final checkpoint
+     */
+    public synchronized void disableLedgerView() throws IOException {
+        ReportLedgerView view = ledgerView;
+        ledgerView = null;
+        if (view != null) {
+            view.close();
+        }
+    }
+
+    /**
+     * Number of getReport calls served from the cache
+     */
+    public long getCacheHits() {
+        ReportCache cache = reportCache;
+        return cache == null ? 0 : cache.getHits();
+    }
+
+    /**
+     * Number of getReport calls that had to query the peer while caching was on
+     */
+    public long getCacheMisses() {
+        ReportCache cache = reportCache;
+        return cache == null ? 0 : cache.getMisses();
+    }
+
+    /**
+     * Get all reports
+     */
+    public List<WhistleblowerReport> getAllReports() throws Exception {
+        ReportLedgerView view = ledgerView;
+        if (view != null) {
+            return view.getAllReports();
+        }
+        byte[] result = evaluate("getAllReports");
+        return deserializeReportList(result);
+    }
+
+    /**
+     * Get reports by status
+     */
+    public List<WhistleblowerReport> getReportsByStatus(String status) throws Exception {
+        ReportLedgerView view = ledgerView;
+        if (view != null) {
+            return view.getReportsByStatus(ReportStatus.valueOf(status));
+        }
+        byte[] result = evaluate("getReportsByStatus", status);
+        return deserializeReportList(result);
+    }
+
+    /**
+     * Get one page of all reports. Pass an empty bookmark for the first page.
+     */
+    public ReportPage getAllReportsPage(int pageSize, String bookmark) throws Exception {
+        byte[] result = evaluate("getAllReportsWithPagination",
+                String.valueOf(pageSize), bookmark);
+        return deserializeReportPage(result);
+    }
+
+    /**
+     * Get one page of reports by status. Pass an empty bookmark for the first page.
+     */
+    public ReportPage getReportsByStatusPage(String status, int pageSize, String bookmark) throws Exception {
+        byte[] result = evaluate("getReportsByStatusWithPagination",
+                status, String.valueOf(pageSize), bookmark);
+        return deserializeReportPage(result);
+    }
+
+    /**
+     * Get one page of reports by status, most recently updated first (CouchDB
+     * rich query), or in report ID order when the ledger is event-sourced
+     */
+    public ReportPage queryReportsByStatus(String status, int pageSize, String bookmark) throws Exception {
+        byte[] result = evaluate("queryReportsByStatus",
+                status, String.valueOf(pageSize), bookmark);
+        return deserializeReportPage(result);
+    }
+
+    /**
+     * Get one page of reports by investigator, most recently updated first (CouchDB
+     * rich query), or in report ID order when the ledger is event-sourced
+     */
+    public ReportPage queryReportsByInvestigator(String investigatorId, int pageSize, String bookmark) throws Exception {
+        byte[] result = evaluate("queryReportsByInvestigator",
+                investigatorId, String.valueOf(pageSize), bookmark);
+        return deserializeReportPage(result);
+    }
+
+    /**
+     * Get one page of reports by department, most recently updated first (CouchDB
+     * rich query), or in report ID order when the ledger is event-sourced
+     */
+    public ReportPage queryReportsByDepartment(String department, int pageSize, String bookmark) throws Exception {
+        byte[] result = evaluate("queryReportsByDepartment",
+                department, String.valueOf(pageSize), bookmark);
+        return deserializeReportPage(result);
+    }
+
+    /**
+     * Stream all reports, fetching pages lazily as the stream is consumed
+     */
+    public Stream<WhistleblowerReport> streamAllReports(int pageSize) {
+        ReportLedgerView view = ledgerView;
+        if (view != null) {
+            return view.getAllReports().stream();
+        }
+        return streamPages(bookmark -> ReportPageIterator.Page.of(getAllReportsPage(pageSize, bookmark)), pageSize);
+    }
+
+    /**
+     * Stream reports by status, fetching pages lazily as the stream is consumed
+     */
+    public Stream<WhistleblowerReport> streamReportsByStatus(String status, int pageSize) {
+        ReportLedgerView view = ledgerView;
+        if (view != null) {
+            return view.getReportsByStatus(ReportStatus.valueOf(status)).stream();
+        }
+        return streamPages(
+                bookmark -> ReportPageIterator.Page.of(getReportsByStatusPage(status, pageSize, bookmark)), pageSize);
+    }
+
+    /**
+     * Get reports by investigator
+     */
+    public List<WhistleblowerReport> getReportsByInvestigator(String investigatorId) throws Exception {
+        ReportLedgerView view = ledgerView;
+        if (view != null) {
+            return view.getReportsByInvestigator(investigatorId);
+        }
+        byte[] result = evaluate("getReportsByInvestigator", investigatorId);
+        return deserializeReportList(result);
+    }
+
+    /**
+     * Stream reports by investigator, decoding each report from the response
+     * only as the stream reaches it
+     */
+    public Stream<WhistleblowerReport> streamReportsByInvestigator(String investigatorId) throws Exception {
+        ReportLedgerView view = ledgerView;
+        if (view != null) {
+            return view.getReportsByInvestigator(investigatorId).stream();
+        }
+        byte[] result = evaluate("getReportsByInvestigator", investigatorId);
+        return ReportCodec.streamList(result);
+    }
+
+    /**
+     * Get reports by affected department
+     */
+    public List<WhistleblowerReport> getReportsByDepartment(String department) throws Exception {
+        ReportLedgerView view = ledgerView;
+        if (view != null) {
+            return view.getReportsByDepartment(department);
+        }
+        byte[] result = evaluate("getReportsByDepartment", department);
+        return deserializeReportList(result);
+    }
+
+    /**
+     * Stream reports by affected department, decoding each report from the
+     * response only as the stream reaches it
+     */
+    public Stream<WhistleblowerReport> streamReportsByDepartment(String department) throws Exception {
+        ReportLedgerView view = ledgerView;
+        if (view != null) {
+            return view.getReportsByDepartment(department).stream();
+        }
+        byte[] result = evaluate("getReportsByDepartment", department);
+        return ReportCodec.streamList(result);
+    }
+
+    /**
+     * Get a summary of every report: the fields list screens show, without
+     * the description, findings or submitter
+     */
+    public List<ReportSummary> getAllReportSummaries() throws Exception {
+        ReportLedgerView view = ledgerView;
+        if (view != null) {
+            return summaries(view.getAllReports());
+        }
+        byte[] result = evaluate("getAllReportSummaries");
+        return deserializeSummaryList(result);
+    }
+
+    /**
+     * Get summaries of the reports with a status
+     */
+    public List<ReportSummary> getReportSummariesByStatus(String status) throws Exception {
+        ReportLedgerView view = ledgerView;
+        if (view != null) {
+            return summaries(view.getReportsByStatus(ReportStatus.valueOf(status)));
+        }
+        byte[] result = evaluate("getReportSummariesByStatus", status);
+        return deserializeSummaryList(result);
+    }
+
+    /**
+     * Get summaries of the reports assigned to an investigator
+     */
+    public List<ReportSummary> getReportSummariesByInvestigator(String investigatorId) throws Exception {
+        ReportLedgerView view = ledgerView;
+        if (view != null) {
+            return summaries(view.getReportsByInvestigator(investigatorId));
+        }
+        byte[] result = evaluate("getReportSummariesByInvestigator", investigatorId);
+        return deserializeSummaryList(result);
+    }
+
+    /**
+     * Get summaries of the reports about a department
+     */
+    public List<ReportSummary> getReportSummariesByDepartment(String department) throws Exception {
+        ReportLedgerView view = ledgerView;
+        if (view != null) {
+            return summaries(view.getReportsByDepartment(department));
+        }
+        byte[] result = evaluate("getReportSummariesByDepartment", department);
+        return deserializeSummaryList(result);
+    }
+
+    /**
+     * Get one page of report summaries. Pass an empty bookmark for the first page.
+     */
+    public ReportSummaryPage getAllReportSummariesPage(int pageSize, String bookmark) throws Exception {
+        byte[] result = evaluate("getAllReportSummariesWithPagination",
+                String.valueOf(pageSize), bookmark);
+        return deserializeSummaryPage(result);
+    }
+
+    /**
+     * Get one page of summaries by status. Pass an empty bookmark for the first page.
+     */
+    public ReportSummaryPage getReportSummariesByStatusPage(String status, int pageSize, String bookmark) throws Exception {
+        byte[] result = evaluate("getReportSummariesByStatusWithPagination",
+                status, String.valueOf(pageSize), bookmark);
+        return deserializeSummaryPage(result);
+    }
+
+    /**
+     * Stream summaries of all reports, fetching pages lazily as the stream is consumed
+     */
+    public Stream<ReportSummary> streamAllReportSummaries(int pageSize) {
+        ReportLedgerView view = ledgerView;
+        if (view != null) {
+            return view.getAllReports().stream().map(ReportSummary::of);
+        }
+        return streamPages(
+                bookmark -> ReportPageIterator.Page.of(getAllReportSummariesPage(pageSize, bookmark)), pageSize);
+    }
+
+    /**
+     * Stream summaries by status, fetching pages lazily as the stream is consumed
+     */
+    public Stream<ReportSummary> streamReportSummariesByStatus(String status, int pageSize) {
+        ReportLedgerView view = ledgerView;
+        if (view != null) {
+            return view.getReportsByStatus(ReportStatus.valueOf(status)).stream().map(ReportSummary::of);
+        }
+        return streamPages(
+                bookmark -> ReportPageIterator.Page.of(getReportSummariesByStatusPage(status, pageSize, bookmark)),
+                pageSize);
+    }
+
+    /**
+     * Get report counts by status and department, with their ages, computed
+     * on the peer from the statistics counters
+     */
+    public ReportStatistics getReportStatistics() throws Exception {
+        byte[] result = evaluate("getReportStatistics");
+        return decode("statistics", result,
+                json -> gson.fromJson(new String(json, StandardCharsets.UTF_8), ReportStatistics.class));
+    }
+
+    /**
+     * Fold pending statistics deltas into the counters, returning how many
+     * were folded. Repeat while it returns WhistleblowerContract's
+     * MAX_ROLLUP_DELTAS to fold them all.
+     */
+    public int rollupReportStatistics() throws Exception {
+        byte[] result = submitWithRetry(null, "rollupReportStatistics");
+        return Integer.parseInt(new String(result, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Get one page of the reports last updated at or after since (epoch
+     * milliseconds), oldest update first. Pass an empty bookmark for the
+     * first page.
+     */
+    public ReportPage getReportsUpdatedSincePage(long since, int pageSize, String bookmark) throws Exception {
+        byte[] result = evaluate("getReportsUpdatedSince",
+                String.valueOf(since), String.valueOf(pageSize), bookmark);
+        return deserializeReportPage(result);
+    }
+
+    /**
+     * Stream the reports last updated at or after since, fetching pages
+     * lazily as the stream is consumed
+     */
+    public Stream<WhistleblowerReport> streamReportsUpdatedSince(long since, int pageSize) {
+        return streamPages(
+                bookmark -> ReportPageIterator.Page.of(getReportsUpdatedSincePage(since, pageSize, bookmark)),
+                pageSize);
+    }
+
+    /**
+     * Get one page of the archived reports last updated at or after since
+     * (epoch milliseconds), oldest update first. Pass an empty bookmark for
+     * the first page.
+     */
+    public ReportPage getArchivedReportsUpdatedSincePage(long since, int pageSize, String bookmark) throws Exception {
+        byte[] result = evaluate("getArchivedReportsUpdatedSince",
+                String.valueOf(since), String.valueOf(pageSize), bookmark);
+        return deserializeReportPage(result);
+    }
+
+    /**
+     * Stream the archived reports last updated at or after since, fetching
+     * pages lazily as the stream is consumed
+     */
+    public Stream<WhistleblowerReport> streamArchivedReportsUpdatedSince(long since, int pageSize) {
+        return streamPages(
+                bookmark -> ReportPageIterator.Page.of(getArchivedReportsUpdatedSincePage(since, pageSize, bookmark)),
+                pageSize);
+    }
+
+    /**
+     * Get how many days a report stays CLOSED before it is archived
+     */
+    public int getArchiveAfterDays() throws Exception {
+        byte[] result = evaluate("getArchiveAfterDays");
+        return Integer.parseInt(new String(result, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Set how many days a report stays CLOSED before it is archived
+     */
+    public void setArchiveAfterDays(int days) throws Exception {
+        submitWithRetry(null, "setArchiveAfterDays", String.valueOf(days));
+    }
+
+    /**
+     * Move every report CLOSED for longer than the archive age out of the
+     * active reports, returning how many were moved. Archived reports no
+     * longer appear in getReport or the queries; read them with
+     * getArchivedReport.
+     *
+     * The time index is read a page at a time with getArchivableReports, and
+     * each page's candidates are archived in one transaction, so no single
+     * call reads more than WhistleblowerContract's MAX_BATCH_SIZE entries.
+     * Candidates a transition moved on in between are skipped.
+     */
+    public int archiveClosedReports() throws Exception {
+        int archived = 0;
+        String bookmark = "";
+        do {
+            ReportSummaryPage page = getArchivableReports(WhistleblowerContract.MAX_BATCH_SIZE, bookmark);
+            List<String> reportIds = new ArrayList<>(page.getRecords().size());
+            for (ReportSummary summary : page.getRecords()) {
+                reportIds.add(summary.getId());
+            }
+            if (!reportIds.isEmpty()) {
+                byte[] result = submitWithRetry(null, "archiveClosedReports", gson.toJson(reportIds));
+                for (BatchItemResult item : writtenBatch(result)) {
+                    if (item.isSuccess()) {
+                        archived++;
+                    }
+                }
+            }
+            bookmark = page.getBookmark();
+        } while (bookmark != null && !bookmark.isEmpty());
+        return archived;
+    }
+
+    /**
+     * Get summaries of the reports old enough to archive from one page of
+     * the time index, oldest update first. The bookmark is empty once the
+     * page reaches reports too recent to archive.
+     */
+    public ReportSummaryPage getArchivableReports(int pageSize, String bookmark) throws Exception {
+        byte[] result = evaluate("getArchivableReports", String.valueOf(pageSize), bookmark);
+        return deserializeSummaryPage(result);
+    }
+
+    /**
+     * Get an archived report by ID
+     */
+    public WhistleblowerReport getArchivedReport(String reportId) throws Exception {
+        byte[] result = evaluate("getArchivedReport", reportId);
+        return deserializeReport(result);
+    }
+
+    /**
+     * Get an archived report with its full description, submitter and findings
+     */
+    public WhistleblowerReport getArchivedReportDetail(String reportId) throws Exception {
+        byte[] result = evaluate("getArchivedReportDetail", reportId);
+        return deserializeReport(result);
+    }
+
+    /**
+     * Get one page of archived reports, in ID order. Pass an empty bookmark
+     * for the first page.
+     */
+    public ReportPage getArchivedReportsPage(int pageSize, String bookmark) throws Exception {
+        byte[] result = evaluate("getArchivedReportsWithPagination",
+                String.valueOf(pageSize), bookmark);
+        return deserializeReportPage(result);
+    }
+
+    /**
+     * Stream archived reports, fetching pages lazily as the stream is consumed
+     */
+    public Stream<WhistleblowerReport> streamArchivedReports(int pageSize) {
+        return streamPages(bookmark -> ReportPageIterator.Page.of(getArchivedReportsPage(pageSize, bookmark)),
+                pageSize);
+    }
+
+    /**
+     * Fetch the reports updated since the previous call and advance the
+     * high-water mark to the latest lastUpdated seen. The first call returns
+     * every report. Reports updated within the sync overlap of the mark are
+     * returned again, so callers should apply the result as upserts by ID.
+     */
+    public synchronized List<WhistleblowerReport> sync() throws Exception {
+        long since = Math.max(0, syncHighWaterMark - syncOverlapMillis);
+        List<WhistleblowerReport> changed = new ArrayList<>();
+        long highWaterMark = syncHighWaterMark;
+        try (Stream<WhistleblowerReport> reports = streamReportsUpdatedSince(since, DEFAULT_PAGE_SIZE)) {
+            for (WhistleblowerReport report : (Iterable<WhistleblowerReport>) reports::iterator) {
+                changed.add(report);
+                highWaterMark = Math.max(highWaterMark, report.getLastUpdated());
+            }
+        }
+        syncHighWaterMark = highWaterMark;
+        return changed;
+    }
+
+    /**
+     * Latest lastUpdated returned by sync(), for persisting between runs
+     */
+    public synchronized long getSyncHighWaterMark() {
+        return syncHighWaterMark;
+    }
+
+    /**
+     * Resume sync() from a mark saved by an earlier run, or 0 to start over
+     */
+    public synchronized void setSyncHighWaterMark(long highWaterMark) {
+        this.syncHighWaterMark = highWaterMark;
+    }
+
+    public synchronized void setSyncOverlapMillis(long overlapMillis) {
+        if (overlapMillis < 0) {
+            throw new IllegalArgumentException("Sync overlap must not be negative: " + overlapMillis);
+        }
+        this.syncOverlapMillis = overlapMillis;
+    }
+
+    /**
+     * Decode every report of the full ledger as it is read from the response,
+     * without collecting them into a list. Suited to exports and aggregations
+     * that only need one report at a time.
+     */
+    public void forEachReport(Consumer<WhistleblowerReport> visitor) throws Exception {
+        ReportLedgerView view = ledgerView;
+        if (view != null) {
+            view.getAllReports().forEach(visitor);
+            return;
+        }
+        byte[] result = evaluate("getAllReports");
+        ReportCodec.forEachInList(result, visitor);
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Set the number of items sent per batch transaction. Must not exceed the
+     * contract's MAX_BATCH_SIZE.
+     */
+    public void setBatchSize(int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+        }
+        this.batchSize = batchSize;
+    }
+
+    private static <T> Stream<T> streamPages(ReportPageIterator.PageFetcher<T> fetcher, int pageSize) {
+        ReportPageIterator<T> iterator = new ReportPageIterator<>(fetcher, pageSize);
+        return StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    private static List<ReportSummary> summaries(List<WhistleblowerReport> reports) {
+        List<ReportSummary> summaries = new ArrayList<>(reports.size());
+        for (WhistleblowerReport report : reports) {
+            summaries.add(ReportSummary.of(report));
+        }
+        return summaries;
+    }
+
+    /**
+     * Deserialize the report returned by a write and drop it from the cache
+     * straight away rather than waiting for its block to arrive
+     */
+    private WhistleblowerReport written(byte[] result) {
+        WhistleblowerReport report = deserializeReport(result);
+        ReportCache cache = reportCache;
+        if (cache != null && report != null) {
+            cache.invalidate(report.getId());
+        }
+        return report;
+    }
+
+    private List<BatchItemResult> writtenBatch(byte[] result) {
+        List<BatchItemResult> results = deserializeBatchResults(result);
+        ReportCache cache = reportCache;
+        if (cache != null) {
+            for (BatchItemResult item : results) {
+                if (item.isSuccess()) {
+                    cache.invalidate(item.getId());
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Evaluate a query, recording its latency, response size and outcome
+     * when metrics are enabled
+     */
+    private byte[] evaluate(String name, String... args) throws ContractException {
+        MetricsRecorder recorder = metrics;
+        if (!recorder.isEnabled()) {
+            return contract.evaluateTransaction(name, args);
+        }
+        long start = System.nanoTime();
+        try {
+            byte[] result = contract.evaluateTransaction(name, args);
+            recorder.recordNanos("client_evaluate", name, System.nanoTime() - start);
+            recorder.recordBytes("client_response", name, result.length);
+            recorder.count("client_evaluates", name, "ok");
+            return result;
+        } catch (ContractException | RuntimeException e) {
+            recorder.recordNanos("client_evaluate", name, System.nanoTime() - start);
+            recorder.count("client_evaluates", name, AsyncSubmitter.outcome(e));
+            throw e;
+        }
+    }
+
+    /**
+     * Decode a response, recording the time taken under client_decode with
+     * the decoded type as the transaction label
+     */
+    private <T> T decode(String kind, byte[] bytes, Function<byte[], T> decoder) {
+        MetricsRecorder recorder = metrics;
+        if (!recorder.isEnabled()) {
+            return decoder.apply(bytes);
+        }
+        long start = System.nanoTime();
+        T decoded = decoder.apply(bytes);
+        recorder.recordNanos("client_decode", kind, System.nanoTime() - start);
+        return decoded;
+    }
+
+    // Helper methods for deserialization
+    private WhistleblowerReport deserializeReport(byte[] bytes) {
+        return decode("report", bytes, ReportCodec::decode);
+    }
+
+    private List<WhistleblowerReport> deserializeReportList(byte[] bytes) {
+        return decode("reportList", bytes, ReportCodec::decodeList);
+    }
+
+    private List<BatchItemResult> deserializeBatchResults(byte[] bytes) {
+        return decode("batchResults", bytes, json -> {
+            Type listType = new TypeToken<ArrayList<BatchItemResult>>(){}.getType();
+            return gson.fromJson(new String(json, StandardCharsets.UTF_8), listType);
+        });
+    }
+
+    private ReportPage deserializeReportPage(byte[] bytes) {
+        return decode("reportPage", bytes, ReportCodec::decodePage);
+    }
+
+    private List<ReportSummary> deserializeSummaryList(byte[] bytes) {
+        return decode("summaryList", bytes, ReportCodec::decodeSummaryList);
+    }
+
+    private ReportSummaryPage deserializeSummaryPage(byte[] bytes) {
+        return decode("summaryPage", bytes, ReportCodec::decodeSummaryPage);
+    }
+}
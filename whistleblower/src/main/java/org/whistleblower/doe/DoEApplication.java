@@ -1,10 +1,13 @@
 package org.whistleblower.doe;
 
+import org.whistleblower.client.TransitionRejectedException;
 import org.whistleblower.client.WhistleblowerClient;
+import org.whistleblower.ReportStatistics;
+import org.whistleblower.ReportSummary;
 import org.whistleblower.WhistleblowerReport;
 
-import java.util.List;
 import java.util.Scanner;
+import java.util.stream.Stream;
 
 public class DoEApplication {
 
@@ -41,6 +44,9 @@ public class DoEApplication {
             System.out.println("3. View reports by status");
             System.out.println("4. View specific report");
             System.out.println("5. Submit leadership review");
+            System.out.println("6. View report statistics");
+            System.out.println("7. Archive old closed reports");
+            System.out.println("8. View archived report");
             System.out.println("0. Exit");
             System.out.print("Select an option: ");
             
@@ -63,6 +69,15 @@ public class DoEApplication {
                 case 5:
                     submitLeadershipReview(scanner);
                     break;
+                case 6:
+                    viewReportStatistics();
+                    break;
+                case 7:
+                    archiveClosedReports();
+                    break;
+                case 8:
+                    viewArchivedReport(scanner);
+                    break;
                 case 0:
                     exit = true;
                     break;
@@ -100,8 +115,7 @@ public class DoEApplication {
 
     private static void viewAllReports() {
         try {
-            List<WhistleblowerReport> reports = client.getAllReports();
-            displayReports(reports);
+            displayReports(client.streamAllReportSummaries(WhistleblowerClient.DEFAULT_PAGE_SIZE));
         } catch (Exception e) {
             System.err.println("Error retrieving reports: " + e.getMessage());
         }
@@ -112,19 +126,77 @@ public class DoEApplication {
             System.out.print("Enter status (SUBMITTED, UNDER_INVESTIGATION, PENDING_REVIEW, CLOSED): ");
             String status = scanner.nextLine();
             
-            List<WhistleblowerReport> reports = client.getReportsByStatus(status);
-            displayReports(reports);
+            displayReports(client.streamReportSummariesByStatus(status, WhistleblowerClient.DEFAULT_PAGE_SIZE));
         } catch (Exception e) {
             System.err.println("Error retrieving reports: " + e.getMessage());
         }
     }
 
+    private static void viewReportStatistics() {
+        try {
+            ReportStatistics statistics = client.getReportStatistics();
+            System.out.println("\nTotal reports: " + statistics.getTotal());
+            System.out.println("By status: " + statistics.getByStatus());
+            System.out.println("By department: " + statistics.getByDepartment());
+
+            int[] bounds = ReportStatistics.AGE_BUCKET_DAYS;
+            StringBuilder header = new StringBuilder(String.format("%-20s %-20s %6s", "Status", "Department", "Count"));
+            for (int bound : bounds) {
+                header.append(String.format(" %6s", "<" + bound + "d"));
+            }
+            header.append(String.format(" %6s", ">=" + bounds[bounds.length - 1] + "d"));
+            System.out.println("\n" + header);
+            for (ReportStatistics.Group group : statistics.getGroups()) {
+                StringBuilder row = new StringBuilder(String.format("%-20s %-20s %6d",
+                        group.getStatus(), group.getDepartment(), group.getCount()));
+                for (long count : group.getAgeCounts()) {
+                    row.append(String.format(" %6d", count));
+                }
+                System.out.println(row);
+            }
+
+        } catch (Exception e) {
+            System.err.println("Error retrieving statistics: " + e.getMessage());
+        }
+    }
+
+    private static void archiveClosedReports() {
+        try {
+            int archived = client.archiveClosedReports();
+            System.out.println("Archived " + archived + " reports closed more than "
+                    + client.getArchiveAfterDays() + " days ago");
+
+        } catch (Exception e) {
+            System.err.println("Error archiving reports: " + e.getMessage());
+        }
+    }
+
+    private static void viewArchivedReport(Scanner scanner) {
+        try {
+            System.out.print("Enter report ID: ");
+            String id = scanner.nextLine();
+
+            WhistleblowerReport report = client.getArchivedReportDetail(id);
+            System.out.println("\nArchived Report Details:");
+            System.out.println("ID: " + report.getId());
+            System.out.println("Description: " + report.getDescription());
+            System.out.println("Department: " + report.getDepartment());
+            System.out.println("Status: " + report.getStatus());
+            System.out.println("Investigator: " + report.getInvestigatorId());
+            System.out.println("Findings: " + report.getFindings());
+            System.out.println("Leadership Decision: " + report.getLeadershipDecision());
+
+        } catch (Exception e) {
+            System.err.println("Error retrieving archived report: " + e.getMessage());
+        }
+    }
+
     private static void viewSpecificReport(Scanner scanner) {
         try {
             System.out.print("Enter report ID: ");
             String id = scanner.nextLine();
             
-            WhistleblowerReport report = client.getReport(id);
+            WhistleblowerReport report = client.getReportDetail(id);
             System.out.println("\nReport Details:");
             System.out.println("ID: " + report.getId());
             System.out.println("Description: " + report.getDescription());
@@ -145,39 +217,36 @@ public class DoEApplication {
             System.out.print("Enter report ID: ");
             String id = scanner.nextLine();
             
-            // First verify the report is in PENDING_REVIEW status
-            WhistleblowerReport report = client.getReport(id);
-            if (!report.getStatus().toString().equals("PENDING_REVIEW")) {
-                System.out.println("Report is not in PENDING_REVIEW status. Cannot submit leadership review.");
-                return;
-            }
-            
             System.out.print("Enter leadership decision: ");
             String decision = scanner.nextLine();
             
+            // The contract checks the report is PENDING_REVIEW
             WhistleblowerReport updatedReport = client.submitLeadershipReview(id, decision);
             System.out.println("Leadership review submitted successfully for report: " + updatedReport.getId());
             
+        } catch (TransitionRejectedException e) {
+            System.out.println("Cannot submit leadership review: " + e.getMessage());
         } catch (Exception e) {
             System.err.println("Error submitting leadership review: " + e.getMessage());
         }
     }
 
-    private static void displayReports(List<WhistleblowerReport> reports) {
+    private static void displayReports(Stream<ReportSummary> reports) {
         System.out.println("\nReports:");
         System.out.println("---------------------------------------------------------------------------------");
         System.out.printf("%-10s %-15s %-20s %-15s %-15s%n", "ID", "Department", "Status", "Investigator", "Decision");
         System.out.println("---------------------------------------------------------------------------------");
         
-        for (WhistleblowerReport report : reports) {
+        // Rows are printed as each page arrives rather than after the whole result set
+        reports.forEach(report ->
             System.out.printf("%-10s %-15s %-20s %-15s %-15s%n", 
                 report.getId(), 
                 report.getDepartment(), 
                 report.getStatus(),
                 report.getInvestigatorId().isEmpty() ? "Unassigned" : report.getInvestigatorId(),
                 report.getLeadershipDecision().isEmpty() ? "Pending" : report.getLeadershipDecision()
-            );
-        }
+            )
+        );
         System.out.println("---------------------------------------------------------------------------------");
     }
 }
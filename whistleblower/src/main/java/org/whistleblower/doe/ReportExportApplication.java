@@ -0,0 +1,63 @@
+package org.whistleblower.doe;
+
+import org.whistleblower.client.ClosedReportExporter;
+import org.whistleblower.client.ColumnarReportFile;
+import org.whistleblower.client.WhistleblowerClient;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Exports CLOSED reports for auditors to a compressed columnar file,
+ * appending only what changed since the previous run.
+ *
+ * Usage:
+ *   java -cp <classpath> org.whistleblower.doe.ReportExportApplication <file> [options]
+ *     --row-group-size 10000   reports per row group
+ *     --overlap-ms 5000        how far before the last export to start reading
+ */
+public class ReportExportApplication {
+
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.err.println("Usage: ReportExportApplication <file> [--row-group-size n] [--overlap-ms n]");
+            System.exit(2);
+        }
+        Path output = Paths.get(args[0]);
+        Map<String, String> options = new LinkedHashMap<>();
+        for (int i = 1; i + 1 < args.length; i += 2) {
+            options.put(args[i].replaceFirst("^--", ""), args[i + 1]);
+        }
+        int rowGroupSize = Integer.parseInt(options.getOrDefault("row-group-size",
+                Integer.toString(ClosedReportExporter.DEFAULT_ROW_GROUP_SIZE)));
+        long overlapMillis = Long.parseLong(options.getOrDefault("overlap-ms",
+                Long.toString(WhistleblowerClient.DEFAULT_SYNC_OVERLAP_MILLIS)));
+
+        try (WhistleblowerClient client = new WhistleblowerClient(
+                "wallets/doe",
+                "connection-profiles/doe-connection.json",
+                "doeUser",
+                "whistleblowerchannel",
+                "whistleblower")) {
+            ClosedReportExporter exporter = new ClosedReportExporter(
+                    since -> client.streamReportsUpdatedSince(since, WhistleblowerClient.DEFAULT_PAGE_SIZE),
+                    since -> client.streamArchivedReportsUpdatedSince(since, WhistleblowerClient.DEFAULT_PAGE_SIZE),
+                    rowGroupSize, overlapMillis);
+            ClosedReportExporter.Result result = exporter.export(output);
+
+            List<ColumnarReportFile.RowGroup> groups = ColumnarReportFile.rowGroups(output);
+            long rows = groups.stream().mapToLong(ColumnarReportFile.RowGroup::getRowCount).sum();
+            System.out.printf("Exported %,d closed reports of %,d scanned in %d row groups%n",
+                    result.getExported(), result.getScanned(), result.getRowGroups());
+            System.out.printf("%s now holds %,d rows in %d row groups%n", output, rows, groups.size());
+
+        } catch (Exception e) {
+            System.err.println("Export failed: " + e.getMessage());
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package org.whistleblower.doe;
+
+import org.whistleblower.client.ReportImporter;
+import org.whistleblower.client.WhistleblowerClient;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bulk-imports historic reports from a hotline export as DoE. Running it
+ * again after an interruption resumes from the checkpoint file.
+ *
+ * Usage:
+ *   java -cp <classpath> org.whistleblower.doe.ReportImportApplication <file> [options]
+ *     --format csv|jsonl      defaults from the file extension
+ *     --batch-size 100        reports per transaction
+ *     --in-flight 8           batch transactions awaiting commit at once
+ *     --checkpoint <file>.checkpoint
+ *     --rejects <file>.rejects.jsonl
+ */
+public class ReportImportApplication {
+
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.err.println("Usage: ReportImportApplication <file> [--format csv|jsonl] [--batch-size n] "
+                    + "[--in-flight n] [--checkpoint path] [--rejects path]");
+            System.exit(2);
+        }
+        Path input = Paths.get(args[0]);
+        Map<String, String> options = new LinkedHashMap<>();
+        for (int i = 1; i + 1 < args.length; i += 2) {
+            options.put(args[i].replaceFirst("^--", ""), args[i + 1]);
+        }
+
+        ReportImporter.Format format = options.containsKey("format")
+                ? ReportImporter.Format.valueOf(options.get("format").toUpperCase())
+                : ReportImporter.Format.of(input);
+        int batchSize = Integer.parseInt(options.getOrDefault("batch-size",
+                Integer.toString(WhistleblowerClient.DEFAULT_BATCH_SIZE)));
+        int inFlight = Integer.parseInt(options.getOrDefault("in-flight", "8"));
+        Path checkpoint = Paths.get(options.getOrDefault("checkpoint", input + ".checkpoint"));
+        Path rejects = Paths.get(options.getOrDefault("rejects", input + ".rejects.jsonl"));
+
+        try (WhistleblowerClient client = new WhistleblowerClient(
+                "wallets/doe",
+                "connection-profiles/doe-connection.json",
+                "doeUser",
+                "whistleblowerchannel",
+                "whistleblower",
+                inFlight)) {
+            client.setBatchSize(batchSize);
+            ReportImporter importer = new ReportImporter(client::submitReportsAsync, batchSize, inFlight);
+
+            long start = System.nanoTime();
+            ReportImporter.Progress progress = importer.importFile(input, format, checkpoint, rejects);
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            System.out.printf("Imported %,d reports in %.1f s (%,d already present, %,d rejected)%n",
+                    progress.getImported(), seconds, progress.getExisting(), progress.getRejected());
+            if (progress.getRejected() > 0) {
+                System.out.println("Rejected rows are listed in " + rejects);
+            }
+
+        } catch (Exception e) {
+            System.err.println("Import stopped: " + e.getMessage());
+            System.err.println("Run the same command again to resume from " + checkpoint);
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+}
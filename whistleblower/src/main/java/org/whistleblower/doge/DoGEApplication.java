@@ -1,10 +1,12 @@
 package org.whistleblower.doge;
 
+import org.whistleblower.client.TransitionRejectedException;
 import org.whistleblower.client.WhistleblowerClient;
+import org.whistleblower.ReportSummary;
 import org.whistleblower.WhistleblowerReport;
 
-import java.util.List;
 import java.util.Scanner;
+import java.util.stream.Stream;
 
 public class DoGEApplication {
 
@@ -80,8 +82,7 @@ public class DoGEApplication {
 
     private static void viewAllReports() {
         try {
-            List<WhistleblowerReport> reports = client.getAllReports();
-            displayReports(reports);
+            displayReports(client.streamAllReportSummaries(WhistleblowerClient.DEFAULT_PAGE_SIZE));
         } catch (Exception e) {
             System.err.println("Error retrieving reports: " + e.getMessage());
         }
@@ -92,8 +93,7 @@ public class DoGEApplication {
             System.out.print("Enter status (SUBMITTED, UNDER_INVESTIGATION, PENDING_REVIEW, CLOSED): ");
             String status = scanner.nextLine();
             
-            List<WhistleblowerReport> reports = client.getReportsByStatus(status);
-            displayReports(reports);
+            displayReports(client.streamReportSummariesByStatus(status, WhistleblowerClient.DEFAULT_PAGE_SIZE));
         } catch (Exception e) {
             System.err.println("Error retrieving reports: " + e.getMessage());
         }
@@ -104,8 +104,7 @@ public class DoGEApplication {
             System.out.print("Enter your investigator ID: ");
             String investigatorId = scanner.nextLine();
             
-            List<WhistleblowerReport> reports = client.getReportsByInvestigator(investigatorId);
-            displayReports(reports);
+            displayReports(client.getReportSummariesByInvestigator(investigatorId).stream());
         } catch (Exception e) {
             System.err.println("Error retrieving reports: " + e.getMessage());
         }
@@ -116,7 +115,7 @@ public class DoGEApplication {
             System.out.print("Enter report ID: ");
             String id = scanner.nextLine();
             
-            WhistleblowerReport report = client.getReport(id);
+            WhistleblowerReport report = client.getReportDetail(id);
             System.out.println("\nReport Details:");
             System.out.println("ID: " + report.getId());
             System.out.println("Description: " + report.getDescription());
@@ -137,19 +136,15 @@ public class DoGEApplication {
             System.out.print("Enter report ID: ");
             String id = scanner.nextLine();
             
-            // First verify the report is in SUBMITTED status
-            WhistleblowerReport report = client.getReport(id);
-            if (!report.getStatus().toString().equals("SUBMITTED")) {
-                System.out.println("Report is not in SUBMITTED status. Cannot assign investigator.");
-                return;
-            }
-            
             System.out.print("Enter investigator ID: ");
             String investigatorId = scanner.nextLine();
             
+            // The contract checks the report is SUBMITTED
             WhistleblowerReport updatedReport = client.assignInvestigator(id, investigatorId);
             System.out.println("Investigator assigned successfully to report: " + updatedReport.getId());
             
+        } catch (TransitionRejectedException e) {
+            System.out.println("Cannot assign investigator: " + e.getMessage());
         } catch (Exception e) {
             System.err.println("Error assigning investigator: " + e.getMessage());
         }
@@ -160,20 +155,8 @@ public class DoGEApplication {
             System.out.print("Enter report ID: ");
             String id = scanner.nextLine();
             
-            // First verify the report is in UNDER_INVESTIGATION status
-            WhistleblowerReport report = client.getReport(id);
-            if (!report.getStatus().toString().equals("UNDER_INVESTIGATION")) {
-                System.out.println("Report is not in UNDER_INVESTIGATION status. Cannot submit findings.");
-                return;
-            }
-            
-            // Verify the investigator is assigned to this report
             System.out.print("Enter your investigator ID: ");
             String investigatorId = scanner.nextLine();
-            if (!report.getInvestigatorId().equals(investigatorId)) {
-                System.out.println("You are not assigned to this report. Cannot submit findings.");
-                return;
-            }
             
             System.out.println("Enter investigation findings (press Enter twice to finish):");
             StringBuilder findings = new StringBuilder();
@@ -182,29 +165,34 @@ public class DoGEApplication {
                 findings.append(line).append("\n");
             }
             
-            WhistleblowerReport updatedReport = client.submitFindings(id, findings.toString());
+            // The contract checks the report is UNDER_INVESTIGATION and
+            // assigned to this investigator
+            WhistleblowerReport updatedReport = client.submitFindings(id, investigatorId, findings.toString());
             System.out.println("Findings submitted successfully for report: " + updatedReport.getId());
             
+        } catch (TransitionRejectedException e) {
+            System.out.println("Cannot submit findings: " + e.getMessage());
         } catch (Exception e) {
             System.err.println("Error submitting findings: " + e.getMessage());
         }
     }
 
-    private static void displayReports(List<WhistleblowerReport> reports) {
+    private static void displayReports(Stream<ReportSummary> reports) {
         System.out.println("\nReports:");
         System.out.println("---------------------------------------------------------------------------------");
         System.out.printf("%-10s %-15s %-20s %-15s %-15s%n", "ID", "Department", "Status", "Investigator", "Decision");
         System.out.println("---------------------------------------------------------------------------------");
         
-        for (WhistleblowerReport report : reports) {
+        // Rows are printed as each page arrives rather than after the whole result set
+        reports.forEach(report ->
             System.out.printf("%-10s %-15s %-20s %-15s %-15s%n", 
                 report.getId(), 
                 report.getDepartment(), 
                 report.getStatus(),
                 report.getInvestigatorId().isEmpty() ? "Unassigned" : report.getInvestigatorId(),
                 report.getLeadershipDecision().isEmpty() ? "Pending" : report.getLeadershipDecision()
-            );
-        }
+            )
+        );
         System.out.println("---------------------------------------------------------------------------------");
     }
 }
@@ -0,0 +1,264 @@
+package org.whistleblower.emulator;
+
+import org.hyperledger.fabric.protos.peer.TxValidationCode;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Orderer stand-in that batches endorsed transactions into blocks and
+ * commits them to a SimulatedLedger.
+ *
+ * A block is cut when it reaches MaxMessageCount transactions, when adding a
+ * transaction would take it past PreferredMaxBytes, or BatchTimeout after
+ * the first transaction in the pending batch arrived, matching the
+ * orderer's BatchSize and BatchTimeout settings. Blocks commit in the order
+ * they were cut, on a single committer thread.
+ */
+public final class BlockCutter implements AutoCloseable {
+
+    private static final Pattern BATCH_TIMEOUT = Pattern.compile("^\\s*BatchTimeout:\\s*(\\d+)\\s*(ms|s|m)\\s*$");
+    private static final Pattern MAX_MESSAGE_COUNT = Pattern.compile("^\\s*MaxMessageCount:\\s*(\\d+)\\s*$");
+    private static final Pattern PREFERRED_MAX_BYTES =
+            Pattern.compile("^\\s*PreferredMaxBytes:\\s*(\\d+)\\s*(KB|MB)?\\s*$");
+
+    /**
+     * Orderer batch settings
+     */
+    public static final class BatchConfig {
+        private final Duration batchTimeout;
+        private final int maxMessageCount;
+        private final int preferredMaxBytes;
+
+        public BatchConfig(final Duration batchTimeout, final int maxMessageCount, final int preferredMaxBytes) {
+            if (maxMessageCount <= 0 || preferredMaxBytes <= 0 || batchTimeout.isNegative() || batchTimeout.isZero()) {
+                throw new IllegalArgumentException("Batch timeout, message count and byte limit must be positive");
+            }
+            this.batchTimeout = batchTimeout;
+            this.maxMessageCount = maxMessageCount;
+            this.preferredMaxBytes = preferredMaxBytes;
+        }
+
+        /**
+         * Fabric's defaults: 2s, 10 messages, 512 KB
+         */
+        public static BatchConfig defaults() {
+            return new BatchConfig(Duration.ofSeconds(2), 10, 512 * 1024);
+        }
+
+        /**
+         * Read the orderer batch settings from a configtx.yaml. Settings not
+         * found keep the defaults.
+         */
+        public static BatchConfig fromConfigtx(final Path configtx) throws IOException {
+            BatchConfig defaults = defaults();
+            Duration batchTimeout = null;
+            Integer maxMessageCount = null;
+            Integer preferredMaxBytes = null;
+
+            // The first occurrence is the Orderer defaults section
+            for (String line : Files.readAllLines(configtx, StandardCharsets.UTF_8)) {
+                Matcher matcher = BATCH_TIMEOUT.matcher(line);
+                if (batchTimeout == null && matcher.matches()) {
+                    long amount = Long.parseLong(matcher.group(1));
+                    batchTimeout = "ms".equals(matcher.group(2)) ? Duration.ofMillis(amount)
+                            : "s".equals(matcher.group(2)) ? Duration.ofSeconds(amount)
+                            : Duration.ofMinutes(amount);
+                }
+                matcher = MAX_MESSAGE_COUNT.matcher(line);
+                if (maxMessageCount == null && matcher.matches()) {
+                    maxMessageCount = Integer.parseInt(matcher.group(1));
+                }
+                matcher = PREFERRED_MAX_BYTES.matcher(line);
+                if (preferredMaxBytes == null && matcher.matches()) {
+                    int multiplier = "MB".equals(matcher.group(2)) ? 1024 * 1024
+                            : "KB".equals(matcher.group(2)) ? 1024 : 1;
+                    preferredMaxBytes = Integer.parseInt(matcher.group(1)) * multiplier;
+                }
+            }
+
+            return new BatchConfig(
+                    batchTimeout == null ? defaults.batchTimeout : batchTimeout,
+                    maxMessageCount == null ? defaults.maxMessageCount : maxMessageCount,
+                    preferredMaxBytes == null ? defaults.preferredMaxBytes : preferredMaxBytes);
+        }
+
+        public BatchConfig withBatchTimeout(final Duration timeout) {
+            return new BatchConfig(timeout, maxMessageCount, preferredMaxBytes);
+        }
+
+        public BatchConfig withMaxMessageCount(final int count) {
+            return new BatchConfig(batchTimeout, count, preferredMaxBytes);
+        }
+
+        public Duration getBatchTimeout() {
+            return batchTimeout;
+        }
+
+        public int getMaxMessageCount() {
+            return maxMessageCount;
+        }
+
+        public int getPreferredMaxBytes() {
+            return preferredMaxBytes;
+        }
+    }
+
+    private static final class Pending {
+        final SimulatedLedger.Endorsement endorsement;
+        final CompletableFuture<TxValidationCode> result = new CompletableFuture<>();
+
+        Pending(final SimulatedLedger.Endorsement endorsement) {
+            this.endorsement = endorsement;
+        }
+    }
+
+    private final SimulatedLedger ledger;
+    private final BatchConfig config;
+
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor();
+    private final ExecutorService committer = Executors.newSingleThreadExecutor();
+
+    private List<Pending> batch = new ArrayList<>();
+    private int batchBytes = 0;
+    private long batchGeneration = 0;
+
+    private final AtomicLong blocksCut = new AtomicLong();
+    private final AtomicLong cutByCount = new AtomicLong();
+    private final AtomicLong cutBySize = new AtomicLong();
+    private final AtomicLong cutByTimeout = new AtomicLong();
+    private final AtomicLong transactionsOrdered = new AtomicLong();
+
+    public BlockCutter(final SimulatedLedger ledger, final BatchConfig config) {
+        this.ledger = ledger;
+        this.config = config;
+    }
+
+    /**
+     * Order an endorsed transaction. The future completes with its validation
+     * code once its block is committed.
+     */
+    public CompletableFuture<TxValidationCode> submit(final SimulatedLedger.Endorsement endorsement) {
+        if (!endorsement.isSuccessful()) {
+            throw new IllegalArgumentException("Transaction " + endorsement.getTxId() + " failed endorsement");
+        }
+
+        Pending pending = new Pending(endorsement);
+        int size = endorsement.getReadWriteSet().sizeInBytes();
+        synchronized (this) {
+            // A transaction that would overflow the batch starts the next one
+            if (!batch.isEmpty() && batchBytes + size > config.preferredMaxBytes) {
+                cutBySize.incrementAndGet();
+                cut();
+            }
+
+            batch.add(pending);
+            batchBytes += size;
+            transactionsOrdered.incrementAndGet();
+
+            if (batch.size() >= config.maxMessageCount) {
+                cutByCount.incrementAndGet();
+                cut();
+            } else if (batch.size() == 1) {
+                long generation = batchGeneration;
+                timer.schedule(() -> timeout(generation), config.batchTimeout.toNanos(), TimeUnit.NANOSECONDS);
+            }
+        }
+        return pending.result;
+    }
+
+    private synchronized void timeout(final long generation) {
+        // The batch this timer was started for may already have been cut
+        if (generation == batchGeneration && !batch.isEmpty()) {
+            cutByTimeout.incrementAndGet();
+            cut();
+        }
+    }
+
+    /**
+     * Hand the pending batch to the committer. Called with the lock held, so
+     * blocks reach the committer in the order they were cut. Callers count
+     * the reason first, so every block whose results are visible is counted.
+     */
+    private void cut() {
+        List<Pending> block = batch;
+        batch = new ArrayList<>();
+        batchBytes = 0;
+        batchGeneration++;
+        blocksCut.incrementAndGet();
+
+        committer.execute(() -> {
+            List<SimulatedLedger.Endorsement> transactions = new ArrayList<>(block.size());
+            for (Pending pending : block) {
+                transactions.add(pending.endorsement);
+            }
+            try {
+                List<TxValidationCode> codes = ledger.commitBlock(transactions);
+                for (int i = 0; i < block.size(); i++) {
+                    block.get(i).result.complete(codes.get(i));
+                }
+            } catch (RuntimeException e) {
+                for (Pending pending : block) {
+                    pending.result.completeExceptionally(e);
+                }
+            }
+        });
+    }
+
+    public BatchConfig getConfig() {
+        return config;
+    }
+
+    public long getBlocksCut() {
+        return blocksCut.get();
+    }
+
+    public long getCutByCount() {
+        return cutByCount.get();
+    }
+
+    public long getCutBySize() {
+        return cutBySize.get();
+    }
+
+    public long getCutByTimeout() {
+        return cutByTimeout.get();
+    }
+
+    public long getTransactionsOrdered() {
+        return transactionsOrdered.get();
+    }
+
+    /**
+     * Cut and commit any pending transactions, then stop
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (!batch.isEmpty()) {
+                cutByTimeout.incrementAndGet();
+                cut();
+            }
+        }
+        timer.shutdownNow();
+        committer.shutdown();
+        try {
+            committer.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
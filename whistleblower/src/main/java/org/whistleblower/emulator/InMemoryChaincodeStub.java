@@ -0,0 +1,523 @@
+package org.whistleblower.emulator;
+
+import org.hyperledger.fabric.protos.msp.SerializedIdentity;
+import org.hyperledger.fabric.protos.peer.ChaincodeEvent;
+import org.hyperledger.fabric.protos.peer.QueryResponseMetadata;
+import org.hyperledger.fabric.protos.peer.SignedProposal;
+import org.hyperledger.fabric.shim.Chaincode;
+import org.hyperledger.fabric.shim.ChaincodeStub;
+import org.hyperledger.fabric.shim.ledger.CompositeKey;
+import org.hyperledger.fabric.shim.ledger.KeyModification;
+import org.hyperledger.fabric.shim.ledger.KeyValue;
+import org.hyperledger.fabric.shim.ledger.QueryResultsIterator;
+import org.hyperledger.fabric.shim.ledger.QueryResultsIteratorWithMetadata;
+
+import com.google.protobuf.ByteString;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * ChaincodeStub backed by an in-process sorted map, for running the contract
+ * without a peer.
+ *
+ * Covers the state, range, composite-key and pagination calls the contract
+ * uses, with the same key-space rules as the peer: open range queries skip
+ * composite keys, and partial composite key queries see only them. Private
+ * data get, put, delete and hash are kept in the same map under keys no
+ * query can reach, as if every caller's org were a collection member.
+ * CouchDB rich queries, private data queries, history and
+ * chaincode-to-chaincode calls are not emulated and throw
+ * UnsupportedOperationException.
+ *
+ * Writes go straight to the map. Subclasses can intercept reads and writes
+ * through read, write and scan to add transaction semantics.
+ */
+public class InMemoryChaincodeStub implements ChaincodeStub {
+
+    /**
+     * Substitute the shim uses for an empty range start, which keeps
+     * composite keys (prefixed with U+0000) out of open range queries
+     */
+    private static final String EMPTY_KEY_SUBSTITUTE = "\u0001";
+    private static final String MAX_UNICODE_RUNE = "\udbff\udfff";
+
+    /**
+     * Prefix of the map keys holding private data. Composite keys never have
+     * an empty object type, so no state or composite key query reaches them.
+     */
+    static final String PRIVATE_KEY_PREFIX = "\u0000\u0000private\u0000";
+
+    /**
+     * Self-signed certificate used as the caller's identity unless one is set,
+     * because Context parses the creator when it is constructed
+     */
+    public static final String DEFAULT_CERTIFICATE = ""
+            + "-----BEGIN CERTIFICATE-----\n"
+            + "MIICCjCCAbGgAwIBAgIUT8Y0lTeDF3cmLNaQ5VOT0Nf/6xQwCgYIKoZIzj0EAwIw\n"
+            + "WjELMAkGA1UEBhMCVVMxGTAXBgNVBAoMEG9yZzEuZXhhbXBsZS5jb20xDzANBgNV\n"
+            + "BAsMBmNsaWVudDEfMB0GA1UEAwwWVXNlcjFAb3JnMS5leGFtcGxlLmNvbTAgFw0y\n"
+            + "NjEwMTcwMTA5MTNaGA8yMTI2MDkyMzAxMDkxM1owWjELMAkGA1UEBhMCVVMxGTAX\n"
+            + "BgNVBAoMEG9yZzEuZXhhbXBsZS5jb20xDzANBgNVBAsMBmNsaWVudDEfMB0GA1UE\n"
+            + "AwwWVXNlcjFAb3JnMS5leGFtcGxlLmNvbTBZMBMGByqGSM49AgEGCCqGSM49AwEH\n"
+            + "A0IABFgeH4kO/jEU3SZ8puEfveallQrA2K1EjpVGbldUQjaoAZecxHqgCKgl+j5f\n"
+            + "AOzF3roFpQSonLKKQbNIRs1bdRKjUzBRMB0GA1UdDgQWBBTJw97oGCX358aSiSga\n"
+            + "iWaNxaS8fTAfBgNVHSMEGDAWgBTJw97oGCX358aSiSgaiWaNxaS8fTAPBgNVHRMB\n"
+            + "Af8EBTADAQH/MAoGCCqGSM49BAMCA0cAMEQCIF9u/UcyamETcbMwKz3lwVYC9f2h\n"
+            + "nkmeFYTQbO8kXDunAiBEPmKxrHfj+EYYMlq+ZalnkZ99yXxPcviUTEcivhEmTA==\n"
+            + "-----END CERTIFICATE-----\n";
+
+    private final NavigableMap<String, byte[]> state;
+    private String channelId = "whistleblowerchannel";
+    private String mspId = "Org1MSP";
+    private String txId = "tx0";
+    private Instant txTimestamp = Instant.now();
+    private String certificate = DEFAULT_CERTIFICATE;
+    private Map<String, byte[]> transientData = Collections.emptyMap();
+    private ChaincodeEvent event;
+
+    public InMemoryChaincodeStub() {
+        this(new TreeMap<>());
+    }
+
+    public InMemoryChaincodeStub(final NavigableMap<String, byte[]> state) {
+        this.state = state;
+    }
+
+    /**
+     * Start a new transaction on the same state
+     */
+    public InMemoryChaincodeStub nextTransaction(final String nextTxId, final Instant timestamp) {
+        this.txId = nextTxId;
+        this.txTimestamp = timestamp;
+        this.event = null;
+        this.transientData = Collections.emptyMap();
+        return this;
+    }
+
+    public InMemoryChaincodeStub setMspId(final String mspId) {
+        this.mspId = mspId;
+        return this;
+    }
+
+    public InMemoryChaincodeStub setChannelId(final String channelId) {
+        this.channelId = channelId;
+        return this;
+    }
+
+    /**
+     * Set the caller's PEM certificate; the creator is built from it and the
+     * MSP ID
+     */
+    public InMemoryChaincodeStub setCertificate(final String certificate) {
+        this.certificate = certificate;
+        return this;
+    }
+
+    public InMemoryChaincodeStub setTransient(final Map<String, byte[]> transientData) {
+        this.transientData = transientData;
+        return this;
+    }
+
+    /**
+     * The backing state map
+     */
+    public NavigableMap<String, byte[]> getStateMap() {
+        return state;
+    }
+
+    /**
+     * Read one key. Subclasses override to track reads.
+     */
+    protected byte[] read(final String key) {
+        return state.get(key);
+    }
+
+    /**
+     * Write one key, or delete it when value is null. Subclasses override to
+     * buffer writes.
+     */
+    protected void write(final String key, final byte[] value) {
+        if (value == null) {
+            state.remove(key);
+        } else {
+            state.put(key, value);
+        }
+    }
+
+    /**
+     * Up to limit entries with keys in [startKey, endKey), in order. An empty
+     * endKey is unbounded. Subclasses override to track range reads.
+     */
+    protected List<KeyValue> scan(final String startKey, final String endKey, final int limit) {
+        NavigableMap<String, byte[]> keys = endKey.isEmpty()
+                ? state.tailMap(startKey, true)
+                : state.subMap(startKey, true, endKey, false);
+        List<KeyValue> results = new ArrayList<>();
+        for (Map.Entry<String, byte[]> entry : keys.entrySet()) {
+            if (results.size() >= limit) {
+                break;
+            }
+            results.add(new Entry(entry.getKey(), entry.getValue()));
+        }
+        return results;
+    }
+
+    @Override
+    public byte[] getState(final String key) {
+        // The peer returns an empty value, not null, for a missing key
+        byte[] value = read(key);
+        return value == null ? new byte[0] : value;
+    }
+
+    @Override
+    public void putState(final String key, final byte[] value) {
+        if (key == null || key.isEmpty()) {
+            throw new IllegalArgumentException("key must not be null or empty");
+        }
+        if (value == null) {
+            throw new IllegalArgumentException("value must not be null");
+        }
+        write(key, value);
+    }
+
+    @Override
+    public void delState(final String key) {
+        write(key, null);
+    }
+
+    @Override
+    public QueryResultsIterator<KeyValue> getStateByRange(final String startKey, final String endKey) {
+        return new Results(scan(rangeStart(startKey), endKey, Integer.MAX_VALUE), "");
+    }
+
+    @Override
+    public QueryResultsIteratorWithMetadata<KeyValue> getStateByRangeWithPagination(final String startKey,
+            final String endKey, final int pageSize, final String bookmark) {
+        return paginate(rangeStart(startKey), endKey, pageSize, bookmark);
+    }
+
+    @Override
+    public QueryResultsIterator<KeyValue> getStateByPartialCompositeKey(final String compositeKey) {
+        if (compositeKey == null || compositeKey.isEmpty()) {
+            // Every composite key, starting past the private data keys,
+            // whose empty object type sorts first
+            return new Results(scan(CompositeKey.NAMESPACE + "\u0001", CompositeKey.NAMESPACE + MAX_UNICODE_RUNE,
+                    Integer.MAX_VALUE), "");
+        }
+        return new Results(scan(compositeKey, compositeKey + MAX_UNICODE_RUNE, Integer.MAX_VALUE), "");
+    }
+
+    @Override
+    public QueryResultsIterator<KeyValue> getStateByPartialCompositeKey(final String objectType,
+            final String... attributes) {
+        return getStateByPartialCompositeKey(new CompositeKey(objectType, attributes));
+    }
+
+    @Override
+    public QueryResultsIterator<KeyValue> getStateByPartialCompositeKey(final CompositeKey compositeKey) {
+        return getStateByPartialCompositeKey(compositeKey.toString());
+    }
+
+    @Override
+    public QueryResultsIteratorWithMetadata<KeyValue> getStateByPartialCompositeKeyWithPagination(
+            final CompositeKey compositeKey, final int pageSize, final String bookmark) {
+        String prefix = compositeKey.toString();
+        return paginate(prefix, prefix + MAX_UNICODE_RUNE, pageSize, bookmark);
+    }
+
+    @Override
+    public CompositeKey createCompositeKey(final String objectType, final String... attributes) {
+        return new CompositeKey(objectType, attributes);
+    }
+
+    @Override
+    public CompositeKey splitCompositeKey(final String compositeKey) {
+        return CompositeKey.parseCompositeKey(compositeKey);
+    }
+
+    private static String rangeStart(final String startKey) {
+        return startKey == null || startKey.isEmpty() ? EMPTY_KEY_SUBSTITUTE : startKey;
+    }
+
+    /**
+     * Page through a key range the way the peer does for range queries: the
+     * bookmark is the first key of the next page, or empty after the last
+     */
+    private Results paginate(final String startKey, final String endKey, final int pageSize,
+            final String bookmark) {
+        String from = bookmark == null || bookmark.isEmpty() ? startKey : bookmark;
+        List<KeyValue> page = scan(from, endKey, pageSize + 1);
+        String next = "";
+        if (page.size() > pageSize) {
+            next = page.remove(pageSize).getKey();
+        }
+        return new Results(page, next);
+    }
+
+    @Override
+    public String getTxId() {
+        return txId;
+    }
+
+    @Override
+    public Instant getTxTimestamp() {
+        return txTimestamp;
+    }
+
+    @Override
+    public String getChannelId() {
+        return channelId;
+    }
+
+    @Override
+    public String getMspId() {
+        return mspId;
+    }
+
+    @Override
+    public byte[] getCreator() {
+        return SerializedIdentity.newBuilder()
+                .setMspid(mspId)
+                .setIdBytes(ByteString.copyFromUtf8(certificate))
+                .build()
+                .toByteArray();
+    }
+
+    @Override
+    public Map<String, byte[]> getTransient() {
+        return transientData;
+    }
+
+    @Override
+    public void setEvent(final String name, final byte[] payload) {
+        this.event = ChaincodeEvent.newBuilder()
+                .setEventName(name)
+                .setTxId(txId)
+                .setPayload(ByteString.copyFrom(payload == null ? new byte[0] : payload))
+                .build();
+    }
+
+    @Override
+    public ChaincodeEvent getEvent() {
+        return event;
+    }
+
+    @Override
+    public List<byte[]> getArgs() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public List<String> getStringArgs() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public String getFunction() {
+        return null;
+    }
+
+    @Override
+    public List<String> getParameters() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public byte[] getBinding() {
+        return new byte[0];
+    }
+
+    @Override
+    public SignedProposal getSignedProposal() {
+        throw unsupported("getSignedProposal");
+    }
+
+    @Override
+    public Chaincode.Response invokeChaincode(final String chaincodeName, final List<byte[]> args,
+            final String channel) {
+        throw unsupported("invokeChaincode");
+    }
+
+    @Override
+    public byte[] getStateValidationParameter(final String key) {
+        throw unsupported("getStateValidationParameter");
+    }
+
+    @Override
+    public void setStateValidationParameter(final String key, final byte[] value) {
+        throw unsupported("setStateValidationParameter");
+    }
+
+    @Override
+    public QueryResultsIterator<KeyValue> getQueryResult(final String query) {
+        throw unsupported("getQueryResult (CouchDB rich query)");
+    }
+
+    @Override
+    public QueryResultsIteratorWithMetadata<KeyValue> getQueryResultWithPagination(final String query,
+            final int pageSize, final String bookmark) {
+        throw unsupported("getQueryResultWithPagination (CouchDB rich query)");
+    }
+
+    @Override
+    public QueryResultsIterator<KeyModification> getHistoryForKey(final String key) {
+        throw unsupported("getHistoryForKey");
+    }
+
+    @Override
+    public byte[] getPrivateData(final String collection, final String key) {
+        byte[] value = read(privateKey(collection, key));
+        return value == null ? new byte[0] : value;
+    }
+
+    @Override
+    public byte[] getPrivateDataHash(final String collection, final String key) {
+        byte[] value = read(privateKey(collection, key));
+        if (value == null) {
+            return new byte[0];
+        }
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(value);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    @Override
+    public byte[] getPrivateDataValidationParameter(final String collection, final String key) {
+        throw unsupported("getPrivateDataValidationParameter");
+    }
+
+    @Override
+    public void putPrivateData(final String collection, final String key, final byte[] value) {
+        if (key == null || key.isEmpty()) {
+            throw new IllegalArgumentException("key must not be null or empty");
+        }
+        if (value == null) {
+            throw new IllegalArgumentException("value must not be null");
+        }
+        write(privateKey(collection, key), value);
+    }
+
+    @Override
+    public void setPrivateDataValidationParameter(final String collection, final String key, final byte[] value) {
+        throw unsupported("setPrivateDataValidationParameter");
+    }
+
+    @Override
+    public void delPrivateData(final String collection, final String key) {
+        write(privateKey(collection, key), null);
+    }
+
+    @Override
+    public void purgePrivateData(final String collection, final String key) {
+        throw unsupported("purgePrivateData");
+    }
+
+    @Override
+    public QueryResultsIterator<KeyValue> getPrivateDataByRange(final String collection, final String startKey,
+            final String endKey) {
+        throw unsupported("getPrivateDataByRange");
+    }
+
+    @Override
+    public QueryResultsIterator<KeyValue> getPrivateDataByPartialCompositeKey(final String collection,
+            final String compositeKey) {
+        throw unsupported("getPrivateDataByPartialCompositeKey");
+    }
+
+    @Override
+    public QueryResultsIterator<KeyValue> getPrivateDataByPartialCompositeKey(final String collection,
+            final CompositeKey compositeKey) {
+        throw unsupported("getPrivateDataByPartialCompositeKey");
+    }
+
+    @Override
+    public QueryResultsIterator<KeyValue> getPrivateDataByPartialCompositeKey(final String collection,
+            final String objectType, final String... attributes) {
+        throw unsupported("getPrivateDataByPartialCompositeKey");
+    }
+
+    @Override
+    public QueryResultsIterator<KeyValue> getPrivateDataQueryResult(final String collection, final String query) {
+        throw unsupported("getPrivateDataQueryResult");
+    }
+
+    private static String privateKey(final String collection, final String key) {
+        if (collection == null || collection.isEmpty()) {
+            throw new IllegalArgumentException("collection must not be null or empty");
+        }
+        return PRIVATE_KEY_PREFIX + collection + '\u0000' + key;
+    }
+
+    private static UnsupportedOperationException unsupported(final String operation) {
+        return new UnsupportedOperationException(operation + " is not supported by the in-memory stub");
+    }
+
+    private static final class Entry implements KeyValue {
+        private final String key;
+        private final byte[] value;
+
+        Entry(final String key, final byte[] value) {
+            this.key = key;
+            this.value = value;
+        }
+
+        @Override
+        public String getKey() {
+            return key;
+        }
+
+        @Override
+        public byte[] getValue() {
+            return value;
+        }
+
+        @Override
+        public String getStringValue() {
+            return new String(value, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Results are copied out of the map when the query is made, so the
+     * contract can write while iterating
+     */
+    private static final class Results
+            implements QueryResultsIterator<KeyValue>, QueryResultsIteratorWithMetadata<KeyValue> {
+        private final List<KeyValue> results;
+        private final String bookmark;
+
+        Results(final List<KeyValue> results, final String bookmark) {
+            this.results = results;
+            this.bookmark = bookmark;
+        }
+
+        @Override
+        public Iterator<KeyValue> iterator() {
+            return results.iterator();
+        }
+
+        @Override
+        public QueryResponseMetadata getMetadata() {
+            return QueryResponseMetadata.newBuilder()
+                    .setBookmark(bookmark)
+                    .setFetchedRecordsCount(results.size())
+                    .build();
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package org.whistleblower.emulator;
+
+import org.hyperledger.fabric.contract.Context;
+import org.hyperledger.fabric.protos.peer.TxValidationCode;
+import org.hyperledger.fabric.shim.ChaincodeException;
+import org.whistleblower.WhistleblowerContract;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Replays report lifecycles against the contract on a SimulatedLedger and
+ * reports throughput, commit latency percentiles and MVCC conflict rates.
+ *
+ * Each client runs lifecycles one after another: submitReport,
+ * assignInvestigator, submitFindings and submitLeadershipReview, waiting for
+ * each transaction to commit before endorsing the next, as the application
+ * clients do. Report IDs are drawn from a pool; a pool smaller than the
+ * number of lifecycles makes clients work on the same reports at once, which
+ * is what produces MVCC conflicts.
+ *
+ * Usage:
+ *   java -cp <classpath> org.whistleblower.emulator.LoadGenerator [options]
+ *     --clients 50          concurrent clients
+ *     --lifecycles 1000     lifecycles in total
+ *     --reports 0           report ID pool size (0 gives each lifecycle its own report)
+ *     --retries 0           times a step is re-endorsed after an MVCC conflict
+ *     --storage-mode SNAPSHOT   or EVENT_SOURCED
+ *     --configtx configtx.yaml
+ *     --batch-timeout-ms, --max-message-count   override the configtx.yaml values
+ */
+public final class LoadGenerator {
+
+    private static final String[] STEPS = {"submitReport", "assignInvestigator", "submitFindings",
+        "submitLeadershipReview"};
+    private static final String[] DEPARTMENTS = {"Finance", "Procurement", "Operations", "HR", "Legal"};
+    /**
+     * The organization that submits each step, as the contract requires
+     */
+    private static final String[] STEP_MSP_IDS = {WhistleblowerContract.DOE_MSP_ID,
+        WhistleblowerContract.DOGE_MSP_ID, WhistleblowerContract.DOGE_MSP_ID, WhistleblowerContract.DOE_MSP_ID};
+
+    private final WhistleblowerContract contract = new WhistleblowerContract();
+    private final SimulatedLedger ledger;
+    private final BlockCutter cutter;
+    private final int retries;
+
+    private final AtomicLong txCounter = new AtomicLong();
+    private final Map<String, List<Long>> latencies = new ConcurrentHashMap<>();
+    private final Map<TxValidationCode, LongAdder> validationCodes = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> endorsementFailures = new ConcurrentHashMap<>();
+    private final LongAdder lifecyclesCompleted = new LongAdder();
+    private final LongAdder lifecyclesAborted = new LongAdder();
+
+    LoadGenerator(final SimulatedLedger ledger, final BlockCutter cutter, final int retries) {
+        this.ledger = ledger;
+        this.cutter = cutter;
+        this.retries = retries;
+        for (String step : STEPS) {
+            latencies.put(step, new ArrayList<>());
+        }
+    }
+
+    public static void main(final String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        int clients = Integer.parseInt(options.getOrDefault("clients", "50"));
+        int lifecycles = Integer.parseInt(options.getOrDefault("lifecycles", "1000"));
+        int reports = Integer.parseInt(options.getOrDefault("reports", "0"));
+        int retries = Integer.parseInt(options.getOrDefault("retries", "0"));
+        String storageMode = options.getOrDefault("storage-mode", "SNAPSHOT");
+
+        Path configtx = Paths.get(options.getOrDefault("configtx", "configtx.yaml"));
+        BlockCutter.BatchConfig config = Files.exists(configtx)
+                ? BlockCutter.BatchConfig.fromConfigtx(configtx)
+                : BlockCutter.BatchConfig.defaults();
+        if (options.containsKey("batch-timeout-ms")) {
+            config = config.withBatchTimeout(Duration.ofMillis(Long.parseLong(options.get("batch-timeout-ms"))));
+        }
+        if (options.containsKey("max-message-count")) {
+            config = config.withMaxMessageCount(Integer.parseInt(options.get("max-message-count")));
+        }
+
+        SimulatedLedger ledger = new SimulatedLedger();
+        BlockCutter cutter = new BlockCutter(ledger, config);
+        LoadGenerator generator = new LoadGenerator(ledger, cutter, retries);
+        generator.setStorageMode(storageMode);
+
+        System.out.printf("Running %,d lifecycles on %d clients, report pool %s, %s storage, BatchTimeout %d ms, "
+                + "MaxMessageCount %d%n", lifecycles, clients, reports == 0 ? "unique" : Integer.toString(reports),
+                storageMode, config.getBatchTimeout().toMillis(), config.getMaxMessageCount());
+
+        long start = System.nanoTime();
+        generator.run(clients, lifecycles, reports);
+        long elapsed = System.nanoTime() - start;
+        cutter.close();
+
+        generator.printSummary(elapsed);
+    }
+
+    /**
+     * Commit the storage mode setting in a block of its own before the run
+     */
+    void setStorageMode(final String mode) {
+        SimulatedLedger.Endorsement endorsement = ledger.endorse(contract, "setup", Instant.now(),
+                WhistleblowerContract.DOE_MSP_ID,
+                ctx -> Integer.toString(contract.setStorageMode(ctx, mode)));
+        if (!endorsement.isSuccessful()) {
+            throw endorsement.getError();
+        }
+        ledger.commitBlock(Arrays.asList(endorsement));
+    }
+
+    void run(final int clients, final int lifecycles, final int reports) throws InterruptedException {
+        AtomicLong nextLifecycle = new AtomicLong();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clients; c++) {
+                executor.execute(() -> {
+                    long lifecycle;
+                    while ((lifecycle = nextLifecycle.getAndIncrement()) < lifecycles) {
+                        long reportNumber = reports == 0 ? lifecycle : ThreadLocalRandom.current().nextInt(reports);
+                        runLifecycle(String.format("R%08d", reportNumber), lifecycle);
+                    }
+                });
+            }
+        }
+    }
+
+    private void runLifecycle(final String reportId, final long lifecycle) {
+        String department = DEPARTMENTS[(int) (lifecycle % DEPARTMENTS.length)];
+        String investigator = "investigator" + lifecycle % 20;
+        List<Function<Context, String>> steps = Arrays.asList(
+                ctx -> contract.submitReport(ctx, reportId, "Load test report " + lifecycle, department, "anonymous"),
+                ctx -> contract.assignInvestigator(ctx, reportId, investigator),
+                ctx -> contract.submitFindings(ctx, reportId, "Findings for lifecycle " + lifecycle),
+                ctx -> contract.submitLeadershipReview(ctx, reportId, "Approved"));
+
+        for (int i = 0; i < steps.size(); i++) {
+            if (!runStep(STEPS[i], STEP_MSP_IDS[i], steps.get(i))) {
+                lifecyclesAborted.increment();
+                return;
+            }
+        }
+        lifecyclesCompleted.increment();
+    }
+
+    /**
+     * Endorse, order and wait for one transaction. Returns false if the
+     * lifecycle cannot continue.
+     */
+    private boolean runStep(final String step, final String mspId, final Function<Context, String> function) {
+        for (int attempt = 0; attempt <= retries; attempt++) {
+            long start = System.nanoTime();
+            String txId = "tx" + txCounter.incrementAndGet();
+            SimulatedLedger.Endorsement endorsement = ledger.endorse(contract, txId, Instant.now(), mspId, function);
+
+            if (!endorsement.isSuccessful()) {
+                RuntimeException error = endorsement.getError();
+                String reason = error instanceof ChaincodeException && ((ChaincodeException) error).getPayload() != null
+                        ? step + ": " + new String(((ChaincodeException) error).getPayload(), StandardCharsets.UTF_8)
+                        : step + ": " + error.getClass().getSimpleName();
+                endorsementFailures.computeIfAbsent(reason, k -> new LongAdder()).increment();
+                // Another client created the report first; carry on with its lifecycle
+                return reason.endsWith("REPORT_ALREADY_EXISTS");
+            }
+
+            TxValidationCode code = cutter.submit(endorsement).join();
+            List<Long> stepLatencies = latencies.get(step);
+            synchronized (stepLatencies) {
+                stepLatencies.add(System.nanoTime() - start);
+            }
+            validationCodes.computeIfAbsent(code, k -> new LongAdder()).increment();
+
+            if (code == TxValidationCode.VALID) {
+                return true;
+            }
+            if (code != TxValidationCode.MVCC_READ_CONFLICT && code != TxValidationCode.PHANTOM_READ_CONFLICT) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    void printSummary(final long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        long ordered = 0;
+        for (LongAdder count : validationCodes.values()) {
+            ordered += count.sum();
+        }
+        long valid = count(TxValidationCode.VALID);
+        long mvcc = count(TxValidationCode.MVCC_READ_CONFLICT);
+        long phantom = count(TxValidationCode.PHANTOM_READ_CONFLICT);
+
+        System.out.println();
+        System.out.printf("Elapsed:              %.2f s%n", seconds);
+        System.out.printf("Lifecycles:           %,d completed, %,d aborted (%.1f/s)%n",
+                lifecyclesCompleted.sum(), lifecyclesAborted.sum(), lifecyclesCompleted.sum() / seconds);
+        System.out.printf("Transactions:         %,d ordered, %,d valid (%.1f valid tx/s)%n",
+                ordered, valid, valid / seconds);
+        System.out.printf("MVCC read conflicts:  %,d (%.2f%%)%n", mvcc, percent(mvcc, ordered));
+        System.out.printf("Phantom conflicts:    %,d (%.2f%%)%n", phantom, percent(phantom, ordered));
+        System.out.printf("Blocks:               %,d cut (%,d full, %,d by size, %,d by timeout), "
+                + "%.1f tx/block%n", cutter.getBlocksCut(), cutter.getCutByCount(), cutter.getCutBySize(),
+                cutter.getCutByTimeout(), cutter.getBlocksCut() == 0 ? 0.0
+                        : (double) cutter.getTransactionsOrdered() / cutter.getBlocksCut());
+        for (Map.Entry<String, LongAdder> failure : endorsementFailures.entrySet()) {
+            System.out.printf("Endorsement failure:  %s x %,d%n", failure.getKey(), failure.getValue().sum());
+        }
+
+        System.out.println();
+        System.out.printf("%-24s %8s %10s %10s %10s %10s %10s%n", "Commit latency (ms)", "count", "p50", "p90",
+                "p99", "p99.9", "max");
+        List<Long> all = new ArrayList<>();
+        for (String step : STEPS) {
+            List<Long> stepLatencies = latencies.get(step);
+            all.addAll(stepLatencies);
+            printLatencies(step, stepLatencies);
+        }
+        printLatencies("all", all);
+    }
+
+    private long count(final TxValidationCode code) {
+        LongAdder count = validationCodes.get(code);
+        return count == null ? 0 : count.sum();
+    }
+
+    private static double percent(final long part, final long total) {
+        return total == 0 ? 0.0 : 100.0 * part / total;
+    }
+
+    private static void printLatencies(final String name, final List<Long> values) {
+        long[] sorted = values.stream().mapToLong(Long::longValue).sorted().toArray();
+        System.out.printf("%-24s %8d %10.1f %10.1f %10.1f %10.1f %10.1f%n", name, sorted.length,
+                percentile(sorted, 50), percentile(sorted, 90), percentile(sorted, 99), percentile(sorted, 99.9),
+                percentile(sorted, 100));
+    }
+
+    private static double percentile(final long[] sorted, final double percentile) {
+        if (sorted.length == 0) {
+            return 0.0;
+        }
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))] / 1e6;
+    }
+
+    private static Map<String, String> parseOptions(final String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--") || i + 1 >= args.length) {
+                throw new IllegalArgumentException("Expected --option value, got: " + args[i]);
+            }
+            options.put(args[i].substring(2), args[++i]);
+        }
+        return options;
+    }
+}
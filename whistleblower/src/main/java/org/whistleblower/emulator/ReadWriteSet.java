@@ -0,0 +1,79 @@
+package org.whistleblower.emulator;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keys a simulated transaction read, with the committed version seen, and
+ * the values it wrote. Mirrors the peer's read/write set: reads record the
+ * version at simulation time, range queries record the keys returned so
+ * phantoms can be detected, and writes are buffered until commit.
+ */
+final class ReadWriteSet {
+
+    /**
+     * Version recorded for a key that did not exist when it was read
+     */
+    static final long NO_VERSION = -1L;
+
+    private static final int PRIVATE_HASH_BYTES = 32;
+
+    /**
+     * A range query and the versions of the keys it returned
+     */
+    static final class RangeRead {
+        final String startKey;
+        final String endKey;
+        final Map<String, Long> results;
+        final boolean exhausted;
+
+        RangeRead(final String startKey, final String endKey, final Map<String, Long> results,
+                final boolean exhausted) {
+            this.startKey = startKey;
+            this.endKey = endKey;
+            this.results = results;
+            this.exhausted = exhausted;
+        }
+
+        /**
+         * Last key the range covers for validation. A query that stopped
+         * before the end of its range only depends on keys up to the last
+         * one it returned.
+         */
+        String lastKeyCovered() {
+            if (exhausted || results.isEmpty()) {
+                return null;
+            }
+            String last = null;
+            for (String key : results.keySet()) {
+                last = key;
+            }
+            return last;
+        }
+    }
+
+    final Map<String, Long> reads = new LinkedHashMap<>();
+    final List<RangeRead> rangeReads = new ArrayList<>();
+    final Map<String, byte[]> writes = new LinkedHashMap<>();
+
+    /**
+     * Approximate size of the transaction, for the block cutter's byte limit
+     */
+    int sizeInBytes() {
+        int size = 0;
+        for (String key : reads.keySet()) {
+            size += key.length() + Long.BYTES;
+        }
+        for (Map.Entry<String, byte[]> write : writes.entrySet()) {
+            if (write.getKey().startsWith(InMemoryChaincodeStub.PRIVATE_KEY_PREFIX)) {
+                // Blocks carry only the key and value hashes of private data
+                size += 2 * PRIVATE_HASH_BYTES;
+            } else {
+                size += write.getKey().length() + (write.getValue() == null ? 0 : write.getValue().length);
+            }
+        }
+        return size;
+    }
+}
@@ -0,0 +1,218 @@
+package org.whistleblower.emulator;
+
+import org.whistleblower.WhistleblowerContract;
+import org.whistleblower.service.ServiceCredentials;
+import org.whistleblower.service.WhistleblowerHttpService;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Drives WhistleblowerHttpService with simulated users and reports how
+ * throughput grows with the number of users served at once.
+ *
+ * Each run starts a fresh SimulatedLedger and service, backed by
+ * SimulatedReportOperations for DoE and DoGE, and has every user take its
+ * reports through the lifecycle over HTTP: submit, assign, findings, review
+ * and a final read, waiting for each response before sending the next. DoE
+ * steps use a DoE officer's token, the assignment a DoGE manager's and the
+ * findings the token of the assigned investigator, one of INVESTIGATORS. One
+ * user is what the console applications manage; the gain column compares
+ * each run with the first.
+ *
+ * Usage:
+ *   java -cp <classpath> org.whistleblower.emulator.ServiceLoadGenerator [options]
+ *     --users 1,10,100,500   concurrent users, one run per value
+ *     --lifecycles 5         lifecycles per user
+ *     --round-trip-ms 5      simulated gateway and peer round trip per call
+ *     --configtx configtx.yaml
+ *     --batch-timeout-ms, --max-message-count   override the configtx.yaml values
+ */
+public final class ServiceLoadGenerator {
+
+    private static final String[] DEPARTMENTS = {"Finance", "Procurement", "Operations", "HR", "Legal"};
+    private static final int INVESTIGATORS = 20;
+
+    private final String officerToken = ServiceCredentials.newToken();
+    private final String managerToken = ServiceCredentials.newToken();
+    private final String[] investigatorTokens = new String[INVESTIGATORS];
+
+    private final List<Long> latencies = new ArrayList<>();
+    private final LongAdder lifecyclesCompleted = new LongAdder();
+    private final Map<String, LongAdder> failures = new LinkedHashMap<>();
+
+    public static void main(final String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        String[] users = options.getOrDefault("users", "1,10,100,500").split(",");
+        int lifecycles = Integer.parseInt(options.getOrDefault("lifecycles", "5"));
+        Duration roundTrip = Duration.ofMillis(Long.parseLong(options.getOrDefault("round-trip-ms", "5")));
+
+        Path configtx = Paths.get(options.getOrDefault("configtx", "configtx.yaml"));
+        BlockCutter.BatchConfig config = Files.exists(configtx)
+                ? BlockCutter.BatchConfig.fromConfigtx(configtx)
+                : BlockCutter.BatchConfig.defaults();
+        if (options.containsKey("batch-timeout-ms")) {
+            config = config.withBatchTimeout(Duration.ofMillis(Long.parseLong(options.get("batch-timeout-ms"))));
+        }
+        if (options.containsKey("max-message-count")) {
+            config = config.withMaxMessageCount(Integer.parseInt(options.get("max-message-count")));
+        }
+
+        System.out.printf("%d lifecycles per user, round trip %d ms, BatchTimeout %d ms, MaxMessageCount %d%n%n",
+                lifecycles, roundTrip.toMillis(), config.getBatchTimeout().toMillis(), config.getMaxMessageCount());
+        System.out.printf("%8s %12s %10s %14s %12s %10s %10s %10s %8s%n", "users", "lifecycles", "elapsed s",
+                "lifecycles/s", "requests/s", "p50 ms", "p99 ms", "failures", "gain");
+
+        double baseline = 0;
+        for (String count : users) {
+            ServiceLoadGenerator generator = new ServiceLoadGenerator();
+            long elapsed = generator.run(Integer.parseInt(count.trim()), lifecycles, roundTrip, config);
+            double throughput = generator.lifecyclesCompleted.sum() / (elapsed / 1e9);
+            if (baseline == 0) {
+                baseline = throughput;
+            }
+            generator.printRow(Integer.parseInt(count.trim()), elapsed, throughput, baseline);
+        }
+    }
+
+    /**
+     * Serve users from a fresh ledger, returning the elapsed nanoseconds
+     */
+    private long run(final int users, final int lifecycles, final Duration roundTrip,
+            final BlockCutter.BatchConfig config) throws Exception {
+        WhistleblowerContract contract = new WhistleblowerContract();
+        SimulatedLedger ledger = new SimulatedLedger();
+        AtomicLong nextReport = new AtomicLong();
+        ServiceCredentials credentials = new ServiceCredentials()
+                .add(officerToken, ServiceCredentials.DOE, "officer")
+                .add(managerToken, ServiceCredentials.DOGE, "manager");
+        for (int i = 0; i < INVESTIGATORS; i++) {
+            investigatorTokens[i] = ServiceCredentials.newToken();
+            credentials.add(investigatorTokens[i], ServiceCredentials.DOGE, "investigator" + i);
+        }
+
+        try (BlockCutter cutter = new BlockCutter(ledger, config);
+             WhistleblowerHttpService service = new WhistleblowerHttpService(
+                     new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), credentials,
+                     new SimulatedReportOperations(contract, ledger, cutter, "DoEMSP", roundTrip),
+                     new SimulatedReportOperations(contract, ledger, cutter, "DoGEMSP", roundTrip));
+             ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+             HttpClient http = HttpClient.newBuilder()
+                     .version(HttpClient.Version.HTTP_1_1)
+                     .executor(executor)
+                     .build()) {
+
+            String base = "http://localhost:" + service.getPort();
+            long start = System.nanoTime();
+            try (ExecutorService userThreads = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int u = 0; u < users; u++) {
+                    userThreads.execute(() -> {
+                        for (int i = 0; i < lifecycles; i++) {
+                            runLifecycle(http, base, nextReport.getAndIncrement());
+                        }
+                    });
+                }
+            }
+            return System.nanoTime() - start;
+        }
+    }
+
+    private void runLifecycle(final HttpClient http, final String base, final long lifecycle) {
+        String reportId = String.format("R%08d", lifecycle);
+        int investigator = (int) (lifecycle % INVESTIGATORS);
+        String department = DEPARTMENTS[(int) (lifecycle % DEPARTMENTS.length)];
+        String reports = base + "/reports";
+        String report = reports + "/" + reportId;
+
+        boolean completed = send(http, officerToken, "submit", reports, String.format(
+                "{\"id\":\"%s\",\"description\":\"Load test report %d\",\"department\":\"%s\","
+                        + "\"submittedBy\":\"anonymous\"}", reportId, lifecycle, department))
+                && send(http, managerToken, "assign", report + "/assignment",
+                        String.format("{\"investigatorId\":\"investigator%d\"}", investigator))
+                && send(http, investigatorTokens[investigator], "findings", report + "/findings",
+                        String.format("{\"findings\":\"Findings for lifecycle %d\"}", lifecycle))
+                && send(http, officerToken, "review", report + "/review", "{\"decision\":\"Approved\"}")
+                && send(http, officerToken, "read", report, null);
+        if (completed) {
+            lifecyclesCompleted.increment();
+        }
+    }
+
+    /**
+     * POST body to uri as the holder of token, or GET it when body is null.
+     * Returns whether the service answered with success.
+     */
+    private boolean send(final HttpClient http, final String token, final String step, final String uri,
+            final String body) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(uri))
+                .header("Authorization", "Bearer " + token);
+        if (body != null) {
+            request.header("Content-Type", "application/json").POST(HttpRequest.BodyPublishers.ofString(body));
+        }
+
+        long start = System.nanoTime();
+        String failure;
+        try {
+            HttpResponse<String> response = http.send(request.build(), HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() / 100 == 2) {
+                synchronized (latencies) {
+                    latencies.add(System.nanoTime() - start);
+                }
+                return true;
+            }
+            failure = step + ": HTTP " + response.statusCode() + " " + response.body();
+        } catch (Exception e) {
+            failure = step + ": " + e.getClass().getSimpleName();
+        }
+        synchronized (failures) {
+            failures.computeIfAbsent(failure, k -> new LongAdder()).increment();
+        }
+        return false;
+    }
+
+    private void printRow(final int users, final long elapsedNanos, final double throughput, final double baseline) {
+        long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+        long failed = failures.values().stream().mapToLong(LongAdder::sum).sum();
+        System.out.printf("%8d %12d %10.2f %14.1f %12.1f %10.1f %10.1f %10d %7.1fx%n", users,
+                lifecyclesCompleted.sum(), elapsedNanos / 1e9, throughput, sorted.length / (elapsedNanos / 1e9),
+                percentile(sorted, 50), percentile(sorted, 99), failed, throughput / baseline);
+        for (Map.Entry<String, LongAdder> failure : failures.entrySet()) {
+            System.out.printf("         failure: %s x %,d%n", failure.getKey(), failure.getValue().sum());
+        }
+    }
+
+    private static double percentile(final long[] sorted, final double percentile) {
+        if (sorted.length == 0) {
+            return 0.0;
+        }
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))] / 1e6;
+    }
+
+    private static Map<String, String> parseOptions(final String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--") || i + 1 >= args.length) {
+                throw new IllegalArgumentException("Expected --option value, got: " + args[i]);
+            }
+            options.put(args[i].substring(2), args[++i]);
+        }
+        return options;
+    }
+}
@@ -0,0 +1,56 @@
+package org.whistleblower.emulator;
+
+import org.hyperledger.fabric.shim.ledger.KeyValue;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Stub for one simulated transaction against a SimulatedLedger.
+ *
+ * Reads come from the committed state and are recorded with their versions;
+ * writes are buffered in the read/write set and only reach the ledger if the
+ * transaction is valid when its block commits. As on the peer, a transaction
+ * does not read its own uncommitted writes.
+ */
+final class SimulatedChaincodeStub extends InMemoryChaincodeStub {
+
+    private final SimulatedLedger ledger;
+    private final ReadWriteSet readWriteSet = new ReadWriteSet();
+
+    SimulatedChaincodeStub(final SimulatedLedger ledger, final String txId, final Instant timestamp,
+            final String mspId) {
+        super(ledger.committedState());
+        this.ledger = ledger;
+        nextTransaction(txId, timestamp);
+        setMspId(mspId);
+    }
+
+    ReadWriteSet getReadWriteSet() {
+        return readWriteSet;
+    }
+
+    @Override
+    protected byte[] read(final String key) {
+        readWriteSet.reads.putIfAbsent(key, ledger.versionOf(key));
+        return super.read(key);
+    }
+
+    @Override
+    protected void write(final String key, final byte[] value) {
+        readWriteSet.writes.put(key, value);
+    }
+
+    @Override
+    protected List<KeyValue> scan(final String startKey, final String endKey, final int limit) {
+        List<KeyValue> results = super.scan(startKey, endKey, limit);
+        Map<String, Long> versions = new LinkedHashMap<>();
+        for (KeyValue result : results) {
+            versions.put(result.getKey(), ledger.versionOf(result.getKey()));
+        }
+        readWriteSet.rangeReads.add(new ReadWriteSet.RangeRead(startKey, endKey, versions, results.size() < limit));
+        return results;
+    }
+}
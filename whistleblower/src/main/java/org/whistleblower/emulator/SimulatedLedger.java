@@ -0,0 +1,204 @@
+package org.whistleblower.emulator;
+
+import org.hyperledger.fabric.contract.Context;
+import org.hyperledger.fabric.contract.ContractInterface;
+import org.hyperledger.fabric.protos.peer.TxValidationCode;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * In-process ledger with the peer's endorse-order-validate flow.
+ *
+ * endorse runs a contract function against the committed state and returns
+ * its result with the read/write set. commitBlock validates a block of
+ * endorsed transactions in order with MVCC checks: a transaction is invalid
+ * if any key it read, or any range it scanned, changed since simulation,
+ * including changes made by earlier transactions in the same block. Valid
+ * transactions' writes are applied with the version (block, transaction).
+ *
+ * Simulations share a read lock and commits take the write lock, as the
+ * peer's state database does, so a simulation never sees a half-applied
+ * block.
+ */
+public final class SimulatedLedger {
+
+    /**
+     * Outcome of simulating one transaction
+     */
+    public static final class Endorsement {
+        private final String txId;
+        private final String result;
+        private final RuntimeException error;
+        private final ReadWriteSet readWriteSet;
+
+        Endorsement(final String txId, final String result, final RuntimeException error,
+                final ReadWriteSet readWriteSet) {
+            this.txId = txId;
+            this.result = result;
+            this.error = error;
+            this.readWriteSet = readWriteSet;
+        }
+
+        public String getTxId() {
+            return txId;
+        }
+
+        /**
+         * Value returned by the contract function, or null if it failed
+         */
+        public String getResult() {
+            return result;
+        }
+
+        /**
+         * Exception thrown by the contract function, or null if it succeeded.
+         * A failed endorsement is not sent for ordering.
+         */
+        public RuntimeException getError() {
+            return error;
+        }
+
+        public boolean isSuccessful() {
+            return error == null;
+        }
+
+        ReadWriteSet getReadWriteSet() {
+            return readWriteSet;
+        }
+    }
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TreeMap<String, byte[]> state = new TreeMap<>();
+    private final Map<String, Long> versions = new HashMap<>();
+    private long height = 0;
+
+    /**
+     * Simulate a contract function as the given MSP, using the contract's own
+     * context factory
+     */
+    public Endorsement endorse(final ContractInterface contract, final String txId, final Instant timestamp,
+            final String mspId, final Function<Context, String> function) {
+        SimulatedChaincodeStub stub = new SimulatedChaincodeStub(this, txId, timestamp, mspId);
+        lock.readLock().lock();
+        try {
+            String result = function.apply(contract.createContext(stub));
+            return new Endorsement(txId, result, null, stub.getReadWriteSet());
+        } catch (RuntimeException e) {
+            return new Endorsement(txId, null, e, stub.getReadWriteSet());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Validate and commit a block, returning one validation code per
+     * transaction
+     */
+    public List<TxValidationCode> commitBlock(final List<Endorsement> transactions) {
+        List<TxValidationCode> codes = new ArrayList<>(transactions.size());
+        lock.writeLock().lock();
+        try {
+            long blockNumber = height++;
+            for (int txNumber = 0; txNumber < transactions.size(); txNumber++) {
+                ReadWriteSet readWriteSet = transactions.get(txNumber).getReadWriteSet();
+                TxValidationCode code = validate(readWriteSet);
+                if (code == TxValidationCode.VALID) {
+                    apply(readWriteSet, blockNumber << 32 | txNumber);
+                }
+                codes.add(code);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return codes;
+    }
+
+    /**
+     * Number of blocks committed
+     */
+    public long getHeight() {
+        lock.readLock().lock();
+        try {
+            return height;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Copy of the committed state
+     */
+    public NavigableMap<String, byte[]> snapshot() {
+        lock.readLock().lock();
+        try {
+            return new TreeMap<>(state);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Committed state, read by stubs while the caller holds the read lock
+     */
+    NavigableMap<String, byte[]> committedState() {
+        return state;
+    }
+
+    long versionOf(final String key) {
+        Long version = versions.get(key);
+        return version == null ? ReadWriteSet.NO_VERSION : version;
+    }
+
+    private TxValidationCode validate(final ReadWriteSet readWriteSet) {
+        for (Map.Entry<String, Long> read : readWriteSet.reads.entrySet()) {
+            if (versionOf(read.getKey()) != read.getValue()) {
+                return TxValidationCode.MVCC_READ_CONFLICT;
+            }
+        }
+
+        for (ReadWriteSet.RangeRead rangeRead : readWriteSet.rangeReads) {
+            String lastKey = rangeRead.lastKeyCovered();
+            NavigableMap<String, byte[]> current;
+            if (lastKey != null) {
+                current = state.subMap(rangeRead.startKey, true, lastKey, true);
+            } else if (rangeRead.endKey.isEmpty()) {
+                current = state.tailMap(rangeRead.startKey, true);
+            } else {
+                current = state.subMap(rangeRead.startKey, true, rangeRead.endKey, false);
+            }
+
+            if (current.size() != rangeRead.results.size()) {
+                return TxValidationCode.PHANTOM_READ_CONFLICT;
+            }
+            for (String key : current.keySet()) {
+                if (!Objects.equals(rangeRead.results.get(key), versionOf(key))) {
+                    return TxValidationCode.PHANTOM_READ_CONFLICT;
+                }
+            }
+        }
+
+        return TxValidationCode.VALID;
+    }
+
+    private void apply(final ReadWriteSet readWriteSet, final long version) {
+        for (Map.Entry<String, byte[]> write : readWriteSet.writes.entrySet()) {
+            if (write.getValue() == null) {
+                state.remove(write.getKey());
+                versions.remove(write.getKey());
+            } else {
+                state.put(write.getKey(), write.getValue());
+                versions.put(write.getKey(), version);
+            }
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package org.whistleblower.emulator;
+
+import com.google.gson.Gson;
+import org.hyperledger.fabric.contract.Context;
+import org.hyperledger.fabric.gateway.ContractException;
+import org.hyperledger.fabric.protos.peer.TxValidationCode;
+import org.hyperledger.fabric.shim.ChaincodeException;
+import org.whistleblower.ReportCodec;
+import org.whistleblower.ReportStatistics;
+import org.whistleblower.ReportSummary;
+import org.whistleblower.ReportSummaryPage;
+import org.whistleblower.WhistleblowerContract;
+import org.whistleblower.WhistleblowerReport;
+import org.whistleblower.client.ReportOperations;
+import org.whistleblower.client.TransactionCommitException;
+import org.whistleblower.client.TransitionRejectedException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * ReportOperations against the contract running in process on a
+ * SimulatedLedger, so front-ends can be exercised without a network.
+ *
+ * Writes are endorsed, handed to the BlockCutter and wait for their block to
+ * commit, as WhistleblowerClient waits for the commit event; reads are
+ * endorsed only. An optional round trip is slept before each call to stand
+ * in for the gateway and peer hops.
+ */
+public final class SimulatedReportOperations implements ReportOperations {
+
+    private static final Set<String> REJECTION_CODES = Set.of(
+            "INVALID_TRANSITION", "NOT_ASSIGNED_INVESTIGATOR", "REPORT_NOT_FOUND", "INVALID_REPORT",
+            "REPORT_ALREADY_EXISTS");
+
+    private static final Gson gson = new Gson();
+    private static final AtomicLong txCounter = new AtomicLong();
+
+    private final WhistleblowerContract contract;
+    private final SimulatedLedger ledger;
+    private final BlockCutter cutter;
+    private final String mspId;
+    private final Duration roundTrip;
+
+    public SimulatedReportOperations(final WhistleblowerContract contract, final SimulatedLedger ledger,
+            final BlockCutter cutter, final String mspId, final Duration roundTrip) {
+        this.contract = contract;
+        this.ledger = ledger;
+        this.cutter = cutter;
+        this.mspId = mspId;
+        this.roundTrip = roundTrip;
+    }
+
+    @Override
+    public WhistleblowerReport submitReport(final String id, final String description, final String department,
+            final String submittedBy) throws Exception {
+        return ReportCodec.decode(submit(id,
+                ctx -> contract.submitReport(ctx, id, description, department, submittedBy)));
+    }
+
+    @Override
+    public WhistleblowerReport assignInvestigator(final String reportId, final String investigatorId)
+            throws Exception {
+        return ReportCodec.decode(submit(reportId,
+                ctx -> contract.assignInvestigator(ctx, reportId, investigatorId)));
+    }
+
+    @Override
+    public WhistleblowerReport submitFindings(final String reportId, final String investigatorId,
+            final String findings) throws Exception {
+        return ReportCodec.decode(submit(reportId,
+                ctx -> contract.submitInvestigatorFindings(ctx, reportId, investigatorId, findings)));
+    }
+
+    @Override
+    public WhistleblowerReport submitLeadershipReview(final String reportId, final String decision)
+            throws Exception {
+        return ReportCodec.decode(submit(reportId,
+                ctx -> contract.submitLeadershipReview(ctx, reportId, decision)));
+    }
+
+    @Override
+    public WhistleblowerReport getReport(final String reportId) throws Exception {
+        return ReportCodec.decode(evaluate(reportId, ctx -> contract.getReport(ctx, reportId)));
+    }
+
+    @Override
+    public WhistleblowerReport getReportDetail(final String reportId) throws Exception {
+        return ReportCodec.decode(evaluate(reportId, ctx -> contract.getReportDetail(ctx, reportId)));
+    }
+
+    @Override
+    public ReportSummaryPage getAllReportSummariesPage(final int pageSize, final String bookmark) throws Exception {
+        return ReportCodec.decodeSummaryPage(evaluate(null,
+                ctx -> contract.getAllReportSummariesWithPagination(ctx, pageSize, bookmark)));
+    }
+
+    @Override
+    public ReportSummaryPage getReportSummariesByStatusPage(final String status, final int pageSize,
+            final String bookmark) throws Exception {
+        return ReportCodec.decodeSummaryPage(evaluate(null,
+                ctx -> contract.getReportSummariesByStatusWithPagination(ctx, status, pageSize, bookmark)));
+    }
+
+    @Override
+    public List<ReportSummary> getReportSummariesByInvestigator(final String investigatorId) throws Exception {
+        return ReportCodec.decodeSummaryList(evaluate(null,
+                ctx -> contract.getReportSummariesByInvestigator(ctx, investigatorId)));
+    }
+
+    @Override
+    public List<ReportSummary> getReportSummariesByDepartment(final String department) throws Exception {
+        return ReportCodec.decodeSummaryList(evaluate(null,
+                ctx -> contract.getReportSummariesByDepartment(ctx, department)));
+    }
+
+    @Override
+    public ReportStatistics getReportStatistics() throws Exception {
+        byte[] result = evaluate(null, contract::getReportStatistics);
+        return gson.fromJson(new String(result, StandardCharsets.UTF_8), ReportStatistics.class);
+    }
+
+    /**
+     * Endorse, order and wait for one transaction
+     */
+    private byte[] submit(final String reportId, final Function<Context, String> function) throws Exception {
+        SimulatedLedger.Endorsement endorsement = endorse(reportId, function);
+        TxValidationCode code = cutter.submit(endorsement).join();
+        if (code != TxValidationCode.VALID) {
+            throw new TransactionCommitException(endorsement.getTxId(), code.name());
+        }
+        return endorsement.getResult().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private byte[] evaluate(final String reportId, final Function<Context, String> function) throws Exception {
+        return endorse(reportId, function).getResult().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Simulate the function, turning a failure into the exception
+     * WhistleblowerClient would throw for it
+     */
+    private SimulatedLedger.Endorsement endorse(final String reportId, final Function<Context, String> function)
+            throws Exception {
+        if (!roundTrip.isZero()) {
+            Thread.sleep(roundTrip);
+        }
+        String txId = "svc" + txCounter.incrementAndGet();
+        SimulatedLedger.Endorsement endorsement = ledger.endorse(contract, txId, Instant.now(), mspId, function);
+        if (endorsement.isSuccessful()) {
+            return endorsement;
+        }
+
+        RuntimeException error = endorsement.getError();
+        if (error instanceof ChaincodeException && ((ChaincodeException) error).getPayload() != null) {
+            String code = new String(((ChaincodeException) error).getPayload(), StandardCharsets.UTF_8);
+            if (REJECTION_CODES.contains(code)) {
+                throw new TransitionRejectedException(reportId, code, error.getMessage(), error);
+            }
+        }
+        throw new ContractException(error.getMessage(), error);
+    }
+}
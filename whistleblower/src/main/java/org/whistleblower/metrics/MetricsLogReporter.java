@@ -0,0 +1,49 @@
+package org.whistleblower.metrics;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Writes a MetricsRegistry summary to a log sink at a fixed interval, for
+ * deployments with no Prometheus to scrape. The last summary is written
+ * again on close.
+ */
+public final class MetricsLogReporter implements AutoCloseable {
+
+    private final MetricsRegistry registry;
+    private final Consumer<String> sink;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "metrics-log-reporter");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public MetricsLogReporter(final MetricsRegistry registry, final Duration interval) {
+        this(registry, interval, System.out::print);
+    }
+
+    public MetricsLogReporter(final MetricsRegistry registry, final Duration interval, final Consumer<String> sink) {
+        if (interval.isNegative() || interval.isZero()) {
+            throw new IllegalArgumentException("Interval must be positive: " + interval);
+        }
+        this.registry = registry;
+        this.sink = sink;
+        scheduler.scheduleAtFixedRate(this::report, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private void report() {
+        String summary = registry.summary();
+        if (!summary.isEmpty()) {
+            sink.accept(summary);
+        }
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+        report();
+    }
+}
@@ -0,0 +1,55 @@
+package org.whistleblower.metrics;
+
+/**
+ * Where the contract and WhistleblowerClient report timings, sizes and
+ * counts. Every measurement is keyed by a metric name and the transaction it
+ * belongs to; counts also carry an outcome (ok, an error code, an exception
+ * class).
+ *
+ * NOOP is the default on both sides. Its methods do nothing and callers skip
+ * any work done only to feed them, such as measuring payload sizes, when
+ * isEnabled() is false. MetricsRegistry is the implementation that keeps
+ * the values; other backends can implement this interface.
+ */
+public interface MetricsRecorder {
+
+    MetricsRecorder NOOP = new MetricsRecorder() {
+        @Override
+        public boolean isEnabled() {
+            return false;
+        }
+
+        @Override
+        public void recordNanos(final String metric, final String transaction, final long nanos) {
+        }
+
+        @Override
+        public void recordBytes(final String metric, final String transaction, final long bytes) {
+        }
+
+        @Override
+        public void count(final String metric, final String transaction, final String outcome) {
+        }
+    };
+
+    /**
+     * Whether measurements are kept at all
+     */
+    boolean isEnabled();
+
+    /**
+     * Add a duration to the metric's latency histogram
+     */
+    void recordNanos(String metric, String transaction, long nanos);
+
+    /**
+     * Add a payload size to the metric's size histogram
+     */
+    void recordBytes(String metric, String transaction, long bytes);
+
+    /**
+     * Add one to the metric's counter for the given outcome. transaction may
+     * be null for counts not tied to one transaction.
+     */
+    void count(String metric, String transaction, String outcome);
+}
@@ -0,0 +1,275 @@
+package org.whistleblower.metrics;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-process MetricsRecorder keeping fixed-bucket histograms and counters.
+ *
+ * Recording is lock-free: each histogram bucket, sum and count is a
+ * LongAdder, and the maps are only written the first time a metric and
+ * transaction pair is seen. Latencies are bucketed from 100 us to 60 s and
+ * sizes from 64 B to 16 MiB, roughly doubling; values past the last bound
+ * fall in the +Inf bucket.
+ *
+ * writePrometheus renders everything in the Prometheus text format, with
+ * metric names prefixed by the registry's namespace and suffixed with
+ * _seconds, _bytes or _total. summary renders one line per series for logs,
+ * with percentiles estimated as the upper bound of the bucket they fall in.
+ */
+public final class MetricsRegistry implements MetricsRecorder {
+
+    private static final long[] LATENCY_BOUNDS_NANOS = {
+        100_000L, 250_000L, 500_000L,
+        1_000_000L, 2_500_000L, 5_000_000L,
+        10_000_000L, 25_000_000L, 50_000_000L,
+        100_000_000L, 250_000_000L, 500_000_000L,
+        1_000_000_000L, 2_500_000_000L, 5_000_000_000L,
+        10_000_000_000L, 30_000_000_000L, 60_000_000_000L
+    };
+
+    private static final long[] SIZE_BOUNDS_BYTES = {
+        64, 256, 1024, 4096, 16_384, 65_536, 262_144, 1_048_576, 4_194_304, 16_777_216
+    };
+
+    /**
+     * Bucketed distribution of one metric for one transaction
+     */
+    private static final class Histogram {
+        final long[] bounds;
+        final LongAdder[] buckets;
+        final LongAdder count = new LongAdder();
+        final LongAdder sum = new LongAdder();
+
+        Histogram(final long[] bounds) {
+            this.bounds = bounds;
+            this.buckets = new LongAdder[bounds.length + 1];
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        void record(final long value) {
+            int bucket = 0;
+            while (bucket < bounds.length && value > bounds[bucket]) {
+                bucket++;
+            }
+            buckets[bucket].increment();
+            count.increment();
+            sum.add(value);
+        }
+
+        /**
+         * Upper bound of the bucket holding the given quantile, or -1 past
+         * the last bound
+         */
+        long quantileBound(final double quantile) {
+            long total = count.sum();
+            long rank = (long) Math.ceil(quantile * total);
+            long seen = 0;
+            for (int i = 0; i < bounds.length; i++) {
+                seen += buckets[i].sum();
+                if (seen >= rank) {
+                    return bounds[i];
+                }
+            }
+            return -1;
+        }
+    }
+
+    private final String namespace;
+    private final ConcurrentMap<String, ConcurrentMap<String, Histogram>> latencies = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, ConcurrentMap<String, Histogram>> sizes = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, ConcurrentMap<String, ConcurrentMap<String, LongAdder>>> counters =
+            new ConcurrentHashMap<>();
+
+    /**
+     * @param namespace prefix of every exported metric name, e.g. "whistleblower"
+     */
+    public MetricsRegistry(final String namespace) {
+        this.namespace = namespace;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    @Override
+    public void recordNanos(final String metric, final String transaction, final long nanos) {
+        histogram(latencies, LATENCY_BOUNDS_NANOS, metric, transaction).record(nanos);
+    }
+
+    @Override
+    public void recordBytes(final String metric, final String transaction, final long bytes) {
+        histogram(sizes, SIZE_BOUNDS_BYTES, metric, transaction).record(bytes);
+    }
+
+    @Override
+    public void count(final String metric, final String transaction, final String outcome) {
+        counters.computeIfAbsent(metric, m -> new ConcurrentHashMap<>())
+                .computeIfAbsent(transaction == null ? "" : transaction, t -> new ConcurrentHashMap<>())
+                .computeIfAbsent(outcome == null ? "" : outcome, o -> new LongAdder())
+                .increment();
+    }
+
+    private static Histogram histogram(final ConcurrentMap<String, ConcurrentMap<String, Histogram>> histograms,
+            final long[] bounds, final String metric, final String transaction) {
+        ConcurrentMap<String, Histogram> byTransaction = histograms.get(metric);
+        if (byTransaction == null) {
+            byTransaction = histograms.computeIfAbsent(metric, m -> new ConcurrentHashMap<>());
+        }
+        String key = transaction == null ? "" : transaction;
+        Histogram histogram = byTransaction.get(key);
+        if (histogram == null) {
+            histogram = byTransaction.computeIfAbsent(key, t -> new Histogram(bounds));
+        }
+        return histogram;
+    }
+
+    /**
+     * Current value of a counter, or 0 if it was never incremented
+     */
+    public long getCount(final String metric, final String transaction, final String outcome) {
+        Map<String, ConcurrentMap<String, LongAdder>> byTransaction = counters.get(metric);
+        Map<String, LongAdder> byOutcome = byTransaction == null
+                ? null
+                : byTransaction.get(transaction == null ? "" : transaction);
+        LongAdder adder = byOutcome == null ? null : byOutcome.get(outcome == null ? "" : outcome);
+        return adder == null ? 0 : adder.sum();
+    }
+
+    /**
+     * Render every metric in the Prometheus text exposition format
+     */
+    public void writePrometheus(final Appendable out) throws IOException {
+        for (Map.Entry<String, ConcurrentMap<String, Histogram>> metric : new TreeMap<>(latencies).entrySet()) {
+            writeHistogram(out, namespace + "_" + metric.getKey() + "_seconds", metric.getValue(), 1e-9);
+        }
+        for (Map.Entry<String, ConcurrentMap<String, Histogram>> metric : new TreeMap<>(sizes).entrySet()) {
+            writeHistogram(out, namespace + "_" + metric.getKey() + "_bytes", metric.getValue(), 1);
+        }
+        for (Map.Entry<String, ConcurrentMap<String, ConcurrentMap<String, LongAdder>>> metric
+                : new TreeMap<>(counters).entrySet()) {
+            String name = namespace + "_" + metric.getKey() + "_total";
+            out.append("# TYPE ").append(name).append(" counter\n");
+            for (Map.Entry<String, ConcurrentMap<String, LongAdder>> transaction
+                    : new TreeMap<>(metric.getValue()).entrySet()) {
+                for (Map.Entry<String, LongAdder> outcome : new TreeMap<>(transaction.getValue()).entrySet()) {
+                    out.append(name).append('{');
+                    if (!transaction.getKey().isEmpty()) {
+                        label(out, "transaction", transaction.getKey()).append(',');
+                    }
+                    label(out, "outcome", outcome.getKey()).append("} ")
+                            .append(Long.toString(outcome.getValue().sum())).append('\n');
+                }
+            }
+        }
+    }
+
+    /**
+     * The Prometheus rendering as a string
+     */
+    public String scrape() {
+        StringBuilder out = new StringBuilder();
+        try {
+            writePrometheus(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toString();
+    }
+
+    private static void writeHistogram(final Appendable out, final String name,
+            final Map<String, Histogram> byTransaction, final double scale) throws IOException {
+        out.append("# TYPE ").append(name).append(" histogram\n");
+        for (Map.Entry<String, Histogram> entry : new TreeMap<>(byTransaction).entrySet()) {
+            Histogram histogram = entry.getValue();
+            long cumulative = 0;
+            for (int i = 0; i <= histogram.bounds.length; i++) {
+                cumulative += histogram.buckets[i].sum();
+                String bound = i < histogram.bounds.length ? format(histogram.bounds[i] * scale) : "+Inf";
+                out.append(name).append("_bucket{");
+                label(out, "transaction", entry.getKey()).append(',');
+                label(out, "le", bound).append("} ").append(Long.toString(cumulative)).append('\n');
+            }
+            out.append(name).append("_sum{");
+            label(out, "transaction", entry.getKey()).append("} ")
+                    .append(format(histogram.sum.sum() * scale)).append('\n');
+            out.append(name).append("_count{");
+            label(out, "transaction", entry.getKey()).append("} ")
+                    .append(Long.toString(histogram.count.sum())).append('\n');
+        }
+    }
+
+    /**
+     * One line per histogram series and counter, for periodic log dumps
+     */
+    public String summary() {
+        StringBuilder out = new StringBuilder();
+        summarize(out, latencies, "ms", 1e-6);
+        summarize(out, sizes, "B", 1);
+        for (Map.Entry<String, ConcurrentMap<String, ConcurrentMap<String, LongAdder>>> metric
+                : new TreeMap<>(counters).entrySet()) {
+            for (Map.Entry<String, ConcurrentMap<String, LongAdder>> transaction
+                    : new TreeMap<>(metric.getValue()).entrySet()) {
+                out.append(metric.getKey());
+                if (!transaction.getKey().isEmpty()) {
+                    out.append(' ').append(transaction.getKey());
+                }
+                for (Map.Entry<String, LongAdder> outcome : new TreeMap<>(transaction.getValue()).entrySet()) {
+                    out.append(' ').append(outcome.getKey()).append('=').append(outcome.getValue().sum());
+                }
+                out.append('\n');
+            }
+        }
+        return out.toString();
+    }
+
+    private static void summarize(final StringBuilder out, final Map<String, ConcurrentMap<String, Histogram>> histograms,
+            final String unit, final double scale) {
+        for (Map.Entry<String, ConcurrentMap<String, Histogram>> metric : new TreeMap<>(histograms).entrySet()) {
+            for (Map.Entry<String, Histogram> entry : new TreeMap<>(metric.getValue()).entrySet()) {
+                Histogram histogram = entry.getValue();
+                long count = histogram.count.sum();
+                out.append(String.format(Locale.ROOT, "%s %s count=%d mean=%.2f%s p50<=%s p99<=%s%n",
+                        metric.getKey(), entry.getKey(), count,
+                        count == 0 ? 0.0 : histogram.sum.sum() * scale / count, unit,
+                        bound(histogram.quantileBound(0.50), scale, unit),
+                        bound(histogram.quantileBound(0.99), scale, unit)));
+            }
+        }
+    }
+
+    private static String bound(final long bound, final double scale, final String unit) {
+        return bound < 0 ? "+Inf" : format(bound * scale) + unit;
+    }
+
+    private static Appendable label(final Appendable out, final String name, final String value) throws IOException {
+        out.append(name).append("=\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' || c == '"') {
+                out.append('\\').append(c);
+            } else if (c == '\n') {
+                out.append("\\n");
+            } else {
+                out.append(c);
+            }
+        }
+        return out.append('"');
+    }
+
+    private static String format(final double value) {
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            return Long.toString((long) value);
+        }
+        return String.format(Locale.ROOT, "%.6g", value).replaceFirst("\\.?0+(e|$)", "$1");
+    }
+}
@@ -0,0 +1,73 @@
+package org.whistleblower.metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Serves a MetricsRegistry at /metrics in the Prometheus text format, on the
+ * loopback interface unless another address is given. Uses the JDK's
+ * built-in HTTP server, so nothing else needs to be on the classpath.
+ */
+public final class PrometheusEndpoint implements AutoCloseable {
+
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "metrics-endpoint");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Listen on 127.0.0.1 at the given port, or an ephemeral port if 0
+     */
+    public PrometheusEndpoint(final MetricsRegistry registry, final int port) throws IOException {
+        this(registry, new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+    }
+
+    public PrometheusEndpoint(final MetricsRegistry registry, final InetSocketAddress address) throws IOException {
+        server = HttpServer.create(address, 0);
+        server.createContext("/metrics", exchange -> serve(exchange, registry));
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    private static void serve(final HttpExchange exchange, final MetricsRegistry registry) throws IOException {
+        try {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] body = registry.scrape().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * The port actually bound, useful when constructed with port 0
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,63 @@
+package org.whistleblower.service;
+
+import org.whistleblower.client.WhistleblowerClient;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Serves the DoE and DoGE operations over HTTP on the loopback interface, in
+ * place of one console per user. Each organization's requests share one
+ * pooled client for that organization's identity. Callers authenticate with
+ * the bearer tokens listed in the credentials file (see ServiceCredentials),
+ * which decide their organization and user.
+ *
+ * Usage: java -cp <classpath> org.whistleblower.service.ServiceApplication [port] [credentials]
+ */
+public class ServiceApplication {
+
+    private static final int DEFAULT_PORT = 8080;
+    private static final String DEFAULT_CREDENTIALS = "service-credentials.properties";
+
+    public static void main(String[] args) {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        Path credentialsFile = Paths.get(args.length > 1 ? args[1] : DEFAULT_CREDENTIALS);
+        CountDownLatch shutdown = new CountDownLatch(1);
+        Runtime.getRuntime().addShutdownHook(new Thread(shutdown::countDown));
+
+        ServiceCredentials credentials;
+        try {
+            credentials = ServiceCredentials.load(credentialsFile);
+        } catch (IOException e) {
+            System.err.println("Error reading service credentials: " + e.getMessage());
+            return;
+        }
+
+        try (WhistleblowerClient doe = new WhistleblowerClient(
+                "wallets/doe",
+                "connection-profiles/doe-connection.json",
+                "doeUser",
+                "whistleblowerchannel",
+                "whistleblower");
+             WhistleblowerClient doge = new WhistleblowerClient(
+                "wallets/doge",
+                "connection-profiles/doge-connection.json",
+                "dogeUser",
+                "whistleblowerchannel",
+                "whistleblower");
+             WhistleblowerHttpService service = new WhistleblowerHttpService(
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), port), credentials, doe, doge)) {
+
+            System.out.println("Whistleblower service listening on http://localhost:" + service.getPort());
+            shutdown.await();
+
+        } catch (Exception e) {
+            System.err.println("Error starting whistleblower service: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+}
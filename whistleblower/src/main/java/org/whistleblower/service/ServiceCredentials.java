@@ -0,0 +1,131 @@
+package org.whistleblower.service;
+
+import org.whistleblower.ReportText;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The callers WhistleblowerHttpService accepts, each a bearer token bound to
+ * an organization and a user. Only the SHA-256 digest of a token is kept, so
+ * a credentials file does not hold the tokens themselves.
+ *
+ * A credentials file is a properties file with one line per caller:
+ *   <hex SHA-256 of the token>=<doe|doge>:<user>
+ * newToken makes a token; printf %s "$TOKEN" | sha256sum gives its digest.
+ */
+public final class ServiceCredentials {
+
+    public static final String DOE = "doe";
+    public static final String DOGE = "doge";
+
+    private static final String BEARER = "Bearer ";
+    private static final int TOKEN_BYTES = 32;
+    private static final SecureRandom random = new SecureRandom();
+
+    /**
+     * An authenticated caller
+     */
+    public static final class Caller {
+        private final String organization;
+        private final String user;
+
+        Caller(final String organization, final String user) {
+            this.organization = organization;
+            this.user = user;
+        }
+
+        /**
+         * doe or doge
+         */
+        public String getOrganization() {
+            return organization;
+        }
+
+        public String getUser() {
+            return user;
+        }
+    }
+
+    private final Map<String, Caller> callers = new ConcurrentHashMap<>();
+
+    /**
+     * Read a credentials file
+     */
+    public static ServiceCredentials load(final Path file) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        ServiceCredentials credentials = new ServiceCredentials();
+        for (String digest : properties.stringPropertyNames()) {
+            String value = properties.getProperty(digest);
+            int separator = value.indexOf(':');
+            if (!digest.matches("[0-9a-f]{64}") || separator < 0) {
+                throw new IOException(String.format("%s: expected <hex SHA-256 of token>=<doe|doge>:<user>, got %s",
+                        file, digest));
+            }
+            try {
+                credentials.put(digest, value.substring(0, separator).trim(), value.substring(separator + 1).trim());
+            } catch (IllegalArgumentException e) {
+                throw new IOException(file + ": " + e.getMessage(), e);
+            }
+        }
+        return credentials;
+    }
+
+    /**
+     * A new random token, URL-safe base64
+     */
+    public static String newToken() {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    /**
+     * Accept token for the given organization and user
+     */
+    public ServiceCredentials add(final String token, final String organization, final String user) {
+        put(digest(token), organization, user);
+        return this;
+    }
+
+    public boolean isEmpty() {
+        return callers.isEmpty();
+    }
+
+    /**
+     * The caller whose bearer token an Authorization header carries, null if
+     * there is none or it is not known
+     */
+    public Caller authenticate(final String authorization) {
+        if (authorization == null || !authorization.regionMatches(true, 0, BEARER, 0, BEARER.length())) {
+            return null;
+        }
+        String token = authorization.substring(BEARER.length()).trim();
+        return token.isEmpty() ? null : callers.get(digest(token));
+    }
+
+    private void put(final String digest, final String organization, final String user) {
+        if (!DOE.equals(organization) && !DOGE.equals(organization)) {
+            throw new IllegalArgumentException("Organization must be doe or doge, got " + organization);
+        }
+        if (user == null || user.isEmpty()) {
+            throw new IllegalArgumentException("User must not be empty");
+        }
+        callers.put(digest, new Caller(organization, user));
+    }
+
+    private static String digest(final String token) {
+        return ReportText.digest(token.getBytes(StandardCharsets.UTF_8));
+    }
+}
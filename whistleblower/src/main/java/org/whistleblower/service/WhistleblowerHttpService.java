@@ -0,0 +1,310 @@
+package org.whistleblower.service;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.hyperledger.fabric.gateway.ContractException;
+import org.whistleblower.client.ReportOperations;
+import org.whistleblower.client.TransactionCommitException;
+import org.whistleblower.client.TransitionRejectedException;
+import org.whistleblower.client.WhistleblowerClient;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * HTTP/JSON front-end offering the DoE and DoGE console operations to many
+ * users at once. Each request runs on its own virtual thread, so a request
+ * blocked on endorsement or commit holds no platform thread, and all users of
+ * an organization share that organization's ReportOperations, normally one
+ * pooled WhistleblowerClient.
+ *
+ * Every request must carry "Authorization: Bearer <token>" with a token
+ * from the ServiceCredentials; the caller's organization and user are those
+ * of the token, and a request without a known token is refused with 401
+ * before any route is looked at.
+ *
+ * Routes, open to both organizations unless marked:
+ *   GET  /reports?status=&pageSize=&bookmark=   summary page, all or by status
+ *   GET  /reports?investigator=                 summaries by investigator
+ *   GET  /reports?department=                   summaries by department
+ *   GET  /reports/{id}                          report
+ *   GET  /reports/{id}/detail                   report with text and private details
+ *   POST /reports                   DoE   {id, description, department, submittedBy}
+ *   POST /reports/{id}/review       DoE   {decision}
+ *   GET  /statistics                DoE
+ *   POST /reports/{id}/assignment   DoGE  {investigatorId}
+ *   POST /reports/{id}/findings     DoGE  {findings}, as the calling investigator
+ *
+ * Errors are returned as {"error": code, "message": text}. A transition the
+ * contract refuses is 409 with the contract's code (404 for a missing
+ * report); a transaction that failed to commit is 409 with its validation
+ * code.
+ */
+public final class WhistleblowerHttpService implements AutoCloseable {
+
+    /**
+     * Pending connections the listening socket queues before refusing more
+     */
+    public static final int BACKLOG = 1024;
+
+    /**
+     * Largest request body accepted, in bytes
+     */
+    public static final int MAX_BODY_BYTES = 4 * 1024 * 1024;
+
+    private static final String DOE = ServiceCredentials.DOE;
+    private static final String DOGE = ServiceCredentials.DOGE;
+
+    private static final Gson gson = new GsonBuilder().create();
+
+    /**
+     * Ends a request with the given status and error body
+     */
+    private static final class HttpError extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private final int status;
+        private final String code;
+
+        HttpError(final int status, final String code, final String message) {
+            super(message);
+            this.status = status;
+            this.code = code;
+        }
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<String, ReportOperations> organizations = new HashMap<>();
+    private final ServiceCredentials credentials;
+
+    public WhistleblowerHttpService(final InetSocketAddress address, final ServiceCredentials credentials,
+            final ReportOperations doe, final ReportOperations doge) throws IOException {
+        if (credentials.isEmpty()) {
+            throw new IllegalArgumentException("No credentials; every request would be refused");
+        }
+        this.credentials = credentials;
+        organizations.put(DOE, doe);
+        organizations.put(DOGE, doge);
+        server = HttpServer.create(address, BACKLOG);
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    /**
+     * The port actually bound, useful when constructed with port 0
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.close();
+    }
+
+    private void handle(final HttpExchange exchange) throws IOException {
+        int status = 200;
+        Object response;
+        try {
+            ServiceCredentials.Caller caller = credentials.authenticate(
+                    exchange.getRequestHeaders().getFirst("Authorization"));
+            if (caller == null) {
+                exchange.getResponseHeaders().set("WWW-Authenticate", "Bearer");
+                throw new HttpError(401, "UNAUTHORIZED", "A valid bearer token is required");
+            }
+            String method = exchange.getRequestMethod();
+            String[] path = exchange.getRequestURI().getPath().substring(1).split("/");
+            if ("POST".equals(method) && path.length == 1) {
+                status = 201;
+            }
+            response = route(caller, organizations.get(caller.getOrganization()), method, path, exchange);
+        } catch (HttpError e) {
+            status = e.status;
+            response = error(e.code, e.getMessage());
+        } catch (TransitionRejectedException e) {
+            status = "REPORT_NOT_FOUND".equals(e.getErrorCode()) ? 404
+                    : "INVALID_REPORT".equals(e.getErrorCode()) ? 400 : 409;
+            response = error(e.getErrorCode(), e.getMessage());
+        } catch (TransactionCommitException e) {
+            status = 409;
+            response = error(e.getValidationCode(), e.getMessage());
+        } catch (ContractException e) {
+            status = 502;
+            response = error("CONTRACT_ERROR", e.getMessage());
+        } catch (IllegalArgumentException e) {
+            status = 400;
+            response = error("BAD_REQUEST", e.getMessage());
+        } catch (Exception e) {
+            status = 500;
+            response = error("INTERNAL_ERROR", e.getMessage());
+        }
+
+        byte[] body = gson.toJson(response).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private Object route(final ServiceCredentials.Caller caller, final ReportOperations operations,
+            final String method, final String[] path, final HttpExchange exchange) throws Exception {
+        boolean get = "GET".equals(method);
+        boolean post = "POST".equals(method);
+        String organization = caller.getOrganization();
+
+        if (path[0].equals("statistics") && path.length == 1) {
+            require(get, organization, DOE);
+            return operations.getReportStatistics();
+        }
+        if (!path[0].equals("reports") || path.length > 3) {
+            throw new HttpError(404, "NOT_FOUND", "No such resource");
+        }
+
+        if (path.length == 1) {
+            if (post) {
+                require(true, organization, DOE);
+                JsonObject body = body(exchange);
+                return operations.submitReport(field(body, "id"), field(body, "description"),
+                        field(body, "department"), field(body, "submittedBy"));
+            }
+            require(get, organization, organization);
+            return listReports(operations, query(exchange));
+        }
+
+        String reportId = path[1];
+        if (path.length == 2) {
+            require(get, organization, organization);
+            return operations.getReport(reportId);
+        }
+
+        switch (path[2]) {
+            case "detail":
+                require(get, organization, organization);
+                return operations.getReportDetail(reportId);
+            case "assignment": {
+                require(post, organization, DOGE);
+                JsonObject body = body(exchange);
+                return operations.assignInvestigator(reportId, field(body, "investigatorId"));
+            }
+            case "findings": {
+                require(post, organization, DOGE);
+                JsonObject body = body(exchange);
+                return operations.submitFindings(reportId, caller.getUser(), field(body, "findings"));
+            }
+            case "review": {
+                require(post, organization, DOE);
+                JsonObject body = body(exchange);
+                return operations.submitLeadershipReview(reportId, field(body, "decision"));
+            }
+            default:
+                throw new HttpError(404, "NOT_FOUND", "No such resource");
+        }
+    }
+
+    private static Object listReports(final ReportOperations operations, final Map<String, String> query)
+            throws Exception {
+        if (query.containsKey("investigator")) {
+            return operations.getReportSummariesByInvestigator(query.get("investigator"));
+        }
+        if (query.containsKey("department")) {
+            return operations.getReportSummariesByDepartment(query.get("department"));
+        }
+
+        int pageSize = WhistleblowerClient.DEFAULT_PAGE_SIZE;
+        if (query.containsKey("pageSize")) {
+            try {
+                pageSize = Integer.parseInt(query.get("pageSize"));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("pageSize must be a number: " + query.get("pageSize"));
+            }
+        }
+        String bookmark = query.getOrDefault("bookmark", "");
+        return query.containsKey("status")
+                ? operations.getReportSummariesByStatusPage(query.get("status"), pageSize, bookmark)
+                : operations.getAllReportSummariesPage(pageSize, bookmark);
+    }
+
+    /**
+     * Check the method matched the route and the organization may use it
+     */
+    private static void require(final boolean methodMatches, final String organization, final String allowed) {
+        if (!methodMatches) {
+            throw new HttpError(405, "METHOD_NOT_ALLOWED", "Method not allowed on this resource");
+        }
+        if (!organization.equals(allowed)) {
+            throw new HttpError(403, "FORBIDDEN",
+                    String.format("This operation is not available to %s", organization.toUpperCase()));
+        }
+    }
+
+    private static JsonObject body(final HttpExchange exchange) throws IOException {
+        byte[] bytes;
+        try (InputStream in = exchange.getRequestBody()) {
+            bytes = in.readNBytes(MAX_BODY_BYTES + 1);
+        }
+        if (bytes.length > MAX_BODY_BYTES) {
+            throw new HttpError(413, "BODY_TOO_LARGE", "Request body exceeds " + MAX_BODY_BYTES + " bytes");
+        }
+        try {
+            JsonElement json = JsonParser.parseString(new String(bytes, StandardCharsets.UTF_8));
+            if (!json.isJsonObject()) {
+                throw new IllegalArgumentException("Request body must be a JSON object");
+            }
+            return json.getAsJsonObject();
+        } catch (JsonParseException e) {
+            throw new IllegalArgumentException("Request body is not valid JSON: " + e.getMessage());
+        }
+    }
+
+    private static String field(final JsonObject body, final String name) {
+        JsonElement value = body.get(name);
+        if (value == null || value.isJsonNull()) {
+            throw new IllegalArgumentException("Missing field " + name);
+        }
+        if (!value.isJsonPrimitive()) {
+            throw new IllegalArgumentException("Field " + name + " must be a string");
+        }
+        return value.getAsString();
+    }
+
+    private static Map<String, String> query(final HttpExchange exchange) {
+        Map<String, String> parameters = new HashMap<>();
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null || query.isEmpty()) {
+            return parameters;
+        }
+        for (String parameter : query.split("&")) {
+            int separator = parameter.indexOf('=');
+            String name = separator < 0 ? parameter : parameter.substring(0, separator);
+            String value = separator < 0 ? "" : parameter.substring(separator + 1);
+            parameters.put(URLDecoder.decode(name, StandardCharsets.UTF_8),
+                    URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return parameters;
+    }
+
+    private static Map<String, String> error(final String code, final String message) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", code);
+        error.put("message", message == null ? "" : message);
+        return error;
+    }
+}
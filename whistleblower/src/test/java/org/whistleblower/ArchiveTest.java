@@ -0,0 +1,124 @@
+package org.whistleblower;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import org.hyperledger.fabric.shim.ChaincodeException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ArchiveTest {
+
+    private static final Gson gson = new Gson();
+
+    private final ContractFixture ledger = new ContractFixture();
+
+    /**
+     * R1 and R2 closed long ago, R3 still open, R4 closed recently
+     */
+    private void closeSomeReports() {
+        ledger.contract.setArchiveAfterDays(ledger.tx(), 30);
+        for (String id : List.of("R1", "R2", "R3", "R4")) {
+            ledger.submit(id, "Finance");
+        }
+        ledger.advance("R1", ReportStatus.CLOSED);
+        ledger.advance("R2", ReportStatus.CLOSED);
+        ledger.advance("R3", ReportStatus.UNDER_INVESTIGATION);
+        ledger.at(ContractFixture.START + 40 * ContractFixture.DAY);
+        ledger.advance("R4", ReportStatus.CLOSED);
+    }
+
+    private List<String> archivable(final int pageSize) {
+        List<String> ids = new ArrayList<>();
+        String bookmark = "";
+        do {
+            ReportSummaryPage page = ReportCodec.decodeSummaryPage(ledger.contract
+                    .getArchivableReports(ledger.tx(), pageSize, bookmark).getBytes(StandardCharsets.UTF_8));
+            assertTrue(page.getFetchedRecordsCount() <= pageSize);
+            page.getRecords().forEach(summary -> ids.add(summary.getId()));
+            bookmark = page.getBookmark();
+        } while (!bookmark.isEmpty());
+        return ids;
+    }
+
+    private List<BatchItemResult> archive(final String... reportIds) {
+        return gson.fromJson(ledger.contract.archiveClosedReports(ledger.tx(), gson.toJson(reportIds)),
+                new TypeToken<List<BatchItemResult>>() {
+                }.getType());
+    }
+
+    @Test
+    void findsOnlyOldClosedReportsAPageAtATime() {
+        closeSomeReports();
+        assertEquals(List.of("R1", "R2"), archivable(1));
+        assertEquals(List.of("R1", "R2"), archivable(10));
+    }
+
+    @Test
+    void archivesListedReportsThatQualify() {
+        closeSomeReports();
+        List<BatchItemResult> results = archive("R1", "R3", "R4", "R1", "missing");
+
+        assertEquals(List.of(true, false, false, false, false),
+                results.stream().map(BatchItemResult::isSuccess).collect(Collectors.toList()));
+        assertEquals(List.of("REPORT_NOT_ARCHIVABLE", "REPORT_NOT_ARCHIVABLE", "DUPLICATE_IN_BATCH",
+                "REPORT_NOT_FOUND"), results.subList(1, 5).stream().map(BatchItemResult::getErrorCode)
+                .collect(Collectors.toList()));
+
+        assertThrows(ChaincodeException.class, () -> ledger.contract.getReport(ledger.tx(), "R1"));
+        assertEquals(ReportStatus.CLOSED, ReportCodec.decode(ledger.contract.getArchivedReport(ledger.tx(), "R1")
+                .getBytes(StandardCharsets.UTF_8)).getStatus());
+        assertTrue(ledger.contract.reportExists(ledger.tx(), "R1"));
+        assertEquals(List.of("R2"), archivable(10));
+    }
+
+    @Test
+    void archivingCompactsEventSourcedReports() {
+        ledger.contract.setStorageMode(ledger.tx(), "EVENT_SOURCED");
+        closeSomeReports();
+        assertEquals(List.of("R1", "R2"), archivable(1));
+
+        assertTrue(archive("R1", "R2").stream().allMatch(BatchItemResult::isSuccess));
+        assertTrue(ledger.stub.getStateMap().keySet().stream().noneMatch(key -> ReportEvents.isEventKey(key)
+                && (key.contains("R1") || key.contains("R2"))));
+        assertEquals("Approved", ReportCodec.decode(ledger.contract.getArchivedReport(ledger.tx(), "R2")
+                .getBytes(StandardCharsets.UTF_8)).getLeadershipDecision());
+        assertFalse(archivable(10).contains("R4"));
+    }
+
+    @Test
+    void archivedReportsKeepATimeIndex() {
+        closeSomeReports();
+        archive("R1", "R2");
+        long r2Updated = ReportCodec.decode(ledger.contract.getArchivedReport(ledger.tx(), "R2")
+                .getBytes(StandardCharsets.UTF_8)).getLastUpdated();
+
+        assertEquals(List.of("R1", "R2"), archivedSince(0));
+        assertEquals(List.of("R2"), archivedSince(r2Updated));
+        ledger.contract.rebuildIndexes(ledger.tx());
+        assertEquals(List.of("R1", "R2"), archivedSince(0));
+    }
+
+    private List<String> archivedSince(final long since) {
+        ReportPage page = ReportCodec.decodePage(ledger.contract.getArchivedReportsUpdatedSince(ledger.tx(), since,
+                10, "").getBytes(StandardCharsets.UTF_8));
+        return page.getRecords().stream().map(WhistleblowerReport::getId).collect(Collectors.toList());
+    }
+
+    @Test
+    void rejectsOversizedBatches() {
+        String[] ids = Collections.nCopies(WhistleblowerContract.MAX_BATCH_SIZE + 1, "R1").toArray(new String[0]);
+        ChaincodeException e = assertThrows(ChaincodeException.class, () -> archive(ids));
+        assertEquals("INVALID_BATCH", new String(e.getPayload(), StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,105 @@
+package org.whistleblower;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class BatchTest {
+
+    private static final Gson gson = new Gson();
+
+    private final ContractFixture ledger = new ContractFixture();
+
+    private static List<BatchItemResult> results(final String json) {
+        return gson.fromJson(json, new TypeToken<List<BatchItemResult>>() {
+        }.getType());
+    }
+
+    private static List<String> errorCodes(final List<BatchItemResult> results) {
+        return results.stream().map(result -> result.isSuccess() ? "" : result.getErrorCode())
+                .collect(Collectors.toList());
+    }
+
+    private static WhistleblowerReport item(final String id, final String department) {
+        WhistleblowerReport report = new WhistleblowerReport();
+        report.setId(id);
+        report.setDescription("Description of " + id);
+        report.setDepartment(department);
+        report.setSubmittedBy("anonymous");
+        return report;
+    }
+
+    private List<BatchItemResult> submitReports(final WhistleblowerReport... reports) {
+        return results(ledger.contract.submitReports(ledger.tx(),
+                ReportCodec.encodeListToString(Arrays.asList(reports))));
+    }
+
+    private List<BatchItemResult> assign(final String... reportAndInvestigator) {
+        List<InvestigatorAssignment> assignments = new ArrayList<>();
+        for (int i = 0; i < reportAndInvestigator.length; i += 2) {
+            assignments.add(new InvestigatorAssignment(reportAndInvestigator[i], reportAndInvestigator[i + 1]));
+        }
+        return results(ledger.contract.assignInvestigators(ledger.tx(), gson.toJson(assignments)));
+    }
+
+    @Test
+    void submitsEachValidReportAndReportsTheRest() {
+        ledger.submit("R0", "Finance");
+        List<BatchItemResult> results = submitReports(item("R1", "Finance"), item("R2", "Legal"),
+                item("R1", "HR"), item("R0", "HR"), item("", "HR"));
+
+        assertEquals(List.of("R1", "R2", "R1", "R0", ""),
+                results.stream().map(BatchItemResult::getId).collect(Collectors.toList()));
+        assertEquals(List.of("", "", "DUPLICATE_IN_BATCH", "REPORT_ALREADY_EXISTS", "INVALID_REPORT"),
+                errorCodes(results));
+
+        assertEquals("Finance", ledger.report("R1").getDepartment());
+        assertEquals(ReportStatus.SUBMITTED, ledger.report("R2").getStatus());
+        assertEquals("Finance", ledger.report("R0").getDepartment());
+    }
+
+    @Test
+    void rejectsEmptyOversizedAndMalformedBatches() {
+        assertEquals("INVALID_BATCH", ContractFixture.errorCode(
+                () -> ledger.contract.submitReports(ledger.tx(), "[]")));
+        assertEquals("INVALID_BATCH", ContractFixture.errorCode(
+                () -> ledger.contract.submitReports(ledger.tx(), "{\"id\":\"R1\"}")));
+        List<WhistleblowerReport> tooMany = new ArrayList<>();
+        for (int i = 0; i <= WhistleblowerContract.MAX_BATCH_SIZE; i++) {
+            tooMany.add(item("R" + i, "Finance"));
+        }
+        assertEquals("INVALID_BATCH", ContractFixture.errorCode(
+                () -> ledger.contract.submitReports(ledger.tx(), ReportCodec.encodeListToString(tooMany))));
+        assertEquals("INVALID_BATCH", ContractFixture.errorCode(
+                () -> ledger.contract.assignInvestigators(ledger.tx(), "not json")));
+        assertFalse(ledger.contract.reportExists(ledger.tx(), "R0"));
+    }
+
+    @Test
+    void assignsEachSubmittedReportAndReportsTheRest() {
+        for (String id : List.of("R1", "R2", "R3")) {
+            ledger.submit(id, "Finance");
+        }
+        ledger.advance("R3", ReportStatus.UNDER_INVESTIGATION);
+
+        List<BatchItemResult> results = assign("R1", "inv1", "R2", "inv2", "R1", "inv3", "R3", "inv1",
+                "missing", "inv1", "", "inv1");
+        assertEquals(List.of("", "", "DUPLICATE_IN_BATCH", "INVALID_TRANSITION", "REPORT_NOT_FOUND",
+                "INVALID_REPORT"), errorCodes(results));
+
+        WhistleblowerReport r1 = ledger.report("R1");
+        assertEquals("inv1", r1.getInvestigatorId());
+        assertEquals(ReportStatus.UNDER_INVESTIGATION, r1.getStatus());
+        assertEquals("inv2", ledger.report("R2").getInvestigatorId());
+        assertEquals("inv-R3", ledger.report("R3").getInvestigatorId());
+    }
+}
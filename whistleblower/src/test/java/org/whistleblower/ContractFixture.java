@@ -0,0 +1,100 @@
+package org.whistleblower;
+
+import org.hyperledger.fabric.contract.Context;
+import org.hyperledger.fabric.shim.ChaincodeException;
+import org.junit.jupiter.api.function.Executable;
+import org.whistleblower.emulator.InMemoryChaincodeStub;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * A contract over an InMemoryChaincodeStub with a transaction clock, for
+ * tests. Each tx call starts a new transaction a second after the last.
+ */
+public final class ContractFixture {
+
+    public static final long START = 1_700_000_000_000L;
+    public static final long DAY = 86_400_000L;
+
+    public final WhistleblowerContract contract = new WhistleblowerContract();
+    public final InMemoryChaincodeStub stub = new InMemoryChaincodeStub();
+    public final Context ctx;
+
+    private long clock = START;
+    private int transactions;
+
+    public ContractFixture() {
+        stub.nextTransaction("setup", Instant.ofEpochMilli(clock));
+        stub.setMspId(WhistleblowerContract.DOGE_MSP_ID);
+        ctx = new Context(stub);
+    }
+
+    /**
+     * Start the next transaction, a second after the previous one
+     */
+    public Context tx() {
+        return at(clock + 1000);
+    }
+
+    /**
+     * Start the next transaction as a caller from the given organization.
+     * The shared ctx calls as DoGE.
+     */
+    public Context tx(final String mspId) {
+        tx();
+        stub.setMspId(mspId);
+        Context caller = new Context(stub);
+        stub.setMspId(WhistleblowerContract.DOGE_MSP_ID);
+        return caller;
+    }
+
+    /**
+     * Start the next transaction at the given time
+     */
+    public Context at(final long timestamp) {
+        clock = timestamp;
+        stub.nextTransaction("tx" + ++transactions, Instant.ofEpochMilli(timestamp));
+        return ctx;
+    }
+
+    public long now() {
+        return clock;
+    }
+
+    public WhistleblowerReport submit(final String id, final String department) {
+        return ReportCodec.decode(contract.submitReport(tx(), id, "Description of " + id, department, "anonymous")
+                .getBytes());
+    }
+
+    /**
+     * Move a submitted report to the given status, one transaction per step
+     */
+    public WhistleblowerReport advance(final String id, final ReportStatus status) {
+        String json = contract.getReport(tx(), id);
+        if (status.ordinal() >= ReportStatus.UNDER_INVESTIGATION.ordinal()) {
+            json = contract.assignInvestigator(tx(), id, "inv-" + id);
+        }
+        if (status.ordinal() >= ReportStatus.PENDING_REVIEW.ordinal()) {
+            json = contract.submitFindings(tx(), id, "Findings for " + id);
+        }
+        if (status.ordinal() >= ReportStatus.CLOSED.ordinal()) {
+            json = contract.submitLeadershipReview(tx(WhistleblowerContract.DOE_MSP_ID), id, "Approved");
+        }
+        return ReportCodec.decode(json.getBytes());
+    }
+
+    public WhistleblowerReport report(final String id) {
+        return ReportCodec.decode(contract.getReport(tx(), id).getBytes());
+    }
+
+    /**
+     * The error code a contract call fails with
+     */
+    public static String errorCode(final Executable call) {
+        ChaincodeException e = assertThrows(ChaincodeException.class, call);
+        return new String(e.getPayload(), StandardCharsets.UTF_8);
+    }
+}
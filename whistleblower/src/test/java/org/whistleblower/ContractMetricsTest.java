@@ -0,0 +1,99 @@
+package org.whistleblower;
+
+import org.hyperledger.fabric.contract.Context;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.whistleblower.emulator.InMemoryChaincodeStub;
+import org.whistleblower.metrics.MetricsRecorder;
+import org.whistleblower.metrics.MetricsRegistry;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ContractMetricsTest {
+
+    private final WhistleblowerContract contract = new WhistleblowerContract();
+    private final MetricsRegistry registry = new MetricsRegistry("whistleblower");
+    private int transactions;
+
+    /**
+     * A stub that reports the function and arguments of the current
+     * transaction, as the peer's does
+     */
+    private static final class InvokedStub extends InMemoryChaincodeStub {
+        private String function;
+        private List<String> args = List.of();
+
+        @Override
+        public String getFunction() {
+            return function;
+        }
+
+        @Override
+        public List<byte[]> getArgs() {
+            return args.stream().map(arg -> arg.getBytes(StandardCharsets.UTF_8)).toList();
+        }
+    }
+
+    private final InvokedStub stub = new InvokedStub();
+
+    @AfterEach
+    void disableMetrics() {
+        WhistleblowerContract.setMetrics(null);
+    }
+
+    /**
+     * Run a transaction through the hooks the contract runtime calls
+     */
+    private String invoke(final String function, final List<String> args, final Function<Context, String> call) {
+        stub.nextTransaction("tx" + ++transactions, Instant.ofEpochMilli(1_700_000_000_000L + transactions));
+        stub.function = function;
+        stub.args = args;
+        Context ctx = contract.createContext(stub);
+        contract.beforeTransaction(ctx);
+        String result = call.apply(ctx);
+        contract.afterTransaction(ctx, result);
+        return result;
+    }
+
+    @Test
+    void transactionsRecordLatencySizesAndOutcomes() {
+        WhistleblowerContract.setMetrics(registry);
+        String report = invoke("submitReport", List.of("R1", "Description", "Finance", "anonymous"),
+                ctx -> contract.submitReport(ctx, "R1", "Description", "Finance", "anonymous"));
+        assertThrows(RuntimeException.class, () -> invoke("getReport", List.of("missing"),
+                ctx -> contract.getReport(ctx, "missing")));
+
+        assertEquals(1, registry.getCount("contract_transactions", "submitReport", "started"));
+        assertEquals(1, registry.getCount("contract_transactions", "submitReport", "ok"));
+        // A failed transaction is started but never ok
+        assertEquals(1, registry.getCount("contract_transactions", "getReport", "started"));
+        assertEquals(0, registry.getCount("contract_transactions", "getReport", "ok"));
+        assertEquals(1, registry.getCount("contract_errors", null, "REPORT_NOT_FOUND"));
+
+        String scrape = registry.scrape();
+        assertTrue(scrape.contains("whistleblower_contract_transaction_seconds_count{transaction=\"submitReport\"} 1"));
+        assertTrue(scrape.contains("whistleblower_contract_request_bytes_sum{transaction=\"submitReport\"} 29\n"));
+        assertTrue(scrape.contains("whistleblower_contract_response_bytes_sum{transaction=\"submitReport\"} "
+                + report.getBytes(StandardCharsets.UTF_8).length + "\n"));
+    }
+
+    @Test
+    void disabledMetricsRecordNothing() {
+        assertSame(MetricsRecorder.NOOP, WhistleblowerContract.getMetrics());
+        invoke("submitReport", List.of("R1"), ctx -> contract.submitReport(ctx, "R1", "Description", "Finance",
+                "anonymous"));
+        assertThrows(RuntimeException.class, () -> invoke("getReport", List.of("missing"),
+                ctx -> contract.getReport(ctx, "missing")));
+
+        WhistleblowerContract.setMetrics(registry);
+        assertEquals("", registry.scrape());
+    }
+}
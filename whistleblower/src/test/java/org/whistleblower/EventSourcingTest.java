@@ -0,0 +1,96 @@
+package org.whistleblower;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class EventSourcingTest {
+
+    private final ContractFixture ledger = new ContractFixture();
+
+    private List<String> eventKeys() {
+        List<String> keys = new ArrayList<>();
+        for (String key : ledger.stub.getStateMap().keySet()) {
+            if (ReportEvents.isEventKey(key)) {
+                keys.add(key);
+            }
+        }
+        return keys;
+    }
+
+    private byte[] stored(final String id) {
+        return ledger.stub.getState(id);
+    }
+
+    private List<String> byStatus(final ReportStatus status) {
+        return ReportCodec.decodeList(ledger.contract.getReportsByStatus(ledger.tx(), status.toString())
+                .getBytes(StandardCharsets.UTF_8)).stream().map(WhistleblowerReport::getId)
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    void transitionsAppendEventsAndLeaveTheReportKeyAsSubmitted() {
+        assertEquals("SNAPSHOT", ledger.contract.getStorageMode(ledger.tx()));
+        ledger.contract.setStorageMode(ledger.tx(), "EVENT_SOURCED");
+        ledger.submit("R1", "Finance");
+        byte[] submitted = stored("R1");
+
+        WhistleblowerReport closed = ledger.advance("R1", ReportStatus.CLOSED);
+        assertArrayEquals(submitted, stored("R1"));
+        assertEquals(3, eventKeys().size());
+
+        assertEquals(ReportStatus.CLOSED, closed.getStatus());
+        WhistleblowerReport read = ledger.report("R1");
+        assertEquals(ReportStatus.CLOSED, read.getStatus());
+        assertEquals("inv-R1", read.getInvestigatorId());
+        assertEquals("Findings for R1", read.getFindings());
+        assertEquals("Approved", read.getLeadershipDecision());
+        assertEquals(List.of("R1"), byStatus(ReportStatus.CLOSED));
+        assertEquals(List.of(), byStatus(ReportStatus.SUBMITTED));
+    }
+
+    @Test
+    void compactionFoldsEventsIntoTheReportKey() {
+        ledger.contract.setStorageMode(ledger.tx(), "EVENT_SOURCED");
+        ledger.submit("R1", "Finance");
+        ledger.advance("R1", ReportStatus.PENDING_REVIEW);
+        String folded = ledger.contract.getReport(ledger.tx(), "R1");
+
+        assertEquals(folded, ledger.contract.compactReport(ledger.tx(), "R1"));
+        assertEquals(List.of(), eventKeys());
+        assertEquals(ReportStatus.PENDING_REVIEW, ReportCodec.decode(stored("R1")).getStatus());
+        assertEquals(folded, ledger.contract.getReport(ledger.tx(), "R1"));
+
+        // Later transitions append to the compacted report
+        ledger.contract.submitLeadershipReview(ledger.tx(WhistleblowerContract.DOE_MSP_ID), "R1", "Approved");
+        assertEquals(ReportStatus.CLOSED, ledger.report("R1").getStatus());
+        assertEquals(1, eventKeys().size());
+    }
+
+    @Test
+    void switchingBackToSnapshotCompactsEveryReportWithEvents() {
+        ledger.contract.setStorageMode(ledger.tx(), "EVENT_SOURCED");
+        for (String id : List.of("R1", "R2", "R3")) {
+            ledger.submit(id, "Finance");
+        }
+        ledger.advance("R1", ReportStatus.CLOSED);
+        ledger.advance("R3", ReportStatus.UNDER_INVESTIGATION);
+
+        assertEquals(2, ledger.contract.setStorageMode(ledger.tx(), "SNAPSHOT"));
+        assertEquals(List.of(), eventKeys());
+        assertEquals(ReportStatus.CLOSED, ReportCodec.decode(stored("R1")).getStatus());
+        assertEquals(ReportStatus.UNDER_INVESTIGATION, ReportCodec.decode(stored("R3")).getStatus());
+
+        ledger.contract.submitFindings(ledger.tx(), "R3", "Confirmed");
+        assertEquals(List.of(), eventKeys());
+        assertEquals(ReportStatus.PENDING_REVIEW, ReportCodec.decode(stored("R3")).getStatus());
+        assertEquals("INVALID_STORAGE_MODE", ContractFixture.errorCode(
+                () -> ledger.contract.setStorageMode(ledger.tx(), "APPEND_ONLY")));
+    }
+}
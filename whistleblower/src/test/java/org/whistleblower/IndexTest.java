@@ -0,0 +1,86 @@
+package org.whistleblower;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class IndexTest {
+
+    private final ContractFixture ledger = new ContractFixture();
+
+    private static List<String> ids(final String reportsJSON) {
+        return ReportCodec.decodeList(reportsJSON.getBytes(StandardCharsets.UTF_8)).stream()
+                .map(WhistleblowerReport::getId).sorted().collect(Collectors.toList());
+    }
+
+    private List<String> byStatus(final ReportStatus status) {
+        return ids(ledger.contract.getReportsByStatus(ledger.tx(), status.toString()));
+    }
+
+    /**
+     * Index keys of the given index, as stored
+     */
+    private List<String> indexKeys(final String index) {
+        String prefix = ledger.stub.createCompositeKey(index).toString();
+        List<String> keys = new ArrayList<>();
+        for (String key : ledger.stub.getStateMap().keySet()) {
+            if (key.startsWith(prefix)) {
+                keys.add(key);
+            }
+        }
+        return keys;
+    }
+
+    private void lifecycle() {
+        ledger.submit("R1", "Finance");
+        ledger.submit("R2", "Procurement");
+        ledger.submit("R3", "Finance");
+        ledger.advance("R1", ReportStatus.UNDER_INVESTIGATION);
+        ledger.advance("R2", ReportStatus.CLOSED);
+    }
+
+    @Test
+    void indexesFollowEveryTransition() {
+        lifecycle();
+
+        assertEquals(List.of("R3"), byStatus(ReportStatus.SUBMITTED));
+        assertEquals(List.of("R1"), byStatus(ReportStatus.UNDER_INVESTIGATION));
+        assertEquals(List.of(), byStatus(ReportStatus.PENDING_REVIEW));
+        assertEquals(List.of("R2"), byStatus(ReportStatus.CLOSED));
+        assertEquals(List.of("R1"), ids(ledger.contract.getReportsByInvestigator(ledger.tx(), "inv-R1")));
+        assertEquals(List.of("R1", "R3"), ids(ledger.contract.getReportsByDepartment(ledger.tx(), "Finance")));
+        assertEquals(List.of(), ids(ledger.contract.getReportsByDepartment(ledger.tx(), "Legal")));
+
+        // A transition moves the entry rather than adding one
+        assertEquals(3, indexKeys(WhistleblowerContract.STATUS_INDEX).size());
+        assertEquals(2, indexKeys(WhistleblowerContract.INVESTIGATOR_INDEX).size());
+    }
+
+    @Test
+    void rebuildRestoresMissingIndexes() {
+        lifecycle();
+        ledger.tx();
+        for (String index : List.of(WhistleblowerContract.STATUS_INDEX, WhistleblowerContract.INVESTIGATOR_INDEX,
+                WhistleblowerContract.DEPARTMENT_INDEX)) {
+            indexKeys(index).forEach(ledger.stub::delState);
+        }
+        assertEquals(List.of(), byStatus(ReportStatus.SUBMITTED));
+
+        assertEquals(3, ledger.contract.rebuildIndexes(ledger.tx()));
+        assertEquals(List.of("R3"), byStatus(ReportStatus.SUBMITTED));
+        assertEquals(List.of("R2"), byStatus(ReportStatus.CLOSED));
+        assertEquals(List.of("R1"), ids(ledger.contract.getReportsByInvestigator(ledger.tx(), "inv-R1")));
+        assertEquals(List.of("R1", "R3"), ids(ledger.contract.getReportsByDepartment(ledger.tx(), "Finance")));
+    }
+
+    @Test
+    void unknownStatusIsRejected() {
+        assertEquals("INVALID_STATUS", ContractFixture.errorCode(
+                () -> ledger.contract.getReportsByStatus(ledger.tx(), "ESCALATED")));
+    }
+}
@@ -0,0 +1,83 @@
+package org.whistleblower;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PaginationTest {
+
+    private final ContractFixture ledger = new ContractFixture();
+
+    private void submitReports(final int count) {
+        for (int i = 0; i < count; i++) {
+            ledger.submit(String.format("R%02d", i), "Finance");
+        }
+    }
+
+    /**
+     * Every page of a query, checking each holds at most pageSize reports
+     */
+    private List<ReportPage> pages(final int pageSize, final BiFunction<Integer, String, String> query) {
+        List<ReportPage> pages = new ArrayList<>();
+        String bookmark = "";
+        do {
+            ReportPage page = ReportCodec.decodePage(query.apply(pageSize, bookmark)
+                    .getBytes(StandardCharsets.UTF_8));
+            assertTrue(page.getRecords().size() <= pageSize);
+            assertEquals(page.getRecords().size(), page.getFetchedRecordsCount());
+            pages.add(page);
+            bookmark = page.getBookmark();
+        } while (!bookmark.isEmpty() && pages.size() < 100);
+        return pages;
+    }
+
+    private static List<String> ids(final List<ReportPage> pages) {
+        List<String> ids = new ArrayList<>();
+        pages.forEach(page -> page.getRecords().forEach(report -> ids.add(report.getId())));
+        return ids;
+    }
+
+    @Test
+    void pagesThroughAllReportsInKeyOrder() {
+        submitReports(7);
+        List<ReportPage> pages = pages(3,
+                (size, bookmark) -> ledger.contract.getAllReportsWithPagination(ledger.tx(), size, bookmark));
+
+        assertEquals(List.of("R00", "R01", "R02", "R03", "R04", "R05", "R06"), ids(pages));
+        assertEquals(List.of(3, 3, 1), pages.stream().map(page -> page.getRecords().size()).toList());
+        assertEquals(ids(pages), ids(pages(1000,
+                (size, bookmark) -> ledger.contract.getAllReportsWithPagination(ledger.tx(), size, bookmark))));
+    }
+
+    @Test
+    void pagesThroughReportsByStatus() {
+        submitReports(5);
+        ledger.advance("R01", ReportStatus.UNDER_INVESTIGATION);
+        ledger.advance("R03", ReportStatus.UNDER_INVESTIGATION);
+        ledger.advance("R04", ReportStatus.CLOSED);
+
+        assertEquals(List.of("R01", "R03"), ids(pages(1, (size, bookmark) -> ledger.contract
+                .getReportsByStatusWithPagination(ledger.tx(), "UNDER_INVESTIGATION", size, bookmark))));
+        assertEquals(List.of("R00", "R02"), ids(pages(10, (size, bookmark) -> ledger.contract
+                .getReportsByStatusWithPagination(ledger.tx(), "SUBMITTED", size, bookmark))));
+        assertEquals(List.of(), ids(pages(10, (size, bookmark) -> ledger.contract
+                .getReportsByStatusWithPagination(ledger.tx(), "PENDING_REVIEW", size, bookmark))));
+    }
+
+    @Test
+    void rejectsPageSizesOutOfRangeAndUnknownStatuses() {
+        submitReports(1);
+        assertEquals("INVALID_PAGE_SIZE", ContractFixture.errorCode(
+                () -> ledger.contract.getAllReportsWithPagination(ledger.tx(), 0, "")));
+        assertEquals("INVALID_PAGE_SIZE", ContractFixture.errorCode(() -> ledger.contract
+                .getAllReportsWithPagination(ledger.tx(), WhistleblowerContract.MAX_PAGE_SIZE + 1, "")));
+        assertEquals("INVALID_STATUS", ContractFixture.errorCode(
+                () -> ledger.contract.getReportsByStatusWithPagination(ledger.tx(), "LOST", 10, "")));
+    }
+}
@@ -0,0 +1,157 @@
+package org.whistleblower;
+
+import com.google.gson.Gson;
+import com.owlike.genson.Genson;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ReportCodecTest {
+
+    private static WhistleblowerReport sample(final String id) {
+        WhistleblowerReport report = new WhistleblowerReport(id, "Quote \" backslash \\ newline \n tab \t é 漢 😀",
+                "Finance", "anonymous", 1_700_000_000_000L, ReportStatus.PENDING_REVIEW, "inv-1",
+                "Findings", "");
+        report.setLastUpdated(1_700_000_500_000L);
+        return report;
+    }
+
+    @Test
+    void roundTripsEveryField() {
+        WhistleblowerReport report = sample("R1");
+        report.setDescription(null);
+        report.setDescriptionDigest("ab12");
+        report.setDescriptionLength(5000);
+        report.setFindingsDigest("cd34");
+        report.setFindingsLength(7000);
+        report.setPrivateDetailsHash("ef56");
+
+        WhistleblowerReport decoded = ReportCodec.decode(ReportCodec.encode(report));
+
+        assertEquals("R1", decoded.getId());
+        assertNull(decoded.getDescription());
+        assertEquals("ab12", decoded.getDescriptionDigest());
+        assertEquals(5000, decoded.getDescriptionLength());
+        assertEquals("cd34", decoded.getFindingsDigest());
+        assertEquals(7000, decoded.getFindingsLength());
+        assertEquals("ef56", decoded.getPrivateDetailsHash());
+        assertEquals(1_700_000_500_000L, decoded.getLastUpdated());
+        assertEquals(ReportCodec.encodeToString(report), ReportCodec.encodeToString(decoded));
+    }
+
+    @Test
+    void decodesEscapesAndNonAsciiText() {
+        WhistleblowerReport report = sample("R1");
+        assertEquals(report.getDescription(), ReportCodec.decode(ReportCodec.encode(report)).getDescription());
+
+        String escaped = "{\"id\":\"R\\u00e9\\n\",\"status\":\"CLOSED\",\"description\":\"\\ud83d\\ude00\\/\"}";
+        WhistleblowerReport decoded = ReportCodec.decode(escaped.getBytes(StandardCharsets.UTF_8));
+        assertEquals("Ré\n", decoded.getId());
+        assertEquals("😀/", decoded.getDescription());
+    }
+
+    @Test
+    void statusResolvesToTheSharedConstant() {
+        byte[] json = "{\"id\":\"R1\",\"status\":\"UNDER_INVESTIGATION\"}".getBytes(StandardCharsets.UTF_8);
+        assertSame(ReportStatus.UNDER_INVESTIGATION, ReportCodec.decode(json).getStatus());
+    }
+
+    @Test
+    void skipsUnknownFields() {
+        byte[] json = ("{\"extra\":{\"nested\":[1,2,{\"a\":null}]},\"id\":\"R1\",\"flag\":true,"
+                + "\"status\":\"CLOSED\",\"n\":-1.5e3}").getBytes(StandardCharsets.UTF_8);
+        WhistleblowerReport decoded = ReportCodec.decode(json);
+        assertEquals("R1", decoded.getId());
+        assertEquals(ReportStatus.CLOSED, decoded.getStatus());
+    }
+
+    @Test
+    void readsWhatGensonAndGsonWriteAndGsonReadsWhatItWrites() {
+        WhistleblowerReport report = sample("R1");
+        String expected = ReportCodec.encodeToString(report);
+
+        byte[] genson = new Genson().serialize(report).getBytes(StandardCharsets.UTF_8);
+        assertEquals(expected, ReportCodec.encodeToString(ReportCodec.decode(genson)));
+        byte[] gson = new Gson().toJson(report).getBytes(StandardCharsets.UTF_8);
+        assertEquals(expected, ReportCodec.encodeToString(ReportCodec.decode(gson)));
+
+        WhistleblowerReport viaGson = new Gson().fromJson(expected, WhistleblowerReport.class);
+        assertEquals(expected, ReportCodec.encodeToString(viaGson));
+    }
+
+    @Test
+    void writesFieldsInGensonsOrder() {
+        // Genson also writes the unset digests, lengths and hash, which the codec omits
+        WhistleblowerReport report = sample("R1");
+        String genson = new Genson().serialize(report)
+                .replaceAll(",\"[A-Za-z]+\":null", "")
+                .replace(",\"descriptionLength\":0", "")
+                .replace(",\"findingsLength\":0", "");
+        assertEquals(genson, ReportCodec.encodeToString(report));
+    }
+
+    @Test
+    void listsAndPagesRoundTripAndStream() {
+        List<WhistleblowerReport> reports = List.of(sample("R1"), sample("R2"), sample("R3"));
+        byte[] list = ReportCodec.encodeList(reports);
+
+        assertEquals(3, ReportCodec.decodeList(list).size());
+        assertEquals(List.of("R1", "R2", "R3"),
+                ReportCodec.streamList(list).map(WhistleblowerReport::getId).collect(Collectors.toList()));
+
+        ReportPage page = ReportCodec.decodePage(ReportCodec.encodePageToString(
+                new ReportPage(reports, "next", 4)).getBytes(StandardCharsets.UTF_8));
+        assertEquals("next", page.getBookmark());
+        assertEquals(4, page.getFetchedRecordsCount());
+        assertEquals("R2", page.getRecords().get(1).getId());
+
+        ReportSummaryPage summaries = ReportCodec.decodeSummaryPage(ReportCodec.encodeSummaryPageToString(
+                new ReportPage(reports, "", 3)).getBytes(StandardCharsets.UTF_8));
+        assertEquals(3, summaries.getRecords().size());
+        assertEquals(ReportStatus.PENDING_REVIEW, summaries.getRecords().get(0).getStatus());
+    }
+
+    @Test
+    void streamsDecodeEachElementOnlyWhenItIsConsumed() {
+        String list = "[" + ReportCodec.encodeToString(sample("R1")) + " , "
+                + ReportCodec.encodeToString(sample("R2")) + ", {\"id\": }]";
+        byte[] bytes = list.getBytes(StandardCharsets.UTF_8);
+
+        assertEquals("R1", ReportCodec.streamList(bytes).findFirst().get().getId());
+        assertEquals(List.of("R1", "R2"),
+                ReportCodec.streamList(bytes).limit(2).map(WhistleblowerReport::getId).collect(Collectors.toList()));
+
+        List<String> visited = new ArrayList<>();
+        assertThrows(RuntimeException.class,
+                () -> ReportCodec.forEachInList(bytes, report -> visited.add(report.getId())));
+        assertEquals(List.of("R1", "R2"), visited);
+    }
+
+    @Test
+    void streamsEmptyAndNullLists() {
+        assertEquals(0, ReportCodec.streamList(" [ ] ".getBytes(StandardCharsets.UTF_8)).count());
+        assertEquals(0, ReportCodec.streamList("null".getBytes(StandardCharsets.UTF_8)).count());
+        assertThrows(RuntimeException.class,
+                () -> ReportCodec.streamList("[] []".getBytes(StandardCharsets.UTF_8)).count());
+        assertThrows(RuntimeException.class,
+                () -> ReportCodec.forEachInList("{}".getBytes(StandardCharsets.UTF_8), report -> {
+                }));
+    }
+
+    @Test
+    void rejectsMalformedInput() {
+        assertThrows(RuntimeException.class,
+                () -> ReportCodec.decode("{\"id\":\"R1\"".getBytes(StandardCharsets.UTF_8)));
+        assertThrows(RuntimeException.class,
+                () -> ReportCodec.decode("{\"id\":\"R1\"} trailing".getBytes(StandardCharsets.UTF_8)));
+    }
+}
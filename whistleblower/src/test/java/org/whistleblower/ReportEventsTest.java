@@ -0,0 +1,86 @@
+package org.whistleblower;
+
+import org.hyperledger.fabric.shim.ledger.CompositeKey;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReportEventsTest {
+
+    private static String key(final ReportEvents.Type type, final long timestamp) {
+        return new CompositeKey(ReportEvents.OBJECT_TYPE,
+                ReportEvents.keyAttributes("R1", timestamp, "tx1", type)).toString();
+    }
+
+    @Test
+    void decodesTheKeyTheContractWrites() {
+        String key = key(ReportEvents.Type.ASSIGNMENT, 42);
+        ReportEvents.Event event = ReportEvents.decode(key, ReportEvents.encodeValue("inv-1"));
+
+        assertTrue(ReportEvents.isEventKey(key));
+        assertEquals("R1", event.getReportId());
+        assertEquals(42, event.getTimestamp());
+        assertEquals("tx1", event.getTxId());
+        assertEquals(ReportEvents.Type.ASSIGNMENT, event.getType());
+        assertEquals("inv-1", event.getValue());
+        assertNull(event.getTextDigest());
+    }
+
+    @Test
+    void keyOrderIsTimeOrder() {
+        assertTrue(key(ReportEvents.Type.DECISION, 9).compareTo(key(ReportEvents.Type.ASSIGNMENT, 10)) < 0);
+    }
+
+    @Test
+    void emptyValueIsNotAnEmptyWrite() {
+        byte[] value = ReportEvents.encodeValue("");
+        assertEquals(1, value.length);
+        assertEquals("", ReportEvents.decode(key(ReportEvents.Type.DECISION, 1), value).getValue());
+    }
+
+    @Test
+    void rejectsOtherKeys() {
+        String statusKey = new CompositeKey("status~id", "CLOSED", "R1").toString();
+        assertFalse(ReportEvents.isEventKey(statusKey));
+        assertFalse(ReportEvents.isEventKey("R1"));
+        assertThrows(IllegalArgumentException.class, () -> ReportEvents.decode(statusKey, new byte[0]));
+    }
+
+    @Test
+    void inlineFindingsKeepTheDescriptionReference() {
+        WhistleblowerReport report = WhistleblowerReportTest.everyFieldSet();
+        report.setStatus(ReportStatus.UNDER_INVESTIGATION);
+        WhistleblowerReport updated = WhistleblowerReport.copyOf(report);
+
+        ReportEvents.apply(updated, ReportEvents.decode(key(ReportEvents.Type.FINDINGS, 99),
+                ReportEvents.encodeValue("short findings")));
+
+        assertEquals(ReportStatus.PENDING_REVIEW, updated.getStatus());
+        assertEquals("short findings", updated.getFindings());
+        assertNull(updated.getFindingsDigest());
+        assertEquals(0, updated.getFindingsLength());
+        assertEquals(99, updated.getLastUpdated());
+        assertEquals("description-digest", updated.getDescriptionDigest());
+        assertEquals(5000, updated.getDescriptionLength());
+        assertEquals("private-hash", updated.getPrivateDetailsHash());
+    }
+
+    @Test
+    void referencedFindingsCarryTheirDigestAndLength() {
+        WhistleblowerReport report = WhistleblowerReportTest.everyFieldSet();
+        ReportEvents.Event event = ReportEvents.decode(key(ReportEvents.Type.FINDINGS, 99),
+                ReportEvents.encodeTextReference("abc:def", 70000));
+
+        assertEquals("abc:def", event.getTextDigest());
+        assertEquals(70000, event.getTextLength());
+        ReportEvents.apply(report, event);
+        assertNull(report.getFindings());
+        assertEquals("abc:def", report.getFindingsDigest());
+        assertEquals(70000, report.getFindingsLength());
+        assertEquals("description-digest", report.getDescriptionDigest());
+    }
+}
@@ -0,0 +1,131 @@
+package org.whistleblower;
+
+import org.hyperledger.fabric.shim.ChaincodeException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReportPrivateDetailsTest {
+
+    private final ContractFixture ledger = new ContractFixture();
+
+    private WhistleblowerReport submitPrivately(final String id, final ReportPrivateDetails details) {
+        ledger.tx();
+        ledger.stub.setTransient(details.toTransient());
+        return ReportCodec.decode(ledger.contract.submitReport(ledger.ctx, id, "", "Finance", "")
+                .getBytes(StandardCharsets.UTF_8));
+    }
+
+    private ReportPrivateDetails stored(final String id) {
+        return ReportPrivateDetails.decode(ledger.stub.getPrivateData(ReportPrivateDetails.COLLECTION, id));
+    }
+
+    private static String errorCode(final ChaincodeException e) {
+        return new String(e.getPayload(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void encodingRoundTripsAndReadsUnsaltedRecords() {
+        ReportPrivateDetails details = new ReportPrivateDetails("Fraud \"here\"", "Jane", "00ff");
+        ReportPrivateDetails decoded = ReportPrivateDetails.decode(details.encode());
+        assertEquals("Fraud \"here\"", decoded.getDescription());
+        assertEquals("Jane", decoded.getSubmittedBy());
+        assertEquals("00ff", decoded.getSalt());
+        assertEquals(details.hash(), decoded.hash());
+
+        ReportPrivateDetails unsalted = ReportPrivateDetails.decode(
+                "{\"description\":\"d\",\"submittedBy\":\"s\"}".getBytes(StandardCharsets.UTF_8));
+        assertNull(unsalted.getSalt());
+        assertEquals("{\"description\":\"d\",\"submittedBy\":\"s\"}",
+                new String(unsalted.encode(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void newSaltsAreRandomHex() {
+        String salt = ReportPrivateDetails.newSalt();
+        assertEquals(ReportPrivateDetails.SALT_LENGTH, salt.length());
+        assertTrue(salt.matches("[0-9a-f]+"));
+        assertNotEquals(salt, ReportPrivateDetails.newSalt());
+    }
+
+    @Test
+    void transientDetailsAreSaltedAndKeptOutOfWorldState() {
+        ReportPrivateDetails details = new ReportPrivateDetails("Fraud", "Jane", ReportPrivateDetails.newSalt());
+        WhistleblowerReport report = submitPrivately("R1", details);
+
+        assertNull(report.getDescription());
+        assertNull(report.getSubmittedBy());
+        assertEquals(details.hash(), report.getPrivateDetailsHash());
+        assertEquals(details.getSalt(), stored("R1").getSalt());
+        assertNotEquals(new ReportPrivateDetails("Fraud", "Jane", null).hash(), report.getPrivateDetailsHash());
+
+        WhistleblowerReport detail = ReportCodec.decode(ledger.contract.getReportDetail(ledger.tx(), "R1")
+                .getBytes(StandardCharsets.UTF_8));
+        assertEquals("Fraud", detail.getDescription());
+        assertEquals("Jane", detail.getSubmittedBy());
+    }
+
+    @Test
+    void identicalDetailsHashDifferently() {
+        WhistleblowerReport first = submitPrivately("R1",
+                new ReportPrivateDetails("Fraud", "Jane", ReportPrivateDetails.newSalt()));
+        WhistleblowerReport second = submitPrivately("R2",
+                new ReportPrivateDetails("Fraud", "Jane", ReportPrivateDetails.newSalt()));
+        assertNotEquals(first.getPrivateDetailsHash(), second.getPrivateDetailsHash());
+    }
+
+    @Test
+    void transientDetailsWithoutAFullSaltAreRejected() {
+        Map<String, byte[]> transientData = new HashMap<>(
+                new ReportPrivateDetails("Fraud", "Jane", "short").toTransient());
+        ledger.tx();
+        ledger.stub.setTransient(transientData);
+        ChaincodeException shortSalt = assertThrows(ChaincodeException.class,
+                () -> ledger.contract.submitReport(ledger.ctx, "R1", "", "Finance", ""));
+        assertEquals("INVALID_REPORT", errorCode(shortSalt));
+
+        transientData.remove(ReportPrivateDetails.TRANSIENT_SALT);
+        ledger.tx();
+        ledger.stub.setTransient(transientData);
+        ChaincodeException noSalt = assertThrows(ChaincodeException.class,
+                () -> ledger.contract.submitReport(ledger.ctx, "R1", "", "Finance", ""));
+        assertEquals("INVALID_REPORT", errorCode(noSalt));
+        assertFalse(ledger.contract.reportExists(ledger.tx(), "R1"));
+    }
+
+    @Test
+    void argumentDetailsAreSaltedWithTheTransactionId() {
+        ledger.submit("R1", "Finance");
+        assertEquals(ledger.stub.getTxId(), stored("R1").getSalt());
+        assertEquals(ReportText.digest(ledger.stub.getPrivateData(ReportPrivateDetails.COLLECTION, "R1")),
+                ledger.report("R1").getPrivateDetailsHash());
+    }
+
+    @Test
+    void batchItemsGetTheirOwnSalts() {
+        String batchSalt = ReportPrivateDetails.newSalt();
+        List<WhistleblowerReport> batch = List.of(
+                new WhistleblowerReport("R1", "Fraud", "Finance", "Jane", 0, null, null, null, null),
+                new WhistleblowerReport("R2", "Fraud", "Finance", "Jane", 0, null, null, null, null));
+        ledger.tx();
+        ledger.stub.setTransient(Map.of(
+                ReportPrivateDetails.TRANSIENT_REPORTS,
+                ReportCodec.encodeListToString(batch).getBytes(StandardCharsets.UTF_8),
+                ReportPrivateDetails.TRANSIENT_SALT, batchSalt.getBytes(StandardCharsets.UTF_8)));
+        ledger.contract.submitReports(ledger.ctx, "");
+
+        assertEquals(ReportPrivateDetails.batchItemSalt(batchSalt, "R1"), stored("R1").getSalt());
+        assertEquals(ReportPrivateDetails.batchItemSalt(batchSalt, "R2"), stored("R2").getSalt());
+        assertNotEquals(ledger.report("R1").getPrivateDetailsHash(), ledger.report("R2").getPrivateDetailsHash());
+    }
+}
@@ -0,0 +1,104 @@
+package org.whistleblower;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReportTextTest {
+
+    private static final String LONG_TEXT = "Invoices were split to stay under the approval threshold. "
+            .repeat(40);
+
+    private final ContractFixture ledger = new ContractFixture();
+
+    private List<String> textKeys() {
+        String prefix = ledger.stub.createCompositeKey(ReportText.OBJECT_TYPE).toString();
+        List<String> keys = new ArrayList<>();
+        for (String key : ledger.stub.getStateMap().keySet()) {
+            if (key.startsWith(prefix)) {
+                keys.add(key);
+            }
+        }
+        return keys;
+    }
+
+    private WhistleblowerReport detail(final String id) {
+        return ReportCodec.decode(ledger.contract.getReportDetail(ledger.tx(), id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void submitFindings(final String id, final String findings) {
+        ledger.submit(id, "Finance");
+        ledger.contract.assignInvestigator(ledger.tx(), id, "inv1");
+        ledger.contract.submitFindings(ledger.tx(), id, findings);
+    }
+
+    @Test
+    void longTextIsStoredOnceUnderItsDigest() {
+        submitFindings("R1", LONG_TEXT);
+        submitFindings("R2", LONG_TEXT);
+        submitFindings("R3", "Short findings");
+        String digest = ReportText.digest(LONG_TEXT.getBytes(StandardCharsets.UTF_8));
+
+        WhistleblowerReport summary = ledger.report("R1");
+        assertNull(summary.getFindings());
+        assertEquals(digest, summary.getFindingsDigest());
+        assertEquals(LONG_TEXT.length(), summary.getFindingsLength());
+        assertEquals(1, textKeys().size());
+        assertFalse(ledger.contract.getAllReports(ledger.tx()).contains("approval threshold"));
+
+        assertEquals(LONG_TEXT, detail("R2").getFindings());
+        assertEquals("Short findings", ledger.report("R3").getFindings());
+        assertNull(ledger.report("R3").getFindingsDigest());
+    }
+
+    @Test
+    void inlineDescriptionOfAnEarlierReportMovesOnItsNextWrite() {
+        WhistleblowerReport legacy = new WhistleblowerReport("R1", LONG_TEXT, "Finance", "anonymous",
+                ledger.now(), ReportStatus.SUBMITTED, "", "", "");
+        ledger.tx();
+        ledger.stub.putState("R1", ReportCodec.encode(legacy));
+        ledger.contract.assignInvestigator(ledger.tx(), "R1", "inv1");
+
+        WhistleblowerReport report = ledger.report("R1");
+        assertNull(report.getDescription());
+        assertEquals(ReportText.digest(LONG_TEXT.getBytes(StandardCharsets.UTF_8)), report.getDescriptionDigest());
+        assertEquals(LONG_TEXT, detail("R1").getDescription());
+    }
+
+    @Test
+    void longFindingsAreFetchedLazilyInEitherStorageMode() {
+        ledger.submit("R1", "Finance");
+        ledger.submit("R2", "Finance");
+        ledger.contract.assignInvestigator(ledger.tx(), "R1", "inv1");
+        ledger.contract.submitFindings(ledger.tx(), "R1", LONG_TEXT);
+
+        ledger.contract.setStorageMode(ledger.tx(), "EVENT_SOURCED");
+        ledger.contract.assignInvestigator(ledger.tx(), "R2", "inv1");
+        ledger.contract.submitFindings(ledger.tx(), "R2", LONG_TEXT + "More.");
+
+        for (String id : List.of("R1", "R2")) {
+            WhistleblowerReport report = ledger.report(id);
+            assertNull(report.getFindings());
+            assertTrue(report.getFindingsLength() > ReportText.INLINE_LIMIT);
+            assertTrue(detail(id).getFindings().startsWith(LONG_TEXT));
+        }
+        assertEquals(2, textKeys().size());
+    }
+
+    @Test
+    void missingTextFailsTheDetailReadOnly() {
+        submitFindings("R1", LONG_TEXT);
+        textKeys().forEach(ledger.stub::delState);
+
+        assertEquals(LONG_TEXT.length(), ledger.report("R1").getFindingsLength());
+        assertEquals("TEXT_NOT_FOUND", ContractFixture.errorCode(
+                () -> ledger.contract.getReportDetail(ledger.tx(), "R1")));
+    }
+}
@@ -0,0 +1,180 @@
+package org.whistleblower;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import org.hyperledger.fabric.contract.Context;
+import org.hyperledger.fabric.protos.peer.QueryResponseMetadata;
+import org.hyperledger.fabric.shim.ledger.KeyValue;
+import org.hyperledger.fabric.shim.ledger.QueryResultsIteratorWithMetadata;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.whistleblower.emulator.InMemoryChaincodeStub;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RichQueryTest {
+
+    private final ContractFixture ledger = new ContractFixture();
+
+    /**
+     * Answers rich queries as CouchDB does: the selector is matched against
+     * every JSON document in the namespace, whatever its key. Only equality
+     * and $gte are understood, which is all the contract's selectors use.
+     */
+    private static final class CouchDBStub extends InMemoryChaincodeStub {
+
+        @Override
+        public QueryResultsIteratorWithMetadata<KeyValue> getQueryResultWithPagination(final String query,
+                final int pageSize, final String bookmark) {
+            JsonObject selector = JsonParser.parseString(query).getAsJsonObject().getAsJsonObject("selector");
+            List<KeyValue> matches = new ArrayList<>();
+            for (Map.Entry<String, byte[]> entry : getStateMap().entrySet()) {
+                JsonElement document;
+                try {
+                    document = JsonParser.parseString(new String(entry.getValue(), StandardCharsets.UTF_8));
+                } catch (RuntimeException e) {
+                    continue;
+                }
+                if (document.isJsonObject() && matches(selector, document.getAsJsonObject())) {
+                    matches.add(keyValue(entry.getKey(), entry.getValue()));
+                }
+            }
+            return new QueryResultsIteratorWithMetadata<>() {
+                @Override
+                public QueryResponseMetadata getMetadata() {
+                    return null;
+                }
+
+                @Override
+                public Iterator<KeyValue> iterator() {
+                    return matches.iterator();
+                }
+
+                @Override
+                public void close() {
+                }
+            };
+        }
+
+        private static boolean matches(final JsonObject selector, final JsonObject document) {
+            for (Map.Entry<String, JsonElement> condition : selector.entrySet()) {
+                JsonElement value = document.get(condition.getKey());
+                if (value == null || value.isJsonNull()) {
+                    return false;
+                }
+                JsonElement expected = condition.getValue();
+                if (expected.isJsonObject()) {
+                    if (value.getAsDouble() < expected.getAsJsonObject().get("$gte").getAsDouble()) {
+                        return false;
+                    }
+                } else if (!expected.equals(value)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static KeyValue keyValue(final String key, final byte[] value) {
+            return new KeyValue() {
+                @Override
+                public String getKey() {
+                    return key;
+                }
+
+                @Override
+                public byte[] getValue() {
+                    return value;
+                }
+
+                @Override
+                public String getStringValue() {
+                    return new String(value, StandardCharsets.UTF_8);
+                }
+            };
+        }
+    }
+
+    @BeforeEach
+    void submitReports() {
+        ledger.submit("R1", "Finance");
+        ledger.submit("R2", "Finance");
+        ledger.submit("R3", "Legal");
+    }
+
+    private static List<String> ids(final ReportPage page) {
+        return page.getRecords().stream().map(WhistleblowerReport::getId).collect(Collectors.toList());
+    }
+
+    private static ReportPage page(final String json) {
+        return ReportCodec.decodePage(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void snapshotModeQueriesCouchDB() {
+        assertThrows(UnsupportedOperationException.class,
+                () -> ledger.contract.queryReportsByStatus(ledger.tx(), "SUBMITTED", 10, ""));
+    }
+
+    @Test
+    void eventSourcedModeFindsReportsMovedByEvents() {
+        ledger.contract.setStorageMode(ledger.tx(), "EVENT_SOURCED");
+        ledger.advance("R2", ReportStatus.UNDER_INVESTIGATION);
+
+        assertEquals(List.of("R2"), ids(page(
+                ledger.contract.queryReportsByStatus(ledger.tx(), "UNDER_INVESTIGATION", 10, ""))));
+        assertEquals(List.of("R1", "R3"), ids(page(
+                ledger.contract.queryReportsByStatus(ledger.tx(), "SUBMITTED", 10, ""))));
+        assertEquals(List.of("R2"), ids(page(
+                ledger.contract.queryReportsByInvestigator(ledger.tx(), "inv-R2", 10, ""))));
+        assertEquals(List.of("R1", "R2"), ids(page(
+                ledger.contract.queryReportsByDepartment(ledger.tx(), "Finance", 10, ""))));
+    }
+
+    @Test
+    void eventSourcedPagesFollowTheirBookmarks() {
+        ledger.contract.setStorageMode(ledger.tx(), "EVENT_SOURCED");
+        ledger.advance("R1", ReportStatus.PENDING_REVIEW);
+        ledger.advance("R3", ReportStatus.PENDING_REVIEW);
+
+        List<String> found = new ArrayList<>();
+        String bookmark = "";
+        do {
+            ReportPage page = page(ledger.contract.queryReportsByStatus(ledger.tx(), "PENDING_REVIEW", 1, bookmark));
+            found.addAll(ids(page));
+            bookmark = page.getBookmark();
+        } while (!bookmark.isEmpty());
+        assertEquals(List.of("R1", "R3"), found);
+    }
+
+    @Test
+    void snapshotQueriesNeverReturnArchivedReports() {
+        ledger.contract.setArchiveAfterDays(ledger.tx(), 30);
+        ledger.advance("R1", ReportStatus.CLOSED);
+        ledger.advance("R2", ReportStatus.CLOSED);
+        ledger.at(ContractFixture.START + 40 * ContractFixture.DAY);
+        ledger.contract.archiveClosedReports(ledger.tx(), "[\"R1\"]");
+
+        CouchDBStub couchDB = new CouchDBStub();
+        couchDB.nextTransaction("query", Instant.ofEpochMilli(ledger.now() + 1000));
+        couchDB.getStateMap().putAll(ledger.stub.getStateMap());
+        Context ctx = new Context(couchDB);
+
+        assertEquals(List.of("R2"), ids(page(ledger.contract.queryReportsByStatus(ctx, "CLOSED", 10, ""))));
+        assertEquals(List.of(), ids(page(ledger.contract.queryReportsByInvestigator(ctx, "inv-R1", 10, ""))));
+        assertEquals(List.of("R2"), ids(page(ledger.contract.queryReportsByInvestigator(ctx, "inv-R2", 10, ""))));
+        assertEquals(List.of("R2"), ids(page(ledger.contract.queryReportsByDepartment(ctx, "Finance", 10, ""))));
+        assertEquals(ReportStatus.CLOSED, ReportCodec.decode(ledger.contract.getArchivedReport(ctx, "R1")
+                .getBytes(StandardCharsets.UTF_8)).getStatus());
+    }
+}
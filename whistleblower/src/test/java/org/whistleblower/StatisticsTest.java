@@ -0,0 +1,124 @@
+package org.whistleblower;
+
+import com.google.gson.Gson;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StatisticsTest {
+
+    private static final Gson gson = new Gson();
+
+    private final ContractFixture ledger = new ContractFixture();
+
+    private ReportStatistics statistics() {
+        return gson.fromJson(ledger.contract.getReportStatistics(ledger.tx()), ReportStatistics.class);
+    }
+
+    private List<String> keys(final String objectType) {
+        String prefix = ledger.stub.createCompositeKey(objectType).toString();
+        List<String> keys = new ArrayList<>();
+        for (String key : ledger.stub.getStateMap().keySet()) {
+            if (key.startsWith(prefix)) {
+                keys.add(key);
+            }
+        }
+        return keys;
+    }
+
+    private void lifecycle() {
+        ledger.submit("R1", "Finance");
+        ledger.submit("R2", "Procurement");
+        ledger.submit("R3", "Finance");
+        ledger.advance("R1", ReportStatus.UNDER_INVESTIGATION);
+        ledger.advance("R2", ReportStatus.CLOSED);
+    }
+
+    @Test
+    void countsFollowEveryTransition() {
+        lifecycle();
+        ReportStatistics statistics = statistics();
+
+        assertEquals(3, statistics.getTotal());
+        assertEquals(Map.of("SUBMITTED", 1L, "UNDER_INVESTIGATION", 1L, "CLOSED", 1L), statistics.getByStatus());
+        assertEquals(Map.of("Finance", 2L, "Procurement", 1L), statistics.getByDepartment());
+        assertEquals(ledger.now(), statistics.getAsOf());
+        // Groups come in status order, then by department
+        assertEquals(List.of("SUBMITTED Finance", "UNDER_INVESTIGATION Finance", "CLOSED Procurement"),
+                statistics.getGroups().stream().map(group -> group.getStatus() + " " + group.getDepartment())
+                        .toList());
+    }
+
+    @Test
+    void agesAreBucketedByDaysSinceSubmission() {
+        long start = ContractFixture.START;
+        ledger.contract.submitReport(ledger.at(start), "R1", "Description", "Finance", "anonymous");
+        ledger.contract.submitReport(ledger.at(start + 300 * ContractFixture.DAY), "R2", "Description", "Finance",
+                "anonymous");
+        ledger.contract.submitReport(ledger.at(start + 395 * ContractFixture.DAY), "R3", "Description", "Finance",
+                "anonymous");
+        ledger.contract.submitReport(ledger.at(start + 399 * ContractFixture.DAY), "R4", "Description", "Finance",
+                "anonymous");
+        ledger.at(start + 400 * ContractFixture.DAY);
+
+        ReportStatistics.Group group = gson.fromJson(ledger.contract.getReportStatistics(ledger.ctx),
+                ReportStatistics.class).getGroups().get(0);
+        // Aged 400, 100, 5 and 1 days
+        assertArrayEquals(new long[] {2, 0, 0, 1, 0, 1}, group.getAgeCounts());
+        assertEquals(4, group.getCount());
+    }
+
+    @Test
+    void rollupFoldsDeltasIntoCountersWithoutChangingTheAnswer() {
+        lifecycle();
+        ReportStatistics before = statistics();
+        int deltas = keys(WhistleblowerContract.STATS_DELTA).size();
+        assertTrue(deltas > 3);
+
+        assertEquals(deltas, ledger.contract.rollupReportStatistics(ledger.tx()));
+        assertEquals(List.of(), keys(WhistleblowerContract.STATS_DELTA));
+        // One counter per status, department and day still holding reports
+        assertEquals(3, keys(WhistleblowerContract.STATS_COUNTER).size());
+        assertEquals(before.getByStatus(), statistics().getByStatus());
+        assertEquals(before.getByDepartment(), statistics().getByDepartment());
+        assertEquals(0, ledger.contract.rollupReportStatistics(ledger.tx()));
+
+        ledger.advance("R3", ReportStatus.UNDER_INVESTIGATION);
+        assertEquals(Map.of("UNDER_INVESTIGATION", 2L, "CLOSED", 1L), statistics().getByStatus());
+        ledger.contract.rollupReportStatistics(ledger.tx());
+        assertEquals(2, keys(WhistleblowerContract.STATS_COUNTER).size());
+    }
+
+    @Test
+    void pendingEventSourcedTransitionsAreCounted() {
+        ledger.contract.setStorageMode(ledger.tx(), "EVENT_SOURCED");
+        ledger.submit("R1", "Finance");
+        ledger.submit("R2", "Finance");
+        ledger.contract.assignInvestigator(ledger.tx(), "R1", "inv1");
+
+        assertEquals(Map.of("SUBMITTED", 1L, "UNDER_INVESTIGATION", 1L), statistics().getByStatus());
+        ledger.contract.compactReport(ledger.tx(), "R1");
+        assertEquals(Map.of("SUBMITTED", 1L, "UNDER_INVESTIGATION", 1L), statistics().getByStatus());
+    }
+
+    @Test
+    void rebuildRecountsFromTheReports() {
+        lifecycle();
+        ReportStatistics before = statistics();
+        ledger.tx();
+        keys(WhistleblowerContract.STATS_DELTA).forEach(ledger.stub::delState);
+        assertEquals(0, statistics().getTotal());
+
+        ledger.contract.rebuildIndexes(ledger.tx());
+        assertEquals(before.getByStatus(), statistics().getByStatus());
+        assertEquals(before.getByDepartment(), statistics().getByDepartment());
+        assertEquals(List.of(), keys(WhistleblowerContract.STATS_DELTA));
+    }
+}
@@ -0,0 +1,105 @@
+package org.whistleblower;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SummaryTest {
+
+    private final ContractFixture ledger = new ContractFixture();
+
+    private static List<ReportSummary> summaries(final String json) {
+        return ReportCodec.decodeSummaryList(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static List<String> summaryIds(final String json) {
+        return summaries(json).stream().map(ReportSummary::getId).sorted().collect(Collectors.toList());
+    }
+
+    private static List<String> reportIds(final String json) {
+        return ReportCodec.decodeList(json.getBytes(StandardCharsets.UTF_8)).stream()
+                .map(WhistleblowerReport::getId).sorted().collect(Collectors.toList());
+    }
+
+    private void lifecycle() {
+        ledger.submit("R1", "Finance");
+        ledger.submit("R2", "Procurement");
+        ledger.submit("R3", "Finance");
+        ledger.advance("R1", ReportStatus.UNDER_INVESTIGATION);
+        ledger.advance("R2", ReportStatus.CLOSED);
+    }
+
+    @Test
+    void summariesCarryTheListFieldsAndNoText() {
+        lifecycle();
+        String json = ledger.contract.getAllReportSummaries(ledger.tx());
+
+        assertFalse(json.contains("Description of"));
+        assertFalse(json.contains("Findings for"));
+        assertFalse(json.contains("anonymous"));
+        assertTrue(json.length() < ledger.contract.getAllReports(ledger.tx()).length());
+
+        List<ReportSummary> rows = summaries(json);
+        assertEquals(3, rows.size());
+        for (ReportSummary row : rows) {
+            WhistleblowerReport report = ledger.report(row.getId());
+            assertEquals(report.getDepartment(), row.getDepartment());
+            assertEquals(report.getStatus(), row.getStatus());
+            assertEquals(report.getInvestigatorId(), row.getInvestigatorId());
+            assertEquals(report.getLeadershipDecision(), row.getLeadershipDecision());
+            assertEquals(report.getLastUpdated(), row.getLastUpdated());
+        }
+    }
+
+    @Test
+    void summaryQueriesFindWhatTheirFullCounterpartsFind() {
+        lifecycle();
+
+        for (ReportStatus status : ReportStatus.values()) {
+            assertEquals(reportIds(ledger.contract.getReportsByStatus(ledger.tx(), status.toString())),
+                    summaryIds(ledger.contract.getReportSummariesByStatus(ledger.tx(), status.toString())));
+        }
+        assertEquals(List.of("R1"), summaryIds(ledger.contract.getReportSummariesByInvestigator(ledger.tx(),
+                "inv-R1")));
+        assertEquals(List.of("R1", "R3"), summaryIds(ledger.contract.getReportSummariesByDepartment(ledger.tx(),
+                "Finance")));
+        assertEquals(List.of(), summaryIds(ledger.contract.getReportSummariesByDepartment(ledger.tx(), "Legal")));
+        assertEquals("INVALID_STATUS", ContractFixture.errorCode(
+                () -> ledger.contract.getReportSummariesByStatus(ledger.tx(), "ESCALATED")));
+    }
+
+    @Test
+    void summaryPagesShareTheFullPagesBookmarks() {
+        for (int i = 0; i < 5; i++) {
+            ledger.submit("R" + i, "Finance");
+        }
+
+        String bookmark = "";
+        int pages = 0;
+        do {
+            ReportPage full = ReportCodec.decodePage(ledger.contract
+                    .getAllReportsWithPagination(ledger.tx(), 2, bookmark).getBytes(StandardCharsets.UTF_8));
+            ReportSummaryPage page = ReportCodec.decodeSummaryPage(ledger.contract
+                    .getAllReportSummariesWithPagination(ledger.tx(), 2, bookmark).getBytes(StandardCharsets.UTF_8));
+
+            assertEquals(full.getBookmark(), page.getBookmark());
+            assertEquals(full.getFetchedRecordsCount(), page.getFetchedRecordsCount());
+            assertEquals(full.getRecords().stream().map(WhistleblowerReport::getId).collect(Collectors.toList()),
+                    page.getRecords().stream().map(ReportSummary::getId).collect(Collectors.toList()));
+            bookmark = page.getBookmark();
+            pages++;
+        } while (!bookmark.isEmpty() && pages < 10);
+        assertEquals(3, pages);
+
+        ReportSummaryPage submitted = ReportCodec.decodeSummaryPage(ledger.contract
+                .getReportSummariesByStatusWithPagination(ledger.tx(), "SUBMITTED", 10, "")
+                .getBytes(StandardCharsets.UTF_8));
+        assertEquals(5, submitted.getRecords().size());
+    }
+}
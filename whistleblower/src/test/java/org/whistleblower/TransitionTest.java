@@ -0,0 +1,159 @@
+package org.whistleblower;
+
+import org.bouncycastle.asn1.ASN1ObjectIdentifier;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.hyperledger.fabric.contract.Context;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.util.Base64;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TransitionTest {
+
+    private final ContractFixture ledger = new ContractFixture();
+
+    /**
+     * A caller certificate carrying the given investigatorId attribute, as
+     * the Fabric CA issues one
+     */
+    private static String certificateFor(final String investigatorId) throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(256);
+        KeyPair keys = generator.generateKeyPair();
+        X500Name subject = new X500Name("CN=" + investigatorId);
+        byte[] attributes = ("{\"attrs\":{\"" + WhistleblowerContract.INVESTIGATOR_ATTRIBUTE + "\":\""
+                + investigatorId + "\"}}").getBytes(StandardCharsets.UTF_8);
+        byte[] der = new JcaX509CertificateConverter().getCertificate(
+                new JcaX509v3CertificateBuilder(subject, BigInteger.ONE, new Date(),
+                        new Date(System.currentTimeMillis() + 86_400_000L), subject, keys.getPublic())
+                        .addExtension(new ASN1ObjectIdentifier("1.2.3.4.5.6.7.8.1"), false, attributes)
+                        .build(new JcaContentSignerBuilder("SHA256withECDSA").build(keys.getPrivate())))
+                .getEncoded();
+        return "-----BEGIN CERTIFICATE-----\n"
+                + Base64.getMimeEncoder(64, "\n".getBytes(StandardCharsets.US_ASCII)).encodeToString(der)
+                + "\n-----END CERTIFICATE-----\n";
+    }
+
+    /**
+     * The next transaction, submitted by an investigator
+     */
+    private Context as(final String investigatorId) throws Exception {
+        ledger.tx();
+        ledger.stub.setCertificate(certificateFor(investigatorId));
+        return new Context(ledger.stub);
+    }
+
+    @Test
+    void eachTransitionNeedsItsStatus() {
+        ledger.submit("R1", "Finance");
+        ledger.advance("R1", ReportStatus.PENDING_REVIEW);
+        ledger.submit("R2", "Finance");
+        long lastUpdated = ledger.report("R1").getLastUpdated();
+
+        assertEquals("INVALID_TRANSITION", ContractFixture.errorCode(
+                () -> ledger.contract.assignInvestigator(ledger.tx(), "R1", "inv2")));
+        assertEquals("INVALID_TRANSITION", ContractFixture.errorCode(
+                () -> ledger.contract.submitFindings(ledger.tx(), "R2", "Early")));
+        assertEquals("INVALID_TRANSITION", ContractFixture.errorCode(
+                () -> ledger.contract.submitLeadershipReview(ledger.tx(WhistleblowerContract.DOE_MSP_ID), "R2",
+                        "Approved")));
+        assertEquals("REPORT_NOT_FOUND", ContractFixture.errorCode(
+                () -> ledger.contract.assignInvestigator(ledger.tx(), "missing", "inv1")));
+        assertEquals("INVALID_REPORT", ContractFixture.errorCode(
+                () -> ledger.contract.assignInvestigator(ledger.tx(), "R2", "")));
+
+        WhistleblowerReport r1 = ledger.report("R1");
+        assertEquals(ReportStatus.PENDING_REVIEW, r1.getStatus());
+        assertEquals("inv-R1", r1.getInvestigatorId());
+        assertEquals(lastUpdated, r1.getLastUpdated());
+        assertEquals(ReportStatus.SUBMITTED, ledger.report("R2").getStatus());
+    }
+
+    @Test
+    void findingsComeOnlyFromTheAssignedInvestigator() {
+        ledger.submit("R1", "Finance");
+        ledger.contract.assignInvestigator(ledger.tx(), "R1", "inv1");
+
+        assertEquals("NOT_ASSIGNED_INVESTIGATOR", ContractFixture.errorCode(
+                () -> ledger.contract.submitInvestigatorFindings(ledger.tx(), "R1", "inv2", "Findings")));
+        assertEquals("INVALID_REPORT", ContractFixture.errorCode(
+                () -> ledger.contract.submitInvestigatorFindings(ledger.tx(), "R1", "", "Findings")));
+        assertEquals(ReportStatus.UNDER_INVESTIGATION, ledger.report("R1").getStatus());
+
+        WhistleblowerReport report = ReportCodec.decode(ledger.contract.submitInvestigatorFindings(ledger.tx(), "R1",
+                "inv1", "Findings").getBytes(StandardCharsets.UTF_8));
+        assertEquals(ReportStatus.PENDING_REVIEW, report.getStatus());
+        assertEquals("Findings", report.getFindings());
+    }
+
+    @Test
+    void callerInvestigatorAttributeMustMatchTheAssignment() throws Exception {
+        ledger.submit("R1", "Finance");
+        ledger.contract.assignInvestigator(ledger.tx(), "R1", "inv1");
+
+        Context intruder = as("inv2");
+        assertEquals("NOT_ASSIGNED_INVESTIGATOR", ContractFixture.errorCode(
+                () -> ledger.contract.submitFindings(intruder, "R1", "Findings")));
+
+        WhistleblowerReport report = ReportCodec.decode(ledger.contract.submitFindings(as("inv1"), "R1",
+                "Findings").getBytes(StandardCharsets.UTF_8));
+        assertEquals(ReportStatus.PENDING_REVIEW, report.getStatus());
+    }
+
+    @Test
+    void assignmentsAndFindingsComeOnlyFromDoGE() {
+        ledger.submit("R1", "Finance");
+        ledger.submit("R2", "Finance");
+
+        assertEquals("CALLER_NOT_AUTHORIZED", ContractFixture.errorCode(() -> ledger.contract.assignInvestigator(
+                ledger.tx(WhistleblowerContract.DOE_MSP_ID), "R1", "inv1")));
+        assertEquals("CALLER_NOT_AUTHORIZED", ContractFixture.errorCode(() -> ledger.contract.assignInvestigators(
+                ledger.tx("Org1MSP"), "[{\"reportId\":\"R2\",\"investigatorId\":\"inv1\"}]")));
+        assertEquals(ReportStatus.SUBMITTED, ledger.report("R1").getStatus());
+
+        ledger.contract.assignInvestigator(ledger.tx(), "R1", "inv1");
+        assertEquals("CALLER_NOT_AUTHORIZED", ContractFixture.errorCode(() -> ledger.contract.submitFindings(
+                ledger.tx(WhistleblowerContract.DOE_MSP_ID), "R1", "Findings")));
+        assertEquals("CALLER_NOT_AUTHORIZED", ContractFixture.errorCode(
+                () -> ledger.contract.submitInvestigatorFindings(ledger.tx(WhistleblowerContract.DOE_MSP_ID), "R1",
+                        "inv1", "Findings")));
+        assertEquals(ReportStatus.UNDER_INVESTIGATION, ledger.report("R1").getStatus());
+    }
+
+    @Test
+    void leadershipDecisionsComeOnlyFromDoE() {
+        ledger.submit("R1", "Finance");
+        ledger.advance("R1", ReportStatus.PENDING_REVIEW);
+
+        assertEquals("CALLER_NOT_AUTHORIZED", ContractFixture.errorCode(
+                () -> ledger.contract.submitLeadershipReview(ledger.tx(), "R1", "Approved")));
+        assertEquals(ReportStatus.PENDING_REVIEW, ledger.report("R1").getStatus());
+
+        assertEquals(ReportStatus.CLOSED, ReportCodec.decode(ledger.contract.submitLeadershipReview(
+                ledger.tx(WhistleblowerContract.DOE_MSP_ID), "R1", "Approved").getBytes(StandardCharsets.UTF_8))
+                .getStatus());
+    }
+
+    @Test
+    void eventSourcedTransitionsAreCheckedAgainstTheirEvents() {
+        ledger.contract.setStorageMode(ledger.tx(), "EVENT_SOURCED");
+        ledger.submit("R1", "Finance");
+        ledger.contract.assignInvestigator(ledger.tx(), "R1", "inv1");
+
+        assertEquals("INVALID_TRANSITION", ContractFixture.errorCode(
+                () -> ledger.contract.assignInvestigator(ledger.tx(), "R1", "inv2")));
+        assertEquals("NOT_ASSIGNED_INVESTIGATOR", ContractFixture.errorCode(
+                () -> ledger.contract.submitInvestigatorFindings(ledger.tx(), "R1", "inv2", "Findings")));
+        ledger.contract.submitInvestigatorFindings(ledger.tx(), "R1", "inv1", "Findings");
+        assertEquals(ReportStatus.PENDING_REVIEW, ledger.report("R1").getStatus());
+    }
+}
@@ -0,0 +1,70 @@
+package org.whistleblower;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class UpdatedSinceTest {
+
+    private final ContractFixture ledger = new ContractFixture();
+
+    private ReportPage page(final long since, final int pageSize, final String bookmark) {
+        return ReportCodec.decodePage(ledger.contract.getReportsUpdatedSince(ledger.tx(), since, pageSize, bookmark)
+                .getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static List<String> ids(final ReportPage page) {
+        return page.getRecords().stream().map(WhistleblowerReport::getId).collect(Collectors.toList());
+    }
+
+    @Test
+    void returnsEachReportOnceAtItsLatestUpdate() {
+        ledger.submit("R1", "Finance");
+        ledger.submit("R2", "Finance");
+        long r3Submitted = ledger.submit("R3", "Legal").getLastUpdated();
+        ledger.advance("R1", ReportStatus.UNDER_INVESTIGATION);
+
+        assertEquals(List.of("R2", "R3", "R1"), ids(page(0, 10, "")));
+        assertEquals(List.of("R3", "R1"), ids(page(r3Submitted, 10, "")));
+        assertEquals(List.of(), ids(page(ledger.now() + 1, 10, "")));
+        assertEquals("INVALID_PAGE_SIZE", ContractFixture.errorCode(
+                () -> ledger.contract.getReportsUpdatedSince(ledger.tx(), 0, 0, "")));
+    }
+
+    @Test
+    void pagesResumeFromTheBookmark() {
+        for (int i = 0; i < 5; i++) {
+            ledger.submit("R" + i, "Finance");
+        }
+
+        List<String> ids = new ArrayList<>();
+        String bookmark = "";
+        int pages = 0;
+        do {
+            ReportPage page = page(0, 2, bookmark);
+            ids.addAll(ids(page));
+            bookmark = page.getBookmark();
+            pages++;
+        } while (!bookmark.isEmpty() && pages < 10);
+        assertEquals(List.of("R0", "R1", "R2", "R3", "R4"), ids);
+        assertEquals(3, pages);
+    }
+
+    @Test
+    void entriesLeftBehindByEventSourcedTransitionsAreSkipped() {
+        ledger.contract.setStorageMode(ledger.tx(), "EVENT_SOURCED");
+        ledger.submit("R1", "Finance");
+        ledger.submit("R2", "Finance");
+        ledger.contract.assignInvestigator(ledger.tx(), "R1", "inv1");
+
+        ReportPage page = page(0, 10, "");
+        assertEquals(List.of("R2", "R1"), ids(page));
+        assertEquals(3, page.getFetchedRecordsCount());
+        assertEquals("inv1", page.getRecords().get(1).getInvestigatorId());
+    }
+}
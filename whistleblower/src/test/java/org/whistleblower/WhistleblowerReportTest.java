@@ -0,0 +1,46 @@
+package org.whistleblower;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+
+class WhistleblowerReportTest {
+
+    static WhistleblowerReport everyFieldSet() {
+        WhistleblowerReport report = new WhistleblowerReport("R1", "description", "Finance", "submitter",
+                1_700_000_000_000L, ReportStatus.PENDING_REVIEW, "inv-1", "findings", "decision");
+        report.setDescriptionDigest("description-digest");
+        report.setDescriptionLength(5000);
+        report.setFindingsDigest("findings-digest");
+        report.setFindingsLength(7000);
+        report.setPrivateDetailsHash("private-hash");
+        report.setLastUpdated(1_700_000_500_000L);
+        return report;
+    }
+
+    @Test
+    void copyOfCarriesEveryField() throws IllegalAccessException {
+        WhistleblowerReport report = everyFieldSet();
+        WhistleblowerReport copy = WhistleblowerReport.copyOf(report);
+
+        assertNotSame(report, copy);
+        for (Field field : WhistleblowerReport.class.getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers())) {
+                continue;
+            }
+            field.setAccessible(true);
+            // A field added without a value here would pass trivially
+            assertNotEquals(defaultValue(field.getType()), field.get(report), field.getName() + " is unset");
+            assertEquals(field.get(report), field.get(copy), field.getName());
+        }
+    }
+
+    private static Object defaultValue(final Class<?> type) {
+        return type == long.class ? Long.valueOf(0) : null;
+    }
+}
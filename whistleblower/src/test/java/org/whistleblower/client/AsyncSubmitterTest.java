@@ -0,0 +1,154 @@
+package org.whistleblower.client;
+
+import org.hyperledger.fabric.gateway.ContractException;
+import org.hyperledger.fabric.protos.peer.TransactionPackage.TxValidationCode;
+import org.hyperledger.fabric.sdk.ChaincodeResponse;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AsyncSubmitterTest {
+
+    private final FakeNetwork fabric = new FakeNetwork();
+    private final BlockingQueue<String> ordered = new LinkedBlockingQueue<>();
+
+    AsyncSubmitterTest() {
+        fabric.setEndorser((transactionId, name, args) -> {
+            ordered.add(transactionId);
+            return ("result of " + args[0]).getBytes(StandardCharsets.UTF_8);
+        });
+    }
+
+    private AsyncSubmitter submitter(final int maxInFlight, final long commitTimeoutMillis) {
+        return new AsyncSubmitter(fabric.contract, fabric.network, maxInFlight, commitTimeoutMillis);
+    }
+
+    private String nextOrdered() throws InterruptedException {
+        String transactionId = ordered.poll(5, TimeUnit.SECONDS);
+        assertNotNull(transactionId, "No transaction was sent to the orderer");
+        return transactionId;
+    }
+
+    private static Throwable failure(final CompletableFuture<byte[]> future) {
+        return assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS)).getCause();
+    }
+
+    @Test
+    void completesWithTheResultOnlyOnceCommitted() throws Exception {
+        AsyncSubmitter submitter = submitter(4, 10_000);
+        CompletableFuture<byte[]> result = submitter.submit("CreateReport", "R1");
+        String transactionId = nextOrdered();
+
+        assertFalse(result.isDone());
+        assertEquals(1, submitter.inFlight());
+        fabric.commit(transactionId, TxValidationCode.VALID);
+        assertArrayEquals("result of R1".getBytes(StandardCharsets.UTF_8), result.get(5, TimeUnit.SECONDS));
+        assertEquals(0, submitter.inFlight());
+    }
+
+    @Test
+    void rejectedCommitFailsWithItsValidationCode() throws Exception {
+        CompletableFuture<byte[]> result = submitter(4, 10_000).submit("AssignInvestigator", "R1", "inv1");
+        String transactionId = nextOrdered();
+        fabric.commit(transactionId, TxValidationCode.MVCC_READ_CONFLICT);
+
+        TransactionCommitException rejection = assertInstanceOf(TransactionCommitException.class, failure(result));
+        assertEquals(transactionId, rejection.getTransactionId());
+        assertEquals("MVCC_READ_CONFLICT", rejection.getValidationCode());
+        assertEquals("MVCC_READ_CONFLICT", AsyncSubmitter.outcome(new CompletionException(rejection)));
+    }
+
+    @Test
+    void fullWindowBlocksSubmittersUntilATransactionCommits() throws Exception {
+        AsyncSubmitter submitter = submitter(2, 10_000);
+        CompletableFuture<byte[]> first = submitter.submit("CreateReport", "R1");
+        submitter.submit("CreateReport", "R2");
+        String firstId = nextOrdered();
+        nextOrdered();
+
+        CompletableFuture<CompletableFuture<byte[]>> third = new CompletableFuture<>();
+        Thread.ofVirtual().start(() -> {
+            try {
+                third.complete(submitter.submit("CreateReport", "R3"));
+            } catch (InterruptedException e) {
+                third.completeExceptionally(e);
+            }
+        });
+        assertNull(ordered.poll(200, TimeUnit.MILLISECONDS));
+        assertFalse(third.isDone());
+        assertEquals(2, submitter.inFlight());
+
+        fabric.commit(firstId, TxValidationCode.VALID);
+        first.get(5, TimeUnit.SECONDS);
+        String thirdId = nextOrdered();
+        fabric.commit(thirdId, TxValidationCode.VALID);
+        assertArrayEquals("result of R3".getBytes(StandardCharsets.UTF_8),
+                third.get(5, TimeUnit.SECONDS).get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void endorsementFailuresAndMissingCommitEventsReleaseTheWindow() throws Exception {
+        ContractException endorsement = new ContractException("No valid proposal responses received");
+        fabric.setEndorser((transactionId, name, args) -> {
+            if (name.equals("SubmitFindings")) {
+                throw endorsement;
+            }
+            return new byte[0];
+        });
+        AsyncSubmitter submitter = submitter(1, 100);
+
+        Throwable rejected = failure(submitter.submit("SubmitFindings", "R1", "None"));
+        assertSame(endorsement, rejected);
+        assertEquals("ContractException", AsyncSubmitter.outcome(rejected));
+
+        Throwable timedOut = failure(submitter.submit("CreateReport", "R2"));
+        assertInstanceOf(TimeoutException.class, timedOut);
+        assertEquals("TimeoutException", AsyncSubmitter.outcome(timedOut));
+        assertEquals(0, submitter.inFlight());
+        assertEquals("ok", AsyncSubmitter.outcome(null));
+    }
+
+    @Test
+    void submitAndWaitReportsTheRejectionItsListenerSaw() throws Exception {
+        fabric.setEndorser((transactionId, name, args) -> {
+            fabric.commit(transactionId, TxValidationCode.ENDORSEMENT_POLICY_FAILURE);
+            // As the default commit handler fails on the same event
+            ContractException e = new ContractException("Transaction commit was rejected by peer");
+            e.setProposalResponses(List.of(TransactionRetrierTest.response(ChaincodeResponse.Status.SUCCESS, true)));
+            throw e;
+        });
+        AsyncSubmitter submitter = submitter(4, 10_000);
+
+        TransactionCommitException rejection = assertThrows(TransactionCommitException.class,
+                () -> submitter.submitAndWait(10_000, "CreateReport", "R1"));
+        assertEquals("ENDORSEMENT_POLICY_FAILURE", rejection.getValidationCode());
+        assertFalse(fabric.isListening(rejection.getTransactionId()));
+
+        // A failed send to the orderer is passed through unchanged
+        ContractException orderer = new ContractException("Failed to send transaction to the orderer",
+                new IllegalStateException("UNAVAILABLE"));
+        orderer.setProposalResponses(List.of(TransactionRetrierTest.response(ChaincodeResponse.Status.SUCCESS, true)));
+        fabric.setEndorser((transactionId, name, args) -> {
+            throw orderer;
+        });
+        assertSame(orderer, assertThrows(ContractException.class,
+                () -> submitter.submitAndWait(10_000, "CreateReport", "R2")));
+    }
+}
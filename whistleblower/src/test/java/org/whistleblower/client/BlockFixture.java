@@ -0,0 +1,163 @@
+package org.whistleblower.client;
+
+import com.google.protobuf.ByteString;
+
+import org.hyperledger.fabric.protos.common.Common;
+import org.hyperledger.fabric.protos.ledger.rwset.Rwset;
+import org.hyperledger.fabric.protos.ledger.rwset.kvrwset.KvRwset;
+import org.hyperledger.fabric.protos.peer.EventsPackage;
+import org.hyperledger.fabric.protos.peer.ProposalPackage;
+import org.hyperledger.fabric.protos.peer.ProposalResponsePackage;
+import org.hyperledger.fabric.protos.peer.TransactionPackage;
+import org.hyperledger.fabric.protos.peer.TransactionPackage.TxValidationCode;
+import org.hyperledger.fabric.sdk.BlockEvent;
+import org.hyperledger.fabric.sdk.Peer;
+import org.hyperledger.fabric.shim.ledger.CompositeKey;
+import org.whistleblower.ReportEvents;
+
+import java.lang.reflect.Constructor;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds block events as the SDK delivers them, for tests of the client's
+ * block and commit listeners. Each transaction writes and deletes keys, and
+ * appends report events, in one chaincode namespace.
+ */
+final class BlockFixture {
+
+    static final String CHANNEL = "mychannel";
+
+    /**
+     * One transaction in a block
+     */
+    static final class Tx {
+        final String transactionId;
+        final TxValidationCode validationCode;
+        final String namespace;
+        final KvRwset.KVRWSet.Builder writes = KvRwset.KVRWSet.newBuilder();
+
+        Tx(String transactionId, TxValidationCode validationCode, String namespace) {
+            this.transactionId = transactionId;
+            this.validationCode = validationCode;
+            this.namespace = namespace;
+        }
+
+        Tx put(String key, byte[] value) {
+            writes.addWrites(KvRwset.KVWrite.newBuilder().setKey(key).setValue(ByteString.copyFrom(value)));
+            return this;
+        }
+
+        Tx put(String key, String value) {
+            return put(key, value.getBytes(StandardCharsets.UTF_8));
+        }
+
+        /**
+         * Append a transition event, as the contract does in event-sourced
+         * storage mode
+         */
+        Tx event(String reportId, long timestamp, ReportEvents.Type type, String value) {
+            String key = new CompositeKey(ReportEvents.OBJECT_TYPE,
+                    ReportEvents.keyAttributes(reportId, timestamp, transactionId, type)).toString();
+            return put(key, ReportEvents.encodeValue(value));
+        }
+
+        Tx delete(String key) {
+            writes.addWrites(KvRwset.KVWrite.newBuilder().setKey(key).setIsDelete(true));
+            return this;
+        }
+    }
+
+    private BlockFixture() {
+    }
+
+    static Tx valid(String transactionId, String namespace) {
+        return new Tx(transactionId, TxValidationCode.VALID, namespace);
+    }
+
+    static Tx invalid(String transactionId, String namespace, TxValidationCode validationCode) {
+        return new Tx(transactionId, validationCode, namespace);
+    }
+
+    /**
+     * A full (unfiltered) block event holding the given transactions
+     */
+    static BlockEvent block(long number, Tx... transactions) {
+        Common.BlockData.Builder data = Common.BlockData.newBuilder();
+        byte[] validationCodes = new byte[transactions.length];
+        for (int i = 0; i < transactions.length; i++) {
+            data.addData(envelope(transactions[i]).toByteString());
+            validationCodes[i] = (byte) transactions[i].validationCode.getNumber();
+        }
+
+        List<ByteString> metadata = new ArrayList<>();
+        for (int i = 0; i < Common.BlockMetadataIndex.values().length - 1; i++) {
+            metadata.add(ByteString.EMPTY);
+        }
+        metadata.set(Common.BlockMetadataIndex.TRANSACTIONS_FILTER_VALUE, ByteString.copyFrom(validationCodes));
+
+        Common.Block block = Common.Block.newBuilder()
+                .setHeader(Common.BlockHeader.newBuilder().setNumber(number))
+                .setData(data)
+                .setMetadata(Common.BlockMetadata.newBuilder().addAllMetadata(metadata))
+                .build();
+        EventsPackage.DeliverResponse response = EventsPackage.DeliverResponse.newBuilder().setBlock(block).build();
+        try {
+            Constructor<BlockEvent> constructor = BlockEvent.class.getDeclaredConstructor(Peer.class,
+                    EventsPackage.DeliverResponse.class);
+            constructor.setAccessible(true);
+            return constructor.newInstance(null, response);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("BlockEvent construction changed in this SDK release", e);
+        }
+    }
+
+    /**
+     * The event for a single transaction, as a commit listener receives it
+     */
+    static BlockEvent.TransactionEvent commit(String transactionId, TxValidationCode validationCode) {
+        return block(1, new Tx(transactionId, validationCode, "whistleblower")).getTransactionEvents().iterator()
+                .next();
+    }
+
+    private static Common.Envelope envelope(Tx transaction) {
+        Rwset.TxReadWriteSet rwset = Rwset.TxReadWriteSet.newBuilder()
+                .setDataModel(Rwset.TxReadWriteSet.DataModel.KV)
+                .addNsRwset(Rwset.NsReadWriteSet.newBuilder()
+                        .setNamespace(transaction.namespace)
+                        .setRwset(transaction.writes.build().toByteString()))
+                .build();
+        ProposalResponsePackage.ProposalResponsePayload responsePayload = ProposalResponsePackage
+                .ProposalResponsePayload.newBuilder()
+                .setExtension(ProposalPackage.ChaincodeAction.newBuilder()
+                        .setResults(rwset.toByteString())
+                        .build().toByteString())
+                .build();
+        TransactionPackage.ChaincodeActionPayload actionPayload = TransactionPackage.ChaincodeActionPayload
+                .newBuilder()
+                .setChaincodeProposalPayload(ProposalPackage.ChaincodeProposalPayload.getDefaultInstance()
+                        .toByteString())
+                .setAction(TransactionPackage.ChaincodeEndorsedAction.newBuilder()
+                        .setProposalResponsePayload(responsePayload.toByteString()))
+                .build();
+        TransactionPackage.Transaction body = TransactionPackage.Transaction.newBuilder()
+                .addActions(TransactionPackage.TransactionAction.newBuilder()
+                        .setHeader(Common.SignatureHeader.getDefaultInstance().toByteString())
+                        .setPayload(actionPayload.toByteString()))
+                .build();
+
+        Common.ChannelHeader channelHeader = Common.ChannelHeader.newBuilder()
+                .setType(Common.HeaderType.ENDORSER_TRANSACTION_VALUE)
+                .setChannelId(CHANNEL)
+                .setTxId(transaction.transactionId)
+                .build();
+        Common.Payload payload = Common.Payload.newBuilder()
+                .setHeader(Common.Header.newBuilder()
+                        .setChannelHeader(channelHeader.toByteString())
+                        .setSignatureHeader(Common.SignatureHeader.getDefaultInstance().toByteString()))
+                .setData(body.toByteString())
+                .build();
+        return Common.Envelope.newBuilder().setPayload(payload.toByteString()).build();
+    }
+}
@@ -0,0 +1,80 @@
+package org.whistleblower.client;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.whistleblower.ContractFixture;
+import org.whistleblower.ReportCodec;
+import org.whistleblower.ReportPage;
+import org.whistleblower.ReportStatus;
+import org.whistleblower.WhistleblowerReport;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ClosedReportExporterTest {
+
+    @TempDir
+    Path directory;
+
+    private final ContractFixture ledger = new ContractFixture();
+
+    private Stream<WhistleblowerReport> pages(final Function<String, String> page) {
+        List<WhistleblowerReport> reports = new ArrayList<>();
+        String bookmark = "";
+        do {
+            ReportPage next = ReportCodec.decodePage(page.apply(bookmark).getBytes(StandardCharsets.UTF_8));
+            reports.addAll(next.getRecords());
+            bookmark = next.getBookmark();
+        } while (!bookmark.isEmpty());
+        return reports.stream();
+    }
+
+    private ClosedReportExporter exporter() {
+        return new ClosedReportExporter(
+                since -> pages(bookmark -> ledger.contract.getReportsUpdatedSince(ledger.tx(), since, 2, bookmark)),
+                since -> pages(bookmark -> ledger.contract.getArchivedReportsUpdatedSince(ledger.tx(), since, 2,
+                        bookmark)),
+                2, 5000);
+    }
+
+    private List<String> exportedIds(final Path file) throws Exception {
+        List<String> ids = new ArrayList<>();
+        ColumnarReportFile.forEach(file, report -> ids.add(report.getId()));
+        return ids;
+    }
+
+    private void archive(final String id) {
+        ledger.contract.archiveClosedReports(ledger.tx(), "[\"" + id + "\"]");
+    }
+
+    @Test
+    void exportsClosedReportsOnceIncludingArchivedOnes() throws Exception {
+        Path file = directory.resolve("closed.wbc");
+        ledger.contract.setArchiveAfterDays(ledger.tx(), 0);
+        for (String id : List.of("R1", "R2", "R3", "R4")) {
+            ledger.submit(id, "Finance");
+        }
+        ledger.advance("R1", ReportStatus.CLOSED);
+        ledger.advance("R2", ReportStatus.CLOSED);
+        ledger.advance("R3", ReportStatus.PENDING_REVIEW);
+        archive("R1");
+
+        ClosedReportExporter.Result first = exporter().export(file);
+        assertEquals(2, first.getExported());
+        assertEquals(List.of("R2", "R1"), exportedIds(file));
+
+        archive("R2");
+        ledger.advance("R4", ReportStatus.CLOSED);
+        ClosedReportExporter.Result second = exporter().export(file);
+        assertEquals(1, second.getExported());
+        assertEquals(List.of("R2", "R1", "R4"), exportedIds(file));
+
+        assertEquals(0, exporter().export(file).getExported());
+    }
+}
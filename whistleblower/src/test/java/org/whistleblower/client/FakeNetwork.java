@@ -0,0 +1,237 @@
+package org.whistleblower.client;
+
+import org.hyperledger.fabric.gateway.Contract;
+import org.hyperledger.fabric.gateway.Gateway;
+import org.hyperledger.fabric.gateway.Network;
+import org.hyperledger.fabric.gateway.Transaction;
+import org.hyperledger.fabric.gateway.spi.CommitListener;
+import org.hyperledger.fabric.protos.peer.TransactionPackage.TxValidationCode;
+import org.hyperledger.fabric.sdk.BlockEvent;
+import org.hyperledger.fabric.sdk.Channel;
+import org.hyperledger.fabric.sdk.HFClient;
+import org.hyperledger.fabric.sdk.User;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * A gateway network and contract without peers, for tests. Submitted
+ * transactions run the test's endorser and evaluated ones its evaluator;
+ * commit and block events are delivered by the test to the listeners the
+ * client registered.
+ */
+final class FakeNetwork {
+
+    /**
+     * Stands in for endorsement and ordering of one submitted transaction
+     */
+    @FunctionalInterface
+    interface Endorser {
+        byte[] submit(String transactionId, String name, String[] args) throws Exception;
+    }
+
+    /**
+     * Stands in for a peer evaluating one query
+     */
+    @FunctionalInterface
+    interface Evaluator {
+        byte[] evaluate(String name, String[] args) throws Exception;
+    }
+
+    final Network network;
+    final Contract contract;
+
+    private final Channel channel = emptyChannel();
+    private final Map<String, CommitListener> commitListeners = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, byte[]>> transientData = new ConcurrentHashMap<>();
+    private final List<Consumer<BlockEvent>> blockListeners = new CopyOnWriteArrayList<>();
+    private final AtomicInteger transactions = new AtomicInteger();
+    private volatile Endorser endorser = (transactionId, name, args) -> new byte[0];
+    private volatile Evaluator evaluator = (name, args) -> {
+        throw new UnsupportedOperationException(name);
+    };
+    private volatile long startBlock = -1;
+
+    FakeNetwork() {
+        network = proxy(Network.class, this::onNetwork);
+        contract = proxy(Contract.class, (method, args) -> {
+            if (method.getName().equals("createTransaction")) {
+                return transaction((String) args[0], "tx" + transactions.incrementAndGet());
+            }
+            if (method.getName().equals("evaluateTransaction")) {
+                return evaluator.evaluate((String) args[0], (String[]) args[1]);
+            }
+            throw new UnsupportedOperationException(method.getName());
+        });
+    }
+
+    void setEndorser(Endorser endorser) {
+        this.endorser = endorser;
+    }
+
+    void setEvaluator(Evaluator evaluator) {
+        this.evaluator = evaluator;
+    }
+
+    /**
+     * A WhistleblowerClient on this network. The pool connects the gateway
+     * for userId as usual, and it is then swapped for one whose networks are
+     * this one.
+     */
+    WhistleblowerClient client(GatewayPool pool, String userId) throws Exception {
+        try (GatewayPool.Lease lease = pool.acquire(userId)) {
+            Field entries = GatewayPool.class.getDeclaredField("entries");
+            entries.setAccessible(true);
+            Object entry = ((Map<?, ?>) entries.get(pool)).get(userId);
+            Field gateway = entry.getClass().getDeclaredField("gateway");
+            gateway.setAccessible(true);
+            lease.getGateway().close();
+            gateway.set(entry, proxy(Gateway.class,
+                    (method, args) -> method.getName().equals("getNetwork") ? network : null));
+            return new WhistleblowerClient(pool, userId, BlockFixture.CHANNEL, "whistleblower");
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("GatewayPool entries changed", e);
+        }
+    }
+
+    /**
+     * Deliver a commit event for the transaction, as its event source would
+     */
+    void commit(String transactionId, TxValidationCode validationCode) {
+        CommitListener listener = commitListeners.get(transactionId);
+        if (listener == null) {
+            throw new IllegalStateException("No commit listener for " + transactionId);
+        }
+        listener.acceptCommit(BlockFixture.commit(transactionId, validationCode));
+    }
+
+    /**
+     * Transient data the client set on a transaction, or an empty map
+     */
+    Map<String, byte[]> getTransient(String transactionId) {
+        return transientData.getOrDefault(transactionId, Map.of());
+    }
+
+    boolean isListening(String transactionId) {
+        return commitListeners.containsKey(transactionId);
+    }
+
+    void deliver(BlockEvent block) {
+        blockListeners.forEach(listener -> listener.accept(block));
+    }
+
+    int blockListenerCount() {
+        return blockListeners.size();
+    }
+
+    /**
+     * Block number the last block listener asked to start from
+     */
+    long getStartBlock() {
+        return startBlock;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object onNetwork(Method method, Object[] args) {
+        switch (method.getName()) {
+            case "getContract":
+                return contract;
+            case "getChannel":
+                return channel;
+            case "addCommitListener":
+                commitListeners.put((String) args[2], (CommitListener) args[0]);
+                return args[0];
+            case "removeCommitListener":
+                commitListeners.values().remove(args[0]);
+                return null;
+            case "addBlockListener":
+                if (args.length == 1) {
+                    blockListeners.add((Consumer<BlockEvent>) args[0]);
+                    return args[0];
+                }
+                if (args.length != 2 || !(args[0] instanceof Long)) {
+                    throw new UnsupportedOperationException("addBlockListener with a checkpointer");
+                }
+                startBlock = (Long) args[0];
+                blockListeners.add((Consumer<BlockEvent>) args[1]);
+                return args[1];
+            case "removeBlockListener":
+                blockListeners.remove(args[0]);
+                return null;
+            default:
+                throw new UnsupportedOperationException(method.getName());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Transaction transaction(String name, String transactionId) {
+        Transaction[] self = new Transaction[1];
+        self[0] = proxy(Transaction.class, (method, args) -> {
+            switch (method.getName()) {
+                case "getName":
+                    return name;
+                case "getTransactionId":
+                    return transactionId;
+                case "submit":
+                    return endorser.submit(transactionId, name, (String[]) args[0]);
+                case "evaluate":
+                    throw new UnsupportedOperationException("evaluate");
+                case "setTransient":
+                    transientData.put(transactionId, (Map<String, byte[]>) args[0]);
+                    return self[0];
+                default:
+                    // Setters configure the real transaction and return it
+                    return self[0];
+            }
+        });
+        return self[0];
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        Object invoke(Method method, Object[] args) throws Exception;
+    }
+
+    private static <T> T proxy(Class<T> type, Handler handler) {
+        return type.cast(Proxy.newProxyInstance(FakeNetwork.class.getClassLoader(), new Class<?>[] {type},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "toString":
+                            return "Fake" + type.getSimpleName();
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "equals":
+                            return proxy == args[0];
+                        default:
+                            return handler.invoke(method, args == null ? new Object[0] : args);
+                    }
+                }));
+    }
+
+    /**
+     * A channel with no peers. HFClient only creates channels for an
+     * enrolled user, so the user is set directly and the package-private
+     * factory called.
+     */
+    private static Channel emptyChannel() {
+        try {
+            HFClient client = HFClient.createNewInstance();
+            Field userContext = HFClient.class.getDeclaredField("userContext");
+            userContext.setAccessible(true);
+            userContext.set(client, proxy(User.class,
+                    (method, args) -> method.getName().equals("getName") ? "test" : null));
+            Method factory = Channel.class.getDeclaredMethod("createNewInstance", String.class, HFClient.class);
+            factory.setAccessible(true);
+            return (Channel) factory.invoke(null, BlockFixture.CHANNEL, client);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Channel construction changed in this SDK release", e);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package org.whistleblower.client;
+
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.hyperledger.fabric.gateway.Identities;
+import org.hyperledger.fabric.gateway.Wallet;
+import org.hyperledger.fabric.gateway.Wallets;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Gateways connect without contacting a peer; peers are only reached when a
+ * network is first used, which these tests never do
+ */
+class GatewayPoolTest {
+
+    private static final String PROFILE = "{\"name\":\"test\",\"version\":\"1.0.0\","
+            + "\"client\":{\"organization\":\"DoE\"},"
+            + "\"organizations\":{\"DoE\":{\"mspid\":\"DoEMSP\",\"peers\":[]}}}";
+
+    @TempDir
+    Path directory;
+
+    private GatewayPool pool;
+
+    private static void addIdentity(final Wallet wallet, final String userId) throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(256);
+        KeyPair keys = generator.generateKeyPair();
+        X500Name subject = new X500Name("CN=" + userId);
+        X509Certificate certificate = new JcaX509CertificateConverter().getCertificate(
+                new JcaX509v3CertificateBuilder(subject, BigInteger.ONE, new Date(),
+                        new Date(System.currentTimeMillis() + 86_400_000L), subject, keys.getPublic())
+                        .build(new JcaContentSignerBuilder("SHA256withECDSA").build(keys.getPrivate())));
+        wallet.put(userId, Identities.newX509Identity("DoEMSP", certificate, keys.getPrivate()));
+    }
+
+    /**
+     * A pool over an in-memory wallet holding the given identities, with its
+     * connection profile written to directory
+     */
+    static GatewayPool newPool(final Path directory, final String... userIds) throws Exception {
+        Wallet wallet = Wallets.newInMemoryWallet();
+        for (String userId : userIds) {
+            addIdentity(wallet, userId);
+        }
+        Path profile = directory.resolve("connection.json");
+        Files.writeString(profile, PROFILE);
+        return new GatewayPool(wallet, profile);
+    }
+
+    @BeforeEach
+    void createPool() throws Exception {
+        pool = newPool(directory, "officer", "manager");
+    }
+
+    @AfterEach
+    void closePool() {
+        pool.close();
+    }
+
+    @Test
+    void clientsOfOneIdentityShareItsGateway() throws Exception {
+        GatewayPool.Lease first = pool.acquire("officer");
+        GatewayPool.Lease second = pool.acquire("officer");
+        GatewayPool.Lease manager = pool.acquire("manager");
+
+        assertSame(first.getGateway(), second.getGateway());
+        assertNotSame(first.getGateway(), manager.getGateway());
+        assertEquals("manager", manager.getUserId());
+        assertEquals(2, pool.getOpenGatewayCount());
+        assertEquals(3, pool.getActiveLeaseCount());
+        assertEquals(3, pool.getLeasesGranted());
+        assertEquals(2, pool.getConnectCount());
+
+        assertThrows(IOException.class, () -> pool.acquire("intruder"));
+        assertEquals(3, pool.getActiveLeaseCount());
+    }
+
+    @Test
+    void concurrentFirstRequestsConnectOnce() throws Exception {
+        List<Callable<GatewayPool.Lease>> requests = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            requests.add(() -> pool.acquire("officer"));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<GatewayPool.Lease>> leases = executor.invokeAll(requests);
+            for (Future<GatewayPool.Lease> lease : leases) {
+                assertSame(leases.get(0).get().getGateway(), lease.get().getGateway());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(1, pool.getConnectCount());
+        assertEquals(16, pool.getActiveLeaseCount());
+    }
+
+    @Test
+    void idleGatewaysCloseAndReconnectOnDemand() throws Exception {
+        GatewayPool.Lease officer = pool.acquire("officer");
+        GatewayPool.Lease manager = pool.acquire("manager");
+        manager.close();
+        manager.close();
+        assertEquals(1, pool.getActiveLeaseCount());
+
+        assertEquals(1, pool.closeIdle());
+        assertEquals(1, pool.getOpenGatewayCount());
+        assertEquals(1, pool.getClosedCount());
+
+        pool.acquire("manager").close();
+        assertEquals(3, pool.getConnectCount());
+
+        pool.close();
+        assertEquals(0, pool.getOpenGatewayCount());
+        assertEquals(3, pool.getClosedCount());
+        assertThrows(IllegalStateException.class, () -> pool.acquire("officer"));
+        officer.close();
+        assertEquals(0, pool.getActiveLeaseCount());
+    }
+}
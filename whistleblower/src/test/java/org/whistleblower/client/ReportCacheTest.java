@@ -0,0 +1,104 @@
+package org.whistleblower.client;
+
+import org.hyperledger.fabric.protos.peer.TransactionPackage.TxValidationCode;
+import org.hyperledger.fabric.sdk.BlockEvent;
+import org.junit.jupiter.api.Test;
+import org.whistleblower.ReportEvents;
+import org.whistleblower.WhistleblowerReport;
+
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ReportCacheTest {
+
+    private static final String CHAINCODE = "whistleblower";
+    private static final String INDEX_KEY = "\u0000status~id\u0000SUBMITTED\u0000R2\u0000";
+
+    private static WhistleblowerReport report(final String id) {
+        WhistleblowerReport report = new WhistleblowerReport();
+        report.setId(id);
+        return report;
+    }
+
+    private static void load(final ReportCache cache, final String... ids) {
+        for (String id : ids) {
+            cache.put(id, report(id), cache.beginLoad());
+        }
+    }
+
+    /**
+     * The block listener WhistleblowerClient.enableReportCache registers
+     */
+    private static Consumer<BlockEvent> invalidator(final ReportCache cache) {
+        return block -> BlockWrites.forEachWrite(block, CHAINCODE, (key, value, isDelete) -> cache.invalidate(key),
+                event -> cache.invalidate(event.getReportId()));
+    }
+
+    @Test
+    void dropsReportsWrittenByValidTransactionsOnly() {
+        ReportCache cache = new ReportCache(10, 60_000);
+        load(cache, "R1", "R2", "R3", "R4", "R5");
+        Consumer<BlockEvent> listener = invalidator(cache);
+
+        listener.accept(BlockFixture.block(5,
+                BlockFixture.valid("t1", CHAINCODE).put("R1", "{}").put(INDEX_KEY, "\u0000"),
+                BlockFixture.invalid("t2", CHAINCODE, TxValidationCode.MVCC_READ_CONFLICT).put("R2", "{}"),
+                BlockFixture.valid("t3", "othercc").put("R3", "{}"),
+                BlockFixture.valid("t4", CHAINCODE).delete("R4")));
+        assertNull(cache.get("R1"));
+        assertEquals("R2", cache.get("R2").getId());
+        assertEquals("R3", cache.get("R3").getId());
+        assertNull(cache.get("R4"));
+
+        // In event-sourced mode a transition writes an event, not the report
+        listener.accept(BlockFixture.block(6, BlockFixture.valid("t5", CHAINCODE)
+                .event("R5", 1_700_000_000_000L, ReportEvents.Type.ASSIGNMENT, "inv1")));
+        assertNull(cache.get("R5"));
+        assertEquals(2, cache.getHits());
+        assertEquals(3, cache.getMisses());
+    }
+
+    @Test
+    void loadThatRacedAnInvalidationIsNotCached() {
+        ReportCache cache = new ReportCache(2, 60_000);
+        long stale = cache.beginLoad();
+        cache.invalidate("R1");
+        cache.put("R1", report("R1"), stale);
+        assertNull(cache.get("R1"));
+
+        WhistleblowerReport fresh = report("R1");
+        cache.put("R1", fresh, cache.beginLoad());
+        assertSame(fresh, cache.get("R1"));
+
+        // Once its invalidation is forgotten, a key is treated as invalidated
+        // by the latest forgotten one
+        long beforeBurst = cache.beginLoad();
+        cache.invalidate("R2");
+        cache.invalidate("R3");
+        cache.invalidate("R4");
+        cache.put("R2", report("R2"), beforeBurst);
+        cache.put("R9", report("R9"), beforeBurst);
+        assertNull(cache.get("R2"));
+        assertNull(cache.get("R9"));
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedAndExpiredReports() {
+        ReportCache cache = new ReportCache(2, 60_000);
+        load(cache, "R1", "R2");
+        cache.get("R1");
+        load(cache, "R3");
+        assertNull(cache.get("R2"));
+        assertEquals("R1", cache.get("R1").getId());
+        assertEquals("R3", cache.get("R3").getId());
+
+        ReportCache expired = new ReportCache(2, 0);
+        load(expired, "R1");
+        assertNull(expired.get("R1"));
+        assertThrows(IllegalArgumentException.class, () -> new ReportCache(0, 60_000));
+    }
+}
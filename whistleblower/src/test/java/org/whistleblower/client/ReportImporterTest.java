@@ -0,0 +1,114 @@
+package org.whistleblower.client;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.whistleblower.BatchItemResult;
+import org.whistleblower.ContractFixture;
+import org.whistleblower.ReportCodec;
+import org.whistleblower.WhistleblowerReport;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReportImporterTest {
+
+    private static final Gson gson = new Gson();
+    private static final long HISTORIC = 1_600_000_000_000L;
+
+    @TempDir
+    Path directory;
+
+    private final ContractFixture ledger = new ContractFixture();
+
+    private List<BatchItemResult> submitReports(final List<WhistleblowerReport> reports) {
+        return gson.fromJson(ledger.contract.submitReports(ledger.tx(), ReportCodec.encodeListToString(reports)),
+                new TypeToken<List<BatchItemResult>>() {
+                }.getType());
+    }
+
+    private ReportImporter.Progress importFile(final String name, final String content) throws Exception {
+        Path input = directory.resolve(name);
+        Files.writeString(input, content, StandardCharsets.UTF_8);
+        ReportImporter importer = new ReportImporter(
+                reports -> CompletableFuture.completedFuture(submitReports(reports)), 2, 1);
+        return importer.importFile(input, ReportImporter.Format.of(input), directory.resolve(name + ".checkpoint"),
+                directory.resolve(name + ".rejects"));
+    }
+
+    private List<String> rejects(final String name) throws Exception {
+        return Files.readAllLines(directory.resolve(name + ".rejects"), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void csvSubmittedAtIsKeptAndLastUpdatedIsTheImport() throws Exception {
+        ReportImporter.Progress progress = importFile("reports.csv", "id,description,department,submitted_at\n"
+                + "R1,Expense fraud,Finance," + HISTORIC + "\n"
+                + "R2,Safety breach,Operations,2020-09-13T12:26:40Z\n"
+                + "R3,Data leak,IT,2020-09-13\n"
+                + "R4,Bribery,Procurement,\n"
+                + "R5,Harassment,HR,last tuesday\n");
+
+        assertEquals(4, progress.getImported());
+        assertEquals(1, progress.getRejected());
+        List<String> rejects = rejects("reports.csv");
+        assertEquals(1, rejects.size());
+        assertTrue(rejects.get(0).contains("\"R5\"") && rejects.get(0).contains("INVALID_ROW"), rejects.get(0));
+
+        WhistleblowerReport r1 = ledger.report("R1");
+        assertEquals(HISTORIC, r1.getSubmittedAt());
+        assertTrue(r1.getLastUpdated() > HISTORIC);
+        assertEquals(HISTORIC, ledger.report("R2").getSubmittedAt());
+        assertEquals(1_599_955_200_000L, ledger.report("R3").getSubmittedAt());
+        WhistleblowerReport r4 = ledger.report("R4");
+        assertEquals(r4.getLastUpdated(), r4.getSubmittedAt());
+    }
+
+    @Test
+    void jsonlSubmittedAtMayBeANumberOrAString() throws Exception {
+        ReportImporter.Progress progress = importFile("reports.jsonl",
+                "{\"id\":\"R1\",\"description\":\"Expense fraud\",\"department\":\"Finance\",\"submittedAt\":"
+                        + HISTORIC + "}\n"
+                        + "{\"id\":\"R2\",\"description\":\"Data leak\",\"department\":\"IT\","
+                        + "\"submittedAt\":\"2020-09-13T12:26:40Z\"}\n"
+                        + "{\"id\":\"R3\",\"description\":\"Bribery\",\"department\":\"Procurement\","
+                        + "\"submittedAt\":-5}\n");
+
+        assertEquals(2, progress.getImported());
+        assertEquals(1, progress.getRejected());
+        assertEquals(HISTORIC, ledger.report("R1").getSubmittedAt());
+        assertEquals(HISTORIC, ledger.report("R2").getSubmittedAt());
+    }
+
+    @Test
+    void contractRejectsSubmittedAtAfterTheTransaction() throws Exception {
+        ReportImporter.Progress progress = importFile("future.csv", "id,description,department,submittedAt\n"
+                + "R1,Expense fraud,Finance," + (ContractFixture.START + 365 * ContractFixture.DAY) + "\n"
+                + "R2,Data leak,IT," + HISTORIC + "\n");
+
+        assertEquals(1, progress.getImported());
+        assertEquals(1, progress.getRejected());
+        assertTrue(rejects("future.csv").get(0).contains("INVALID_REPORT"));
+        assertThrows(Exception.class, () -> ledger.report("R1"));
+        assertEquals(HISTORIC, ledger.report("R2").getSubmittedAt());
+    }
+
+    @Test
+    void submittedAtFormats() {
+        assertEquals(0, ReportImporter.parseSubmittedAt(""));
+        assertEquals(HISTORIC, ReportImporter.parseSubmittedAt(Long.toString(HISTORIC)));
+        assertEquals(HISTORIC, ReportImporter.parseSubmittedAt("2020-09-13T12:26:40Z"));
+        assertEquals(HISTORIC, ReportImporter.parseSubmittedAt("2020-09-13T14:26:40+02:00"));
+        assertThrows(IllegalArgumentException.class, () -> ReportImporter.parseSubmittedAt("0"));
+        assertThrows(IllegalArgumentException.class, () -> ReportImporter.parseSubmittedAt("13/09/2020"));
+    }
+}
@@ -0,0 +1,105 @@
+package org.whistleblower.client;
+
+import org.hyperledger.fabric.protos.peer.TransactionPackage.TxValidationCode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.whistleblower.ReportCodec;
+import org.whistleblower.ReportEvents;
+import org.whistleblower.ReportStatus;
+import org.whistleblower.WhistleblowerReport;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReportLedgerViewTest {
+
+    private static final String CHAINCODE = "whistleblower";
+
+    private final FakeNetwork fabric = new FakeNetwork();
+
+    @TempDir
+    Path directory;
+
+    private static byte[] report(final String id, final String department, final ReportStatus status,
+            final String investigatorId) {
+        WhistleblowerReport report = new WhistleblowerReport();
+        report.setId(id);
+        report.setDepartment(department);
+        report.setStatus(status);
+        report.setInvestigatorId(investigatorId);
+        return ReportCodec.encode(report);
+    }
+
+    private static List<String> ids(final List<WhistleblowerReport> reports) {
+        return reports.stream().map(WhistleblowerReport::getId).collect(Collectors.toList());
+    }
+
+    private ReportLedgerView view(final int checkpointInterval) {
+        return new ReportLedgerView(fabric.network, CHAINCODE, directory.resolve("view.json"), checkpointInterval);
+    }
+
+    private void deliverHistory() {
+        fabric.deliver(BlockFixture.block(0, BlockFixture.valid("t1", CHAINCODE)
+                .put("R1", report("R1", "Finance", ReportStatus.SUBMITTED, null))
+                .put("R2", report("R2", "Legal", ReportStatus.SUBMITTED, null))
+                .put("R3", report("R3", "Finance", ReportStatus.SUBMITTED, null))));
+        fabric.deliver(BlockFixture.block(1,
+                BlockFixture.valid("t2", CHAINCODE)
+                        .put("R1", report("R1", "Finance", ReportStatus.UNDER_INVESTIGATION, "inv1")),
+                BlockFixture.invalid("t3", CHAINCODE, TxValidationCode.MVCC_READ_CONFLICT)
+                        .put("R2", report("R2", "Legal", ReportStatus.UNDER_INVESTIGATION, "inv2")),
+                BlockFixture.valid("t4", CHAINCODE)
+                        .event("R3", 1_700_000_000_000L, ReportEvents.Type.ASSIGNMENT, "inv1")));
+    }
+
+    @Test
+    void followsValidWritesAndEventsInBlockOrder() throws Exception {
+        ReportLedgerView view = view(ReportLedgerView.DEFAULT_CHECKPOINT_INTERVAL);
+        view.start();
+        assertEquals(0, fabric.getStartBlock());
+        deliverHistory();
+
+        assertEquals(1, view.getLastBlockNumber());
+        assertEquals(List.of("R1", "R2", "R3"), ids(view.getAllReports()));
+        assertEquals(List.of("R2"), ids(view.getReportsByStatus(ReportStatus.SUBMITTED)));
+        assertEquals(List.of("R1", "R3"), ids(view.getReportsByStatus(ReportStatus.UNDER_INVESTIGATION)));
+        assertEquals(List.of("R1", "R3"), ids(view.getReportsByInvestigator("inv1")));
+        assertEquals(List.of(), ids(view.getReportsByInvestigator("inv2")));
+        assertEquals(1_700_000_000_000L, view.getReport("R3").getLastUpdated());
+
+        fabric.deliver(BlockFixture.block(2, BlockFixture.valid("t5", CHAINCODE).delete("R1")));
+        assertNull(view.getReport("R1"));
+        assertEquals(List.of("R3"), ids(view.getReportsByDepartment("Finance")));
+        assertEquals(List.of("R3"), ids(view.getReportsByInvestigator("inv1")));
+        view.close();
+    }
+
+    @Test
+    void resumesFromItsCheckpointAfterTheLastBlockApplied() throws Exception {
+        ReportLedgerView view = view(1);
+        view.start();
+        deliverHistory();
+        assertTrue(Files.exists(directory.resolve("view.json")));
+        view.close();
+        assertEquals(0, fabric.blockListenerCount());
+
+        ReportLedgerView restarted = view(1);
+        restarted.start();
+        assertEquals(2, fabric.getStartBlock());
+        assertEquals(1, restarted.getLastBlockNumber());
+        assertEquals(List.of("R1", "R3"), ids(restarted.getReportsByInvestigator("inv1")));
+
+        // A redelivered block is already in the checkpoint
+        fabric.deliver(BlockFixture.block(1, BlockFixture.valid("t6", CHAINCODE).delete("R3")));
+        assertEquals("R3", restarted.getReport("R3").getId());
+        assertFalse(restarted.getReportsByDepartment("Legal").isEmpty());
+        restarted.close();
+    }
+}
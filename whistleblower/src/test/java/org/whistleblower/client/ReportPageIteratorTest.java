@@ -0,0 +1,79 @@
+package org.whistleblower.client;
+
+import org.junit.jupiter.api.Test;
+import org.whistleblower.ContractFixture;
+import org.whistleblower.ReportCodec;
+import org.whistleblower.ReportStatus;
+import org.whistleblower.ReportSummary;
+import org.whistleblower.WhistleblowerReport;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ReportPageIteratorTest {
+
+    private final ContractFixture ledger = new ContractFixture();
+    private final List<String> bookmarks = new ArrayList<>();
+
+    private ReportPageIterator<WhistleblowerReport> allReports(final int pageSize) {
+        return new ReportPageIterator<>(bookmark -> {
+            bookmarks.add(bookmark);
+            return ReportPageIterator.Page.of(ReportCodec.decodePage(ledger.contract
+                    .getAllReportsWithPagination(ledger.tx(), pageSize, bookmark).getBytes(StandardCharsets.UTF_8)));
+        }, pageSize);
+    }
+
+    @Test
+    void fetchesEachPageOnlyOnceTheLastIsConsumed() {
+        for (int i = 0; i < 5; i++) {
+            ledger.submit("R" + i, "Finance");
+        }
+        ReportPageIterator<WhistleblowerReport> reports = allReports(2);
+
+        assertEquals("R0", reports.next().getId());
+        assertEquals(1, bookmarks.size());
+        assertEquals("R1", reports.next().getId());
+        assertEquals(1, bookmarks.size());
+        assertEquals("R2", reports.next().getId());
+        assertEquals(2, bookmarks.size());
+
+        List<String> rest = new ArrayList<>();
+        reports.forEachRemaining(report -> rest.add(report.getId()));
+        assertEquals(List.of("R3", "R4"), rest);
+        // The short last page ends the query without another fetch
+        assertEquals(3, bookmarks.size());
+        assertEquals("", bookmarks.get(0));
+        assertThrows(NoSuchElementException.class, reports::next);
+    }
+
+    @Test
+    void emptyQueryAndFetchFailures() {
+        assertFalse(allReports(10).hasNext());
+
+        ReportPageIterator<WhistleblowerReport> failing = new ReportPageIterator<>(bookmark -> {
+            throw new IllegalStateException("peer unavailable");
+        }, 10);
+        assertThrows(IllegalStateException.class, failing::hasNext);
+    }
+
+    @Test
+    void streamsSummaryPagesAsTheClientDoes() {
+        for (int i = 0; i < 3; i++) {
+            ledger.submit("R" + i, "Finance");
+        }
+        ledger.advance("R1", ReportStatus.CLOSED);
+        ReportPageIterator<ReportSummary> summaries = new ReportPageIterator<>(bookmark -> ReportPageIterator.Page
+                .of(ReportCodec.decodeSummaryPage(ledger.contract.getAllReportSummariesWithPagination(ledger.tx(), 2,
+                        bookmark).getBytes(StandardCharsets.UTF_8))), 2);
+
+        List<String> rows = new ArrayList<>();
+        summaries.forEachRemaining(summary -> rows.add(summary.getId() + " " + summary.getStatus()));
+        assertEquals(List.of("R0 SUBMITTED", "R1 CLOSED", "R2 SUBMITTED"), rows);
+    }
+}
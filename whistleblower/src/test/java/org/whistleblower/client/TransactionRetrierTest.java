@@ -0,0 +1,169 @@
+package org.whistleblower.client;
+
+import org.hyperledger.fabric.gateway.ContractException;
+import org.hyperledger.fabric.protos.peer.ProposalResponsePackage;
+import org.hyperledger.fabric.sdk.ChaincodeResponse;
+import org.hyperledger.fabric.sdk.ProposalResponse;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TransactionRetrierTest {
+
+    private static final byte[] RESULT = "{}".getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * A proposal response as the SDK builds one. Its constructor needs a
+     * live transaction context, so the instance is allocated without it.
+     */
+    static ProposalResponse response(final ChaincodeResponse.Status status, final boolean answered)
+            throws Exception {
+        Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+        Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+        theUnsafe.setAccessible(true);
+        ProposalResponse response = (ProposalResponse) unsafeClass.getMethod("allocateInstance", Class.class)
+                .invoke(theUnsafe.get(null), ProposalResponse.class);
+        Field statusField = ChaincodeResponse.class.getDeclaredField("status");
+        statusField.setAccessible(true);
+        statusField.set(response, status);
+        if (answered) {
+            response.setProposalResponse(ProposalResponsePackage.ProposalResponse.getDefaultInstance());
+        }
+        return response;
+    }
+
+    /**
+     * The failure TransactionImpl.submit throws once endorsement succeeded
+     * and sending to the orderer failed
+     */
+    private static ContractException ordererFailure() throws Exception {
+        ContractException e = new ContractException("Failed to send transaction to the orderer",
+                new IllegalStateException("UNAVAILABLE"));
+        e.setProposalResponses(List.of(response(ChaincodeResponse.Status.SUCCESS, true)));
+        return e;
+    }
+
+    /**
+     * The failure TransactionImpl.submit throws when no peer endorsed
+     */
+    private static ContractException endorsementFailure(final boolean answered) throws Exception {
+        return new ContractException("No valid proposal responses received. 1 peer error responses: failed",
+                List.of(response(ChaincodeResponse.Status.FAILURE, answered)));
+    }
+
+    private static String gatewayClass(final String name) throws IOException {
+        try (InputStream in = ContractException.class.getResourceAsStream(name)) {
+            return new String(in.readAllBytes(), StandardCharsets.ISO_8859_1);
+        }
+    }
+
+    /**
+     * The structure classify reads was taken from this SDK release; a
+     * different one must be checked against it again
+     */
+    @Test
+    void classifiesTheGatewayReleaseOnTheClasspath() throws Exception {
+        Properties pom = new Properties();
+        try (InputStream in = ContractException.class.getResourceAsStream(
+                "/META-INF/maven/org.hyperledger.fabric/fabric-gateway-java/pom.properties")) {
+            pom.load(in);
+        }
+        assertEquals("2.2.0", pom.getProperty("version"));
+
+        String transaction = gatewayClass("impl/TransactionImpl.class");
+        assertTrue(transaction.contains("Failed to send transaction to the orderer"));
+        assertTrue(transaction.contains("No valid proposal responses received"));
+        assertTrue(transaction.contains("setProposalResponses"));
+        assertTrue(gatewayClass("impl/commit/CommitHandlerImpl.class")
+                .contains("Transaction commit was rejected by peer"));
+    }
+
+    @Test
+    void classifiesFailuresByWhereTheyStopped() throws Exception {
+        assertEquals(TransactionRetrier.Failure.AMBIGUOUS, TransactionRetrier.classify(ordererFailure()));
+        assertEquals(TransactionRetrier.Failure.RETRYABLE, TransactionRetrier.classify(endorsementFailure(false)));
+        assertEquals(TransactionRetrier.Failure.FATAL, TransactionRetrier.classify(endorsementFailure(true)));
+        assertEquals(TransactionRetrier.Failure.FATAL,
+                TransactionRetrier.classify(new ContractException("No endorsers", List.of())));
+
+        ContractException commitRejected = new ContractException("Transaction commit was rejected by peer peer0");
+        commitRejected.setProposalResponses(List.of(response(ChaincodeResponse.Status.SUCCESS, true)));
+        assertEquals(TransactionRetrier.Failure.FATAL, TransactionRetrier.classify(commitRejected));
+        assertEquals(TransactionRetrier.Failure.FATAL,
+                TransactionRetrier.classify(new ContractException("Report R1 does not exist")));
+
+        assertEquals(TransactionRetrier.Failure.RETRYABLE,
+                TransactionRetrier.classify(new TransactionCommitException("tx1", "MVCC_READ_CONFLICT")));
+        assertEquals(TransactionRetrier.Failure.FATAL,
+                TransactionRetrier.classify(new TransactionCommitException("tx1", "ENDORSEMENT_POLICY_FAILURE")));
+        assertEquals(TransactionRetrier.Failure.AMBIGUOUS, TransactionRetrier.classify(new TimeoutException()));
+    }
+
+    private static TransactionRetrier.Attempt failing(final Deque<Exception> failures) {
+        return timeout -> {
+            Exception next = failures.poll();
+            if (next != null) {
+                throw next;
+            }
+            return RESULT;
+        };
+    }
+
+    private static TransactionRetrier retrier() {
+        return new TransactionRetrier(new RetryPolicy(3, Duration.ofMillis(1), Duration.ofMillis(2),
+                Duration.ofSeconds(10)));
+    }
+
+    @Test
+    void retriesConflictsAndUnreachablePeers() throws Exception {
+        TransactionRetrier retrier = retrier();
+        Deque<Exception> failures = new ArrayDeque<>(List.of(
+                new TransactionCommitException("tx1", "MVCC_READ_CONFLICT"), endorsementFailure(false)));
+
+        assertArrayEquals(RESULT, retrier.call(failing(failures), null));
+        assertEquals(2, retrier.retryCount());
+        assertEquals(1L, retrier.outcomeCounts().get(RetryOutcome.SUCCEEDED_AFTER_RETRY));
+    }
+
+    @Test
+    void ambiguousFailuresReadBackInsteadOfResending() throws Exception {
+        TransactionRetrier retrier = retrier();
+        byte[] existing = "{\"id\":\"R1\"}".getBytes(StandardCharsets.UTF_8);
+        Deque<Exception> failures = new ArrayDeque<>(List.of(ordererFailure()));
+
+        assertSame(existing, retrier.call(failing(failures), () -> existing));
+        assertEquals(0, retrier.retryCount());
+        assertEquals(1L, retrier.outcomeCounts().get(RetryOutcome.DEDUPLICATED));
+
+        ContractException unchecked = ordererFailure();
+        assertSame(unchecked, assertThrows(ContractException.class,
+                () -> retrier.call(failing(new ArrayDeque<>(List.of(unchecked))), null)));
+        assertEquals(1L, retrier.outcomeCounts().get(RetryOutcome.FAILED_FATAL));
+    }
+
+    @Test
+    void chaincodeRejectionsAreNotRetried() throws Exception {
+        TransactionRetrier retrier = retrier();
+        ContractException rejected = endorsementFailure(true);
+
+        assertSame(rejected, assertThrows(ContractException.class,
+                () -> retrier.call(failing(new ArrayDeque<>(List.of(rejected))), null)));
+        assertEquals(0, retrier.retryCount());
+        assertEquals(1L, retrier.outcomeCounts().get(RetryOutcome.FAILED_FATAL));
+    }
+}
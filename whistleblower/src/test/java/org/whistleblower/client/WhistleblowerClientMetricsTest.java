@@ -0,0 +1,93 @@
+package org.whistleblower.client;
+
+import org.hyperledger.fabric.gateway.ContractException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.whistleblower.ContractFixture;
+import org.whistleblower.metrics.MetricsRecorder;
+import org.whistleblower.metrics.MetricsRegistry;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WhistleblowerClientMetricsTest {
+
+    private final ContractFixture ledger = new ContractFixture();
+    private final FakeNetwork fabric = new FakeNetwork();
+    private final MetricsRegistry registry = new MetricsRegistry("wb");
+
+    @TempDir
+    Path directory;
+
+    private GatewayPool pool;
+    private WhistleblowerClient client;
+
+    @BeforeEach
+    void connect() throws Exception {
+        fabric.setEvaluator((name, args) -> {
+            if (args[0].equals("missing")) {
+                throw new ContractException("Report missing does not exist");
+            }
+            return ledger.contract.getReport(ledger.tx(), args[0]).getBytes(StandardCharsets.UTF_8);
+        });
+        fabric.setEndorser((transactionId, name, args) -> ledger.contract.assignInvestigator(ledger.tx(), args[0],
+                args[1]).getBytes(StandardCharsets.UTF_8));
+        pool = GatewayPoolTest.newPool(directory, "officer");
+        client = fabric.client(pool, "officer");
+        ledger.submit("R1", "Finance");
+    }
+
+    @AfterEach
+    void close() throws Exception {
+        client.close();
+        pool.close();
+    }
+
+    @Test
+    void queriesAndWritesRecordLatencySizesAndOutcomes() throws Exception {
+        client.setMetrics(registry);
+        int responseBytes = ledger.contract.getReport(ledger.tx(), "R1").getBytes(StandardCharsets.UTF_8).length;
+        client.getReport("R1");
+        assertThrows(ContractException.class, () -> client.getReport("missing"));
+        client.assignInvestigator("R1", "inv1");
+
+        assertEquals(1, registry.getCount("client_evaluates", "getReport", "ok"));
+        assertEquals(1, registry.getCount("client_evaluates", "getReport", "ContractException"));
+        assertEquals(1, registry.getCount("client_submits", "assignInvestigator", "ok"));
+
+        String scrape = registry.scrape();
+        assertTrue(scrape.contains("wb_client_evaluate_seconds_count{transaction=\"getReport\"} 2\n"));
+        assertTrue(scrape.contains("wb_client_response_bytes_sum{transaction=\"getReport\"} " + responseBytes + "\n"));
+        assertTrue(scrape.contains("wb_client_decode_seconds_count{transaction=\"report\"} 2\n"));
+        assertTrue(scrape.contains("wb_client_submit_seconds_count{transaction=\"assignInvestigator\"} 1\n"));
+        assertTrue(scrape.contains("wb_client_request_bytes_sum{transaction=\"assignInvestigator\"} 6\n"));
+    }
+
+    @Test
+    void cacheLookupsAreCountedAndNoopRecordsNothing() throws Exception {
+        assertSame(MetricsRecorder.NOOP, client.getMetrics());
+        client.getReport("R1");
+
+        client.setMetrics(registry);
+        assertEquals("", registry.scrape());
+        client.enableReportCache(10, Duration.ofMinutes(1));
+        client.getReport("R1");
+        client.getReport("R1");
+        assertEquals(1, registry.getCount("client_cache", "getReport", "miss"));
+        assertEquals(1, registry.getCount("client_cache", "getReport", "hit"));
+        assertEquals(1, registry.getCount("client_evaluates", "getReport", "ok"));
+
+        client.setMetrics(MetricsRecorder.NOOP);
+        client.getReport("R1");
+        assertEquals(1, registry.getCount("client_cache", "getReport", "hit"));
+        assertThrows(NullPointerException.class, () -> client.setMetrics(null));
+    }
+}
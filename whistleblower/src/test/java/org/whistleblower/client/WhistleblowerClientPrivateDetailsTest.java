@@ -0,0 +1,114 @@
+package org.whistleblower.client;
+
+import org.hyperledger.fabric.contract.Context;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.whistleblower.BatchItemResult;
+import org.whistleblower.ContractFixture;
+import org.whistleblower.ReportPrivateDetails;
+import org.whistleblower.WhistleblowerReport;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The client sends descriptions and submitters as transient data only, so
+ * they never appear in a transaction's arguments
+ */
+class WhistleblowerClientPrivateDetailsTest {
+
+    private final ContractFixture ledger = new ContractFixture();
+    private final FakeNetwork fabric = new FakeNetwork();
+    private final List<List<String>> submittedArgs = new ArrayList<>();
+    private final List<Map<String, byte[]>> submittedTransient = new ArrayList<>();
+
+    @TempDir
+    Path directory;
+
+    private GatewayPool pool;
+    private WhistleblowerClient client;
+
+    @BeforeEach
+    void connect() throws Exception {
+        fabric.setEndorser((transactionId, name, args) -> {
+            submittedArgs.add(Arrays.asList(args));
+            submittedTransient.add(fabric.getTransient(transactionId));
+            Context ctx = ledger.tx();
+            ledger.stub.setTransient(fabric.getTransient(transactionId));
+            try {
+                String result = name.equals("submitReports")
+                        ? ledger.contract.submitReports(ctx, args[0])
+                        : ledger.contract.submitReport(ctx, args[0], args[1], args[2], args[3]);
+                return result.getBytes(StandardCharsets.UTF_8);
+            } finally {
+                ledger.stub.setTransient(Map.of());
+            }
+        });
+        fabric.setEvaluator((name, args) -> (name.equals("getReportDetail")
+                ? ledger.contract.getReportDetail(ledger.tx(), args[0])
+                : ledger.contract.getReport(ledger.tx(), args[0])).getBytes(StandardCharsets.UTF_8));
+        pool = GatewayPoolTest.newPool(directory, "officer");
+        client = fabric.client(pool, "officer");
+    }
+
+    @AfterEach
+    void close() throws Exception {
+        client.close();
+        pool.close();
+    }
+
+    @Test
+    void submitReportSendsTheDetailsAsTransientData() throws Exception {
+        WhistleblowerReport report = client.submitReport("R1", "Invoices were split", "Finance", "alice");
+
+        assertEquals(List.of(List.of("R1", "", "Finance", "")), submittedArgs);
+        Map<String, byte[]> transientData = submittedTransient.get(0);
+        assertEquals("Invoices were split", new String(transientData.get(ReportPrivateDetails.TRANSIENT_DESCRIPTION),
+                StandardCharsets.UTF_8));
+        assertEquals("alice", new String(transientData.get(ReportPrivateDetails.TRANSIENT_SUBMITTED_BY),
+                StandardCharsets.UTF_8));
+        assertEquals(32, transientData.get(ReportPrivateDetails.TRANSIENT_SALT).length);
+
+        assertNull(report.getDescription());
+        assertNull(report.getSubmittedBy());
+        assertNotNull(report.getPrivateDetailsHash());
+        assertNull(client.getReport("R1").getDescription());
+
+        WhistleblowerReport detail = client.getReportDetail("R1");
+        assertEquals("Invoices were split", detail.getDescription());
+        assertEquals("alice", detail.getSubmittedBy());
+        assertFalse(ledger.contract.getAllReports(ledger.tx()).contains("Invoices were split"));
+    }
+
+    @Test
+    void submitReportsSendsTheBatchAsTransientData() throws Exception {
+        List<WhistleblowerReport> reports = new ArrayList<>();
+        for (String id : List.of("R1", "R2")) {
+            WhistleblowerReport report = new WhistleblowerReport();
+            report.setId(id);
+            report.setDescription("Description of " + id);
+            report.setDepartment("Finance");
+            report.setSubmittedBy("anonymous");
+            reports.add(report);
+        }
+
+        List<BatchItemResult> results = client.submitReports(reports);
+        assertTrue(results.stream().allMatch(BatchItemResult::isSuccess));
+        assertEquals(List.of(List.of("")), submittedArgs);
+        assertTrue(submittedTransient.get(0).containsKey(ReportPrivateDetails.TRANSIENT_REPORTS));
+        assertEquals("Description of R2", client.getReportDetail("R2").getDescription());
+        assertNull(client.getReport("R2").getDescription());
+    }
+}
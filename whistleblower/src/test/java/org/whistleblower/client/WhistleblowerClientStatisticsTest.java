@@ -0,0 +1,66 @@
+package org.whistleblower.client;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.whistleblower.ContractFixture;
+import org.whistleblower.ReportStatistics;
+import org.whistleblower.ReportStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class WhistleblowerClientStatisticsTest {
+
+    private final ContractFixture ledger = new ContractFixture();
+    private final FakeNetwork fabric = new FakeNetwork();
+
+    @TempDir
+    Path directory;
+
+    private GatewayPool pool;
+    private WhistleblowerClient client;
+
+    @BeforeEach
+    void connect() throws Exception {
+        fabric.setEvaluator((name, args) -> {
+            assertEquals("getReportStatistics", name);
+            return ledger.contract.getReportStatistics(ledger.tx()).getBytes(StandardCharsets.UTF_8);
+        });
+        fabric.setEndorser((transactionId, name, args) -> {
+            assertEquals("rollupReportStatistics", name);
+            return Integer.toString(ledger.contract.rollupReportStatistics(ledger.tx()))
+                    .getBytes(StandardCharsets.UTF_8);
+        });
+        pool = GatewayPoolTest.newPool(directory, "manager");
+        client = fabric.client(pool, "manager");
+    }
+
+    @AfterEach
+    void close() throws Exception {
+        client.close();
+        pool.close();
+    }
+
+    @Test
+    void statisticsAndRollupsRoundTrip() throws Exception {
+        ledger.submit("R1", "Finance");
+        ledger.submit("R2", "Legal");
+        ledger.advance("R1", ReportStatus.CLOSED);
+
+        ReportStatistics statistics = client.getReportStatistics();
+        assertEquals(2, statistics.getTotal());
+        assertEquals(Map.of("SUBMITTED", 1L, "CLOSED", 1L), statistics.getByStatus());
+        assertArrayEquals(new long[] {1, 0, 0, 0, 0, 0}, statistics.getGroups().get(0).getAgeCounts());
+
+        // Two submissions, and a -1 and +1 for each of the three transitions
+        assertEquals(8, client.rollupReportStatistics());
+        assertEquals(0, client.rollupReportStatistics());
+        assertEquals(statistics.getByStatus(), client.getReportStatistics().getByStatus());
+    }
+}
@@ -0,0 +1,94 @@
+package org.whistleblower.client;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.whistleblower.ContractFixture;
+import org.whistleblower.ReportStatus;
+import org.whistleblower.WhistleblowerReport;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class WhistleblowerClientSyncTest {
+
+    private final ContractFixture ledger = new ContractFixture();
+    private final FakeNetwork fabric = new FakeNetwork();
+    private final List<Long> queriedSince = new ArrayList<>();
+
+    @TempDir
+    Path directory;
+
+    private GatewayPool pool;
+    private WhistleblowerClient client;
+
+    @BeforeEach
+    void connect() throws Exception {
+        fabric.setEvaluator((name, args) -> {
+            assertEquals("getReportsUpdatedSince", name);
+            long since = Long.parseLong(args[0]);
+            queriedSince.add(since);
+            return ledger.contract.getReportsUpdatedSince(ledger.tx(), since, Integer.parseInt(args[1]), args[2])
+                    .getBytes(StandardCharsets.UTF_8);
+        });
+        pool = GatewayPoolTest.newPool(directory, "officer");
+        client = fabric.client(pool, "officer");
+    }
+
+    @AfterEach
+    void close() throws Exception {
+        client.close();
+        pool.close();
+    }
+
+    private List<String> sync() throws Exception {
+        return client.sync().stream().map(WhistleblowerReport::getId).collect(Collectors.toList());
+    }
+
+    @Test
+    void syncReturnsTheReportsChangedSinceItsHighWaterMark() throws Exception {
+        client.setSyncOverlapMillis(0);
+        ledger.submit("R1", "Finance");
+        ledger.submit("R2", "Finance");
+
+        assertEquals(List.of("R1", "R2"), sync());
+        long mark = client.getSyncHighWaterMark();
+        assertEquals(ledger.report("R2").getLastUpdated(), mark);
+
+        ledger.advance("R1", ReportStatus.UNDER_INVESTIGATION);
+        ledger.submit("R3", "Legal");
+        // Reads start at the mark itself, so the report updated at it comes back too
+        assertEquals(List.of("R2", "R1", "R3"), sync());
+        assertEquals(List.of(0L, mark), queriedSince.subList(0, 2));
+        assertEquals(ledger.report("R3").getLastUpdated(), client.getSyncHighWaterMark());
+    }
+
+    @Test
+    void overlapRereadsRecentUpdatesAndSavedMarksResume() throws Exception {
+        ledger.submit("R1", "Finance");
+        long r1Updated = ledger.report("R1").getLastUpdated();
+        ledger.submit("R2", "Finance");
+        long r2Updated = ledger.report("R2").getLastUpdated();
+
+        client.setSyncHighWaterMark(r2Updated);
+        client.setSyncOverlapMillis(r2Updated - r1Updated);
+        assertEquals(List.of("R1", "R2"), sync());
+        assertEquals(List.of(r1Updated), queriedSince);
+        assertEquals(r2Updated, client.getSyncHighWaterMark());
+
+        // Nothing changed: the mark stays where it was
+        client.setSyncOverlapMillis(0);
+        long later = ledger.now() + ContractFixture.DAY;
+        client.setSyncHighWaterMark(later);
+        assertEquals(List.of(), sync());
+        assertEquals(later, client.getSyncHighWaterMark());
+        assertThrows(IllegalArgumentException.class, () -> client.setSyncOverlapMillis(-1));
+    }
+}
@@ -0,0 +1,140 @@
+package org.whistleblower.client;
+
+import com.google.protobuf.ByteString;
+
+import org.hyperledger.fabric.gateway.ContractException;
+import org.hyperledger.fabric.protos.peer.ProposalResponsePackage;
+import org.hyperledger.fabric.protos.peer.TransactionPackage.TxValidationCode;
+import org.hyperledger.fabric.sdk.ChaincodeResponse;
+import org.hyperledger.fabric.sdk.ProposalResponse;
+import org.hyperledger.fabric.shim.ChaincodeException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.whistleblower.ContractFixture;
+import org.whistleblower.ReportStatus;
+import org.whistleblower.WhistleblowerContract;
+import org.whistleblower.WhistleblowerReport;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Transitions go to the contract without reading the report first; its
+ * rejections come back as TransitionRejectedException
+ */
+class WhistleblowerClientTransitionTest {
+
+    private final ContractFixture ledger = new ContractFixture();
+    private final FakeNetwork fabric = new FakeNetwork();
+    private final List<String> submitted = new CopyOnWriteArrayList<>();
+    private volatile String lastTransactionId;
+
+    @TempDir
+    Path directory;
+
+    private GatewayPool pool;
+    private WhistleblowerClient client;
+
+    /**
+     * The failure the gateway throws when the chaincode refuses a proposal:
+     * the peer's response carries the error message and code
+     */
+    private static ContractException refusal(final ChaincodeException e) throws Exception {
+        ProposalResponse response = TransactionRetrierTest.response(ChaincodeResponse.Status.FAILURE, true);
+        response.setProposalResponse(ProposalResponsePackage.ProposalResponse.newBuilder()
+                .setResponse(ProposalResponsePackage.Response.newBuilder()
+                        .setStatus(500)
+                        .setMessage(e.getMessage())
+                        .setPayload(ByteString.copyFrom(e.getPayload())))
+                .build());
+        return new ContractException("No valid proposal responses received. 1 peer error responses: "
+                + e.getMessage(), List.of(response));
+    }
+
+    @BeforeEach
+    void connect() throws Exception {
+        fabric.setEvaluator((name, args) -> {
+            throw new AssertionError("Transitions must not read the report first: " + name);
+        });
+        fabric.setEndorser((transactionId, name, args) -> {
+            lastTransactionId = transactionId;
+            submitted.add(name);
+            try {
+                String result = switch (name) {
+                    case "assignInvestigator" -> ledger.contract.assignInvestigator(ledger.tx(), args[0], args[1]);
+                    case "submitInvestigatorFindings" -> ledger.contract.submitInvestigatorFindings(ledger.tx(),
+                            args[0], args[1], args[2]);
+                    case "submitLeadershipReview" -> ledger.contract.submitLeadershipReview(
+                            ledger.tx(WhistleblowerContract.DOE_MSP_ID), args[0], args[1]);
+                    default -> throw new UnsupportedOperationException(name);
+                };
+                return result.getBytes(StandardCharsets.UTF_8);
+            } catch (ChaincodeException e) {
+                throw refusal(e);
+            }
+        });
+        pool = GatewayPoolTest.newPool(directory, "manager");
+        client = fabric.client(pool, "manager");
+        ledger.submit("R1", "Finance");
+    }
+
+    @AfterEach
+    void close() throws Exception {
+        client.close();
+        pool.close();
+    }
+
+    @Test
+    void eachTransitionIsOneSubmit() throws Exception {
+        assertEquals("inv1", client.assignInvestigator("R1", "inv1").getInvestigatorId());
+        WhistleblowerReport report = client.submitFindings("R1", "inv1", "Findings");
+        assertEquals(ReportStatus.PENDING_REVIEW, report.getStatus());
+        assertEquals(ReportStatus.CLOSED, client.submitLeadershipReview("R1", "Approved").getStatus());
+        assertEquals(List.of("assignInvestigator", "submitInvestigatorFindings", "submitLeadershipReview"),
+                submitted);
+    }
+
+    @Test
+    void refusedTransitionsCarryTheContractsCode() throws Exception {
+        TransitionRejectedException early = assertThrows(TransitionRejectedException.class,
+                () -> client.submitLeadershipReview("R1", "Approved"));
+        assertEquals("R1", early.getReportId());
+        assertEquals("INVALID_TRANSITION", early.getErrorCode());
+
+        client.assignInvestigator("R1", "inv1");
+        assertEquals("NOT_ASSIGNED_INVESTIGATOR", assertThrows(TransitionRejectedException.class,
+                () -> client.submitFindings("R1", "inv2", "Findings")).getErrorCode());
+        assertEquals("REPORT_NOT_FOUND", assertThrows(TransitionRejectedException.class,
+                () -> client.assignInvestigator("missing", "inv1")).getErrorCode());
+        // A refusal is final, so nothing was sent twice
+        assertEquals(4, submitted.size());
+        assertEquals(ReportStatus.UNDER_INVESTIGATION, ledger.report("R1").getStatus());
+    }
+
+    @Test
+    void asynchronousTransitionsAreRefusedTheSameWay() throws Exception {
+        CompletableFuture<WhistleblowerReport> refused = client.submitLeadershipReviewAsync("R1", "Approved");
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> refused.get(5, TimeUnit.SECONDS));
+        TransitionRejectedException rejection = assertInstanceOf(TransitionRejectedException.class,
+                failure.getCause());
+        assertEquals("INVALID_TRANSITION", rejection.getErrorCode());
+
+        CompletableFuture<WhistleblowerReport> assigned = client.assignInvestigatorAsync("R1", "inv1");
+        while (submitted.size() < 2) {
+            Thread.sleep(10);
+        }
+        fabric.commit(lastTransactionId, TxValidationCode.VALID);
+        assertEquals("inv1", assigned.get(5, TimeUnit.SECONDS).getInvestigatorId());
+    }
+}
@@ -0,0 +1,98 @@
+package org.whistleblower.emulator;
+
+import org.hyperledger.fabric.protos.peer.TxValidationCode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.whistleblower.WhistleblowerContract;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BlockCutterTest {
+
+    private final WhistleblowerContract contract = new WhistleblowerContract();
+    private final SimulatedLedger ledger = new SimulatedLedger();
+    private BlockCutter cutter;
+    private int transactions;
+
+    @TempDir
+    Path directory;
+
+    @AfterEach
+    void close() {
+        if (cutter != null) {
+            cutter.close();
+        }
+    }
+
+    private CompletableFuture<TxValidationCode> order(final String id) {
+        SimulatedLedger.Endorsement endorsement = ledger.endorse(contract, "tx" + ++transactions, Instant.now(),
+                "Org1MSP", ctx -> contract.submitReport(ctx, id, "Description of " + id, "Finance", "anonymous"));
+        return cutter.submit(endorsement);
+    }
+
+    @Test
+    void cutsFullBatchesAtOnceAndTheRestOnTimeout() throws Exception {
+        cutter = new BlockCutter(ledger, new BlockCutter.BatchConfig(Duration.ofMillis(200), 2, 512 * 1024));
+        CompletableFuture<TxValidationCode> first = order("R1");
+        CompletableFuture<TxValidationCode> second = order("R2");
+        assertEquals(TxValidationCode.VALID, first.get(1, TimeUnit.SECONDS));
+        assertEquals(TxValidationCode.VALID, second.get(1, TimeUnit.SECONDS));
+        assertEquals(1, cutter.getCutByCount());
+
+        CompletableFuture<TxValidationCode> third = order("R3");
+        Thread.sleep(50);
+        assertFalse(third.isDone());
+        assertEquals(TxValidationCode.VALID, third.get(5, TimeUnit.SECONDS));
+        assertEquals(1, cutter.getCutByTimeout());
+        assertEquals(2, cutter.getBlocksCut());
+        assertEquals(2, ledger.getHeight());
+    }
+
+    @Test
+    void transactionThatWouldOverflowTheBatchStartsTheNext() throws Exception {
+        cutter = new BlockCutter(ledger, new BlockCutter.BatchConfig(Duration.ofMillis(10), 10, 1));
+        CompletableFuture<TxValidationCode> first = order("R1");
+        CompletableFuture<TxValidationCode> second = order("R2");
+        assertEquals(TxValidationCode.VALID, second.get(5, TimeUnit.SECONDS));
+        assertEquals(TxValidationCode.VALID, first.get(5, TimeUnit.SECONDS));
+        assertEquals(1, cutter.getCutBySize());
+        assertEquals(2, cutter.getBlocksCut());
+
+        SimulatedLedger.Endorsement failed = ledger.endorse(contract, "bad", Instant.now(), "Org1MSP",
+                ctx -> contract.assignInvestigator(ctx, "missing", "inv1"));
+        assertThrows(IllegalArgumentException.class, () -> cutter.submit(failed));
+    }
+
+    @Test
+    void readsBatchSettingsFromConfigtx() throws Exception {
+        BlockCutter.BatchConfig network = BlockCutter.BatchConfig.fromConfigtx(Paths.get("../configtx.yaml"));
+        assertEquals(Duration.ofSeconds(2), network.getBatchTimeout());
+        assertEquals(10, network.getMaxMessageCount());
+        assertEquals(512 * 1024, network.getPreferredMaxBytes());
+
+        Path configtx = directory.resolve("configtx.yaml");
+        Files.writeString(configtx, "Orderer: &OrdererDefaults\n    BatchTimeout: 250ms\n    BatchSize:\n"
+                + "        MaxMessageCount: 50\n        PreferredMaxBytes: 2 MB\n"
+                + "Other:\n    BatchTimeout: 9s\n");
+        BlockCutter.BatchConfig config = BlockCutter.BatchConfig.fromConfigtx(configtx);
+        assertEquals(Duration.ofMillis(250), config.getBatchTimeout());
+        assertEquals(50, config.getMaxMessageCount());
+        assertEquals(2 * 1024 * 1024, config.getPreferredMaxBytes());
+
+        Files.writeString(configtx, "Orderer:\n    MaxMessageCount: 5\n");
+        assertEquals(BlockCutter.BatchConfig.defaults().getBatchTimeout(),
+                BlockCutter.BatchConfig.fromConfigtx(configtx).getBatchTimeout());
+        assertThrows(IllegalArgumentException.class, () -> config.withMaxMessageCount(0));
+    }
+}
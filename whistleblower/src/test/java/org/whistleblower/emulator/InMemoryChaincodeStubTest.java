@@ -0,0 +1,94 @@
+package org.whistleblower.emulator;
+
+import org.hyperledger.fabric.shim.ledger.KeyValue;
+import org.hyperledger.fabric.shim.ledger.QueryResultsIteratorWithMetadata;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class InMemoryChaincodeStubTest {
+
+    private final InMemoryChaincodeStub stub = new InMemoryChaincodeStub();
+
+    @Test
+    void openRangeQueriesSkipCompositeKeys() {
+        stub.putStringState("B", "b");
+        stub.putStringState("A", "a");
+        stub.putStringState(stub.createCompositeKey("index", "x", "A").toString(), "i");
+
+        assertEquals(List.of("A", "B"), keys(stub.getStateByRange("", "")));
+        assertEquals(List.of(stub.createCompositeKey("index", "x", "A").toString()),
+                keys(stub.getStateByPartialCompositeKey(stub.createCompositeKey("index"))));
+    }
+
+    @Test
+    void paginationBookmarkIsTheFirstKeyOfTheNextPage() {
+        for (int i = 0; i < 5; i++) {
+            stub.putStringState("K" + i, Integer.toString(i));
+        }
+
+        QueryResultsIteratorWithMetadata<KeyValue> first = stub.getStateByRangeWithPagination("", "", 2, "");
+        assertEquals(List.of("K0", "K1"), keys(first));
+        assertEquals("K2", first.getMetadata().getBookmark());
+        assertEquals(2, first.getMetadata().getFetchedRecordsCount());
+
+        QueryResultsIteratorWithMetadata<KeyValue> last = stub.getStateByRangeWithPagination("", "", 3, "K2");
+        assertEquals(List.of("K2", "K3", "K4"), keys(last));
+        assertEquals("", last.getMetadata().getBookmark());
+    }
+
+    @Test
+    void missingKeysReadAsEmptyAndDeletesRemove() {
+        assertEquals(0, stub.getState("missing").length);
+        stub.putStringState("K", "v");
+        stub.delState("K");
+        assertEquals(0, stub.getState("K").length);
+        assertThrows(IllegalArgumentException.class, () -> stub.putStringState("", "v"));
+    }
+
+    @Test
+    void privateDataIsHashedAndOutOfReachOfQueries() throws Exception {
+        byte[] value = "secret".getBytes(StandardCharsets.UTF_8);
+        stub.putPrivateData("collection", "K", value);
+
+        assertArrayEquals(value, stub.getPrivateData("collection", "K"));
+        assertArrayEquals(MessageDigest.getInstance("SHA-256").digest(value),
+                stub.getPrivateDataHash("collection", "K"));
+        assertEquals(0, stub.getPrivateData("other", "K").length);
+        assertEquals(List.of(), keys(stub.getStateByRange("", "")));
+        assertEquals(List.of(), keys(stub.getStateByPartialCompositeKey("")));
+    }
+
+    @Test
+    void nextTransactionResetsTransactionState() {
+        Instant time = Instant.ofEpochMilli(42);
+        stub.setEvent("event", new byte[] {1});
+        stub.nextTransaction("tx7", time);
+
+        assertEquals("tx7", stub.getTxId());
+        assertEquals(time, stub.getTxTimestamp());
+        assertEquals(null, stub.getEvent());
+        assertEquals(0, stub.getTransient().size());
+    }
+
+    @Test
+    void richQueriesAreNotEmulated() {
+        assertThrows(UnsupportedOperationException.class, () -> stub.getQueryResult("{}"));
+    }
+
+    private static List<String> keys(final Iterable<KeyValue> results) {
+        List<String> keys = new ArrayList<>();
+        for (KeyValue result : results) {
+            keys.add(result.getKey());
+        }
+        return keys;
+    }
+}
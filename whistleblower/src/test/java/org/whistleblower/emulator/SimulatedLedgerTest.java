@@ -0,0 +1,97 @@
+package org.whistleblower.emulator;
+
+import org.hyperledger.fabric.contract.Context;
+import org.hyperledger.fabric.protos.peer.TxValidationCode;
+import org.junit.jupiter.api.Test;
+import org.whistleblower.ReportCodec;
+import org.whistleblower.ReportStatus;
+import org.whistleblower.WhistleblowerContract;
+import org.whistleblower.WhistleblowerReport;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SimulatedLedgerTest {
+
+    private static final String MSP_ID = WhistleblowerContract.DOGE_MSP_ID;
+
+    private final WhistleblowerContract contract = new WhistleblowerContract();
+    private final SimulatedLedger ledger = new SimulatedLedger();
+    private int transactions;
+
+    private SimulatedLedger.Endorsement endorse(final Function<Context, String> function) {
+        return ledger.endorse(contract, "tx" + ++transactions, Instant.ofEpochMilli(1_700_000_000_000L + transactions),
+                MSP_ID, function);
+    }
+
+    private SimulatedLedger.Endorsement submit(final String id) {
+        return endorse(ctx -> contract.submitReport(ctx, id, "Description of " + id, "Finance", "anonymous"));
+    }
+
+    private WhistleblowerReport committed(final String id) {
+        return ReportCodec.decode(ledger.snapshot().get(id));
+    }
+
+    @Test
+    void conflictingTransitionsInOneBlockCommitOnlyTheFirst() {
+        assertEquals(List.of(TxValidationCode.VALID), ledger.commitBlock(List.of(submit("R1"))));
+
+        SimulatedLedger.Endorsement first = endorse(ctx -> contract.assignInvestigator(ctx, "R1", "inv1"));
+        SimulatedLedger.Endorsement second = endorse(ctx -> contract.assignInvestigator(ctx, "R1", "inv2"));
+        assertEquals(List.of(TxValidationCode.VALID, TxValidationCode.MVCC_READ_CONFLICT),
+                ledger.commitBlock(List.of(first, second)));
+        assertEquals("inv1", committed("R1").getInvestigatorId());
+
+        // Endorsed against the state before the block, so stale once it commits
+        SimulatedLedger.Endorsement stale = endorse(ctx -> contract.submitFindings(ctx, "R1", "Early"));
+        ledger.commitBlock(List.of(endorse(ctx -> contract.submitFindings(ctx, "R1", "Confirmed"))));
+        assertEquals(List.of(TxValidationCode.MVCC_READ_CONFLICT), ledger.commitBlock(List.of(stale)));
+        assertEquals("Confirmed", committed("R1").getFindings());
+        assertEquals(4, ledger.getHeight());
+    }
+
+    @Test
+    void rangeReadsConflictWithKeysAddedToTheRange() {
+        ledger.commitBlock(List.of(submit("R1")));
+        SimulatedLedger.Endorsement scan = endorse(ctx -> contract.getReportsByStatus(ctx, "SUBMITTED"));
+        SimulatedLedger.Endorsement unrelated = endorse(ctx -> contract.getReportsByStatus(ctx, "CLOSED"));
+
+        assertEquals(List.of(TxValidationCode.VALID, TxValidationCode.PHANTOM_READ_CONFLICT, TxValidationCode.VALID),
+                ledger.commitBlock(List.of(submit("R2"), scan, unrelated)));
+    }
+
+    @Test
+    void failedEndorsementsCarryTheContractError() {
+        SimulatedLedger.Endorsement failed = endorse(ctx -> contract.assignInvestigator(ctx, "missing", "inv1"));
+        assertFalse(failed.isSuccessful());
+        assertNull(failed.getResult());
+        assertTrue(ledger.snapshot().isEmpty());
+    }
+
+    @Test
+    void loadGeneratorRunsEveryLifecycleToClosed() throws Exception {
+        BlockCutter cutter = new BlockCutter(ledger,
+                BlockCutter.BatchConfig.defaults().withBatchTimeout(Duration.ofMillis(5)));
+        LoadGenerator generator = new LoadGenerator(ledger, cutter, 0);
+        generator.run(4, 12, 0);
+        cutter.close();
+
+        int closed = 0;
+        for (Map.Entry<String, byte[]> entry : ledger.snapshot().entrySet()) {
+            if (entry.getKey().startsWith("R")) {
+                assertEquals(ReportStatus.CLOSED, ReportCodec.decode(entry.getValue()).getStatus(), entry.getKey());
+                closed++;
+            }
+        }
+        assertEquals(12, closed);
+        assertEquals(48, cutter.getTransactionsOrdered());
+    }
+}
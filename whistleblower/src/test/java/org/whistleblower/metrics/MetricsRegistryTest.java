@@ -0,0 +1,108 @@
+package org.whistleblower.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MetricsRegistryTest {
+
+    private final MetricsRegistry registry = new MetricsRegistry("wb");
+
+    @Test
+    void histogramsAreCumulativeAndOverflowToInf() {
+        registry.recordNanos("client_evaluate", "getReport", 200_000);
+        registry.recordNanos("client_evaluate", "getReport", 3_000_000);
+        registry.recordBytes("client_response", "getAllReports", 20_000_000);
+        String scrape = registry.scrape();
+
+        assertTrue(scrape.contains("# TYPE wb_client_evaluate_seconds histogram\n"));
+        assertTrue(scrape.contains("wb_client_evaluate_seconds_bucket{transaction=\"getReport\",le=\"0.0001\"} 0\n"));
+        assertTrue(scrape.contains("wb_client_evaluate_seconds_bucket{transaction=\"getReport\",le=\"0.00025\"} 1\n"));
+        assertTrue(scrape.contains("wb_client_evaluate_seconds_bucket{transaction=\"getReport\",le=\"0.005\"} 2\n"));
+        assertTrue(scrape.contains("wb_client_evaluate_seconds_bucket{transaction=\"getReport\",le=\"+Inf\"} 2\n"));
+        assertTrue(scrape.contains("wb_client_evaluate_seconds_sum{transaction=\"getReport\"} 0.0032\n"));
+        assertTrue(scrape.contains("wb_client_evaluate_seconds_count{transaction=\"getReport\"} 2\n"));
+
+        assertTrue(scrape.contains(
+                "wb_client_response_bytes_bucket{transaction=\"getAllReports\",le=\"16777216\"} 0\n"));
+        assertTrue(scrape.contains("wb_client_response_bytes_bucket{transaction=\"getAllReports\",le=\"+Inf\"} 1\n"));
+        assertTrue(registry.summary().contains("client_response getAllReports count=1 mean=20000000.00B"
+                + " p50<=+Inf p99<=+Inf"));
+        assertTrue(registry.summary().contains("client_evaluate getReport count=2 mean=1.60ms p50<=0.25ms p99<=5ms"));
+    }
+
+    @Test
+    void countersAreKeptPerTransactionAndOutcome() {
+        registry.count("contract_errors", null, "REPORT_NOT_FOUND");
+        registry.count("contract_errors", null, "REPORT_NOT_FOUND");
+        registry.count("client_submits", "submitReport", "ok");
+        registry.count("client_submits", "submitReport", "MVCC_READ_CONFLICT");
+        registry.count("client_submits", "say \"hi\"\\\n", "ok");
+
+        assertEquals(2, registry.getCount("contract_errors", null, "REPORT_NOT_FOUND"));
+        assertEquals(1, registry.getCount("client_submits", "submitReport", "ok"));
+        assertEquals(0, registry.getCount("client_submits", "assignInvestigator", "ok"));
+        assertEquals(0, registry.getCount("client_evaluates", "getReport", "ok"));
+
+        String scrape = registry.scrape();
+        assertTrue(scrape.contains("wb_contract_errors_total{outcome=\"REPORT_NOT_FOUND\"} 2\n"));
+        assertTrue(scrape.contains(
+                "wb_client_submits_total{transaction=\"submitReport\",outcome=\"MVCC_READ_CONFLICT\"} 1\n"));
+        assertTrue(scrape.contains(
+                "wb_client_submits_total{transaction=\"say \\\"hi\\\"\\\\\\n\",outcome=\"ok\"} 1\n"));
+        assertTrue(registry.summary().contains("client_submits submitReport MVCC_READ_CONFLICT=1 ok=1\n"));
+        assertTrue(registry.summary().contains("contract_errors REPORT_NOT_FOUND=2\n"));
+    }
+
+    @Test
+    void noopRecorderIsDisabled() {
+        assertFalse(MetricsRecorder.NOOP.isEnabled());
+        MetricsRecorder.NOOP.count("client_submits", "submitReport", "ok");
+        assertTrue(registry.isEnabled());
+        assertEquals("", registry.scrape());
+        assertEquals("", registry.summary());
+    }
+
+    @Test
+    void endpointServesTheScrapeToGetsOnly() throws Exception {
+        registry.count("contract_errors", null, "INVALID_STATUS");
+        HttpClient http = HttpClient.newHttpClient();
+        try (PrometheusEndpoint endpoint = new PrometheusEndpoint(registry, 0)) {
+            URI uri = URI.create("http://127.0.0.1:" + endpoint.getPort() + "/metrics");
+
+            HttpResponse<String> scrape = http.send(HttpRequest.newBuilder(uri).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            assertEquals(200, scrape.statusCode());
+            assertEquals(registry.scrape(), scrape.body());
+            assertTrue(scrape.headers().firstValue("Content-Type").orElse("").startsWith("text/plain; version=0.0.4"));
+
+            HttpResponse<String> post = http.send(HttpRequest.newBuilder(uri)
+                    .POST(HttpRequest.BodyPublishers.noBody()).build(), HttpResponse.BodyHandlers.ofString());
+            assertEquals(405, post.statusCode());
+        }
+    }
+
+    @Test
+    void logReporterWritesTheLastSummaryOnClose() {
+        List<String> lines = new ArrayList<>();
+        new MetricsLogReporter(registry, Duration.ofHours(1), lines::add).close();
+        assertEquals(List.of(), lines);
+
+        registry.count("client_cache", "getReport", "hit");
+        new MetricsLogReporter(registry, Duration.ofHours(1), lines::add).close();
+        assertEquals(List.of("client_cache getReport hit=1\n"), lines);
+        assertThrows(IllegalArgumentException.class,
+                () -> new MetricsLogReporter(registry, Duration.ZERO, lines::add));
+    }
+}
@@ -0,0 +1,148 @@
+package org.whistleblower.service;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.whistleblower.ReportText;
+import org.whistleblower.WhistleblowerContract;
+import org.whistleblower.emulator.BlockCutter;
+import org.whistleblower.emulator.SimulatedLedger;
+import org.whistleblower.emulator.SimulatedReportOperations;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class WhistleblowerHttpServiceTest {
+
+    private final String officer = ServiceCredentials.newToken();
+    private final String manager = ServiceCredentials.newToken();
+    private final String investigator = ServiceCredentials.newToken();
+    private final HttpClient http = HttpClient.newHttpClient();
+
+    @TempDir
+    Path directory;
+
+    private BlockCutter cutter;
+    private WhistleblowerHttpService service;
+
+    @BeforeEach
+    void start() throws IOException {
+        WhistleblowerContract contract = new WhistleblowerContract();
+        SimulatedLedger ledger = new SimulatedLedger();
+        cutter = new BlockCutter(ledger, BlockCutter.BatchConfig.defaults().withBatchTimeout(Duration.ofMillis(5)));
+        ServiceCredentials credentials = new ServiceCredentials()
+                .add(officer, ServiceCredentials.DOE, "officer")
+                .add(manager, ServiceCredentials.DOGE, "manager")
+                .add(investigator, ServiceCredentials.DOGE, "inv1");
+        service = new WhistleblowerHttpService(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0),
+                credentials,
+                new SimulatedReportOperations(contract, ledger, cutter, "DoEMSP", Duration.ZERO),
+                new SimulatedReportOperations(contract, ledger, cutter, "DoGEMSP", Duration.ZERO));
+    }
+
+    @AfterEach
+    void stop() {
+        service.close();
+        cutter.close();
+    }
+
+    private HttpResponse<String> send(final String token, final String path, final String body) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(
+                URI.create("http://localhost:" + service.getPort() + path));
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        if (body != null) {
+            request.header("Content-Type", "application/json").POST(HttpRequest.BodyPublishers.ofString(body));
+        }
+        return http.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static JsonObject json(final HttpResponse<String> response) {
+        return JsonParser.parseString(response.body()).getAsJsonObject();
+    }
+
+    private void submit(final String id) throws Exception {
+        assertEquals(201, send(officer, "/reports", "{\"id\":\"" + id + "\",\"description\":\"Expense fraud\","
+                + "\"department\":\"Finance\",\"submittedBy\":\"alice\"}").statusCode());
+    }
+
+    @Test
+    void refusesRequestsWithoutAKnownToken() throws Exception {
+        submit("R1");
+        for (String token : new String[] {null, "", "not-a-token"}) {
+            HttpResponse<String> detail = send(token, "/reports/R1/detail", null);
+            assertEquals(401, detail.statusCode());
+            assertEquals("UNAUTHORIZED", json(detail).get("error").getAsString());
+            assertEquals("Bearer", detail.headers().firstValue("WWW-Authenticate").orElse(""));
+            assertEquals(401, send(token, "/reports/R1/assignment", "{\"investigatorId\":\"inv1\"}").statusCode());
+        }
+
+        JsonObject detail = json(send(officer, "/reports/R1/detail", null));
+        assertEquals("alice", detail.get("submittedBy").getAsString());
+    }
+
+    @Test
+    void organizationComesFromTheTokenNotThePath() throws Exception {
+        submit("R1");
+        assertEquals(404, send(manager, "/doe/reports/R1/review", "{\"decision\":\"Approved\"}").statusCode());
+        assertEquals(403, send(manager, "/reports/R1/review", "{\"decision\":\"Approved\"}").statusCode());
+        assertEquals(403, send(manager, "/statistics", null).statusCode());
+        assertEquals(403, send(officer, "/reports/R1/assignment", "{\"investigatorId\":\"inv1\"}").statusCode());
+        assertEquals(200, send(manager, "/reports/R1", null).statusCode());
+    }
+
+    @Test
+    void findingsAreSubmittedAsTheCallingInvestigator() throws Exception {
+        submit("R1");
+        assertEquals(200, send(manager, "/reports/R1/assignment", "{\"investigatorId\":\"inv1\"}").statusCode());
+
+        HttpResponse<String> notAssigned = send(manager, "/reports/R1/findings",
+                "{\"investigatorId\":\"inv1\",\"findings\":\"Nothing found\"}");
+        assertEquals(409, notAssigned.statusCode());
+        assertEquals("NOT_ASSIGNED_INVESTIGATOR", json(notAssigned).get("error").getAsString());
+
+        assertEquals(200, send(investigator, "/reports/R1/findings", "{\"findings\":\"Confirmed\"}").statusCode());
+        assertEquals(200, send(officer, "/reports/R1/review", "{\"decision\":\"Approved\"}").statusCode());
+        assertEquals("CLOSED", json(send(officer, "/reports/R1", null)).get("status").getAsString());
+    }
+
+    @Test
+    void credentialsFileHoldsTokenDigests() throws Exception {
+        String token = ServiceCredentials.newToken();
+        String digest = ReportText.digest(token.getBytes(StandardCharsets.UTF_8));
+        Path file = directory.resolve("credentials.properties");
+        Files.writeString(file, "# officers\n" + digest + "=doe:officer\n");
+
+        ServiceCredentials credentials = ServiceCredentials.load(file);
+        ServiceCredentials.Caller caller = credentials.authenticate("Bearer " + token);
+        assertEquals("doe", caller.getOrganization());
+        assertEquals("officer", caller.getUser());
+        assertNull(credentials.authenticate("Bearer " + digest));
+        assertNull(credentials.authenticate("Basic " + token));
+
+        Files.writeString(file, digest + "=treasury:officer\n");
+        assertThrows(IOException.class, () -> ServiceCredentials.load(file));
+        Files.writeString(file, token + "=doe:officer\n");
+        assertThrows(IOException.class, () -> ServiceCredentials.load(file));
+        assertThrows(IllegalArgumentException.class, () -> new WhistleblowerHttpService(
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), new ServiceCredentials(), null, null));
+    }
+}